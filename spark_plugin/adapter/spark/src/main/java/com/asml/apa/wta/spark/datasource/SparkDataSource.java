@@ -7,7 +7,9 @@ import com.asml.apa.wta.spark.listener.ApplicationLevelListener;
 import com.asml.apa.wta.spark.listener.JobLevelListener;
 import com.asml.apa.wta.spark.listener.StageLevelListener;
 import com.asml.apa.wta.spark.listener.TaskLevelListener;
+import com.asml.apa.wta.spark.stream.IncrementalTraceExporter;
 import com.asml.apa.wta.spark.stream.MetricStreamingEngine;
+import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import lombok.Getter;
@@ -36,6 +38,8 @@ public class SparkDataSource {
 
   private final RuntimeConfig runtimeConfig;
 
+  private final IncrementalTraceExporter incrementalTraceExporter;
+
   /**
    * Awaits the thread pool.
    *
@@ -70,7 +74,9 @@ public class SparkDataSource {
       MetricStreamingEngine metricStreamingEngine,
       WtaWriter wtaWriter) {
     log.trace("Initialising Spark Data Source");
-    taskLevelListener = new TaskLevelListener(sparkContext, config);
+    taskLevelListener = new TaskLevelListener(sparkContext, config, metricStreamingEngine.getResourceIds());
+    taskLevelListener.setSampleIndex(metricStreamingEngine.getSampleIndex());
+    taskLevelListener.setIngestBarrier(metricStreamingEngine::awaitIngest);
     stageLevelListener = new StageLevelListener(sparkContext, config);
     if (config.isStageLevel()) {
       log.trace("Stage level listener is enabled.");
@@ -92,6 +98,31 @@ public class SparkDataSource {
     }
 
     runtimeConfig = config;
+    incrementalTraceExporter = createIncrementalTraceExporter(config, metricStreamingEngine, wtaWriter);
+    jobLevelListener.setIncrementalTraceExporter(incrementalTraceExporter);
+  }
+
+  /**
+   * Creates the {@link IncrementalTraceExporter} when incremental export is enabled.
+   *
+   * @param config                    additional config specified by the user for the plugin
+   * @param metricStreamingEngine     driver's {@link MetricStreamingEngine} to drain resource states from
+   * @param wtaWriter                 {@link WtaWriter} to write to
+   * @return                          the exporter, or {@code null} when incremental export is disabled or failed
+   * @since 1.0.0
+   */
+  private IncrementalTraceExporter createIncrementalTraceExporter(
+      RuntimeConfig config, MetricStreamingEngine metricStreamingEngine, WtaWriter wtaWriter) {
+    if (!config.isIncrementalExport()) {
+      return null;
+    }
+    log.trace("Incremental export is enabled.");
+    try {
+      return new IncrementalTraceExporter(wtaWriter, metricStreamingEngine, config.getExportSegmentSize());
+    } catch (IOException e) {
+      log.error("Could not set up incremental export, the trace will be written when the application ends.");
+      return null;
+    }
   }
 
   /**
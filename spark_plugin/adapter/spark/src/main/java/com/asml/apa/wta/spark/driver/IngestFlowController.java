@@ -0,0 +1,196 @@
+package com.asml.apa.wta.spark.driver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Credit based flow control for the messages that the executors send to the driver. Executors ask for credits
+ * before they send, and spend one credit per message. The driver only grants credits as long as the messages
+ * it has granted credits for, together with the messages it is still ingesting, stay within its capacity.
+ * Executors without credits keep buffering their metrics until they are granted new credits.
+ * It also keeps the metrics of the ingestion of messages, and lets threads wait until no messages are pending.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class IngestFlowController {
+
+  private final int capacity;
+
+  private final long created = System.nanoTime();
+
+  private final Map<String, Integer> outstandingCredits = new ConcurrentHashMap<>();
+
+  private final AtomicLong outstanding = new AtomicLong();
+
+  private final Lock idleLock = new ReentrantLock();
+
+  private final Condition idle = idleLock.newCondition();
+
+  @Getter
+  private final AtomicLong pending = new AtomicLong();
+
+  @Getter
+  private final AtomicLong peakPending = new AtomicLong();
+
+  @Getter
+  private final LongAdder receivedMessages = new LongAdder();
+
+  @Getter
+  private final LongAdder ingestedRecords = new LongAdder();
+
+  @Getter
+  private final LongAdder ingestNanos = new LongAdder();
+
+  @Getter
+  private final LongAdder grantedCredits = new LongAdder();
+
+  @Getter
+  private final LongAdder deniedRequests = new LongAdder();
+
+  @Getter
+  private final LongAdder droppedMessages = new LongAdder();
+
+  /**
+   * Constructs a flow controller.
+   *
+   * @param capacity      maximum number of messages that are granted credits or being ingested at once, flow
+   *                      is not limited when this is not positive
+   * @since 1.0.0
+   */
+  public IngestFlowController(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Grants credits to an executor. Executors only ask for credits once they spent all of their credits, so
+   * the credits they did not spend are assumed to be lost, and are returned to the budget.
+   *
+   * @param executorId      id of the executor that asks for credits
+   * @param requested       number of credits the executor asks for
+   * @return                number of credits granted, zero if the driver is at capacity
+   * @since 1.0.0
+   */
+  public synchronized int grant(String executorId, int requested) {
+    Integer lost = outstandingCredits.remove(executorId);
+    if (lost != null) {
+      outstanding.addAndGet(-lost);
+    }
+    long available = capacity > 0 ? capacity - outstanding.get() - pending.get() : requested;
+    int granted = (int) Math.max(0L, Math.min(requested, available));
+    if (granted == 0) {
+      deniedRequests.increment();
+      return 0;
+    }
+    outstanding.addAndGet(granted);
+    outstandingCredits.put(executorId, granted);
+    grantedCredits.add(granted);
+    return granted;
+  }
+
+  /**
+   * Registers that a message of an executor is being ingested, spending one of its credits.
+   *
+   * @param executorId      id of the executor that sent the message, {@code null} if unknown
+   * @return                the time at which the ingestion started, to pass to {@link #end(long, int)}
+   * @since 1.0.0
+   */
+  public long begin(String executorId) {
+    if (executorId != null) {
+      outstandingCredits.computeIfPresent(executorId, (id, credits) -> {
+        outstanding.decrementAndGet();
+        return credits > 1 ? credits - 1 : null;
+      });
+    }
+    receivedMessages.increment();
+    peakPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+    return System.nanoTime();
+  }
+
+  /**
+   * Registers that a message has been ingested. Threads waiting in {@link #awaitIdle(long)} are signalled when
+   * this was the last pending message.
+   *
+   * @param start         the time at which the ingestion started
+   * @param records       number of records in the message
+   * @since 1.0.0
+   */
+  public void end(long start, int records) {
+    ingestNanos.add(System.nanoTime() - start);
+    ingestedRecords.add(records);
+    if (pending.decrementAndGet() == 0) {
+      idleLock.lock();
+      try {
+        idle.signalAll();
+      } finally {
+        idleLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Registers that a message was dropped instead of ingested.
+   *
+   * @param start         the time at which the ingestion started
+   * @since 1.0.0
+   */
+  public void drop(long start) {
+    droppedMessages.increment();
+    end(start, 0);
+  }
+
+  /**
+   * Waits until no messages are pending.
+   *
+   * @param timeout       maximum time to wait, in milliseconds
+   * @return              whether no messages were pending in time
+   * @throws InterruptedException when interrupted while waiting
+   * @since 1.0.0
+   */
+  public boolean awaitIdle(long timeout) throws InterruptedException {
+    long left = TimeUnit.MILLISECONDS.toNanos(timeout);
+    idleLock.lock();
+    try {
+      while (pending.get() > 0) {
+        if (left <= 0) {
+          return false;
+        }
+        left = idle.awaitNanos(left);
+      }
+      return true;
+    } finally {
+      idleLock.unlock();
+    }
+  }
+
+  /**
+   * Logs the ingestion metrics. The latency of a message is the time from its receipt until it is ingested,
+   * and the throughput is taken over the lifetime of the flow controller.
+   *
+   * @since 1.0.0
+   */
+  public void logMetrics() {
+    long messages = Math.max(1L, receivedMessages.sum());
+    long seconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - created));
+    log.info(
+        "Ingested {} records from {} messages, at {} records per second with a mean latency of {} us, with at "
+            + "most {} messages in flight. Granted {} credits and denied {} credit requests, dropped {} messages.",
+        ingestedRecords.sum(),
+        receivedMessages.sum(),
+        ingestedRecords.sum() / seconds,
+        TimeUnit.NANOSECONDS.toMicros(ingestNanos.sum() / messages),
+        peakPending.get(),
+        grantedCredits.sum(),
+        deniedRequests.sum(),
+        droppedMessages.sum());
+  }
+}
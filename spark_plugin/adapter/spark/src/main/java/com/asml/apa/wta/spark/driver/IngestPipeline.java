@@ -0,0 +1,186 @@
+package com.asml.apa.wta.spark.driver;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ingests the messages of the executors on dedicated worker threads, so that the RPC threads of the driver
+ * only have to enqueue them. Messages are sharded over the workers by the id of the executor that sent them,
+ * so the messages of an executor are ingested in order. Workers take all messages that are queued at once,
+ * and ingest the messages of every executor among them as a single batch. When the queue of a shard stays
+ * full for too long, the message is dropped rather than blocking the RPC thread, and counted by the
+ * {@link IngestFlowController}.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class IngestPipeline implements AutoCloseable {
+
+  private static final int QUEUE_CAPACITY = 1024;
+
+  private static final int MAX_BATCH_SIZE = 64;
+
+  private static final long SUBMIT_TIMEOUT = 100L;
+
+  private final ToIntFunction<List<Object>> ingester;
+
+  private final IngestFlowController flowController;
+
+  private final List<BlockingQueue<Envelope>> queues = new ArrayList<>();
+
+  private final List<Thread> workers = new ArrayList<>();
+
+  /**
+   * Constructs a pipeline and starts its workers.
+   *
+   * @param shards              number of worker threads, at least one
+   * @param ingester            ingests the messages of a single executor, in order, and returns the number of
+   *                            records they held
+   * @param flowController      {@link IngestFlowController} to register the ingestion of messages with
+   * @since 1.0.0
+   */
+  public IngestPipeline(int shards, ToIntFunction<List<Object>> ingester, IngestFlowController flowController) {
+    this.ingester = ingester;
+    this.flowController = flowController;
+    for (int shard = 0; shard < Math.max(1, shards); shard++) {
+      BlockingQueue<Envelope> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+      Thread worker = new Thread(() -> work(queue), "wta-ingest-" + shard);
+      worker.setDaemon(true);
+      worker.start();
+      queues.add(queue);
+      workers.add(worker);
+    }
+  }
+
+  /**
+   * Hands a message off to the worker of its executor. When the queue of the worker has no room within
+   * {@link #SUBMIT_TIMEOUT} milliseconds, the message is dropped.
+   *
+   * @param executorId      id of the executor that sent the message, {@code null} if unknown
+   * @param message         message to ingest
+   * @return                whether the message was handed off
+   * @since 1.0.0
+   */
+  public boolean submit(String executorId, Object message) {
+    long start = flowController.begin(executorId);
+    int shard = executorId == null ? 0 : Math.floorMod(executorId.hashCode(), queues.size());
+    try {
+      if (queues.get(shard)
+          .offer(new Envelope(executorId, message, start), SUBMIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+      log.error("The ingest queue is full, dropped a message of executor {}.", executorId);
+    } catch (InterruptedException e) {
+      log.error("Interrupted while handing off a message of executor {}.", executorId);
+      Thread.currentThread().interrupt();
+    }
+    flowController.drop(start);
+    return false;
+  }
+
+  /**
+   * Waits until all messages that were handed off are ingested.
+   *
+   * @param timeout       maximum time to wait, in milliseconds
+   * @return              whether all messages were ingested in time
+   * @since 1.0.0
+   */
+  public boolean flush(long timeout) {
+    try {
+      if (flowController.awaitIdle(timeout)) {
+        return true;
+      }
+      log.error(
+          "Timed out with {} messages left to ingest.",
+          flowController.getPending().get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /**
+   * Stops the workers. Messages that are still queued are not ingested.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public void close() {
+    workers.forEach(Thread::interrupt);
+  }
+
+  /**
+   * Takes batches of messages from a queue and ingests them, until the worker is interrupted. The messages of
+   * a batch are grouped by executor, and the messages of every executor are ingested at once.
+   *
+   * @param queue         queue of the shard of the worker
+   * @since 1.0.0
+   */
+  private void work(BlockingQueue<Envelope> queue) {
+    List<Envelope> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    Map<String, List<Envelope>> executors = new LinkedHashMap<>();
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        return;
+      }
+      queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+      for (Envelope envelope : batch) {
+        executors
+            .computeIfAbsent(envelope.executorId, id -> new ArrayList<>())
+            .add(envelope);
+      }
+      executors.values().forEach(this::ingest);
+      executors.clear();
+      batch.clear();
+    }
+  }
+
+  /**
+   * Ingests the messages of a single executor as one batch. The ingester rejects malformed messages on their
+   * own, so a failing batch is not retried, as that could add the messages that were ingested before twice.
+   *
+   * @param envelopes     queued messages of the executor, in order
+   * @since 1.0.0
+   */
+  private void ingest(List<Envelope> envelopes) {
+    List<Object> messages = new ArrayList<>(envelopes.size());
+    envelopes.forEach(envelope -> messages.add(envelope.message));
+    int records = 0;
+    try {
+      records = ingester.applyAsInt(messages);
+    } catch (RuntimeException e) {
+      log.error("Failed to ingest {} messages.", messages.size(), e);
+    } finally {
+      for (int index = 0; index < envelopes.size(); index++) {
+        flowController.end(envelopes.get(index).start, index == envelopes.size() - 1 ? records : 0);
+      }
+    }
+  }
+
+  /**
+   * A queued message, together with the executor that sent it and the time at which it was received.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  @AllArgsConstructor
+  private static class Envelope {
+
+    private final String executorId;
+
+    private final Object message;
+
+    private final long start;
+  }
+}
@@ -3,13 +3,28 @@ package com.asml.apa.wta.spark.driver;
 import com.asml.apa.wta.core.WtaWriter;
 import com.asml.apa.wta.core.config.RuntimeConfig;
 import com.asml.apa.wta.core.io.DiskOutputFile;
+import com.asml.apa.wta.core.io.MetricBatchReader;
 import com.asml.apa.wta.core.io.OutputFile;
+import com.asml.apa.wta.core.io.ParquetWriterConfig;
+import com.asml.apa.wta.core.model.ResourceState;
 import com.asml.apa.wta.spark.datasource.SparkDataSource;
+import com.asml.apa.wta.spark.dto.CreditRequestDto;
+import com.asml.apa.wta.spark.dto.ResourceBatchDto;
 import com.asml.apa.wta.spark.dto.ResourceCollectionDto;
+import com.asml.apa.wta.spark.dto.ResourceStateBatchDto;
+import com.asml.apa.wta.spark.dto.SparkBaseSupplierWrapperDto;
 import com.asml.apa.wta.spark.stream.MetricStreamingEngine;
+import com.asml.apa.wta.spark.stream.ResourceSampleIndex;
+import com.asml.apa.wta.spark.stream.ResourceStateRetention;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.SparkContext;
@@ -29,16 +44,29 @@ import org.apache.spark.api.plugin.PluginContext;
 @Slf4j
 public class WtaDriverPlugin implements DriverPlugin {
 
+  /**
+   * Prefix of the keys under which the supplier cadences are passed to the executors.
+   */
+  public static final String SUPPLIER_CADENCE_PREFIX = "supplierCadence.";
+
   private static final String TOOL_VERSION = "spark-wta-generator-1_0";
 
   private static final String CURRENT_TIME = String.valueOf(System.currentTimeMillis());
 
+  private static final long INGEST_FLUSH_TIMEOUT = 10000L;
+
   private MetricStreamingEngine metricStreamingEngine;
 
   private SparkDataSource sparkDataSource;
 
+  private IngestFlowController ingestFlowController;
+
+  private IngestPipeline ingestPipeline;
+
   private boolean error = false;
 
+  private final Map<String, MetricBatchReader<SparkBaseSupplierWrapperDto>> batchReaders = new ConcurrentHashMap<>();
+
   /**
    * This method is called early in the initialization of the Spark driver.
    * Explicitly, it is called before the Spark driver's task scheduler is initialized. It is blocking.
@@ -60,15 +88,38 @@ public class WtaDriverPlugin implements DriverPlugin {
           .split("-DconfigFile=")[1]
           .split(" ")[0];
       RuntimeConfig runtimeConfig = RuntimeConfig.readConfig(configFile);
-      metricStreamingEngine = new MetricStreamingEngine();
+      metricStreamingEngine = new MetricStreamingEngine(
+          ResourceStateRetention.fromRuntimeConfig(runtimeConfig),
+          runtimeConfig.isTaskResourceCorrelation() ? new ResourceSampleIndex() : null);
+      ingestFlowController = new IngestFlowController(runtimeConfig.getDriverIngestCapacity());
+      if (runtimeConfig.getDriverIngestThreads() > 0) {
+        ingestPipeline =
+            new IngestPipeline(runtimeConfig.getDriverIngestThreads(), this::ingest, ingestFlowController);
+        metricStreamingEngine.setIngestBarrier(() -> ingestPipeline.flush(INGEST_FLUSH_TIMEOUT));
+      }
       OutputFile outputFile = new DiskOutputFile(Path.of(runtimeConfig.getOutputPath()));
-      WtaWriter wtaWriter = new WtaWriter(outputFile, "schema-1.0", CURRENT_TIME, TOOL_VERSION);
+      WtaWriter wtaWriter = new WtaWriter(
+          outputFile,
+          "schema-1.0",
+          CURRENT_TIME,
+          TOOL_VERSION,
+          ParquetWriterConfig.fromRuntimeConfig(runtimeConfig));
       sparkDataSource = new SparkDataSource(sparkCtx, runtimeConfig, metricStreamingEngine, wtaWriter);
       initListeners();
       executorVars.put("resourcePingInterval", String.valueOf(runtimeConfig.getResourcePingInterval()));
+      executorVars.put("maxResourcePingInterval", String.valueOf(runtimeConfig.getMaxResourcePingInterval()));
       executorVars.put(
           "executorSynchronizationInterval",
           String.valueOf(runtimeConfig.getExecutorSynchronizationInterval()));
+      executorVars.put("persistentCollectors", String.valueOf(runtimeConfig.isPersistentCollectors()));
+      executorVars.put(
+          "executorResourceStateWindow", String.valueOf(runtimeConfig.getExecutorResourceStateWindow()));
+      executorVars.put("driverIngestCapacity", String.valueOf(runtimeConfig.getDriverIngestCapacity()));
+      executorVars.put("supplierChangeThreshold", String.valueOf(runtimeConfig.getSupplierChangeThreshold()));
+      runtimeConfig
+          .getSupplierCadences()
+          .forEach((supplier, cadence) ->
+              executorVars.put(SUPPLIER_CADENCE_PREFIX + supplier, String.valueOf(cadence)));
       executorVars.put("errorStatus", "false");
     } catch (Exception e) {
       log.error("Error initialising WTA driver plugin, {} : {}.", e.getClass(), e.getMessage());
@@ -79,7 +130,9 @@ public class WtaDriverPlugin implements DriverPlugin {
   }
 
   /**
-   * Receives messages from the executors.
+   * Receives messages from the executors. Credit requests are answered by the {@link IngestFlowController},
+   * with the number of credits that are granted. Other messages are ingested, or handed off to the
+   * {@link IngestPipeline} if the driver ingests asynchronously.
    *
    * @param message       message that was sent by the executors, to be serializable
    * @return              response to the executor, if no response is expected the result is ignored
@@ -88,17 +141,147 @@ public class WtaDriverPlugin implements DriverPlugin {
   @Override
   public Object receive(Object message) {
     log.trace("The driver received a message from an executor.");
+    if (message instanceof CreditRequestDto) {
+      CreditRequestDto request = (CreditRequestDto) message;
+      return ingestFlowController.grant(request.getExecutorId(), request.getCredits());
+    }
+    if (ingestPipeline != null) {
+      ingestPipeline.submit(executorIdOf(message), message);
+      return null;
+    }
+    long start = ingestFlowController.begin(executorIdOf(message));
+    int records = 0;
+    try {
+      records = ingest(Collections.singletonList(message));
+    } finally {
+      ingestFlowController.end(start, records);
+    }
+    return null;
+  }
+
+  /**
+   * Ingests messages of an executor, in order. Every message is validated and decoded before anything is added
+   * to the streams, and malformed messages are rejected on their own. Batches are decoded by a
+   * {@link MetricBatchReader} per executor. Resource states that were derived by the executors are added as
+   * they are. The records and resource states of all valid messages are then added to the streams at once, per
+   * executor. Messages are never decoded twice, as that would advance the state of the batch readers.
+   *
+   * @param messages      messages that were sent by the executors
+   * @return              number of records that were ingested
+   * @since 1.0.0
+   */
+  private int ingest(List<Object> messages) {
+    Map<String, List<SparkBaseSupplierWrapperDto>> records = new LinkedHashMap<>();
+    Map<String, ResourceStateBatchDto> states = new LinkedHashMap<>();
+    int ingested = 0;
+    for (Object message : messages) {
+      if (message instanceof ResourceStateBatchDto) {
+        ResourceStateBatchDto batch = (ResourceStateBatchDto) message;
+        if (!isValid(batch)) {
+          log.error("Rejected a malformed resource state batch from executor {}.", batch.getExecutorId());
+          continue;
+        }
+        states.merge(batch.getExecutorId(), batch, WtaDriverPlugin::concat);
+        ingested += batch.getStates().size();
+      } else {
+        for (SparkBaseSupplierWrapperDto record : decode(message)) {
+          records.computeIfAbsent(record.getExecutorId(), id -> new ArrayList<>())
+              .add(record);
+          ingested++;
+        }
+      }
+    }
+    records.forEach(metricStreamingEngine::addToResourceStream);
+    states.forEach((executorId, batch) ->
+        metricStreamingEngine.addToResourceStateStream(executorId, batch.getResource(), batch.getStates()));
+    return ingested;
+  }
+
+  /**
+   * Decodes the pings in a message of an executor. Messages that cannot be decoded, or that hold pings without
+   * an executor, are rejected as a whole.
+   *
+   * @param message       message that was sent by the executors
+   * @return              the pings in the message, empty if it holds none or was rejected
+   * @since 1.0.0
+   */
+  private List<SparkBaseSupplierWrapperDto> decode(Object message) {
+    List<SparkBaseSupplierWrapperDto> records = List.of();
     if (message instanceof ResourceCollectionDto) {
-      ((ResourceCollectionDto) message)
-          .getResourceCollection()
-          .forEach(r -> metricStreamingEngine.addToResourceStream(r.getExecutorId(), r));
+      records = ((ResourceCollectionDto) message).getResourceCollection();
+    } else if (message instanceof ResourceBatchDto) {
+      ResourceBatchDto batch = (ResourceBatchDto) message;
+      if (batch.getExecutorId() == null || batch.getBatch() == null) {
+        log.error("Rejected a resource batch without an executor or contents.");
+        return List.of();
+      }
+      try {
+        records = batchReaders
+            .computeIfAbsent(
+                batch.getExecutorId(), id -> new MetricBatchReader<>(SparkBaseSupplierWrapperDto.class))
+            .read(batch.getBatch());
+      } catch (RuntimeException e) {
+        log.error("Could not decode a resource batch from executor {}.", batch.getExecutorId(), e);
+        return List.of();
+      }
+    }
+    if (records == null || records.stream().anyMatch(record -> record == null || record.getExecutorId() == null)) {
+      log.error("Rejected a message of resource metrics that are not tied to an executor.");
+      return List.of();
+    }
+    return records;
+  }
+
+  /**
+   * Checks whether a resource state batch can be added to the streams.
+   *
+   * @param batch         resource state batch that was sent by an executor
+   * @return              {@code true} if the batch has an executor and all of its states are set
+   * @since 1.0.0
+   */
+  private static boolean isValid(ResourceStateBatchDto batch) {
+    return batch.getExecutorId() != null
+        && batch.getStates() != null
+        && batch.getStates().stream().allMatch(Objects::nonNull);
+  }
+
+  /**
+   * Concatenates two resource state batches of an executor. The resource is sent whenever it changed, so the
+   * latest resource that was sent is kept.
+   *
+   * @param first         earlier batch
+   * @param second        later batch
+   * @return              batch with the states of both batches, in order
+   * @since 1.0.0
+   */
+  private static ResourceStateBatchDto concat(ResourceStateBatchDto first, ResourceStateBatchDto second) {
+    List<ResourceState> states = new ArrayList<>(first.getStates());
+    states.addAll(second.getStates());
+    return new ResourceStateBatchDto(
+        first.getExecutorId(),
+        second.getResource() == null ? first.getResource() : second.getResource(),
+        states);
+  }
+
+  /**
+   * Gets the id of the executor that sent a message.
+   *
+   * @param message       message that was sent by the executors
+   * @return              id of the executor, or {@code null} if the message does not hold it
+   * @since 1.0.0
+   */
+  private static String executorIdOf(Object message) {
+    if (message instanceof ResourceBatchDto) {
+      return ((ResourceBatchDto) message).getExecutorId();
+    } else if (message instanceof ResourceStateBatchDto) {
+      return ((ResourceStateBatchDto) message).getExecutorId();
     }
     return null;
   }
 
   /**
    * Gets called just before shutdown. If an error occurred, it is logged before shutdown
-   * Recommended that no Spark functions are used here
+   * Recommended that no Spark functions are used here. Messages that are still queued are ingested first.
    *
    * @since 1.0.0
    */
@@ -107,6 +290,11 @@ public class WtaDriverPlugin implements DriverPlugin {
     if (error) {
       log.error("Plugin shutting down without generating files.");
     } else {
+      if (ingestPipeline != null) {
+        ingestPipeline.flush(INGEST_FLUSH_TIMEOUT);
+        ingestPipeline.close();
+      }
+      ingestFlowController.logMetrics();
       log.info("Plugin shutting down successfully.");
     }
   }
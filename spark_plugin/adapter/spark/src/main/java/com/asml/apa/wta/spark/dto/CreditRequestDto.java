@@ -0,0 +1,24 @@
+package com.asml.apa.wta.spark.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A value class that represents the request of an executor for credits to send messages to the driver.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditRequestDto implements Serializable {
+
+  private static final long serialVersionUID = -2215480946326571208L;
+
+  private String executorId;
+
+  private int credits;
+}
@@ -0,0 +1,26 @@
+package com.asml.apa.wta.spark.dto;
+
+import com.asml.apa.wta.core.io.MetricBatchWriter;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A value class that represents a batch of ping information coming in from the executor, encoded by a
+ * {@link MetricBatchWriter}.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceBatchDto implements Serializable {
+
+  private static final long serialVersionUID = -3017254581866049527L;
+
+  private String executorId;
+
+  private byte[] batch;
+}
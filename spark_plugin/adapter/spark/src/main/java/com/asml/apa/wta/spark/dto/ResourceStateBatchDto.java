@@ -0,0 +1,29 @@
+package com.asml.apa.wta.spark.dto;
+
+import com.asml.apa.wta.core.model.Resource;
+import com.asml.apa.wta.core.model.ResourceState;
+import java.io.Serializable;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A value class that represents the resource states an executor derived from its pings.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceStateBatchDto implements Serializable {
+
+  private static final long serialVersionUID = 4630185307217765241L;
+
+  private String executorId;
+
+  private Resource resource;
+
+  private List<ResourceState> states;
+}
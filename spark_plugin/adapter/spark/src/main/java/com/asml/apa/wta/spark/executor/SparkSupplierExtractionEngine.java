@@ -1,20 +1,33 @@
 package com.asml.apa.wta.spark.executor;
 
+import com.asml.apa.wta.core.config.RuntimeConfig;
 import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.io.MetricBatchWriter;
+import com.asml.apa.wta.core.model.Resource;
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.ResourceStateFactory;
 import com.asml.apa.wta.core.supplier.SupplierExtractionEngine;
-import com.asml.apa.wta.spark.dto.ResourceCollectionDto;
+import com.asml.apa.wta.spark.dto.CreditRequestDto;
+import com.asml.apa.wta.spark.dto.ResourceBatchDto;
+import com.asml.apa.wta.spark.dto.ResourceStateBatchDto;
 import com.asml.apa.wta.spark.dto.SparkBaseSupplierWrapperDto;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.api.plugin.PluginContext;
 
 /**
- * Extracts resource utilization information whilst augmenting it with Spark information.
+ * Extracts resource utilization information whilst augmenting it with Spark information. The information is
+ * sent to the driver in compact batches, written by a {@link MetricBatchWriter}. Alternatively, the executor
+ * derives the resource states from its pings itself, optionally averaged over windows of pings, and only sends
+ * those to the driver. When flow control is enabled, every message spends a credit that is granted by the
+ * driver, and the executor keeps buffering while it has no credits.
  *
  * @author Henry Page
  * @since 1.0.0
@@ -22,30 +35,62 @@ import org.apache.spark.api.plugin.PluginContext;
 @Slf4j
 public class SparkSupplierExtractionEngine extends SupplierExtractionEngine<SparkBaseSupplierWrapperDto> {
 
+  private static final int KEY_FRAME_INTERVAL = 16;
+
+  private static final int CREDIT_REQUEST = 8;
+
+  private static final long CREDIT_BACKOFF = 250L;
+
+  private static final long MAX_CREDIT_BACKOFF = 16000L;
+
   private final PluginContext pluginContext;
 
+  private final int resourcePingInterval;
+
   private final int executorSynchronizationInterval;
 
   private final ScheduledExecutorService bufferSynchronizer = Executors.newScheduledThreadPool(1);
 
+  private final AtomicInteger runningTasks = new AtomicInteger();
+
+  private final MetricBatchWriter<SparkBaseSupplierWrapperDto> batchWriter =
+      new MetricBatchWriter<>(SparkBaseSupplierWrapperDto.class, KEY_FRAME_INTERVAL);
+
+  private final int resourceStateWindow;
+
+  private final List<ResourceState> pendingStates = new ArrayList<>();
+
+  private Resource sentResource;
+
+  private final boolean flowControl;
+
+  private final AtomicInteger credits = new AtomicInteger();
+
+  private long creditBackoff = CREDIT_BACKOFF;
+
+  private long nextCreditRequest;
+
   /**
-   * Specialised extraction engine for Spark.
+   * Specialised extraction engine for Spark. Flow control is enabled when the driver has a bounded ingest
+   * capacity.
    *
-   * @param resourcePingInterval                  how often to ping the suppliers, in milliseconds
-   * @param pluginContext                         plugin contex
-   * @param executorSynchronizationInterval       how often to send the buffer, in milliseconds
+   * @param config            {@link RuntimeConfig} holding the resource ping, supplier, synchronization, resource
+   *                          state window and driver ingest capacity settings
+   * @param pluginContext     plugin context
    * @since 1.0.0
    */
-  public SparkSupplierExtractionEngine(
-      int resourcePingInterval, PluginContext pluginContext, int executorSynchronizationInterval) {
-    super(resourcePingInterval);
+  public SparkSupplierExtractionEngine(RuntimeConfig config, PluginContext pluginContext) {
+    super(config);
     this.pluginContext = pluginContext;
-    this.executorSynchronizationInterval = executorSynchronizationInterval;
+    this.resourcePingInterval = config.getResourcePingInterval();
+    this.executorSynchronizationInterval = config.getExecutorSynchronizationInterval();
+    this.resourceStateWindow = config.getExecutorResourceStateWindow();
+    this.flowControl = config.getDriverIngestCapacity() > 0;
   }
 
   /**
    * Overridden method to ping the resource and buffer the result. If a non-positive executor
-   * synchronization interval is set, the result is sent immediately.
+   * synchronization interval is set and flow control is disabled, the result is sent immediately.
    *
    * @return        {@link CompletableFuture} representing the result of the ping and buffer operation
    * @since 1.0.0
@@ -54,31 +99,70 @@ public class SparkSupplierExtractionEngine extends SupplierExtractionEngine<Spar
   public CompletableFuture<Void> pingAndBuffer() {
     log.trace(pluginContext.executorID() + " is pinging suppliers.");
     return ping().thenAcceptAsync(result -> {
-      if (this.executorSynchronizationInterval <= 0) {
-        sendBuffer(List.of(result));
-      } else {
+      if (this.executorSynchronizationInterval > 0 || flowControl) {
         getBuffer().add(result);
+      } else {
+        sendBuffer(List.of(result));
       }
     });
   }
 
   /**
-   * This method gets called by the scheduler to send the resource buffer of the extraction engine.
+   * Registers that the executor started a task.
+   *
+   * @since 1.0.0
+   */
+  public void taskStarted() {
+    runningTasks.incrementAndGet();
+  }
+
+  /**
+   * Registers that a task of the executor ended, successfully or not.
+   *
+   * @since 1.0.0
+   */
+  public void taskEnded() {
+    runningTasks.updateAndGet(tasks -> Math.max(0, tasks - 1));
+  }
+
+  /**
+   * The executor is busy while it runs tasks, so the suppliers are then pinged at the resource ping interval.
+   *
+   * @return        {@code true} when the executor runs any tasks
+   * @since 1.0.0
+   */
+  @Override
+  protected boolean isBusy() {
+    return runningTasks.get() > 0;
+  }
+
+  /**
+   * This method gets called by the scheduler to send the resource buffer of the extraction engine. The
+   * batches are encoded relative to each other, so they are encoded and sent one at a time.
    *
    * @param snapshots         snapshots to send to the buffer
    * @since 1.0.0
    */
   private void sendBuffer(List<SparkBaseSupplierWrapperDto> snapshots) {
-    ResourceCollectionDto bufferSnapshot = new ResourceCollectionDto(snapshots);
-    if (bufferSnapshot.getResourceCollection().isEmpty()) {
+    if (snapshots.isEmpty()) {
       log.trace(pluginContext.executorID() + " has no buffer to send. Aborting send.");
       return;
     }
-    try {
-      log.trace(pluginContext.executorID() + " is sending buffer {}.", bufferSnapshot);
-      this.pluginContext.send(bufferSnapshot);
-    } catch (IOException e) {
-      log.error("Failed to send buffer: {}.", bufferSnapshot, e);
+    if (resourceStateWindow > 0) {
+      sendResourceStates(snapshots);
+      return;
+    }
+    synchronized (batchWriter) {
+      try {
+        ResourceBatchDto batch = new ResourceBatchDto(pluginContext.executorID(), batchWriter.write(snapshots));
+        log.trace(
+            pluginContext.executorID() + " is sending {} snapshots in {} bytes.",
+            snapshots.size(),
+            batch.getBatch().length);
+        this.pluginContext.send(batch);
+      } catch (IOException | RuntimeException e) {
+        log.error("Failed to send buffer of {} snapshots.", snapshots.size(), e);
+      }
     }
   }
 
@@ -88,19 +172,96 @@ public class SparkSupplierExtractionEngine extends SupplierExtractionEngine<Spar
    * @since 1.0.0
    */
   private void sendBuffer() {
+    if (flowControl && !getBuffer().isEmpty() && !acquireCredit()) {
+      log.trace(
+          pluginContext.executorID() + " has no credits, keeping {} snapshots.",
+          getBuffer().size());
+      return;
+    }
     sendBuffer(getAndClear());
   }
 
+  /**
+   * Spends a credit to send a message to the driver. When the executor has no credits left, it asks the driver
+   * for new credits. After the driver denied a request, the executor backs off exponentially before it asks
+   * again, and the backoff is reset once credits are granted. Only called from the synchronizer thread.
+   *
+   * @return          whether a message may be sent
+   * @since 1.0.0
+   */
+  private boolean acquireCredit() {
+    if (credits.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+      return true;
+    }
+    long now = System.currentTimeMillis();
+    if (now < nextCreditRequest) {
+      return false;
+    }
+    int granted = 0;
+    try {
+      Object response = pluginContext.ask(new CreditRequestDto(pluginContext.executorID(), CREDIT_REQUEST));
+      granted = response instanceof Integer ? (Integer) response : 0;
+    } catch (Exception e) {
+      log.error("Failed to ask the driver for credits.", e);
+    }
+    if (granted <= 0) {
+      log.trace(pluginContext.executorID() + " was not granted any credits, backing off {} ms.", creditBackoff);
+      nextCreditRequest = now + creditBackoff;
+      creditBackoff = Math.min(creditBackoff * 2, MAX_CREDIT_BACKOFF);
+      return false;
+    }
+    creditBackoff = CREDIT_BACKOFF;
+    credits.addAndGet(granted - 1);
+    return true;
+  }
+
+  /**
+   * Derives the resource states from the snapshots and sends them to the driver, together with the resource
+   * if it changed since it was last sent. Every window of snapshots is averaged into a single state. Snapshots
+   * that do not fill a window yet are kept until the next call. The driver assigns the id of the resource.
+   *
+   * @param snapshots         snapshots to derive the resource states from
+   * @since 1.0.0
+   */
+  private void sendResourceStates(List<SparkBaseSupplierWrapperDto> snapshots) {
+    long resourceId = ResourceStateFactory.UNASSIGNED_RESOURCE_ID;
+    synchronized (pendingStates) {
+      Resource merged = sentResource;
+      List<ResourceState> states = new ArrayList<>();
+      for (SparkBaseSupplierWrapperDto snapshot : snapshots) {
+        Resource resource = ResourceStateFactory.createResource(resourceId, snapshot);
+        merged = merged == null ? resource : ResourceStateFactory.mergeResources(merged, resource);
+        pendingStates.add(ResourceStateFactory.createResourceState(resourceId, snapshot));
+        if (pendingStates.size() >= resourceStateWindow) {
+          states.add(ResourceStateFactory.average(pendingStates));
+          pendingStates.clear();
+        }
+      }
+      Resource changed = merged.equals(sentResource) ? null : merged;
+      if (states.isEmpty() && changed == null) {
+        return;
+      }
+      try {
+        log.trace(pluginContext.executorID() + " is sending {} resource states.", states.size());
+        pluginContext.send(new ResourceStateBatchDto(pluginContext.executorID(), changed, states));
+        sentResource = merged;
+      } catch (IOException e) {
+        log.error("Failed to send {} resource states.", states.size(), e);
+      }
+    }
+  }
+
   /**
    * Scheduled task to send the resource buffer of the extraction engine. If the
    * {@link #executorSynchronizationInterval} is set to a non-positive value, resource information gets
-   * sent immediately.
+   * sent immediately, unless flow control is enabled. The buffer is then sent at the resource ping interval,
+   * so credits are only asked for on the synchronizer thread.
    */
   public void startSynchonizing() {
-    if (this.executorSynchronizationInterval > 0) {
+    if (this.executorSynchronizationInterval > 0 || flowControl) {
+      int interval = executorSynchronizationInterval > 0 ? executorSynchronizationInterval : resourcePingInterval;
       log.trace(pluginContext.executorID() + " is starting to synchronize.");
-      this.bufferSynchronizer.scheduleAtFixedRate(
-          this::sendBuffer, 0, executorSynchronizationInterval, TimeUnit.MILLISECONDS);
+      this.bufferSynchronizer.scheduleAtFixedRate(this::sendBuffer, 0, interval, TimeUnit.MILLISECONDS);
     }
   }
 
@@ -132,6 +293,9 @@ public class SparkSupplierExtractionEngine extends SupplierExtractionEngine<Spar
         .perfDto(record.getPerfDto())
         .jvmFileDto(record.getJvmFileDto())
         .procDto(record.getProcDto())
+        .cgroupDto(record.getCgroupDto())
+        .processDto(record.getProcessDto())
+        .jvmRuntimeDto(record.getJvmRuntimeDto())
         .build();
   }
 }
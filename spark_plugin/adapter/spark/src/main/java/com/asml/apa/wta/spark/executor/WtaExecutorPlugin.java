@@ -1,7 +1,9 @@
 package com.asml.apa.wta.spark.executor;
 
+import com.asml.apa.wta.core.config.RuntimeConfig;
 import com.asml.apa.wta.spark.WtaPlugin;
 import com.asml.apa.wta.spark.driver.WtaDriverPlugin;
+import java.util.HashMap;
 import java.util.Map;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -50,10 +52,19 @@ public class WtaExecutorPlugin implements ExecutorPlugin {
       return;
     }
     try {
-      int resourcePingInterval = Integer.parseInt(extraConf.get("resourcePingInterval"));
-      int executorSynchronizationInterval = Integer.parseInt(extraConf.get("executorSynchronizationInterval"));
-      supplierEngine =
-          new SparkSupplierExtractionEngine(resourcePingInterval, pCtx, executorSynchronizationInterval);
+      RuntimeConfig config = RuntimeConfig.builder()
+          .resourcePingInterval(Integer.parseInt(extraConf.get("resourcePingInterval")))
+          .maxResourcePingInterval(Integer.parseInt(extraConf.getOrDefault("maxResourcePingInterval", "-1")))
+          .executorSynchronizationInterval(Integer.parseInt(extraConf.get("executorSynchronizationInterval")))
+          .persistentCollectors(Boolean.parseBoolean(extraConf.get("persistentCollectors")))
+          .executorResourceStateWindow(
+              Integer.parseInt(extraConf.getOrDefault("executorResourceStateWindow", "-1")))
+          .driverIngestCapacity(Integer.parseInt(extraConf.getOrDefault("driverIngestCapacity", "-1")))
+          .supplierCadences(supplierCadences(extraConf))
+          .supplierChangeThreshold(
+              Double.parseDouble(extraConf.getOrDefault("supplierChangeThreshold", "0.1")))
+          .build();
+      supplierEngine = new SparkSupplierExtractionEngine(config, pCtx);
       supplierEngine.startPinging();
       supplierEngine.startSynchonizing();
     } catch (NumberFormatException e) {
@@ -65,6 +76,23 @@ public class WtaExecutorPlugin implements ExecutorPlugin {
     }
   }
 
+  /**
+   * Reads the supplier cadences the driver passed to the executor.
+   *
+   * @param extraConf     configuration passed by the driver
+   * @return              the cadence of every supplier, keyed by supplier
+   * @since 1.0.0
+   */
+  private static Map<String, Integer> supplierCadences(Map<String, String> extraConf) {
+    Map<String, Integer> cadences = new HashMap<>();
+    extraConf.forEach((key, value) -> {
+      if (key.startsWith(WtaDriverPlugin.SUPPLIER_CADENCE_PREFIX)) {
+        cadences.put(key.substring(WtaDriverPlugin.SUPPLIER_CADENCE_PREFIX.length()), Integer.parseInt(value));
+      }
+    });
+    return cadences;
+  }
+
   /**
    * Called before task is started.
    * Developers should note that expensive operations should be avoided, since it gets called on every task.
@@ -74,7 +102,11 @@ public class WtaExecutorPlugin implements ExecutorPlugin {
    * @since 1.0.0
    */
   @Override
-  public void onTaskStart() {}
+  public void onTaskStart() {
+    if (!error) {
+      supplierEngine.taskStarted();
+    }
+  }
 
   /**
    * Gets called when either a task is successfully completed or {@link #onTaskStart()} threw an exception.
@@ -82,7 +114,11 @@ public class WtaExecutorPlugin implements ExecutorPlugin {
    * @since 1.0.0
    */
   @Override
-  public void onTaskSucceeded() {}
+  public void onTaskSucceeded() {
+    if (!error) {
+      supplierEngine.taskEnded();
+    }
+  }
 
   /**
    * Gets called if a task fails.
@@ -93,6 +129,9 @@ public class WtaExecutorPlugin implements ExecutorPlugin {
   @Override
   public void onTaskFailed(TaskFailedReason failureReason) {
     log.error("A task has failed due to {}.", failureReason.toErrorString());
+    if (!error) {
+      supplierEngine.taskEnded();
+    }
   }
 
   /**
@@ -13,6 +13,7 @@ import com.asml.apa.wta.core.stream.Stream;
 import com.asml.apa.wta.core.util.KthSmallest;
 import com.asml.apa.wta.spark.datasource.SparkDataSource;
 import com.asml.apa.wta.spark.dto.ResourceAndStateWrapper;
+import com.asml.apa.wta.spark.stream.IncrementalTraceExporter;
 import com.asml.apa.wta.spark.stream.MetricStreamingEngine;
 import java.util.List;
 import java.util.function.Function;
@@ -121,6 +122,12 @@ public class ApplicationLevelListener extends AbstractListener<Workload> {
    * @since 1.0.0
    */
   public void writeTrace() {
+    metricStreamingEngine.awaitIngest();
+    IncrementalTraceExporter incrementalTraceExporter = sparkDataSource.getIncrementalTraceExporter();
+    if (incrementalTraceExporter != null) {
+      finalizeIncrementalTrace(incrementalTraceExporter);
+      return;
+    }
     List<ResourceAndStateWrapper> resourceAndStateWrappers = metricStreamingEngine.collectResourceInformation();
     Stream<Resource> resources = new Stream<>();
     resourceAndStateWrappers.stream()
@@ -143,6 +150,23 @@ public class ApplicationLevelListener extends AbstractListener<Workload> {
     Stream.deleteAllSerializedFiles();
   }
 
+  /**
+   * Finalizes a trace that has been exported incrementally. Flushes the remaining resource states and writes
+   * the resources and the workload, as these are only complete at the end of the application.
+   *
+   * @param incrementalTraceExporter    {@link IncrementalTraceExporter} the trace has been exported with
+   * @since 1.0.0
+   */
+  private void finalizeIncrementalTrace(IncrementalTraceExporter incrementalTraceExporter) {
+    sparkDataSource.awaitAndShutdownThreadPool(maxAwaitInSeconds);
+
+    incrementalTraceExporter.close();
+    wtaWriter.write(Resource.class, metricStreamingEngine.getDrainedResources());
+    wtaWriter.write(workload);
+
+    Stream.deleteAllSerializedFiles();
+  }
+
   /**
    * Setters for the general fields of the Workload.
    *
@@ -159,7 +183,8 @@ public class ApplicationLevelListener extends AbstractListener<Workload> {
         .workloadDescription(workloadDescription)
         .domain(domain)
         .dateStart(dateStart)
-        .dateEnd(dateEnd);
+        .dateEnd(dateEnd)
+        .resourceIds(metricStreamingEngine.getResourceIds().getIds());
   }
 
   /**
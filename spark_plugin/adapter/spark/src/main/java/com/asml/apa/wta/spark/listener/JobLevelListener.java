@@ -5,6 +5,7 @@ import com.asml.apa.wta.core.model.Domain;
 import com.asml.apa.wta.core.model.Task;
 import com.asml.apa.wta.core.model.Workflow;
 import com.asml.apa.wta.core.stream.Stream;
+import com.asml.apa.wta.spark.stream.IncrementalTraceExporter;
 import com.asml.apa.wta.spark.util.DagSolver;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +13,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import lombok.Getter;
+import lombok.Setter;
 import org.apache.spark.SparkContext;
 import org.apache.spark.scheduler.SparkListenerJobEnd;
 import org.apache.spark.scheduler.SparkListenerJobStart;
@@ -35,6 +37,9 @@ public class JobLevelListener extends AbstractListener<Workflow> {
 
   private final Map<Long, List<Task>> jobToStages = new ConcurrentHashMap<>();
 
+  @Setter
+  private IncrementalTraceExporter incrementalTraceExporter;
+
   /**
    * Constructor for the job-level listener when collecting task-level metrics.
    *
@@ -94,7 +99,9 @@ public class JobLevelListener extends AbstractListener<Workflow> {
    * When a job is finished, processes the workflow and puts it into an object. In addition, it sets the
    * parent, child, and resource information for the affiliated Spark tasks or Spark stages to this job,
    * depending on the config setting of isStageLevel. This needs to happen here as the clean-up of
-   * ConcurrentHashMap containers must also happen at the very end when a job finishes.
+   * ConcurrentHashMap containers must also happen at the very end when a job finishes. Spark tasks are
+   * correlated with the resource states of their resource off the listener bus, before the workflow is
+   * exported.
    *
    * @param jobEnd                SparkListenerJobEnd event object containing information upon job end
    * @since 1.0.0
@@ -149,23 +156,32 @@ public class JobLevelListener extends AbstractListener<Workflow> {
           .orElse(-1L);
     }
 
-    getThreadPool()
-        .execute(() -> addProcessedObject(Workflow.builder()
-            .id(jobId)
-            .tsSubmit(tsSubmit)
-            .taskIds(tasks.copy().map(Task::getId).toArray(Long[]::new))
-            .taskCount(tasks.count())
-            .criticalPathLength(criticalPathLength)
-            .criticalPathTaskCount(criticalPathTaskCount)
-            .scheduler(scheduler)
-            .domain(domain)
-            .applicationName(appName)
-            .totalResources(totalResources)
-            .totalMemoryUsage(totalMemoryUsage)
-            .totalNetworkUsage(totalNetworkUsage)
-            .totalDiskSpaceUsage(totalDiskSpaceUsage)
-            .totalEnergyConsumption(totalEnergyConsumption)
-            .build()));
+    getThreadPool().execute(() -> {
+      if (!getConfig().isStageLevel()) {
+        ((TaskLevelListener) wtaTaskListener).correlateTasks(tasks);
+      }
+      Workflow workflow = Workflow.builder()
+          .id(jobId)
+          .tsSubmit(tsSubmit)
+          .taskIds(tasks.copy().map(Task::getId).toArray(Long[]::new))
+          .taskCount(tasks.count())
+          .criticalPathLength(criticalPathLength)
+          .criticalPathTaskCount(criticalPathTaskCount)
+          .scheduler(scheduler)
+          .domain(domain)
+          .applicationName(appName)
+          .totalResources(totalResources)
+          .totalMemoryUsage(totalMemoryUsage)
+          .totalNetworkUsage(totalNetworkUsage)
+          .totalDiskSpaceUsage(totalDiskSpaceUsage)
+          .totalEnergyConsumption(totalEnergyConsumption)
+          .build();
+      addProcessedObject(workflow);
+      if (incrementalTraceExporter != null) {
+        incrementalTraceExporter.exportWorkflow(workflow, tasks.copy());
+        incrementalTraceExporter.exportResourceStates();
+      }
+    });
 
     cleanUpContainers(jobId);
   }
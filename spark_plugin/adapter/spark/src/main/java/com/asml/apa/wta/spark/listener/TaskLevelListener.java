@@ -2,18 +2,23 @@ package com.asml.apa.wta.spark.listener;
 
 import com.asml.apa.wta.core.config.RuntimeConfig;
 import com.asml.apa.wta.core.model.Task;
+import com.asml.apa.wta.core.stream.Stream;
+import com.asml.apa.wta.spark.stream.ResourceIdRegistry;
+import com.asml.apa.wta.spark.stream.ResourceSampleIndex;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
+import lombok.Setter;
 import org.apache.spark.SparkContext;
 import org.apache.spark.executor.TaskMetrics;
 import org.apache.spark.resource.ResourceProfile;
 import org.apache.spark.resource.TaskResourceRequest;
 import org.apache.spark.scheduler.SparkListenerJobEnd;
 import org.apache.spark.scheduler.SparkListenerTaskEnd;
+import org.apache.spark.scheduler.SparkListenerTaskStart;
 import org.apache.spark.scheduler.TaskInfo;
 import scala.collection.JavaConverters;
 
@@ -32,6 +37,22 @@ public class TaskLevelListener extends TaskStageBaseListener {
 
   private final Map<Long, Long> taskToStage = new ConcurrentHashMap<>();
 
+  private final Map<Long, Long> taskToFinishTime = new ConcurrentHashMap<>();
+
+  private final Map<Long, Long> uncorrelatedTasks = new ConcurrentHashMap<>();
+
+  private final ResourceIdRegistry resourceIds;
+
+  private final long correlationDelay;
+
+  private long latestCorrelatedFinishTime = Long.MIN_VALUE;
+
+  @Setter
+  private ResourceSampleIndex sampleIndex;
+
+  @Setter
+  private Runnable ingestBarrier = () -> {};
+
   /**
    * Constructor for the task-level listener.
    *
@@ -40,7 +61,24 @@ public class TaskLevelListener extends TaskStageBaseListener {
    * @since 1.0.0
    */
   public TaskLevelListener(SparkContext sparkContext, RuntimeConfig config) {
+    this(sparkContext, config, new ResourceIdRegistry());
+  }
+
+  /**
+   * Constructor for the task-level listener. Tasks are correlated once the executors had the time to send the
+   * resource states up to the end of the task, which is the longer of the resource ping and executor
+   * synchronization intervals.
+   *
+   * @param sparkContext          current spark context
+   * @param config                additional config specified by the user for the plugin
+   * @param resourceIds           {@link ResourceIdRegistry} assigning the ids of the resources tasks run on
+   * @since 1.0.0
+   */
+  public TaskLevelListener(SparkContext sparkContext, RuntimeConfig config, ResourceIdRegistry resourceIds) {
     super(sparkContext, config);
+    this.resourceIds = resourceIds;
+    this.correlationDelay =
+        Math.max(0, Math.max(config.getResourcePingInterval(), config.getExecutorSynchronizationInterval()));
   }
 
   /**
@@ -57,8 +95,24 @@ public class TaskLevelListener extends TaskStageBaseListener {
     sparkTasks.add(wtaTask);
   }
 
+  /**
+   * This method is called every time a task starts. When a {@link ResourceSampleIndex} is set, the task is
+   * registered as not correlated yet, so the resource states it ran during are kept.
+   *
+   * @param taskStart             SparkListenerTaskStart object corresponding to information on task start
+   * @since 1.0.0
+   */
+  @Override
+  public void onTaskStart(SparkListenerTaskStart taskStart) {
+    if (sampleIndex != null) {
+      uncorrelatedTasks.put(
+          taskStart.taskInfo().taskId() + 1, taskStart.taskInfo().launchTime());
+    }
+  }
+
   /**
    * This method is called every time a task ends. Task-level metrics are collected, aggregated, and added here.
+   * Tasks that failed or were killed are not correlated with the resource states of their resource.
    *
    * @param taskEnd               SparkListenerTaskEnd object corresponding to information on task end
    * @since 1.0.0
@@ -70,13 +124,16 @@ public class TaskLevelListener extends TaskStageBaseListener {
     assert curTaskMetrics != null;
 
     final long taskId = curTaskInfo.taskId() + 1;
+    if (!curTaskInfo.successful()) {
+      uncorrelatedTasks.remove(taskId);
+    }
     final long stageId = taskEnd.stageId() + 1;
 
     final String type = taskEnd.taskType();
     final long tsSubmit = curTaskInfo.launchTime();
     final int userId = Math.abs(getSparkContext().sparkUser().hashCode());
     final long workflowId = getStageToJob().get(stageId);
-    final long resourceUsed = Math.abs(curTaskInfo.executorId().hashCode());
+    final long resourceUsed = resourceIds.idOf(curTaskInfo.executorId());
 
     long runtime;
     double diskSpaceRequested;
@@ -102,6 +159,9 @@ public class TaskLevelListener extends TaskStageBaseListener {
         .build();
 
     fillInParentChildMaps(taskId, stageId, task);
+    if (sampleIndex != null && curTaskInfo.successful()) {
+      taskToFinishTime.put(taskId, curTaskInfo.finishTime());
+    }
 
     addTaskToWorkflow(workflowId, task);
     getThreadPool().execute(() -> addProcessedObject(task));
@@ -159,4 +219,59 @@ public class TaskLevelListener extends TaskStageBaseListener {
       }
     });
   }
+
+  /**
+   * Correlates the Tasks of a job with the resource states of their resource, when a {@link ResourceSampleIndex}
+   * is set. This is called off the listener bus once the job ended, as it first waits until the executors had
+   * the time to send the resource states up to the end of the last Task, and until those are ingested. The
+   * resource states before the earliest task that is not correlated yet are pruned afterwards. When all tasks
+   * are correlated, the resource states before the end of the latest correlated task are pruned instead.
+   *
+   * @param tasks                     Tasks of the job
+   * @since 1.0.0
+   */
+  public synchronized void correlateTasks(Stream<Task> tasks) {
+    if (sampleIndex == null) {
+      return;
+    }
+    List<Task> jobTasks = tasks.copy().toList();
+    long latestFinishTime = jobTasks.stream()
+        .map(task -> taskToFinishTime.getOrDefault(task.getId(), Long.MIN_VALUE))
+        .max(Long::compare)
+        .orElse(Long.MIN_VALUE);
+    awaitResourceStates(latestFinishTime);
+    for (Task task : jobTasks) {
+      final Long finishTime = taskToFinishTime.remove(task.getId());
+      if (finishTime != null) {
+        sampleIndex.correlate(task, finishTime);
+        uncorrelatedTasks.remove(task.getId());
+        latestCorrelatedFinishTime = Math.max(latestCorrelatedFinishTime, finishTime);
+      }
+    }
+    long horizon = uncorrelatedTasks.values().stream().min(Long::compare).orElse(latestCorrelatedFinishTime);
+    if (horizon != Long.MIN_VALUE) {
+      sampleIndex.prune(horizon);
+    }
+  }
+
+  /**
+   * Waits until the resource states up to a point in time had the time to reach the driver, and until the
+   * resource states the driver received are ingested.
+   *
+   * @param time                      point in time, in milliseconds since the epoch
+   * @since 1.0.0
+   */
+  private void awaitResourceStates(long time) {
+    if (time != Long.MIN_VALUE) {
+      long wait = time + correlationDelay - System.currentTimeMillis();
+      if (wait > 0) {
+        try {
+          Thread.sleep(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+    ingestBarrier.run();
+  }
 }
@@ -0,0 +1,98 @@
+package com.asml.apa.wta.spark.stream;
+
+import com.asml.apa.wta.core.WtaWriter;
+import com.asml.apa.wta.core.io.RollingParquetWriter;
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.Task;
+import com.asml.apa.wta.core.model.Workflow;
+import com.asml.apa.wta.core.stream.Stream;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports workflows, tasks, and resource states to rolling Parquet files while the application is running.
+ * Resources and the workload are still written when the application ends, as they are only complete then.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class IncrementalTraceExporter implements AutoCloseable {
+
+  private final MetricStreamingEngine metricStreamingEngine;
+
+  private final RollingParquetWriter<Task> taskWriter;
+
+  private final RollingParquetWriter<Workflow> workflowWriter;
+
+  private final RollingParquetWriter<ResourceState> resourceStateWriter;
+
+  /**
+   * Constructs an exporter, clearing the task, workflow, and resource state tables.
+   *
+   * @param wtaWriter               {@link WtaWriter} to create the rolling writers with
+   * @param streamingEngine         driver's {@link MetricStreamingEngine} to drain the resource states from
+   * @param recordsPerSegment       amount of records to write per Parquet segment
+   * @throws IOException            when the tables cannot be cleared
+   * @since 1.0.0
+   */
+  public IncrementalTraceExporter(WtaWriter wtaWriter, MetricStreamingEngine streamingEngine, long recordsPerSegment)
+      throws IOException {
+    metricStreamingEngine = streamingEngine;
+    taskWriter = wtaWriter.createRollingWriter(Task.class, recordsPerSegment);
+    workflowWriter = wtaWriter.createRollingWriter(Workflow.class, recordsPerSegment);
+    resourceStateWriter = wtaWriter.createRollingWriter(ResourceState.class, recordsPerSegment);
+  }
+
+  /**
+   * Exports a finished workflow and its tasks.
+   *
+   * @param workflow          finished {@link Workflow}
+   * @param tasks             {@link Stream} of the tasks belonging to the workflow
+   * @since 1.0.0
+   */
+  public void exportWorkflow(Workflow workflow, Stream<Task> tasks) {
+    try {
+      workflowWriter.write(workflow);
+      while (!tasks.isEmpty()) {
+        taskWriter.write(tasks.head());
+      }
+    } catch (IOException e) {
+      log.error("Could not export workflow {}.", workflow.getId());
+    }
+  }
+
+  /**
+   * Exports the resource states of all pings received so far.
+   *
+   * @since 1.0.0
+   */
+  public void exportResourceStates() {
+    Stream<ResourceState> resourceStates = metricStreamingEngine.drainResourceStates();
+    try {
+      while (!resourceStates.isEmpty()) {
+        resourceStateWriter.write(resourceStates.head());
+      }
+    } catch (IOException e) {
+      log.error("Could not export resource states.");
+    }
+  }
+
+  /**
+   * Exports the remaining resource states and closes the open Parquet segments.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public void close() {
+    metricStreamingEngine.flushRetainedStates();
+    exportResourceStates();
+    try {
+      taskWriter.close();
+      workflowWriter.close();
+      resourceStateWriter.close();
+    } catch (IOException e) {
+      log.error("Could not close the incremental trace export.");
+    }
+  }
+}
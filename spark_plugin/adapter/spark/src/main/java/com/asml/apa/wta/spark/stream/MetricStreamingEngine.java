@@ -1,26 +1,31 @@
 package com.asml.apa.wta.spark.stream;
 
-import com.asml.apa.wta.core.dto.BaseSupplierDto;
-import com.asml.apa.wta.core.dto.IostatDto;
-import com.asml.apa.wta.core.dto.JvmFileDto;
-import com.asml.apa.wta.core.dto.OsInfoDto;
-import com.asml.apa.wta.core.dto.ProcDto;
 import com.asml.apa.wta.core.model.Resource;
 import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.ResourceStateFactory;
 import com.asml.apa.wta.core.stream.KeyedStream;
 import com.asml.apa.wta.core.stream.Stream;
 import com.asml.apa.wta.spark.datasource.SparkDataSource;
 import com.asml.apa.wta.spark.dto.ResourceAndStateWrapper;
 import com.asml.apa.wta.spark.dto.SparkBaseSupplierWrapperDto;
-import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.function.Function;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Getter;
+import lombok.Setter;
 
 /**
- * Facade that maintains the resource and task streams.
+ * Facade that maintains the resource and task streams. Executors either send their raw pings, which are
+ * turned into resource states as they are received, or resource states they derived from their pings
+ * themselves. Per executor, a summary of its resource is kept, so only the derived resource states are held.
+ * Under a {@link ResourceStateRetention}, older resource states are kept at a lower resolution. Executors are
+ * assigned dense resource ids by a {@link ResourceIdRegistry}, by which the per-executor state is indexed.
+ * Optionally, all resource states are also added to a {@link ResourceSampleIndex} before retention is applied,
+ * so tasks can be correlated with the states of their resource.
  *
  * @author Atour Mousavi Gourabi
  * @author Henry Page
@@ -29,178 +34,247 @@ import lombok.Getter;
 @Getter
 public class MetricStreamingEngine {
 
-  private final KeyedStream<String, SparkBaseSupplierWrapperDto> executorResourceStream;
+  private final KeyedStream<String, ResourceState> executorStateStream = new KeyedStream<>();
 
-  private static final long bytesToGb = 1073741824;
+  private final ResourceIdRegistry resourceIds = new ResourceIdRegistry();
 
-  private static final long kBpsToGbps = 125000;
+  private final ResourceTable<Resource> executorResources = new ResourceTable<>();
+
+  private final ResourceTable<Resource> drainedResources = new ResourceTable<>();
+
+  private final ResourceStateRetention retention;
+
+  private final ResourceTable<ResourceStateHistory> histories = new ResourceTable<>();
+
+  private final ResourceSampleIndex sampleIndex;
+
+  @Setter
+  private Runnable ingestBarrier = () -> {};
 
   /**
-   * Initializes the streams.
+   * Initializes the streams, keeping all resource states at full resolution.
    *
    * @since 1.0.0
    */
   public MetricStreamingEngine() {
-    executorResourceStream = new KeyedStream<>();
+    this(ResourceStateRetention.builder().build());
   }
 
   /**
-   * Adds resource metrics to the resource stream.
+   * Initializes the streams.
+   *
+   * @param retention       {@link ResourceStateRetention} of the resource states
+   * @since 1.0.0
+   */
+  public MetricStreamingEngine(ResourceStateRetention retention) {
+    this(retention, null);
+  }
+
+  /**
+   * Initializes the streams, adding all resource states to a sample index.
+   *
+   * @param retention       {@link ResourceStateRetention} of the resource states
+   * @param sampleIndex     {@link ResourceSampleIndex} to add the resource states to, or {@code null} to not
+   *                        index them
+   * @since 1.0.0
+   */
+  public MetricStreamingEngine(ResourceStateRetention retention, ResourceSampleIndex sampleIndex) {
+    this.retention = retention;
+    this.sampleIndex = sampleIndex;
+  }
+
+  /**
+   * Waits until the messages that the driver received are added to the streams, in case they are ingested
+   * asynchronously.
+   *
+   * @since 1.0.0
+   */
+  public void awaitIngest() {
+    ingestBarrier.run();
+  }
+
+  /**
+   * Adds resource metrics to the resource stream. The ping is turned into a resource state, and the
+   * resource it describes is merged into the summary of the executor.
    *
    * @param resourceKey       {@link String} identifying the resource. This is usually the executorID
    * @param record            {@link SparkDataSource} containing metrics
    * @since 1.0.0
    */
   public void addToResourceStream(String resourceKey, SparkBaseSupplierWrapperDto record) {
-    executorResourceStream.addToStream(resourceKey, record);
+    long resourceId = resourceIds.idOf(resourceKey);
+    executorResources.merge(
+        resourceId,
+        ResourceStateFactory.createResource(resourceId, record),
+        ResourceStateFactory::mergeResources);
+    addStates(resourceKey, resourceId, List.of(ResourceStateFactory.createResourceState(resourceId, record)));
+  }
+
+  /**
+   * Adds a batch of resource metrics of a single executor to the resource stream. The pings are turned into
+   * resource states, and the resources they describe are merged into the summary of the executor at once.
+   *
+   * @param resourceKey       {@link String} identifying the resource. This is usually the executorID
+   * @param records           {@link SparkBaseSupplierWrapperDto}s of the executor, in order
+   * @since 1.0.0
+   */
+  public void addToResourceStream(String resourceKey, List<SparkBaseSupplierWrapperDto> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+    long resourceId = resourceIds.idOf(resourceKey);
+    List<ResourceState> states = new ArrayList<>(records.size());
+    Resource resource = null;
+    for (SparkBaseSupplierWrapperDto record : records) {
+      Resource described = ResourceStateFactory.createResource(resourceId, record);
+      resource = resource == null ? described : ResourceStateFactory.mergeResources(resource, described);
+      states.add(ResourceStateFactory.createResourceState(resourceId, record));
+    }
+    executorResources.merge(resourceId, resource, ResourceStateFactory::mergeResources);
+    addStates(resourceKey, resourceId, states);
+  }
+
+  /**
+   * Adds resource states that were derived by an executor to the resource state stream. Executors do not know
+   * the id of their resource, so it is assigned to the resource and its states here.
+   *
+   * @param resourceKey       {@link String} identifying the resource. This is usually the executorID
+   * @param resource          {@link Resource} the states belong to, or {@code null} if it did not change
+   * @param states            {@link ResourceState}s derived by the executor
+   * @since 1.0.0
+   */
+  public void addToResourceStateStream(String resourceKey, Resource resource, List<ResourceState> states) {
+    long resourceId = resourceIds.idOf(resourceKey);
+    if (resource != null) {
+      executorResources.merge(
+          resourceId, resource.toBuilder().id(resourceId).build(), ResourceStateFactory::mergeResources);
+    }
+    List<ResourceState> assigned = states.stream()
+        .map(state -> state.getResourceId() == resourceId
+            ? state
+            : state.toBuilder().resourceId(resourceId).build())
+        .collect(Collectors.toList());
+    addStates(resourceKey, resourceId, assigned);
+  }
+
+  /**
+   * Moves the resource states that are held at a lower resolution into the resource state stream, rolling up
+   * the intervals that are still open. This is done when the application ends.
+   *
+   * @since 1.0.0
+   */
+  public void flushRetainedStates() {
+    Map<Long, String> keys = new HashMap<>();
+    resourceIds.getIds().forEach((key, id) -> keys.put(id, key));
+    histories.forEach((history, id) -> {
+      synchronized (history) {
+        history.flush().forEach(state -> executorStateStream.addToStream(keys.get(id), state));
+      }
+    });
   }
 
   /**
-   * Consumes all resource related streams and aggregates them into objects.
+   * Consumes the resource states, and pairs them with the resources they belong to.
    *
    * @return      list of {@link ResourceAndStateWrapper} objects containing the resource and its states
    * @since 1.0.0
    */
   public List<ResourceAndStateWrapper> collectResourceInformation() {
-    return executorResourceStream.mapKeyList((key, value) -> {
-      long transformedId = Math.abs(key.hashCode());
-      Resource resource = produceResourceFromExecutorInfo(transformedId, value);
-      Stream<ResourceState> states = produceResourceStatesFromExecutorInfo(resource.getId(), value);
-      return new ResourceAndStateWrapper(resource, states);
-    });
+    flushRetainedStates();
+    Map<Long, Stream<ResourceState>> states = new HashMap<>();
+    executorStateStream.drainKeyList((key, stream) -> states.put(resourceIds.idOf(key), stream));
+    Set<Long> ids = new HashSet<>(states.keySet());
+    executorResources.forEach((resource, id) -> ids.add(id));
+    return ids.stream()
+        .map(id -> new ResourceAndStateWrapper(resourceOf(id), states.getOrDefault(id, new Stream<>())))
+        .collect(Collectors.toList());
   }
 
   /**
-   * Constructs a resource from a stream of pings.
+   * Drains the resource states received so far. The resources they belong to are merged into the resources
+   * drained earlier, these can be retrieved using {@link #getDrainedResources()}.
    *
-   * @param executorId      transformed id of the executor
-   * @param pings           stream of pings that correspond to this executor
-   * @return                {@link Resource} object that is constructed from the given information
+   * @return      {@link Stream} of the drained resource states
    * @since 1.0.0
    */
-  private Resource produceResourceFromExecutorInfo(long executorId, Stream<SparkBaseSupplierWrapperDto> pings) {
-    Optional<OsInfoDto> sampleOsInfo = getFirstAvailable(pings.copy(), BaseSupplierDto::getOsInfoDto);
-    Optional<JvmFileDto> sampleJvmInfo = getFirstAvailable(pings.copy(), BaseSupplierDto::getJvmFileDto);
-
-    final String os = sampleOsInfo.map(OsInfoDto::getOs).orElse("unknown");
-
-    StringBuilder processorInformation = new StringBuilder();
-
-    final String processorModel = pings.copy()
-        .map(BaseSupplierDto::getProcDto)
-        .filter(Objects::nonNull)
-        .map(ProcDto::getCpuModel)
-        .filter(pModel -> pModel != null && !pModel.equals("unknown"))
-        .findFirst()
-        .orElse("unknown");
-
-    processorInformation.append(processorModel);
-    if (sampleOsInfo.map(OsInfoDto::getArchitecture).isPresent()) {
-      processorInformation
-          .append(" / ")
-          .append(sampleOsInfo.map(OsInfoDto::getArchitecture).get());
+  public Stream<ResourceState> drainResourceStates() {
+    Stream<ResourceState> resourceStates = new Stream<>();
+    Set<Long> ids = new HashSet<>();
+    executorResources.forEach((resource, id) -> ids.add(id));
+    executorStateStream
+        .drainKeyList((key, states) -> {
+          ids.add(resourceIds.idOf(key));
+          return states;
+        })
+        .forEach(states -> states.forEach(resourceStates::addToStream));
+    for (long id : ids) {
+      Resource resource = executorResources.remove(id);
+      if (resource == null) {
+        resource = unknownResource(id);
+      }
+      drainedResources.merge(id, resource, ResourceStateFactory::mergeResources);
     }
+    return resourceStates;
+  }
 
-    final double numResources =
-        sampleOsInfo.map(OsInfoDto::getAvailableProcessors).orElse(-1);
-    final long memory = sampleOsInfo
-        .map(pg -> pg.getTotalPhysicalMemorySize() / bytesToGb)
-        .orElse(-1L);
-
-    final long diskSpace =
-        sampleJvmInfo.map(jvmDto -> jvmDto.getTotalSpace() / bytesToGb).orElse(-1L);
-
-    return Resource.builder()
-        .id(executorId)
-        .numResources(numResources)
-        .memory(memory)
-        .diskSpace(diskSpace)
-        .procModel(processorInformation.toString())
-        .os(os)
-        .build();
+  /**
+   * Gets the resources of all resource states drained using {@link #drainResourceStates()}.
+   *
+   * @return      {@link Stream} of the drained resources
+   * @since 1.0.0
+   */
+  public Stream<Resource> getDrainedResources() {
+    Stream<Resource> resources = new Stream<>();
+    drainedResources.forEach((resource, id) -> resources.addToStream(resource));
+    return resources;
   }
 
   /**
-   * Constructs a list of resource states from a stream of pings.
+   * Adds resource states to the resource state stream, or to the history of the executor if the resource
+   * states are retained at a lower resolution. The states are indexed at full resolution either way.
    *
-   * @param resourceId      associated resource id
-   * @param pings           stream of pings that are to be transformed to states
-   * @return                list of resource states that is constructed from the given information
+   * @param resourceKey       {@link String} identifying the resource
+   * @param resourceId        id of the resource
+   * @param states            {@link ResourceState}s to add, in order
    * @since 1.0.0
    */
-  private Stream<ResourceState> produceResourceStatesFromExecutorInfo(
-      long resourceId, Stream<SparkBaseSupplierWrapperDto> pings) {
-    return pings.map(ping -> {
-      final long timestamp = ping.getTimestamp();
-      final String eventType = "resource active";
-      final double availableResources = Optional.ofNullable(ping.getOsInfoDto())
-          .map(pg -> (double) pg.getAvailableProcessors())
-          .orElse(-1.0);
-      final double availableMemory = Optional.ofNullable(ping.getOsInfoDto())
-          .map(pg -> (double) pg.getFreePhysicalMemorySize() / bytesToGb)
-          .orElse(-1.0);
-      final double availableDiskSpace = Optional.ofNullable(ping.getJvmFileDto())
-          .map(pg -> (double) pg.getUsableSpace() / bytesToGb)
-          .orElse(-1.0);
-
-      double availableDiskIoBandwidth;
-
-      if (ping.getIostatDto() != null) {
-        final IostatDto iostatDto = ping.getIostatDto();
-        availableDiskIoBandwidth =
-            iostatDto.getKiloByteReadPerSec() / kBpsToGbps + iostatDto.getKiloByteWrtnPerSec() / kBpsToGbps;
-      } else {
-        availableDiskIoBandwidth = -1.0;
+  private void addStates(String resourceKey, long resourceId, List<ResourceState> states) {
+    if (sampleIndex != null) {
+      states.forEach(sampleIndex::add);
+    }
+    if (!retention.isEnabled()) {
+      states.forEach(state -> executorStateStream.addToStream(resourceKey, state));
+      return;
+    }
+    ResourceStateHistory history = histories.computeIfAbsent(resourceId, id -> new ResourceStateHistory(retention));
+    synchronized (history) {
+      for (ResourceState state : states) {
+        history.add(state).forEach(kept -> executorStateStream.addToStream(resourceKey, kept));
       }
+    }
+  }
 
-      final double numCores = Optional.ofNullable(ping.getOsInfoDto())
-          .map(OsInfoDto::getAvailableProcessors)
-          .orElse(-1);
-
-      final double averageUtilization1Minute = Optional.ofNullable(ping.getProcDto())
-          .map(ProcDto::getLoadAvgOneMinute)
-          .filter(loadAvg -> loadAvg != -1)
-          .map(loadAvg -> loadAvg / numCores)
-          .orElse(-1.0);
-
-      final double averageUtilization5Minute = Optional.ofNullable(ping.getProcDto())
-          .map(ProcDto::getLoadAvgFiveMinutes)
-          .filter(loadAvg -> loadAvg != -1)
-          .map(loadAvg -> loadAvg / numCores)
-          .orElse(-1.0);
-
-      final double averageUtilization15Minute = Optional.ofNullable(ping.getProcDto())
-          .map(ProcDto::getLoadAvgFifteenMinutes)
-          .filter(loadAvg -> loadAvg != -1)
-          .map(loadAvg -> loadAvg / numCores)
-          .orElse(-1.0);
-
-      return ResourceState.builder()
-          .resourceId(resourceId)
-          .timestamp(timestamp)
-          .eventType(eventType)
-          .availableResources(availableResources)
-          .availableDiskSpace(availableDiskSpace)
-          .availableMemory(availableMemory)
-          .availableDiskIoBandwidth(availableDiskIoBandwidth)
-          .averageUtilization1Minute(averageUtilization1Minute)
-          .averageUtilization5Minute(averageUtilization5Minute)
-          .averageUtilization15Minute(averageUtilization15Minute)
-          .build();
-    });
+  /**
+   * Gets the summary of the resource of an executor.
+   *
+   * @param resourceId        id of the resource
+   * @return                  the {@link Resource} of the executor, or a resource with unknown properties if
+   *                          nothing is known about it
+   * @since 1.0.0
+   */
+  private Resource resourceOf(long resourceId) {
+    Resource resource = executorResources.get(resourceId);
+    return resource == null ? unknownResource(resourceId) : resource;
   }
 
   /**
-   * Used for getting information across all pings that is constant.
+   * Constructs a resource with unknown properties.
    *
-   * @param pings       list of pings to analyse
-   * @param mapper      mapping function that should map the dto to an optional data supplier object
-   * @param <R>         type of the data supplier object
-   * @return            constant information that is requested
+   * @param resourceId        id of the resource
+   * @return                  the {@link Resource} with unknown properties
    * @since 1.0.0
    */
-  private <R extends Serializable> Optional<R> getFirstAvailable(
-      Stream<SparkBaseSupplierWrapperDto> pings, Function<SparkBaseSupplierWrapperDto, R> mapper) {
-    return pings.map(mapper).filter(Objects::nonNull).findFirst();
+  private static Resource unknownResource(long resourceId) {
+    return Resource.builder().id(resourceId).numResources(-1.0).build();
   }
 }
@@ -0,0 +1,58 @@
+package com.asml.apa.wta.spark.stream;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interns the ids of executors into the ids of their resources. Every executor is assigned the next free id
+ * the first time it is seen, so resource ids are dense, start at zero, and never collide. The mapping is
+ * written to the trace metadata, so resource ids can be traced back to the executors they belong to.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+public class ResourceIdRegistry {
+
+  private final Map<String, Long> ids = new ConcurrentHashMap<>();
+
+  private final AtomicLong nextId = new AtomicLong();
+
+  /**
+   * Gets the id of the resource of an executor, assigning it if the executor was not seen before.
+   *
+   * @param executorId      id of the executor
+   * @return                id of the resource of the executor
+   * @since 1.0.0
+   */
+  public long idOf(String executorId) {
+    Long id = ids.get(executorId);
+    return id == null ? ids.computeIfAbsent(executorId, key -> nextId.getAndIncrement()) : id;
+  }
+
+  /**
+   * Gets the number of resource ids assigned so far. All resource ids are smaller than this.
+   *
+   * @return                number of assigned resource ids
+   * @since 1.0.0
+   */
+  public long size() {
+    return nextId.get();
+  }
+
+  /**
+   * Gets the ids assigned so far.
+   *
+   * @return                the resource ids by the ids of their executors, ordered by resource id
+   * @since 1.0.0
+   */
+  public Map<String, Long> getIds() {
+    Map<String, Long> sorted = new LinkedHashMap<>();
+    ids.entrySet().stream()
+        .sorted(Map.Entry.comparingByValue())
+        .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+    return Collections.unmodifiableMap(sorted);
+  }
+}
@@ -0,0 +1,228 @@
+package com.asml.apa.wta.spark.stream;
+
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.Task;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-resource index of the resource states received by the driver, used to correlate tasks with what their
+ * resource was doing while they ran. The samples of a resource are kept sorted by timestamp, together with the
+ * prefix sums of their metrics, so the mean of a metric over any interval takes two binary searches. Samples
+ * that no task can be correlated with anymore are pruned.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class ResourceSampleIndex {
+
+  private static final List<ToDoubleFunction<ResourceState>> METRICS = List.of(
+      ResourceState::getAverageUtilization1Minute,
+      ResourceState::getAvailableMemory,
+      ResourceState::getAvailableDiskIoBandwidth,
+      ResourceState::getAvailableNetworkBandwidth);
+
+  private static final List<ObjDoubleConsumer<Task>> TASK_COLUMNS = List.of(
+      Task::setResourceCpuUtilization,
+      Task::setResourceAvailableMemory,
+      Task::setResourceDiskIoBandwidth,
+      Task::setResourceNetworkBandwidth);
+
+  private final ResourceTable<Samples> samples = new ResourceTable<>();
+
+  /**
+   * Adds a resource state to the samples of its resource. States of a resource are expected in order of their
+   * timestamps, states that are older than the latest sample of their resource are left out.
+   *
+   * @param state       {@link ResourceState} to add
+   * @since 1.0.0
+   */
+  public void add(ResourceState state) {
+    if (state.getResourceId() < 0 || state.getTimestamp() < 0) {
+      return;
+    }
+    Samples series = samples.computeIfAbsent(state.getResourceId(), id -> new Samples());
+    synchronized (series) {
+      if (!series.append(state)) {
+        log.debug("Left out a resource state of resource {} that arrived out of order.", state.getResourceId());
+      }
+    }
+  }
+
+  /**
+   * Sets the means of the metrics of the resource a task used, over the interval the task ran in. When no
+   * sample falls within the interval, the latest sample before it is used. Metrics that are not known stay
+   * at -1.
+   *
+   * @param task            {@link Task} to set the means of
+   * @param finishTime      time the task finished at, in Unix epoch millis
+   * @since 1.0.0
+   */
+  public void correlate(Task task, long finishTime) {
+    if (task.getResourceUsed() < 0 || task.getTsSubmit() < 0 || finishTime < task.getTsSubmit()) {
+      return;
+    }
+    Samples series = samples.get(task.getResourceUsed());
+    if (series == null) {
+      return;
+    }
+    double[] means;
+    synchronized (series) {
+      means = series.meansOver(task.getTsSubmit(), finishTime);
+    }
+    for (int metric = 0; metric < means.length; metric++) {
+      TASK_COLUMNS.get(metric).accept(task, means[metric]);
+    }
+  }
+
+  /**
+   * Drops the samples that are older than a given time, except for the latest of them, so that tasks that start
+   * at or after that time can still be correlated.
+   *
+   * @param horizon         earliest time that tasks still have to be correlated from, in Unix epoch millis
+   * @since 1.0.0
+   */
+  public void prune(long horizon) {
+    samples.forEach((series, id) -> {
+      synchronized (series) {
+        series.dropBefore(horizon);
+      }
+    });
+  }
+
+  /**
+   * Samples of a single resource, in order of their timestamps. Per metric, the sums and the number of known
+   * values of all samples before an index are kept, so the sum over a range is the difference of two entries.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  private static class Samples {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+
+    private final double[][] sums = new double[METRICS.size()][INITIAL_CAPACITY + 1];
+
+    private final int[][] counts = new int[METRICS.size()][INITIAL_CAPACITY + 1];
+
+    private int size;
+
+    /**
+     * Appends a sample.
+     *
+     * @param state       {@link ResourceState} to append
+     * @return            {@code false} if the state is older than the latest sample, and was left out
+     * @since 1.0.0
+     */
+    boolean append(ResourceState state) {
+      if (size > 0 && state.getTimestamp() < timestamps[size - 1]) {
+        return false;
+      }
+      if (size == timestamps.length) {
+        grow();
+      }
+      timestamps[size] = state.getTimestamp();
+      for (int metric = 0; metric < METRICS.size(); metric++) {
+        double value = METRICS.get(metric).applyAsDouble(state);
+        boolean known = value >= 0.0;
+        sums[metric][size + 1] = sums[metric][size] + (known ? value : 0.0);
+        counts[metric][size + 1] = counts[metric][size] + (known ? 1 : 0);
+      }
+      size++;
+      return true;
+    }
+
+    /**
+     * Computes the mean of every metric over the samples in an interval.
+     *
+     * @param from        start of the interval, inclusive
+     * @param to          end of the interval, inclusive
+     * @return            the mean of every metric, -1 for metrics without known values
+     * @since 1.0.0
+     */
+    double[] meansOver(long from, long to) {
+      int first = firstIndexAfter(from - 1);
+      int last = firstIndexAfter(to);
+      if (first == last && first > 0) {
+        first--;
+      }
+      double[] means = new double[METRICS.size()];
+      for (int metric = 0; metric < means.length; metric++) {
+        int known = counts[metric][last] - counts[metric][first];
+        means[metric] = known == 0 ? -1.0 : (sums[metric][last] - sums[metric][first]) / known;
+      }
+      return means;
+    }
+
+    /**
+     * Drops the samples before a given time, except for the latest of them. The prefix sums are rebased on the
+     * first sample that is kept, and the capacity shrinks when most of it is unused.
+     *
+     * @param time        time before which samples are dropped
+     * @since 1.0.0
+     */
+    void dropBefore(long time) {
+      int first = firstIndexAfter(time - 1) - 1;
+      if (first <= 0) {
+        return;
+      }
+      size -= first;
+      int capacity = timestamps.length;
+      while (capacity > INITIAL_CAPACITY && size * 4 < capacity) {
+        capacity /= 2;
+      }
+      timestamps = Arrays.copyOfRange(timestamps, first, first + capacity);
+      for (int metric = 0; metric < METRICS.size(); metric++) {
+        double[] rebasedSums = new double[capacity + 1];
+        int[] rebasedCounts = new int[capacity + 1];
+        for (int index = 0; index <= size; index++) {
+          rebasedSums[index] = sums[metric][first + index] - sums[metric][first];
+          rebasedCounts[index] = counts[metric][first + index] - counts[metric][first];
+        }
+        sums[metric] = rebasedSums;
+        counts[metric] = rebasedCounts;
+      }
+    }
+
+    /**
+     * Finds the first sample that was taken after a given time.
+     *
+     * @param time        time to search for
+     * @return            index of the first sample with a later timestamp, the number of samples if there is none
+     * @since 1.0.0
+     */
+    private int firstIndexAfter(long time) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (timestamps[middle] <= time) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Doubles the capacity of the samples.
+     *
+     * @since 1.0.0
+     */
+    private void grow() {
+      int capacity = timestamps.length * 2;
+      timestamps = Arrays.copyOf(timestamps, capacity);
+      for (int metric = 0; metric < METRICS.size(); metric++) {
+        sums[metric] = Arrays.copyOf(sums[metric], capacity + 1);
+        counts[metric] = Arrays.copyOf(counts[metric], capacity + 1);
+      }
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package com.asml.apa.wta.spark.stream;
+
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.ResourceStateFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Resource states of a single executor that are not final yet under a {@link ResourceStateRetention}. The age
+ * of a state is taken relative to the latest state of the executor. Rolled up states carry the number of
+ * samples they stand for, so every tier averages over the samples rather than over the intervals below it.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+class ResourceStateHistory {
+
+  private final ResourceStateRetention retention;
+
+  private final long fullResolution;
+
+  private final Deque<ResourceState> recent = new ArrayDeque<>();
+
+  private final List<Tier> tiers = new ArrayList<>();
+
+  private ResourceState lastKept;
+
+  private long latest = Long.MIN_VALUE;
+
+  /**
+   * Constructs an empty history. Without a full resolution period, the rollup intervals are ignored and every
+   * state is final as soon as a later state is added.
+   *
+   * @param retention       {@link ResourceStateRetention} to apply
+   * @since 1.0.0
+   */
+  ResourceStateHistory(ResourceStateRetention retention) {
+    this.retention = retention;
+    this.fullResolution = Math.max(0L, retention.getFullResolution());
+    if (retention.getFullResolution() >= 0) {
+      for (long interval : retention.getRollupIntervals()) {
+        tiers.add(new Tier(interval));
+      }
+    }
+  }
+
+  /**
+   * Adds a resource state, and ages the states in the history.
+   *
+   * @param state           {@link ResourceState} to add
+   * @return                the states that became final, in order
+   * @since 1.0.0
+   */
+  List<ResourceState> add(ResourceState state) {
+    latest = Math.max(latest, state.getTimestamp());
+    recent.addLast(state);
+    List<ResourceState> kept = new ArrayList<>();
+    while (isOlderThan(recent.peekFirst(), 1)) {
+      moveTo(0, new Rollup(recent.pollFirst(), 1), kept);
+    }
+    for (int index = 0; index < tiers.size(); index++) {
+      Deque<Rollup> completed = tiers.get(index).completed;
+      while (!completed.isEmpty() && isOlderThan(completed.peekFirst().state, index + 2)) {
+        moveTo(index + 1, completed.pollFirst(), kept);
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * Takes all states from the history, rolling up the intervals that are still open. Like the states that age
+   * past the last tier, the remaining states are only kept if they changed enough.
+   *
+   * @return                the remaining states that are kept, in order
+   * @since 1.0.0
+   */
+  List<ResourceState> flush() {
+    List<ResourceState> kept = new ArrayList<>();
+    for (int index = tiers.size() - 1; index >= 0; index--) {
+      Tier tier = tiers.get(index);
+      tier.completed.forEach(rollup -> keep(rollup.state, kept));
+      tier.completed.clear();
+      if (!tier.bucket.isEmpty()) {
+        keep(tier.rollUp().state, kept);
+      }
+    }
+    recent.forEach(state -> keep(state, kept));
+    recent.clear();
+    return kept;
+  }
+
+  /**
+   * Checks whether a state is older than a number of full resolution periods.
+   *
+   * @param state           {@link ResourceState} to check, may be {@code null}
+   * @param periods         number of full resolution periods
+   * @return                {@code true} if the state is not {@code null} and older than the given periods
+   * @since 1.0.0
+   */
+  private boolean isOlderThan(ResourceState state, int periods) {
+    return state != null && state.getTimestamp() < latest - fullResolution * periods;
+  }
+
+  /**
+   * Moves a state into the open interval of a tier, closing the interval if the state does not belong in it.
+   * States that move past the last tier are kept if they changed enough.
+   *
+   * @param index           index of the tier
+   * @param rollup          {@link Rollup} to move
+   * @param kept            states that became final
+   * @since 1.0.0
+   */
+  private void moveTo(int index, Rollup rollup, List<ResourceState> kept) {
+    if (index == tiers.size()) {
+      keep(rollup.state, kept);
+      return;
+    }
+    Tier tier = tiers.get(index);
+    long timestamp = rollup.state.getTimestamp();
+    if (!tier.bucket.isEmpty() && timestamp >= tier.bucketStart + tier.interval) {
+      tier.completed.addLast(tier.rollUp());
+    }
+    if (tier.bucket.isEmpty()) {
+      tier.bucketStart = timestamp - Math.floorMod(timestamp, tier.interval);
+    }
+    tier.bucket.add(rollup);
+  }
+
+  /**
+   * Keeps a final state if it changed enough since the last state that was kept.
+   *
+   * @param state           final {@link ResourceState}
+   * @param kept            states that are kept
+   * @since 1.0.0
+   */
+  private void keep(ResourceState state, List<ResourceState> kept) {
+    if (lastKept == null
+        || retention.getChangeThreshold() < 0
+        || ResourceStateFactory.changed(lastKept, state, retention.getChangeThreshold())) {
+      kept.add(state);
+      lastKept = state;
+    }
+  }
+
+  /**
+   * A rollup tier, with its open interval and the mean states of its closed intervals.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  private static final class Tier {
+
+    private final long interval;
+
+    private final List<Rollup> bucket = new ArrayList<>();
+
+    private final Deque<Rollup> completed = new ArrayDeque<>();
+
+    private long bucketStart;
+
+    private Tier(long interval) {
+      this.interval = interval;
+    }
+
+    /**
+     * Closes the open interval, averaging its states weighed by their samples.
+     *
+     * @return              the {@link Rollup} of the interval
+     * @since 1.0.0
+     */
+    private Rollup rollUp() {
+      List<ResourceState> states = new ArrayList<>(bucket.size());
+      int[] weights = new int[bucket.size()];
+      int samples = 0;
+      for (int index = 0; index < bucket.size(); index++) {
+        states.add(bucket.get(index).state);
+        weights[index] = bucket.get(index).samples;
+        samples += weights[index];
+      }
+      bucket.clear();
+      return new Rollup(ResourceStateFactory.average(states, weights), samples);
+    }
+  }
+
+  /**
+   * A resource state, together with the number of full resolution samples it is the mean of.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  private static final class Rollup {
+
+    private final ResourceState state;
+
+    private final int samples;
+
+    private Rollup(ResourceState state, int samples) {
+      this.state = state;
+      this.samples = samples;
+    }
+  }
+}
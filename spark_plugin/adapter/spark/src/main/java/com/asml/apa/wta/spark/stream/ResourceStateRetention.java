@@ -0,0 +1,63 @@
+package com.asml.apa.wta.spark.stream;
+
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import java.util.Arrays;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Retention policy of the resource states kept by the {@link MetricStreamingEngine}. The most recent states of
+ * an executor are kept at full resolution. Older states are rolled up into the mean state of every interval of
+ * the first rollup tier, and those are rolled up into the intervals of the next tier once they are older
+ * still. Every tier covers the same period as the full resolution states, and the last tier covers the rest.
+ * Finally, states are only kept when one of their values changed beyond a threshold since the last state kept.
+ * Without a full resolution period, no states are rolled up, but the threshold is still applied to every state.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Getter
+@Builder
+public class ResourceStateRetention {
+
+  @Builder.Default
+  private final long fullResolution = -1L;
+
+  @Builder.Default
+  private final long[] rollupIntervals = new long[0];
+
+  @Builder.Default
+  private final double changeThreshold = -1.0;
+
+  /**
+   * Creates the retention policy specified in the {@link RuntimeConfig}.
+   *
+   * @param config      {@link RuntimeConfig} to read the retention policy from
+   * @return            {@link ResourceStateRetention} with the configured properties
+   * @since 1.0.0
+   */
+  public static ResourceStateRetention fromRuntimeConfig(RuntimeConfig config) {
+    long[] intervals = config.getResourceStateRollupIntervals() == null
+        ? new long[0]
+        : Arrays.stream(config.getResourceStateRollupIntervals())
+            .filter(interval -> interval > 0)
+            .sorted()
+            .toArray();
+    return ResourceStateRetention.builder()
+        .fullResolution(config.getResourceStateFullResolution())
+        .rollupIntervals(intervals)
+        .changeThreshold(config.getResourceStateChangeThreshold())
+        .build();
+  }
+
+  /**
+   * Whether resource states are retained at a lower resolution once they are older than the full
+   * resolution period, or are only kept when they changed beyond the threshold.
+   *
+   * @return            {@code true} if the retention policy is enabled
+   * @since 1.0.0
+   */
+  public boolean isEnabled() {
+    return fullResolution >= 0 || changeThreshold >= 0;
+  }
+}
@@ -0,0 +1,143 @@
+package com.asml.apa.wta.spark.stream;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BinaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Per-resource values, indexed by the dense ids of a {@link ResourceIdRegistry}. Values are held in chunks
+ * that are allocated as ids are handed out, so the table grows without copying or locking.
+ *
+ * @param <T>       type of the values
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+class ResourceTable<T> {
+
+  private static final int CHUNK_BITS = 8;
+
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+  private static final int MAX_CHUNKS = 1 << 12;
+
+  private final AtomicReferenceArray<AtomicReferenceArray<T>> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+
+  /**
+   * Gets the value of a resource.
+   *
+   * @param id        id of the resource
+   * @return          the value of the resource, {@code null} if there is none
+   * @since 1.0.0
+   */
+  T get(long id) {
+    AtomicReferenceArray<T> chunk = chunks.get(chunkOf(id));
+    return chunk == null ? null : chunk.get(slotOf(id));
+  }
+
+  /**
+   * Gets the value of a resource, creating it if there is none.
+   *
+   * @param id            id of the resource
+   * @param factory       creates the value of the resource
+   * @return              the value of the resource
+   * @since 1.0.0
+   */
+  T computeIfAbsent(long id, LongFunction<T> factory) {
+    AtomicReferenceArray<T> chunk = chunk(id);
+    T value = chunk.get(slotOf(id));
+    if (value != null) {
+      return value;
+    }
+    T created = factory.apply(id);
+    return chunk.compareAndSet(slotOf(id), null, created) ? created : chunk.get(slotOf(id));
+  }
+
+  /**
+   * Merges a value into the value of a resource.
+   *
+   * @param id            id of the resource
+   * @param value         value to merge
+   * @param merger        merges the known value with the new one, this might be called more than once
+   * @return              the merged value
+   * @since 1.0.0
+   */
+  T merge(long id, T value, BinaryOperator<T> merger) {
+    return chunk(id)
+        .accumulateAndGet(
+            slotOf(id), value, (known, update) -> known == null ? update : merger.apply(known, update));
+  }
+
+  /**
+   * Removes the value of a resource.
+   *
+   * @param id        id of the resource
+   * @return          the removed value, {@code null} if there was none
+   * @since 1.0.0
+   */
+  T remove(long id) {
+    AtomicReferenceArray<T> chunk = chunks.get(chunkOf(id));
+    return chunk == null ? null : chunk.getAndSet(slotOf(id), null);
+  }
+
+  /**
+   * Performs an action for every value, in order of resource id.
+   *
+   * @param action        action to perform on a value and the id of its resource
+   * @since 1.0.0
+   */
+  void forEach(ObjLongConsumer<T> action) {
+    for (int index = 0; index < MAX_CHUNKS; index++) {
+      AtomicReferenceArray<T> chunk = chunks.get(index);
+      for (int slot = 0; chunk != null && slot < CHUNK_SIZE; slot++) {
+        T value = chunk.get(slot);
+        if (value != null) {
+          action.accept(value, ((long) index << CHUNK_BITS) + slot);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the chunk of a resource, allocating it if needed.
+   *
+   * @param id        id of the resource
+   * @return          the chunk holding the value of the resource
+   * @since 1.0.0
+   */
+  private AtomicReferenceArray<T> chunk(long id) {
+    int index = chunkOf(id);
+    AtomicReferenceArray<T> chunk = chunks.get(index);
+    if (chunk == null) {
+      chunks.compareAndSet(index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+      chunk = chunks.get(index);
+    }
+    return chunk;
+  }
+
+  /**
+   * Gets the index of the chunk of a resource.
+   *
+   * @param id        id of the resource
+   * @return          the index of its chunk
+   * @throws IllegalArgumentException when the id does not fit the table
+   * @since 1.0.0
+   */
+  private static int chunkOf(long id) {
+    if (id < 0 || id >= (long) MAX_CHUNKS << CHUNK_BITS) {
+      throw new IllegalArgumentException("Resource id " + id + " does not fit the resource table.");
+    }
+    return (int) (id >>> CHUNK_BITS);
+  }
+
+  /**
+   * Gets the slot of a resource within its chunk.
+   *
+   * @param id        id of the resource
+   * @return          the slot of the resource
+   * @since 1.0.0
+   */
+  private static int slotOf(long id) {
+    return (int) (id & (CHUNK_SIZE - 1));
+  }
+}
@@ -4,7 +4,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.*;
 
-import com.asml.apa.wta.spark.dto.ResourceCollectionDto;
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import com.asml.apa.wta.spark.dto.ResourceBatchDto;
 import com.asml.apa.wta.spark.dto.SparkBaseSupplierWrapperDto;
 import com.asml.apa.wta.spark.executor.SparkSupplierExtractionEngine;
 import com.asml.apa.wta.spark.executor.WtaExecutorPlugin;
@@ -31,7 +32,12 @@ class MultithreadTest {
     mockPluginContext = mock(PluginContext.class);
     when(mockPluginContext.executorID()).thenReturn("test-executor-id");
 
-    sutSupplierExtractionEngine = spy(new SparkSupplierExtractionEngine(1000, mockPluginContext, 2000));
+    sutSupplierExtractionEngine = spy(new SparkSupplierExtractionEngine(
+        RuntimeConfig.builder()
+            .resourcePingInterval(1000)
+            .executorSynchronizationInterval(2000)
+            .build(),
+        mockPluginContext));
 
     sutExecutorPlugin = spy(new WtaExecutorPlugin());
   }
@@ -81,7 +87,12 @@ class MultithreadTest {
   @Test
   @Timeout(value = 10000L, unit = TimeUnit.MILLISECONDS)
   void pingAndBufferWithANegativeOrZeroExecutorSynchronizationIntervalDoesNotBuffer() throws IOException {
-    SparkSupplierExtractionEngine testEngine = spy(new SparkSupplierExtractionEngine(2000, mockPluginContext, 0));
+    SparkSupplierExtractionEngine testEngine = spy(new SparkSupplierExtractionEngine(
+        RuntimeConfig.builder()
+            .resourcePingInterval(2000)
+            .executorSynchronizationInterval(0)
+            .build(),
+        mockPluginContext));
 
     testEngine.startPinging();
     testEngine.startSynchonizing();
@@ -90,7 +101,7 @@ class MultithreadTest {
         .atMost(6000L, TimeUnit.MILLISECONDS) // timeout
         .until(() -> testEngine.getBuffer().isEmpty());
 
-    verify(mockPluginContext, atLeastOnce()).send(isA(ResourceCollectionDto.class));
+    verify(mockPluginContext, atLeastOnce()).send(isA(ResourceBatchDto.class));
 
     testEngine.stopPinging();
     testEngine.stopSynchronizing();
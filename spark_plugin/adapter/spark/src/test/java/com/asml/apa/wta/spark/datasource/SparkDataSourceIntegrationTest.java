@@ -44,8 +44,7 @@ class SparkDataSourceIntegrationTest {
     spark = SparkSession.builder().config(conf).getOrCreate();
     spark.sparkContext().setLogLevel("ERROR");
 
-    sut = new SparkDataSource(
-        spark.sparkContext(), fakeConfig, mock(MetricStreamingEngine.class), mock(WtaWriter.class));
+    sut = new SparkDataSource(spark.sparkContext(), fakeConfig, new MetricStreamingEngine(), mock(WtaWriter.class));
 
     String resourcePath = "src/test/resources/wordcount.txt";
     textFile = JavaSparkContext.fromSparkContext(spark.sparkContext()).textFile(resourcePath);
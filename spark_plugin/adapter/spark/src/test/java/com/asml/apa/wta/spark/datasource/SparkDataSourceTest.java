@@ -1,5 +1,6 @@
 package com.asml.apa.wta.spark.datasource;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -7,11 +8,15 @@ import static org.mockito.Mockito.verify;
 import com.asml.apa.wta.core.WtaWriter;
 import com.asml.apa.wta.core.config.RuntimeConfig;
 import com.asml.apa.wta.core.model.Domain;
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.Task;
+import com.asml.apa.wta.core.model.Workflow;
 import com.asml.apa.wta.spark.listener.ApplicationLevelListener;
 import com.asml.apa.wta.spark.listener.JobLevelListener;
 import com.asml.apa.wta.spark.listener.StageLevelListener;
 import com.asml.apa.wta.spark.listener.TaskLevelListener;
 import com.asml.apa.wta.spark.stream.MetricStreamingEngine;
+import java.io.IOException;
 import org.apache.spark.SparkContext;
 import org.junit.jupiter.api.Test;
 
@@ -43,4 +48,33 @@ class SparkDataSourceTest {
     verify(ctx).removeSparkListener(any(JobLevelListener.class));
     verify(ctx).removeSparkListener(any(ApplicationLevelListener.class));
   }
+
+  @Test
+  void incrementalExportSetsUpExporter() throws IOException {
+    SparkContext ctx = mock(SparkContext.class);
+    RuntimeConfig config = new RuntimeConfig();
+    config.setAuthors(new String[] {"Harry Porter"});
+    config.setDomain(Domain.SCIENTIFIC);
+    config.setIncrementalExport(true);
+    WtaWriter wtaWriter = mock(WtaWriter.class);
+    SparkDataSource dataSource = new SparkDataSource(ctx, config, mock(MetricStreamingEngine.class), wtaWriter);
+
+    assertThat(dataSource.getIncrementalTraceExporter()).isNotNull();
+    assertThat(dataSource.getJobLevelListener().getIncrementalTraceExporter())
+        .isSameAs(dataSource.getIncrementalTraceExporter());
+    verify(wtaWriter).createRollingWriter(Task.class, config.getExportSegmentSize());
+    verify(wtaWriter).createRollingWriter(Workflow.class, config.getExportSegmentSize());
+    verify(wtaWriter).createRollingWriter(ResourceState.class, config.getExportSegmentSize());
+  }
+
+  @Test
+  void incrementalExportDisabledByDefault() {
+    RuntimeConfig config = new RuntimeConfig();
+    config.setAuthors(new String[] {"Harry Porter"});
+    config.setDomain(Domain.SCIENTIFIC);
+    SparkDataSource dataSource = new SparkDataSource(
+        mock(SparkContext.class), config, mock(MetricStreamingEngine.class), mock(WtaWriter.class));
+
+    assertThat(dataSource.getIncrementalTraceExporter()).isNull();
+  }
 }
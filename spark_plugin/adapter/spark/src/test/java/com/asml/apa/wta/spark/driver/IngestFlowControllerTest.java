@@ -0,0 +1,64 @@
+package com.asml.apa.wta.spark.driver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class IngestFlowControllerTest {
+
+  @Test
+  void creditsAreGrantedUpToTheCapacity() {
+    IngestFlowController sut = new IngestFlowController(10);
+    assertThat(sut.grant("1", 8)).isEqualTo(8);
+    assertThat(sut.grant("2", 8)).isEqualTo(2);
+    assertThat(sut.grant("3", 8)).isZero();
+    assertThat(sut.getGrantedCredits().sum()).isEqualTo(10);
+    assertThat(sut.getDeniedRequests().sum()).isEqualTo(1);
+  }
+
+  @Test
+  void spentCreditsAreReturnedOnceIngested() {
+    IngestFlowController sut = new IngestFlowController(2);
+    assertThat(sut.grant("1", 2)).isEqualTo(2);
+    long start = sut.begin("1");
+    assertThat(sut.grant("2", 8)).isZero();
+    sut.end(start, 5);
+    assertThat(sut.grant("2", 8)).isEqualTo(1);
+    assertThat(sut.getIngestedRecords().sum()).isEqualTo(5);
+    assertThat(sut.getReceivedMessages().sum()).isEqualTo(1);
+    assertThat(sut.getPeakPending().get()).isEqualTo(1);
+    assertThat(sut.getPending().get()).isZero();
+  }
+
+  @Test
+  void unspentCreditsAreReturnedWhenTheExecutorAsksAgain() {
+    IngestFlowController sut = new IngestFlowController(4);
+    assertThat(sut.grant("1", 4)).isEqualTo(4);
+    assertThat(sut.grant("2", 4)).isZero();
+    assertThat(sut.grant("1", 4)).isEqualTo(4);
+  }
+
+  @Test
+  void creditsAreNotLimitedWithoutCapacity() {
+    IngestFlowController sut = new IngestFlowController(-1);
+    for (int executor = 0; executor < 100; executor++) {
+      assertThat(sut.grant(String.valueOf(executor), 8)).isEqualTo(8);
+    }
+    sut.end(sut.begin(null), 1);
+    assertThat(sut.getDeniedRequests().sum()).isZero();
+  }
+
+  @Test
+  void waitersAreSignalledOnceNothingIsPending() throws Exception {
+    IngestFlowController sut = new IngestFlowController(-1);
+    assertThat(sut.awaitIdle(0L)).isTrue();
+    long start = sut.begin("1");
+    assertThat(sut.awaitIdle(10L)).isFalse();
+    CompletableFuture.runAsync(() -> sut.end(start, 1));
+    assertThat(sut.awaitIdle(10000L)).isTrue();
+    sut.drop(sut.begin("1"));
+    assertThat(sut.getDroppedMessages().sum()).isEqualTo(1);
+    assertThat(sut.getPending().get()).isZero();
+  }
+}
@@ -0,0 +1,150 @@
+package com.asml.apa.wta.spark.driver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.dto.OsInfoDto;
+import com.asml.apa.wta.core.dto.ProcDto;
+import com.asml.apa.wta.core.io.MetricBatchReader;
+import com.asml.apa.wta.core.io.MetricBatchWriter;
+import com.asml.apa.wta.spark.dto.ResourceBatchDto;
+import com.asml.apa.wta.spark.dto.SparkBaseSupplierWrapperDto;
+import com.asml.apa.wta.spark.stream.MetricStreamingEngine;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Load test of the ingest pipeline, simulating many executors that send their batches to the driver at once.
+ * Like the executors, the senders ask for credits before they send, so the queues of the pipeline never fill.
+ */
+@Slf4j
+class IngestPipelineIntegrationTest {
+
+  private static final int EXECUTORS = 256;
+
+  private static final int BATCHES = 100;
+
+  private static final int SAMPLES_PER_BATCH = 4;
+
+  private static final int RPC_THREADS = 8;
+
+  private static final int INGEST_THREADS = 4;
+
+  private static final int INGEST_CAPACITY = 1024;
+
+  private static final int CREDIT_REQUEST = 8;
+
+  private static SparkBaseSupplierWrapperDto sample(String executorId, long index) {
+    return SparkBaseSupplierWrapperDto.builder()
+        .executorId(executorId)
+        .timestamp(1_700_000_000_000L + index * 1000)
+        .osInfoDto(OsInfoDto.builder()
+            .os("Linux")
+            .architecture("amd64")
+            .availableProcessors(16)
+            .freePhysicalMemorySize((1L << 34) - index)
+            .build())
+        .procDto(ProcDto.builder()
+            .cpuModel("Intel(R) Xeon(R) CPU E5-2690 v4 @ 2.60GHz")
+            .loadAvgOneMinute(1.25 + index % 3)
+            .build())
+        .build();
+  }
+
+  private static List<List<ResourceBatchDto>> encodeBatches() {
+    List<List<ResourceBatchDto>> executors = new ArrayList<>();
+    for (int executor = 0; executor < EXECUTORS; executor++) {
+      String executorId = String.valueOf(executor);
+      MetricBatchWriter<SparkBaseSupplierWrapperDto> writer =
+          new MetricBatchWriter<>(SparkBaseSupplierWrapperDto.class, 16);
+      List<ResourceBatchDto> batches = new ArrayList<>();
+      for (int batch = 0; batch < BATCHES; batch++) {
+        List<SparkBaseSupplierWrapperDto> samples = new ArrayList<>();
+        for (int index = 0; index < SAMPLES_PER_BATCH; index++) {
+          samples.add(sample(executorId, (long) batch * SAMPLES_PER_BATCH + index));
+        }
+        batches.add(new ResourceBatchDto(executorId, writer.write(samples)));
+      }
+      executors.add(batches);
+    }
+    return executors;
+  }
+
+  @Test
+  void manyExecutorsAreIngestedWithoutLosingSamples() throws Exception {
+    List<List<ResourceBatchDto>> executors = encodeBatches();
+    MetricStreamingEngine engine = new MetricStreamingEngine();
+    Map<String, MetricBatchReader<SparkBaseSupplierWrapperDto>> readers = new ConcurrentHashMap<>();
+    IngestFlowController flowController = new IngestFlowController(INGEST_CAPACITY);
+    ExecutorService rpcThreads = Executors.newFixedThreadPool(RPC_THREADS);
+
+    long start = System.nanoTime();
+    long handOffNanos;
+    try (IngestPipeline sut = new IngestPipeline(
+        INGEST_THREADS,
+        messages -> {
+          List<SparkBaseSupplierWrapperDto> records = new ArrayList<>();
+          for (Object message : messages) {
+            ResourceBatchDto batch = (ResourceBatchDto) message;
+            records.addAll(readers.computeIfAbsent(
+                    batch.getExecutorId(),
+                    id -> new MetricBatchReader<>(SparkBaseSupplierWrapperDto.class))
+                .read(batch.getBatch()));
+          }
+          engine.addToResourceStream(records.get(0).getExecutorId(), records);
+          return records.size();
+        },
+        flowController)) {
+      List<Future<?>> senders = new ArrayList<>();
+      for (int thread = 0; thread < RPC_THREADS; thread++) {
+        int first = thread;
+        senders.add(rpcThreads.submit(() -> {
+          int[] credits = new int[EXECUTORS];
+          for (int batch = 0; batch < BATCHES; batch++) {
+            for (int executor = first; executor < EXECUTORS; executor += RPC_THREADS) {
+              ResourceBatchDto message = executors.get(executor).get(batch);
+              while (credits[executor] == 0) {
+                credits[executor] = flowController.grant(message.getExecutorId(), CREDIT_REQUEST);
+                Thread.yield();
+              }
+              credits[executor]--;
+              sut.submit(message.getExecutorId(), message);
+            }
+          }
+        }));
+      }
+      for (Future<?> sender : senders) {
+        sender.get();
+      }
+      handOffNanos = System.nanoTime() - start;
+      assertThat(sut.flush(60000L)).isTrue();
+    } finally {
+      rpcThreads.shutdown();
+    }
+    long totalNanos = System.nanoTime() - start;
+
+    long records = (long) EXECUTORS * BATCHES * SAMPLES_PER_BATCH;
+    log.info(
+        "Ingested {} records from {} executors in {} ms, of which {} ms to hand off, {} records per second "
+            + "with a mean latency of {} us.",
+        records,
+        EXECUTORS,
+        totalNanos / 1_000_000,
+        handOffNanos / 1_000_000,
+        records * 1_000_000_000L / totalNanos,
+        flowController.getIngestNanos().sum()
+            / 1000
+            / flowController.getReceivedMessages().sum());
+    assertThat(flowController.getDroppedMessages().sum()).isZero();
+    assertThat(flowController.getIngestedRecords().sum()).isEqualTo(records);
+    assertThat(engine.getExecutorStateStream().mapKeyList((key, stream) -> key))
+        .hasSize(EXECUTORS);
+    assertThat(engine.getExecutorStateStream().onKey("0").copy().count()).isEqualTo(BATCHES * SAMPLES_PER_BATCH);
+  }
+}
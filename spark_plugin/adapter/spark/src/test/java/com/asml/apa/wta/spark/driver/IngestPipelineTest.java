@@ -0,0 +1,129 @@
+package com.asml.apa.wta.spark.driver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class IngestPipelineTest {
+
+  @Test
+  void messagesOfAnExecutorAreIngestedInOrder() {
+    Map<String, List<Integer>> ingested = new ConcurrentHashMap<>();
+    IngestFlowController flowController = new IngestFlowController(-1);
+    try (IngestPipeline sut = new IngestPipeline(
+        3,
+        messages -> {
+          for (Object message : messages) {
+            String[] parts = ((String) message).split(":");
+            ingested.computeIfAbsent(parts[0], id -> new CopyOnWriteArrayList<>())
+                .add(Integer.parseInt(parts[1]));
+          }
+          return 2 * messages.size();
+        },
+        flowController)) {
+      for (int index = 0; index < 500; index++) {
+        for (String executor : List.of("1", "2", "3", "4")) {
+          sut.submit(executor, executor + ":" + index);
+        }
+      }
+      assertThat(sut.flush(10000L)).isTrue();
+    }
+    assertThat(ingested).hasSize(4);
+    ingested.values().forEach(indices -> assertThat(indices).hasSize(500).isSorted());
+    assertThat(flowController.getReceivedMessages().sum()).isEqualTo(2000);
+    assertThat(flowController.getIngestedRecords().sum()).isEqualTo(4000);
+    assertThat(flowController.getPending().get()).isZero();
+  }
+
+  @Test
+  void failingBatchesAreNotRetriedAndDoNotStopTheWorkers() {
+    List<Object> ingested = new CopyOnWriteArrayList<>();
+    AtomicInteger attempts = new AtomicInteger();
+    IngestFlowController flowController = new IngestFlowController(-1);
+    try (IngestPipeline sut = new IngestPipeline(
+        1,
+        messages -> {
+          if (messages.contains(null)) {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Malformed message");
+          }
+          ingested.addAll(messages);
+          return messages.size();
+        },
+        flowController)) {
+      sut.submit("1", null);
+      assertThat(sut.flush(10000L)).isTrue();
+      sut.submit("1", "message");
+      assertThat(sut.flush(10000L)).isTrue();
+    }
+    assertThat(attempts.get()).isEqualTo(1);
+    assertThat(ingested).containsExactly("message");
+    assertThat(flowController.getIngestedRecords().sum()).isEqualTo(1);
+    assertThat(flowController.getPending().get()).isZero();
+  }
+
+  @Test
+  void queuedMessagesOfAnExecutorAreIngestedAsOneBatch() throws Exception {
+    List<List<Object>> batches = new CopyOnWriteArrayList<>();
+    CountDownLatch release = new CountDownLatch(1);
+    IngestFlowController flowController = new IngestFlowController(-1);
+    try (IngestPipeline sut = new IngestPipeline(
+        1,
+        messages -> {
+          batches.add(messages);
+          awaitRelease(release);
+          return messages.size();
+        },
+        flowController)) {
+      sut.submit("1", "first");
+      await().atMost(5L, TimeUnit.SECONDS).until(() -> batches.size() == 1);
+      sut.submit("1", "second");
+      sut.submit("2", "third");
+      sut.submit("1", "fourth");
+      release.countDown();
+      assertThat(sut.flush(10000L)).isTrue();
+    }
+    assertThat(batches).containsExactly(List.of("first"), List.of("second", "fourth"), List.of("third"));
+    assertThat(flowController.getIngestedRecords().sum()).isEqualTo(4);
+  }
+
+  @Test
+  void messagesAreDroppedWhenTheQueueIsFull() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    IngestFlowController flowController = new IngestFlowController(-1);
+    int handedOff = 0;
+    try (IngestPipeline sut = new IngestPipeline(
+        1,
+        messages -> {
+          awaitRelease(release);
+          return messages.size();
+        },
+        flowController)) {
+      while (handedOff < 2048 && sut.submit("1", "message")) {
+        handedOff++;
+      }
+      assertThat(handedOff).isBetween(1024, 1024 + 64);
+      release.countDown();
+      assertThat(sut.flush(10000L)).isTrue();
+    }
+    assertThat(flowController.getDroppedMessages().sum()).isEqualTo(1);
+    assertThat(flowController.getIngestedRecords().sum()).isEqualTo(handedOff);
+    assertThat(flowController.getPending().get()).isZero();
+  }
+
+  private static void awaitRelease(CountDownLatch release) {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -5,7 +5,12 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
 import com.asml.apa.wta.core.config.RuntimeConfig;
+import com.asml.apa.wta.core.io.MetricBatchWriter;
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.spark.dto.CreditRequestDto;
+import com.asml.apa.wta.spark.dto.ResourceBatchDto;
 import com.asml.apa.wta.spark.dto.ResourceCollectionDto;
+import com.asml.apa.wta.spark.dto.ResourceStateBatchDto;
 import com.asml.apa.wta.spark.dto.SparkBaseSupplierWrapperDto;
 import java.io.IOException;
 import java.util.List;
@@ -96,7 +101,15 @@ class WtaDriverPluginTest {
   void wtaDriverPluginInitialized() {
     Map<String, String> configMap = createSparkConfAndInitialize("src/test/resources/config.json");
     assertThat(sut.isError()).isFalse();
-    assertThat(configMap).containsKeys("executorSynchronizationInterval", "resourcePingInterval", "errorStatus");
+    assertThat(configMap)
+        .containsKeys(
+            "executorSynchronizationInterval",
+            "resourcePingInterval",
+            "maxResourcePingInterval",
+            "persistentCollectors",
+            "executorResourceStateWindow",
+            "driverIngestCapacity",
+            "errorStatus");
     assertThat(configMap.get("errorStatus")).isEqualTo("false");
     assertThat(sut.getSparkDataSource()).isNotNull();
   }
@@ -149,17 +162,124 @@ class WtaDriverPluginTest {
         SparkBaseSupplierWrapperDto.builder().executorId("1").build(),
         SparkBaseSupplierWrapperDto.builder().executorId("2").build())));
     assertThat(sut.getMetricStreamingEngine()
-            .getExecutorResourceStream()
+            .getExecutorStateStream()
             .onKey("1")
             .isEmpty())
         .isFalse();
     assertThat(sut.getMetricStreamingEngine()
-            .getExecutorResourceStream()
+            .getExecutorStateStream()
             .onKey("2")
             .isEmpty())
         .isFalse();
   }
 
+  @Test
+  void receiveDecodesResourceBatches() {
+    createSparkConfAndInitialize("src/test/resources/config.json");
+    MetricBatchWriter<SparkBaseSupplierWrapperDto> writer =
+        new MetricBatchWriter<>(SparkBaseSupplierWrapperDto.class, 16);
+    sut.receive(new ResourceBatchDto(
+        "1",
+        writer.write(List.of(
+            SparkBaseSupplierWrapperDto.builder()
+                .executorId("1")
+                .timestamp(1L)
+                .build(),
+            SparkBaseSupplierWrapperDto.builder()
+                .executorId("1")
+                .timestamp(2L)
+                .build()))));
+    sut.receive(new ResourceBatchDto("2", new byte[] {42}));
+    assertThat(sut.getMetricStreamingEngine()
+            .getExecutorStateStream()
+            .onKey("1")
+            .isEmpty())
+        .isFalse();
+    assertThat(sut.getMetricStreamingEngine()
+            .getExecutorStateStream()
+            .onKey("2")
+            .isEmpty())
+        .isTrue();
+  }
+
+  @Test
+  void malformedMessagesAreRejectedWithoutDuplicatingTheirBatch() {
+    createSparkConfAndInitialize("src/test/resources/config-ingest.json");
+    MetricBatchWriter<SparkBaseSupplierWrapperDto> writer =
+        new MetricBatchWriter<>(SparkBaseSupplierWrapperDto.class, 16);
+    for (long batch = 0; batch < 8; batch++) {
+      if (batch == 4) {
+        sut.receive(new ResourceStateBatchDto("1", null, null));
+        sut.receive(new ResourceCollectionDto(List.of(
+            SparkBaseSupplierWrapperDto.builder().timestamp(batch).build())));
+      }
+      sut.receive(new ResourceBatchDto(
+          "1",
+          writer.write(List.of(
+              SparkBaseSupplierWrapperDto.builder()
+                  .executorId("1")
+                  .timestamp(batch * 2)
+                  .build(),
+              SparkBaseSupplierWrapperDto.builder()
+                  .executorId("1")
+                  .timestamp(batch * 2 + 1)
+                  .build()))));
+    }
+    sut.getMetricStreamingEngine().awaitIngest();
+    assertThat(sut.getMetricStreamingEngine()
+            .getExecutorStateStream()
+            .onKey("1")
+            .toList())
+        .extracting(ResourceState::getTimestamp)
+        .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L);
+    sut.shutdown();
+    assertThat(sut.getIngestFlowController().getPending().get()).isZero();
+  }
+
+  @Test
+  void receiveGrantsCredits() {
+    createSparkConfAndInitialize("src/test/resources/config.json");
+    assertThat(sut.receive(new CreditRequestDto("1", 8))).isEqualTo(8);
+    sut.receive(new ResourceStateBatchDto(
+        "1",
+        null,
+        List.of(ResourceState.builder().resourceId(1L).timestamp(1L).build())));
+    assertThat(sut.getIngestFlowController().getIngestedRecords().sum()).isEqualTo(1);
+  }
+
+  @Test
+  void receiveHandsMessagesOffToTheIngestPipeline() {
+    createSparkConfAndInitialize("src/test/resources/config-ingest.json");
+    assertThat(sut.getIngestPipeline()).isNotNull();
+    assertThat(sut.receive(new CreditRequestDto("1", 8))).isEqualTo(8);
+    sut.receive(new ResourceStateBatchDto(
+        "1",
+        null,
+        List.of(ResourceState.builder().resourceId(1L).timestamp(1L).build())));
+    sut.getMetricStreamingEngine().awaitIngest();
+    assertThat(sut.getMetricStreamingEngine()
+            .getExecutorStateStream()
+            .onKey("1")
+            .isEmpty())
+        .isFalse();
+    sut.shutdown();
+    assertThat(sut.getIngestFlowController().getPending().get()).isZero();
+  }
+
+  @Test
+  void receiveAddsExecutorDerivedResourceStates() {
+    createSparkConfAndInitialize("src/test/resources/config.json");
+    sut.receive(new ResourceStateBatchDto(
+        "1",
+        null,
+        List.of(ResourceState.builder().resourceId(1L).timestamp(1L).build())));
+    assertThat(sut.getMetricStreamingEngine()
+            .getExecutorStateStream()
+            .onKey("1")
+            .isEmpty())
+        .isFalse();
+  }
+
   @Test
   void wtaDriverPluginDoesNotInitializeWhenReadConfigThrowsIOException() {
     given(RuntimeConfig.readConfig("src/test/resources/throwsIOException.json"))
@@ -1,21 +1,36 @@
 package com.asml.apa.wta.spark.executor;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.Mockito.*;
 
+import com.asml.apa.wta.core.config.RuntimeConfig;
 import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.dto.CgroupDto;
 import com.asml.apa.wta.core.dto.DstatDto;
 import com.asml.apa.wta.core.dto.IostatDto;
 import com.asml.apa.wta.core.dto.JvmFileDto;
+import com.asml.apa.wta.core.dto.JvmRuntimeDto;
 import com.asml.apa.wta.core.dto.OsInfoDto;
 import com.asml.apa.wta.core.dto.PerfDto;
 import com.asml.apa.wta.core.dto.ProcDto;
+import com.asml.apa.wta.core.dto.ProcessDto;
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.ResourceStateFactory;
+import com.asml.apa.wta.spark.dto.CreditRequestDto;
+import com.asml.apa.wta.spark.dto.ResourceBatchDto;
+import com.asml.apa.wta.spark.dto.ResourceStateBatchDto;
 import com.asml.apa.wta.spark.dto.SparkBaseSupplierWrapperDto;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.apache.spark.api.plugin.PluginContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 class SparkSupplierExtractionEngineTest {
 
@@ -28,7 +43,12 @@ class SparkSupplierExtractionEngineTest {
     mockPluginContext = mock(PluginContext.class);
     when(mockPluginContext.executorID()).thenReturn("test-executor-id");
 
-    sutSupplierExtractionEngine = spy(new SparkSupplierExtractionEngine(1000, mockPluginContext, 2000));
+    sutSupplierExtractionEngine = spy(new SparkSupplierExtractionEngine(
+        RuntimeConfig.builder()
+            .resourcePingInterval(1000)
+            .executorSynchronizationInterval(2000)
+            .build(),
+        mockPluginContext));
   }
 
   @AfterEach
@@ -44,11 +64,23 @@ class SparkSupplierExtractionEngineTest {
     PerfDto fakePerfDto = PerfDto.builder().watt(30.12).build();
     ProcDto fakeProcDto = ProcDto.builder().active(1L).build();
     JvmFileDto fakeJvmFileDto = JvmFileDto.builder().freeSpace(11L).build();
+    CgroupDto fakeCgroupDto = CgroupDto.builder().memoryMax(1024L).build();
+    ProcessDto fakeProcessDto = ProcessDto.builder().residentMemory(512L).build();
+    JvmRuntimeDto fakeJvmRuntimeDto = JvmRuntimeDto.builder().gcPauses(3L).build();
 
     long fakeTime = System.currentTimeMillis();
 
     BaseSupplierDto baseSupplierDto = new BaseSupplierDto(
-        fakeTime, fakeOsInfo, fakeIoStatDto, fakeDstatDto, fakePerfDto, fakeJvmFileDto, fakeProcDto);
+        fakeTime,
+        fakeOsInfo,
+        fakeIoStatDto,
+        fakeDstatDto,
+        fakePerfDto,
+        fakeJvmFileDto,
+        fakeProcDto,
+        fakeCgroupDto,
+        fakeProcessDto,
+        fakeJvmRuntimeDto);
 
     SparkBaseSupplierWrapperDto result = sutSupplierExtractionEngine.transform(baseSupplierDto);
 
@@ -63,7 +95,98 @@ class SparkSupplierExtractionEngineTest {
             .perfDto(fakePerfDto)
             .jvmFileDto(fakeJvmFileDto)
             .procDto(fakeProcDto)
+            .cgroupDto(fakeCgroupDto)
+            .processDto(fakeProcessDto)
+            .jvmRuntimeDto(fakeJvmRuntimeDto)
             .executorId("test-executor-id")
             .build());
   }
+
+  @Test
+  void runningTasksKeepTheEngineBusy() {
+    assertThat(sutSupplierExtractionEngine.isBusy()).isFalse();
+    sutSupplierExtractionEngine.taskStarted();
+    sutSupplierExtractionEngine.taskStarted();
+    sutSupplierExtractionEngine.taskEnded();
+    assertThat(sutSupplierExtractionEngine.isBusy()).isTrue();
+    sutSupplierExtractionEngine.taskEnded();
+    sutSupplierExtractionEngine.taskEnded();
+    assertThat(sutSupplierExtractionEngine.isBusy()).isFalse();
+    sutSupplierExtractionEngine.taskStarted();
+    assertThat(sutSupplierExtractionEngine.isBusy()).isTrue();
+  }
+
+  @Test
+  void executorDerivedResourceStatesAreAveragedPerWindow() throws IOException {
+    SparkSupplierExtractionEngine sut = new SparkSupplierExtractionEngine(
+        RuntimeConfig.builder()
+            .resourcePingInterval(1000)
+            .maxResourcePingInterval(1000)
+            .executorResourceStateWindow(2)
+            .build(),
+        mockPluginContext);
+    for (int ping = 0; ping < 4; ping++) {
+      sut.pingAndBuffer().join();
+    }
+    sut.stopPinging();
+
+    ArgumentCaptor<Object> messages = ArgumentCaptor.forClass(Object.class);
+    verify(mockPluginContext, atLeastOnce()).send(messages.capture());
+    List<ResourceStateBatchDto> batches = messages.getAllValues().stream()
+        .map(ResourceStateBatchDto.class::cast)
+        .collect(Collectors.toList());
+    List<ResourceState> states =
+        batches.stream().flatMap(batch -> batch.getStates().stream()).collect(Collectors.toList());
+
+    assertThat(batches.get(0).getResource()).isNotNull();
+    assertThat(batches.get(0).getExecutorId()).isEqualTo("test-executor-id");
+    assertThat(states).hasSize(2);
+    assertThat(states).allMatch(state -> state.getResourceId() == ResourceStateFactory.UNASSIGNED_RESOURCE_ID);
+    assertThat(states.get(0).getTimestamp()).isLessThan(states.get(1).getTimestamp());
+  }
+
+  @Test
+  void snapshotsAreBufferedWhileTheExecutorHasNoCredits() throws Exception {
+    SparkSupplierExtractionEngine sut = new SparkSupplierExtractionEngine(
+        RuntimeConfig.builder()
+            .resourcePingInterval(100)
+            .driverIngestCapacity(8)
+            .build(),
+        mockPluginContext);
+    when(mockPluginContext.ask(any(CreditRequestDto.class))).thenReturn(0, 2);
+
+    sut.pingAndBuffer().join();
+    sut.pingAndBuffer().join();
+    verify(mockPluginContext, never()).send(any());
+    assertThat(sut.getBuffer()).hasSize(2);
+
+    sut.startSynchonizing();
+    verify(mockPluginContext, timeout(5000L)).send(isA(ResourceBatchDto.class));
+    sut.stopSynchronizing();
+    sut.stopPinging();
+    verify(mockPluginContext, times(2)).ask(any(CreditRequestDto.class));
+    assertThat(sut.getBuffer()).isEmpty();
+  }
+
+  @Test
+  void deniedCreditRequestsBackOff() throws Exception {
+    SparkSupplierExtractionEngine sut = new SparkSupplierExtractionEngine(
+        RuntimeConfig.builder()
+            .resourcePingInterval(50)
+            .driverIngestCapacity(8)
+            .build(),
+        mockPluginContext);
+    when(mockPluginContext.ask(any(CreditRequestDto.class))).thenReturn(0);
+
+    sut.pingAndBuffer().join();
+    sut.startSynchonizing();
+    await().during(1000L, TimeUnit.MILLISECONDS)
+        .atMost(2000L, TimeUnit.MILLISECONDS)
+        .until(() -> sut.getBuffer().size() == 1);
+    sut.stopSynchronizing();
+    sut.stopPinging();
+    verify(mockPluginContext, atMost(4)).ask(any(CreditRequestDto.class));
+    verify(mockPluginContext, never()).send(any());
+    assertThat(sut.getBuffer()).hasSize(1);
+  }
 }
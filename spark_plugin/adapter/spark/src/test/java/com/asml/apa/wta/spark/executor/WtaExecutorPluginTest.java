@@ -122,4 +122,39 @@ class WtaExecutorPluginTest {
     assertDoesNotThrow(() -> sut.init(mockedPluginContext, extraConf));
     assertThat(sut.isError()).isTrue();
   }
+
+  @Test
+  void wtaExecutorPluginAcceptsMaxResourcePingInterval() {
+    extraConf.put("errorStatus", "false");
+    extraConf.put("resourcePingInterval", "1000");
+    extraConf.put("maxResourcePingInterval", "8000");
+    extraConf.put("executorSynchronizationInterval", "1000");
+    assertDoesNotThrow(() -> sut.init(mockedPluginContext, extraConf));
+    assertThat(sut.isError()).isFalse();
+    assertDoesNotThrow(() -> sut.onTaskStart());
+    assertDoesNotThrow(() -> sut.onTaskSucceeded());
+    sut.shutdown();
+  }
+
+  @Test
+  void wtaExecutorPluginAcceptsExecutorResourceStateWindow() {
+    extraConf.put("errorStatus", "false");
+    extraConf.put("resourcePingInterval", "1000");
+    extraConf.put("executorSynchronizationInterval", "1000");
+    extraConf.put("executorResourceStateWindow", "4");
+    assertDoesNotThrow(() -> sut.init(mockedPluginContext, extraConf));
+    assertThat(sut.isError()).isFalse();
+    sut.shutdown();
+  }
+
+  @Test
+  void wtaExecutorPluginAcceptsDriverIngestCapacity() {
+    extraConf.put("errorStatus", "false");
+    extraConf.put("resourcePingInterval", "1000");
+    extraConf.put("executorSynchronizationInterval", "1000");
+    extraConf.put("driverIngestCapacity", "64");
+    assertDoesNotThrow(() -> sut.init(mockedPluginContext, extraConf));
+    assertThat(sut.isError()).isFalse();
+    sut.shutdown();
+  }
 }
@@ -22,6 +22,7 @@ import com.asml.apa.wta.core.stream.Stream;
 import com.asml.apa.wta.spark.datasource.SparkDataSource;
 import com.asml.apa.wta.spark.dto.ResourceAndStateWrapper;
 import com.asml.apa.wta.spark.stream.MetricStreamingEngine;
+import com.asml.apa.wta.spark.stream.ResourceIdRegistry;
 import java.util.List;
 import java.util.Properties;
 import org.apache.spark.SparkConf;
@@ -160,6 +161,10 @@ class ApplicationLevelListenerTest {
     when(sparkDataSource.getStageLevelListener()).thenReturn(mock(StageLevelListener.class));
     when(sparkDataSource.getJobLevelListener()).thenReturn(mock(JobLevelListener.class));
 
+    metricStreamingEngine = mock(MetricStreamingEngine.class);
+    when(metricStreamingEngine.collectResourceInformation()).thenReturn(List.of());
+    when(metricStreamingEngine.getResourceIds()).thenReturn(new ResourceIdRegistry());
+
     fakeApplicationListener = new ApplicationLevelListener(
         mockedSparkContext,
         fakeConfig,
@@ -167,7 +172,7 @@ class ApplicationLevelListenerTest {
         fakeStageListener,
         fakeJobListener,
         sparkDataSource,
-        mock(MetricStreamingEngine.class),
+        metricStreamingEngine,
         mock(WtaWriter.class));
 
     testTaskInfo1 = new TaskInfo(0, 0, 1, 50L, "testExecutor", "local", TaskLocality.NODE_LOCAL(), false);
@@ -230,9 +235,6 @@ class ApplicationLevelListenerTest {
 
     applicationDateEnd = mockedSparkContext.startTime() + 1000L;
     applicationEndObj = new SparkListenerApplicationEnd(applicationDateEnd);
-
-    metricStreamingEngine = mock(MetricStreamingEngine.class);
-    when(metricStreamingEngine.collectResourceInformation()).thenReturn(List.of());
   }
 
   @Test
@@ -390,6 +392,7 @@ class ApplicationLevelListenerTest {
   void writeTrace() {
     WtaWriter writer = mock(WtaWriter.class);
     MetricStreamingEngine streamingEngine = mock(MetricStreamingEngine.class);
+    when(streamingEngine.getResourceIds()).thenReturn(new ResourceIdRegistry());
     ResourceState resourceState = mock(ResourceState.class);
     Resource resource = Resource.builder().os("Hannah Montana Linux").build();
     when(streamingEngine.collectResourceInformation())
@@ -505,7 +508,7 @@ class ApplicationLevelListenerTest {
         fakeStageListener,
         fakeJobListener,
         sparkDataSource,
-        mock(MetricStreamingEngine.class),
+        metricStreamingEngine,
         mock(WtaWriter.class));
 
     ListBuffer<StageInfo> stageBuffer = new ListBuffer<>();
@@ -324,7 +324,8 @@ class JobLevelListenerTest {
     fakeTaskListener1.onTaskEnd(taskEndEvent4);
     fakeStageListener1.onStageCompleted(stageCompleted2);
     fakeJobListener1.onJobEnd(jobEndEvent1);
-    assertThat(fakeTaskListener1.getProcessedObjects().count()).isEqualTo(4);
+    await().atMost(20, SECONDS)
+        .until(() -> fakeTaskListener1.getProcessedObjects().count() == 4);
 
     Task task1 = fakeTaskListener1.getProcessedObjects().head();
     assertThat(task1.getParents().length).isEqualTo(0);
@@ -435,7 +436,8 @@ class JobLevelListenerTest {
 
     // stage 2 and stage 3 both have stage 1 as parent
     // stage 4 has stage 2 and stage 3 as parent
-    assertThat(fakeStageListener2.getProcessedObjects().count()).isEqualTo(4);
+    await().atMost(20, SECONDS)
+        .until(() -> fakeStageListener2.getProcessedObjects().count() == 4);
 
     Task stage1 = fakeStageListener2.getProcessedObjects().head();
     assertThat(stage1.getParents().length).isEqualTo(0);
@@ -499,7 +501,8 @@ class JobLevelListenerTest {
     fakeStageListener2.onStageCompleted(stageCompleted1);
     fakeStageListener2.onStageCompleted(stageCompleted2);
     fakeJobListener2.onJobEnd(jobEndEvent1);
-    assertThat(fakeStageListener2.getProcessedObjects().count()).isEqualTo(2);
+    await().atMost(20, SECONDS)
+        .until(() -> fakeStageListener2.getProcessedObjects().count() == 2);
 
     Task stage1 = fakeStageListener2.getProcessedObjects().head();
     assertThat(stage1.getParents().length).isEqualTo(0);
@@ -516,7 +519,8 @@ class JobLevelListenerTest {
     fakeStageListener2.onStageCompleted(stageCompleted3);
     fakeStageListener2.onStageCompleted(stageCompleted4);
     fakeJobListener2.onJobEnd(jobEndEvent2);
-    assertThat(fakeStageListener2.getProcessedObjects().count()).isEqualTo(4);
+    await().atMost(20, SECONDS)
+        .until(() -> fakeStageListener2.getProcessedObjects().count() == 4);
 
     Task stage3 = fakeStageListener2.getProcessedObjects().drop(2).head();
     assertThat(stage3.getParents().length).isEqualTo(0);
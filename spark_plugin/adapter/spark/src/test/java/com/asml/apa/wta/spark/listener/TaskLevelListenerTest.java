@@ -9,12 +9,16 @@ import static org.mockito.Mockito.when;
 
 import com.asml.apa.wta.core.config.RuntimeConfig;
 import com.asml.apa.wta.core.model.Domain;
+import com.asml.apa.wta.core.model.ResourceState;
 import com.asml.apa.wta.core.model.Task;
 import com.asml.apa.wta.spark.datasource.SparkDataSource;
+import com.asml.apa.wta.spark.stream.ResourceSampleIndex;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.apache.spark.SparkConf;
 import org.apache.spark.SparkContext;
+import org.apache.spark.TaskState;
 import org.apache.spark.executor.ExecutorMetrics;
 import org.apache.spark.executor.ShuffleWriteMetrics;
 import org.apache.spark.executor.TaskMetrics;
@@ -23,6 +27,7 @@ import org.apache.spark.resource.ResourceProfileManager;
 import org.apache.spark.resource.TaskResourceRequest;
 import org.apache.spark.scheduler.SparkListenerJobStart;
 import org.apache.spark.scheduler.SparkListenerTaskEnd;
+import org.apache.spark.scheduler.SparkListenerTaskStart;
 import org.apache.spark.scheduler.StageInfo;
 import org.apache.spark.scheduler.TaskInfo;
 import org.apache.spark.scheduler.TaskLocality;
@@ -186,6 +191,7 @@ class TaskLevelListenerTest {
     assertEquals(100L, curTask.getRuntime());
     assertEquals(1L, curTask.getWorkflowId());
     assertEquals(Math.abs("testUser".hashCode()), curTask.getUserId());
+    assertEquals(fakeTaskListener.getResourceIds().idOf("testExecutor"), curTask.getResourceUsed());
     assertEquals(-1, curTask.getSubmissionSite());
     assertEquals("N/A", curTask.getResourceType());
     assertEquals(-1.0, curTask.getResourceAmountRequested());
@@ -200,4 +206,107 @@ class TaskLevelListenerTest {
     assertEquals(0, curTask.getParents().length);
     assertEquals(0, curTask.getChildren().length);
   }
+
+  @Test
+  void tasksAreCorrelatedWithTheResourceStatesOfTheirResourceOnJobEnd() {
+    ResourceSampleIndex sampleIndex = new ResourceSampleIndex();
+    fakeTaskListener.setSampleIndex(sampleIndex);
+    long resourceId = fakeTaskListener.getResourceIds().idOf("testExecutor");
+    for (long timestamp = 0L; timestamp <= 200L; timestamp += 25L) {
+      sampleIndex.add(ResourceState.builder()
+          .resourceId(resourceId)
+          .timestamp(timestamp)
+          .availableMemory(timestamp)
+          .build());
+    }
+    ListBuffer<StageInfo> stageBuffer = new ListBuffer<>();
+    stageBuffer.$plus$eq(testStageInfo);
+    testTaskInfo1.markFinished(TaskState.FINISHED(), 100L);
+
+    fakeTaskListener.onJobStart(new SparkListenerJobStart(0, 2L, stageBuffer.toList(), new Properties()));
+    fakeTaskListener.onTaskEnd(taskEndEvent);
+    assertThat(fakeTaskListener.getTaskToFinishTime()).containsEntry(1L, 100L);
+    fakeTaskListener.setTasks(new StageLevelListener(mockedSparkContext, fakeConfig), 1L);
+    fakeTaskListener.correlateTasks(fakeTaskListener.getWorkflowsToTasks().onKey(1L));
+
+    Task curTask = fakeTaskListener.getStageToTasks().get(3L).get(0);
+    assertEquals(75.0, curTask.getResourceAvailableMemory());
+    assertEquals(-1.0, curTask.getResourceCpuUtilization());
+    assertThat(fakeTaskListener.getTaskToFinishTime()).isEmpty();
+  }
+
+  @Test
+  void resourceStatesBeforeTheEarliestUncorrelatedTaskArePruned() {
+    ResourceSampleIndex sampleIndex = new ResourceSampleIndex();
+    fakeTaskListener.setSampleIndex(sampleIndex);
+    long resourceId = fakeTaskListener.getResourceIds().idOf("testExecutor");
+    for (long timestamp = 0L; timestamp <= 200L; timestamp += 25L) {
+      sampleIndex.add(ResourceState.builder()
+          .resourceId(resourceId)
+          .timestamp(timestamp)
+          .availableMemory(timestamp)
+          .build());
+    }
+    ListBuffer<StageInfo> stageBuffer = new ListBuffer<>();
+    stageBuffer.$plus$eq(testStageInfo);
+    testTaskInfo1.markFinished(TaskState.FINISHED(), 100L);
+
+    fakeTaskListener.onJobStart(new SparkListenerJobStart(0, 2L, stageBuffer.toList(), new Properties()));
+    fakeTaskListener.onTaskStart(new SparkListenerTaskStart(2, 0, testTaskInfo1));
+    fakeTaskListener.onTaskStart(new SparkListenerTaskStart(2, 0, testTaskInfo2));
+    fakeTaskListener.onTaskEnd(taskEndEvent);
+    fakeTaskListener.setTasks(new StageLevelListener(mockedSparkContext, fakeConfig), 1L);
+    fakeTaskListener.correlateTasks(fakeTaskListener.getWorkflowsToTasks().onKey(1L));
+
+    assertThat(fakeTaskListener.getUncorrelatedTasks()).containsOnlyKeys(2L);
+    Task probe = Task.builder().id(3L).tsSubmit(0L).resourceUsed(resourceId).build();
+    sampleIndex.correlate(probe, 20L);
+    assertEquals(-1.0, probe.getResourceAvailableMemory());
+  }
+
+  @Test
+  void resourceStatesBeforeTheLatestCorrelatedTaskArePrunedOnceAllTasksAreCorrelated() {
+    ResourceSampleIndex sampleIndex = new ResourceSampleIndex();
+    fakeTaskListener.setSampleIndex(sampleIndex);
+    AtomicInteger ingestBarriers = new AtomicInteger();
+    fakeTaskListener.setIngestBarrier(ingestBarriers::incrementAndGet);
+    long resourceId = fakeTaskListener.getResourceIds().idOf("testExecutor");
+    for (long timestamp = 0L; timestamp <= 200L; timestamp += 25L) {
+      sampleIndex.add(ResourceState.builder()
+          .resourceId(resourceId)
+          .timestamp(timestamp)
+          .availableMemory(timestamp)
+          .build());
+    }
+    ListBuffer<StageInfo> stageBuffer = new ListBuffer<>();
+    stageBuffer.$plus$eq(testStageInfo);
+    testTaskInfo1.markFinished(TaskState.FINISHED(), 100L);
+
+    fakeTaskListener.onJobStart(new SparkListenerJobStart(0, 2L, stageBuffer.toList(), new Properties()));
+    fakeTaskListener.onTaskStart(new SparkListenerTaskStart(2, 0, testTaskInfo1));
+    fakeTaskListener.onTaskEnd(taskEndEvent);
+    fakeTaskListener.setTasks(new StageLevelListener(mockedSparkContext, fakeConfig), 1L);
+    fakeTaskListener.correlateTasks(fakeTaskListener.getWorkflowsToTasks().onKey(1L));
+
+    assertThat(ingestBarriers.get()).isEqualTo(1);
+    assertThat(fakeTaskListener.getUncorrelatedTasks()).isEmpty();
+    Task probe = Task.builder().id(3L).tsSubmit(0L).resourceUsed(resourceId).build();
+    sampleIndex.correlate(probe, 70L);
+    assertEquals(-1.0, probe.getResourceAvailableMemory());
+  }
+
+  @Test
+  void failedTasksAreNotLeftUncorrelated() {
+    fakeTaskListener.setSampleIndex(new ResourceSampleIndex());
+    ListBuffer<StageInfo> stageBuffer = new ListBuffer<>();
+    stageBuffer.$plus$eq(testStageInfo);
+    testTaskInfo1.markFinished(TaskState.FAILED(), 100L);
+
+    fakeTaskListener.onJobStart(new SparkListenerJobStart(0, 2L, stageBuffer.toList(), new Properties()));
+    fakeTaskListener.onTaskStart(new SparkListenerTaskStart(2, 0, testTaskInfo1));
+    fakeTaskListener.onTaskEnd(taskEndEvent);
+
+    assertThat(fakeTaskListener.getUncorrelatedTasks()).isEmpty();
+    assertThat(fakeTaskListener.getTaskToFinishTime()).isEmpty();
+  }
 }
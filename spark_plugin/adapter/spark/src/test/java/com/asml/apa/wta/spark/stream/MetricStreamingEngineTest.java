@@ -2,15 +2,21 @@ package com.asml.apa.wta.spark.stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.asml.apa.wta.core.dto.CgroupDto;
 import com.asml.apa.wta.core.dto.IostatDto;
 import com.asml.apa.wta.core.dto.JvmFileDto;
 import com.asml.apa.wta.core.dto.OsInfoDto;
 import com.asml.apa.wta.core.dto.ProcDto;
+import com.asml.apa.wta.core.dto.ProcessDto;
 import com.asml.apa.wta.core.model.Resource;
 import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.ResourceStateFactory;
+import com.asml.apa.wta.core.model.Task;
 import com.asml.apa.wta.spark.dto.ResourceAndStateWrapper;
 import com.asml.apa.wta.spark.dto.SparkBaseSupplierWrapperDto;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -107,7 +113,7 @@ class MetricStreamingEngineTest {
 
     Resource result = stateWrapperResult.getResource();
     assertThat(result.getOs()).isEqualTo("unknown");
-    assertThat(result.getId()).isPositive();
+    assertThat(result.getId()).isZero();
     assertThat(result.getMemory()).isEqualTo(-1L);
     assertThat(result.getDiskSpace()).isPositive();
   }
@@ -124,19 +130,17 @@ class MetricStreamingEngineTest {
     assertThat(result.size()).isEqualTo(2);
 
     ResourceAndStateWrapper executor2 = result.stream()
-        .filter(r ->
-            r.getResource().getId() == Math.abs(s2.getExecutorId().hashCode()))
+        .filter(r -> r.getResource().getId() == sut.getResourceIds().idOf(s2.getExecutorId()))
         .findFirst()
         .get();
     ResourceAndStateWrapper executor3 = result.stream()
-        .filter(r ->
-            r.getResource().getId() == Math.abs(s3.getExecutorId().hashCode()))
+        .filter(r -> r.getResource().getId() == sut.getResourceIds().idOf(s3.getExecutorId()))
         .findFirst()
         .get();
 
     assertThat(executor2.getResource())
         .isEqualTo(Resource.builder()
-            .id(Math.abs(s1.getExecutorId().hashCode()))
+            .id(sut.getResourceIds().idOf(s1.getExecutorId()))
             .type("cluster node")
             .numResources(8.0)
             .memory(111L)
@@ -188,4 +192,204 @@ class MetricStreamingEngineTest {
     assertThat(result.size()).isEqualTo(1);
     assertThat(result.get(0).getResource().getOs()).isEqualTo("asfasdfjasfsadfasfasdfsa");
   }
+
+  @Test
+  void batchesOfAnExecutorAreAddedAtOnce() {
+    s3.setExecutorId(s1.getExecutorId());
+    sut.addToResourceStream(s1.getExecutorId(), List.of(s1, s3));
+    sut.addToResourceStream(s2.getExecutorId(), List.of());
+
+    List<ResourceAndStateWrapper> result = sut.collectResourceInformation();
+    assertThat(result.size()).isEqualTo(1);
+    assertThat(result.get(0).getStates().count()).isEqualTo(2);
+    assertThat(result.get(0).getResource().getId())
+        .isEqualTo(sut.getResourceIds().idOf(s1.getExecutorId()));
+  }
+
+  @Test
+  void drainingResourceStatesMergesResources() {
+    sut.addToResourceStream(s1.getExecutorId(), s1);
+    assertThat(sut.drainResourceStates().count()).isEqualTo(1);
+    assertThat(sut.drainResourceStates().isEmpty()).isTrue();
+
+    sut.addToResourceStream(s2.getExecutorId(), s2);
+    sut.addToResourceStream(s3.getExecutorId(), s3);
+    assertThat(sut.drainResourceStates().count()).isEqualTo(2);
+
+    List<Resource> resources = sut.getDrainedResources().toList();
+    assertThat(resources.size()).isEqualTo(2);
+    Resource executor1 = resources.stream()
+        .filter(r -> r.getId() == sut.getResourceIds().idOf(s1.getExecutorId()))
+        .findFirst()
+        .get();
+    assertThat(executor1.getOs()).isEqualTo("Mac OS X");
+    assertThat(executor1.getProcModel()).isEqualTo("Ryzen 7 Over 90000 / x64");
+    assertThat(executor1.getMemory()).isEqualTo(111L);
+    assertThat(sut.collectResourceInformation().isEmpty()).isTrue();
+  }
+
+  @Test
+  void procRatesTakePrecedenceOverIostat() {
+    s1.setProcDto(ProcDto.builder()
+        .diskReadBytesPerSecond(100000000.0)
+        .diskWrittenBytesPerSecond(25000000.0)
+        .networkReceivedBytesPerSecond(250000000.0)
+        .networkTransmittedBytesPerSecond(0.0)
+        .build());
+    sut.addToResourceStream(s1.getExecutorId(), s1);
+    sut.addToResourceStream(s3.getExecutorId(), s3);
+
+    ResourceState withProcRates = sut.drainResourceStates()
+        .filter(state -> state.getResourceId() == sut.getResourceIds().idOf(s1.getExecutorId()))
+        .head();
+    assertThat(withProcRates.getAvailableDiskIoBandwidth()).isEqualTo(1.0);
+    assertThat(withProcRates.getAvailableNetworkBandwidth()).isEqualTo(2.0);
+  }
+
+  @Test
+  void cgroupLimitsTakePrecedenceOverTheHost() {
+    s2.setCgroupDto(CgroupDto.builder()
+        .cpuLimit(2.5)
+        .memoryMax(4294967296L)
+        .memoryCurrent(1073741824L)
+        .build());
+    sut.addToResourceStream(s2.getExecutorId(), s2);
+
+    ResourceAndStateWrapper result = sut.collectResourceInformation().get(0);
+    assertThat(result.getResource().getNumResources()).isEqualTo(2.5);
+    assertThat(result.getResource().getMemory()).isEqualTo(4L);
+    ResourceState state = result.getStates().head();
+    assertThat(state.getAvailableResources()).isEqualTo(2.5);
+    assertThat(state.getAvailableMemory()).isEqualTo(3.0);
+  }
+
+  @Test
+  void processUsageIsAttributedToTheExecutor() {
+    s2.setProcessDto(ProcessDto.builder()
+        .cpuUtilization(1.5)
+        .residentMemory(2147483648L)
+        .readBytesPerSecond(100000000.0)
+        .writtenBytesPerSecond(25000000.0)
+        .contextSwitchesPerSecond(300.0)
+        .build());
+    sut.addToResourceStream(s2.getExecutorId(), s2);
+    sut.addToResourceStream(s3.getExecutorId(), s3);
+
+    ResourceState withProcess = sut.drainResourceStates()
+        .filter(state -> state.getResourceId() == sut.getResourceIds().idOf(s2.getExecutorId()))
+        .head();
+    assertThat(withProcess.getProcessCpuUtilization()).isEqualTo(1.5);
+    assertThat(withProcess.getProcessMemory()).isEqualTo(2.0);
+    assertThat(withProcess.getProcessDiskIoBandwidth()).isEqualTo(1.0);
+    assertThat(withProcess.getProcessContextSwitchesPerSecond()).isEqualTo(300.0);
+  }
+
+  @Test
+  void executorDerivedResourceStatesAreCollected() {
+    long unassigned = ResourceStateFactory.UNASSIGNED_RESOURCE_ID;
+    Resource resource = ResourceStateFactory.createResource(unassigned, s2);
+    ResourceState state = ResourceStateFactory.createResourceState(unassigned, s2);
+    sut.addToResourceStateStream(s2.getExecutorId(), resource, List.of(state));
+    sut.addToResourceStateStream(s2.getExecutorId(), null, List.of(state));
+
+    long resourceId = sut.getResourceIds().idOf(s2.getExecutorId());
+    ResourceState assigned = state.toBuilder().resourceId(resourceId).build();
+    List<ResourceAndStateWrapper> result = sut.collectResourceInformation();
+    assertThat(result.size()).isEqualTo(1);
+    assertThat(result.get(0).getResource())
+        .isEqualTo(resource.toBuilder().id(resourceId).build());
+    assertThat(result.get(0).getStates().toList()).containsExactly(assigned, assigned);
+  }
+
+  @Test
+  void drainingResourceStatesIncludesExecutorDerivedStates() {
+    ResourceState state = ResourceStateFactory.createResourceState(ResourceStateFactory.UNASSIGNED_RESOURCE_ID, s3);
+    sut.addToResourceStream(s1.getExecutorId(), s1);
+    sut.addToResourceStateStream(s3.getExecutorId(), null, List.of(state));
+
+    assertThat(sut.drainResourceStates().count()).isEqualTo(2);
+    List<Resource> resources = sut.getDrainedResources().toList();
+    assertThat(resources.size()).isEqualTo(2);
+    long resourceId = sut.getResourceIds().idOf(s3.getExecutorId());
+    assertThat(resources.stream().filter(r -> r.getId() == resourceId).findFirst())
+        .isPresent();
+  }
+
+  @Test
+  void pingsAreTurnedIntoResourceStatesOnIngest() {
+    sut.addToResourceStream(s1.getExecutorId(), s1);
+    sut.addToResourceStream(s2.getExecutorId(), s2);
+
+    assertThat(sut.getExecutorStateStream().onKey(s1.getExecutorId()).count())
+        .isEqualTo(2);
+    Resource summary = sut.getExecutorResources().get(sut.getResourceIds().idOf(s1.getExecutorId()));
+    assertThat(summary.getOs()).isEqualTo("Mac OS X");
+    assertThat(summary.getNumResources()).isEqualTo(8.0);
+    assertThat(summary.getDiskSpace()).isPositive();
+  }
+
+  @Test
+  void resourceStatesAreRetainedAtALowerResolution() {
+    sut = new MetricStreamingEngine(ResourceStateRetention.builder()
+        .fullResolution(1000L)
+        .rollupIntervals(new long[] {1000L})
+        .build());
+    long resourceId = sut.getResourceIds().idOf(s1.getExecutorId());
+    List<ResourceState> states = new ArrayList<>();
+    for (int index = 0; index < 40; index++) {
+      states.add(ResourceState.builder()
+          .resourceId(resourceId)
+          .timestamp(index * 100L)
+          .availableMemory(index)
+          .build());
+    }
+    sut.addToResourceStateStream(s1.getExecutorId(), null, states);
+    assertThat(sut.getExecutorStateStream().onKey(s1.getExecutorId()).count())
+        .isEqualTo(2);
+
+    List<ResourceAndStateWrapper> result = sut.collectResourceInformation();
+    assertThat(result.get(0).getStates().count()).isEqualTo(14);
+  }
+
+  @Test
+  void resourceStatesAreIndexedAtFullResolution() {
+    ResourceSampleIndex sampleIndex = new ResourceSampleIndex();
+    sut = new MetricStreamingEngine(
+        ResourceStateRetention.builder()
+            .fullResolution(1000L)
+            .rollupIntervals(new long[] {1000L})
+            .build(),
+        sampleIndex);
+    long resourceId = sut.getResourceIds().idOf(s1.getExecutorId());
+    List<ResourceState> states = new ArrayList<>();
+    for (int index = 0; index < 40; index++) {
+      states.add(ResourceState.builder()
+          .resourceId(resourceId)
+          .timestamp(index * 100L)
+          .availableMemory(index)
+          .build());
+    }
+    sut.addToResourceStateStream(s1.getExecutorId(), null, states);
+
+    Task task =
+        Task.builder().id(1L).tsSubmit(1000L).resourceUsed(resourceId).build();
+    sampleIndex.correlate(task, 1900L);
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(14.5);
+  }
+
+  @Test
+  void executorsAreAssignedDenseResourceIds() {
+    sut.addToResourceStream(s1.getExecutorId(), s1);
+    sut.addToResourceStream(s3.getExecutorId(), s3);
+    sut.addToResourceStateStream("executor3", null, List.of());
+
+    assertThat(sut.getResourceIds().getIds())
+        .containsExactly(
+            Map.entry(s1.getExecutorId(), 0L),
+            Map.entry(s3.getExecutorId(), 1L),
+            Map.entry("executor3", 2L));
+    assertThat(sut.drainResourceStates().toList())
+        .extracting(ResourceState::getResourceId)
+        .containsExactlyInAnyOrder(0L, 1L);
+  }
 }
@@ -0,0 +1,35 @@
+package com.asml.apa.wta.spark.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ResourceIdRegistryTest {
+
+  @Test
+  void executorsAreAssignedDenseIdsInOrderOfAppearance() {
+    ResourceIdRegistry sut = new ResourceIdRegistry();
+    assertThat(sut.idOf("driver")).isEqualTo(0L);
+    assertThat(sut.idOf("1")).isEqualTo(1L);
+    assertThat(sut.idOf("driver")).isEqualTo(0L);
+    assertThat(sut.idOf("0")).isEqualTo(2L);
+    assertThat(sut.size()).isEqualTo(3L);
+    assertThat(sut.getIds()).containsExactly(Map.entry("driver", 0L), Map.entry("1", 1L), Map.entry("0", 2L));
+  }
+
+  @Test
+  void idsDoNotCollideUnderContention() {
+    ResourceIdRegistry sut = new ResourceIdRegistry();
+    Map<Long, String> assigned = new ConcurrentHashMap<>();
+    IntStream.range(0, 10000).parallel().forEach(index -> {
+      String executorId = String.valueOf(index % 1000);
+      String previous = assigned.putIfAbsent(sut.idOf(executorId), executorId);
+      assertThat(previous).isIn(null, executorId);
+    });
+    assertThat(sut.size()).isEqualTo(1000L);
+    assertThat(assigned.keySet()).allMatch(id -> id >= 0L && id < 1000L);
+  }
+}
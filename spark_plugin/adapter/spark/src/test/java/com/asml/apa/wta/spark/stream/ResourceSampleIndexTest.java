@@ -0,0 +1,122 @@
+package com.asml.apa.wta.spark.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResourceSampleIndexTest {
+
+  private ResourceSampleIndex sut;
+
+  @BeforeEach
+  void setup() {
+    sut = new ResourceSampleIndex();
+    for (int index = 0; index < 100; index++) {
+      sut.add(ResourceState.builder()
+          .resourceId(0L)
+          .timestamp(index * 100L)
+          .averageUtilization1Minute(index % 2 == 0 ? 0.5 : 1.0)
+          .availableMemory(index)
+          .availableDiskIoBandwidth(index < 50 ? -1.0 : 2.0)
+          .build());
+    }
+  }
+
+  @Test
+  void tasksAreCorrelatedWithTheSamplesTakenWhileTheyRan() {
+    Task task = Task.builder().id(1L).tsSubmit(1000L).resourceUsed(0L).build();
+    sut.correlate(task, 1300L);
+
+    assertThat(task.getResourceCpuUtilization()).isEqualTo(0.75);
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(11.5);
+    assertThat(task.getResourceDiskIoBandwidth()).isEqualTo(-1.0);
+    assertThat(task.getResourceNetworkBandwidth()).isEqualTo(-1.0);
+  }
+
+  @Test
+  void onlyKnownValuesAreAveraged() {
+    Task task = Task.builder().id(1L).tsSubmit(4000L).resourceUsed(0L).build();
+    sut.correlate(task, 5900L);
+
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(49.5);
+    assertThat(task.getResourceDiskIoBandwidth()).isEqualTo(2.0);
+  }
+
+  @Test
+  void tasksBetweenSamplesUseTheLatestSampleBeforeThem() {
+    Task task = Task.builder().id(1L).tsSubmit(1010L).resourceUsed(0L).build();
+    sut.correlate(task, 1090L);
+
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(10.0);
+  }
+
+  @Test
+  void tasksBeforeTheFirstSampleAreNotCorrelated() {
+    sut.add(ResourceState.builder()
+        .resourceId(1L)
+        .timestamp(500L)
+        .availableMemory(8.0)
+        .build());
+    Task task = Task.builder().id(1L).tsSubmit(100L).resourceUsed(1L).build();
+    sut.correlate(task, 200L);
+
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(-1.0);
+  }
+
+  @Test
+  void tasksOnUnknownResourcesAreNotCorrelated() {
+    Task task = Task.builder().id(1L).tsSubmit(1000L).resourceUsed(7L).build();
+    sut.correlate(task, 2000L);
+    Task withoutResource = Task.builder().id(2L).tsSubmit(1000L).build();
+    sut.correlate(withoutResource, 2000L);
+
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(-1.0);
+    assertThat(withoutResource.getResourceAvailableMemory()).isEqualTo(-1.0);
+  }
+
+  @Test
+  void samplesThatArriveOutOfOrderAreLeftOut() {
+    sut.add(ResourceState.builder()
+        .resourceId(0L)
+        .timestamp(50L)
+        .availableMemory(1000.0)
+        .build());
+    Task task = Task.builder().id(1L).tsSubmit(0L).resourceUsed(0L).build();
+    sut.correlate(task, 90L);
+
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(0.0);
+  }
+
+  @Test
+  void prunedSamplesKeepTheLatestSampleBeforeTheHorizon() {
+    sut.prune(1050L);
+    Task task = Task.builder().id(1L).tsSubmit(1000L).resourceUsed(0L).build();
+    sut.correlate(task, 1300L);
+    Task pruned = Task.builder().id(2L).tsSubmit(0L).resourceUsed(0L).build();
+    sut.correlate(pruned, 900L);
+
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(11.5);
+    assertThat(task.getResourceCpuUtilization()).isEqualTo(0.75);
+    assertThat(pruned.getResourceAvailableMemory()).isEqualTo(-1.0);
+  }
+
+  @Test
+  void samplesCanBeAddedAfterPruning() {
+    sut.prune(9850L);
+    for (int index = 100; index < 300; index++) {
+      sut.add(ResourceState.builder()
+          .resourceId(0L)
+          .timestamp(index * 100L)
+          .availableMemory(index)
+          .build());
+    }
+    Task task = Task.builder().id(1L).tsSubmit(9800L).resourceUsed(0L).build();
+    sut.correlate(task, 10100L);
+
+    assertThat(task.getResourceAvailableMemory()).isEqualTo(99.5);
+    assertThat(task.getResourceDiskIoBandwidth()).isEqualTo(2.0);
+  }
+}
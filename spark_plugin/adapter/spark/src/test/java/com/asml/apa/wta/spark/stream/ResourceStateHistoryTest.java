@@ -0,0 +1,124 @@
+package com.asml.apa.wta.spark.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import com.asml.apa.wta.core.model.ResourceState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class ResourceStateHistoryTest {
+
+  private static ResourceState state(long timestamp, double availableMemory) {
+    return ResourceState.builder()
+        .resourceId(1L)
+        .timestamp(timestamp)
+        .availableMemory(availableMemory)
+        .build();
+  }
+
+  @Test
+  void olderStatesAreRolledUp() {
+    ResourceStateHistory sut = new ResourceStateHistory(ResourceStateRetention.builder()
+        .fullResolution(10000L)
+        .rollupIntervals(new long[] {2000L})
+        .build());
+    List<ResourceState> kept = new ArrayList<>();
+    for (int index = 0; index < 80; index++) {
+      kept.addAll(sut.add(state(index * 500L, index)));
+    }
+
+    assertThat(kept).hasSize(10);
+    assertThat(kept.get(0).getTimestamp()).isZero();
+    assertThat(kept.get(0).getAvailableMemory()).isEqualTo(1.5);
+    assertThat(kept.get(9).getTimestamp()).isEqualTo(18000L);
+
+    List<ResourceState> remaining = sut.flush();
+    assertThat(remaining).hasSize(26);
+    assertThat(remaining.subList(5, 26))
+        .extracting(ResourceState::getTimestamp)
+        .containsExactlyElementsOf(List.of(
+            29500L, 30000L, 30500L, 31000L, 31500L, 32000L, 32500L, 33000L, 33500L, 34000L, 34500L, 35000L,
+            35500L, 36000L, 36500L, 37000L, 37500L, 38000L, 38500L, 39000L, 39500L));
+    List<Long> timestamps = kept.stream().map(ResourceState::getTimestamp).collect(Collectors.toList());
+    remaining.forEach(state -> timestamps.add(state.getTimestamp()));
+    assertThat(timestamps).isSorted();
+    assertThat(sut.flush()).isEmpty();
+  }
+
+  @Test
+  void onlyChangedStatesAreKept() {
+    ResourceStateHistory sut = new ResourceStateHistory(ResourceStateRetention.builder()
+        .fullResolution(0L)
+        .changeThreshold(0.1)
+        .build());
+    List<ResourceState> kept = new ArrayList<>();
+    double[] values = {10.0, 10.5, 12.0, 12.0, 20.0};
+    for (int index = 0; index < values.length; index++) {
+      kept.addAll(sut.add(state(index, values[index])));
+    }
+
+    assertThat(kept).extracting(ResourceState::getAvailableMemory).containsExactly(10.0, 12.0);
+    assertThat(sut.flush()).extracting(ResourceState::getAvailableMemory).containsExactly(20.0);
+  }
+
+  @Test
+  void flushedStatesAreOnlyKeptIfTheyChanged() {
+    ResourceStateHistory sut = new ResourceStateHistory(ResourceStateRetention.builder()
+        .fullResolution(0L)
+        .changeThreshold(0.1)
+        .build());
+    sut.add(state(0L, 20.0));
+    assertThat(sut.add(state(1L, 20.5)))
+        .extracting(ResourceState::getAvailableMemory)
+        .containsExactly(20.0);
+    assertThat(sut.flush()).isEmpty();
+  }
+
+  @Test
+  void rollupsAreWeighedByTheirSamples() {
+    ResourceStateHistory sut = new ResourceStateHistory(ResourceStateRetention.builder()
+        .fullResolution(1000L)
+        .rollupIntervals(new long[] {1000L, 10000L})
+        .build());
+    double[] values = {0.0, 0.0, 0.0, 30.0, 50.0, 99.0};
+    long[] timestamps = {0L, 500L, 900L, 1500L, 2500L, 100000L};
+    for (int index = 0; index < values.length; index++) {
+      assertThat(sut.add(state(timestamps[index], values[index]))).isEmpty();
+    }
+
+    assertThat(sut.flush()).extracting(ResourceState::getAvailableMemory).containsExactly(7.5, 50.0, 99.0);
+  }
+
+  @Test
+  void retentionIsReadFromTheRuntimeConfig() {
+    ResourceStateRetention retention = ResourceStateRetention.fromRuntimeConfig(RuntimeConfig.builder()
+        .resourceStateFullResolution(60000L)
+        .resourceStateRollupIntervals(new long[] {60000L, -1L, 10000L})
+        .build());
+    assertThat(retention.isEnabled()).isTrue();
+    assertThat(retention.getRollupIntervals()).containsExactly(10000L, 60000L);
+    assertThat(ResourceStateRetention.fromRuntimeConfig(new RuntimeConfig()).isEnabled())
+        .isFalse();
+  }
+
+  @Test
+  void changeThresholdAloneEnablesRetention() {
+    ResourceStateRetention retention = ResourceStateRetention.fromRuntimeConfig(RuntimeConfig.builder()
+        .resourceStateRollupIntervals(new long[] {2L})
+        .resourceStateChangeThreshold(0.1)
+        .build());
+    assertThat(retention.isEnabled()).isTrue();
+    ResourceStateHistory sut = new ResourceStateHistory(retention);
+    List<ResourceState> kept = new ArrayList<>();
+    double[] values = {10.0, 10.5, 12.0, 12.0, 20.0};
+    for (int index = 0; index < values.length; index++) {
+      kept.addAll(sut.add(state(index, values[index])));
+    }
+    kept.addAll(sut.flush());
+
+    assertThat(kept).extracting(ResourceState::getAvailableMemory).containsExactly(10.0, 12.0, 20.0);
+  }
+}
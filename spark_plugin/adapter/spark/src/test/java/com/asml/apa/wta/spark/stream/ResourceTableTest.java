@@ -0,0 +1,37 @@
+package com.asml.apa.wta.spark.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ResourceTableTest {
+
+  @Test
+  void valuesAreIndexedByResourceId() {
+    ResourceTable<String> sut = new ResourceTable<>();
+    sut.merge(0L, "a", String::concat);
+    sut.merge(300L, "b", String::concat);
+    sut.merge(0L, "c", String::concat);
+    assertThat(sut.computeIfAbsent(300L, id -> "d")).isEqualTo("b");
+    assertThat(sut.computeIfAbsent(2L, id -> "e" + id)).isEqualTo("e2");
+
+    List<Long> ids = new ArrayList<>();
+    sut.forEach((value, id) -> ids.add(id));
+    assertThat(ids).containsExactly(0L, 2L, 300L);
+    assertThat(sut.get(0L)).isEqualTo("ac");
+    assertThat(sut.remove(300L)).isEqualTo("b");
+    assertThat(sut.get(300L)).isNull();
+    assertThat(sut.get(5000L)).isNull();
+  }
+
+  @Test
+  void idsOutsideTheTableAreRejected() {
+    ResourceTable<String> sut = new ResourceTable<>();
+    assertThatThrownBy(() -> sut.get(-1L)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> sut.merge(Long.MAX_VALUE, "a", String::concat))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,183 @@
+package com.asml.apa.wta.agent;
+
+import com.asml.apa.wta.core.WtaWriter;
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.io.OutputFileFactory;
+import com.asml.apa.wta.core.io.ParquetWriterConfig;
+import com.asml.apa.wta.core.io.RollingParquetWriter;
+import com.asml.apa.wta.core.model.Resource;
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.ResourceStateFactory;
+import com.asml.apa.wta.core.supplier.SupplierExtractionEngine;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Standalone agent that collects the resource metrics of a node that does not run a Spark executor, such as a
+ * shared storage node. It pings the same suppliers as the executors, and writes the resource states of the node
+ * to Parquet segments of its own. The agent is given the id of the resource it describes, so its segments can
+ * be placed next to those of a Spark trace to merge the two by resource id.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class CollectorAgent implements AutoCloseable {
+
+  private static final String SCHEMA_VERSION = "schema-1.0";
+
+  private static final String TOOL_VERSION = "wta-collector-agent-1_0";
+
+  private static final long DEFAULT_FLUSH_INTERVAL = 60000L;
+
+  @Getter
+  private final long resourceId;
+
+  private final SupplierExtractionEngine<BaseSupplierDto> engine;
+
+  private final WtaWriter wtaWriter;
+
+  private final RollingParquetWriter<ResourceState> stateWriter;
+
+  private final String source;
+
+  private final long flushInterval;
+
+  private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+
+  @Getter
+  private Resource resource;
+
+  private boolean closed;
+
+  /**
+   * Constructs an agent.
+   *
+   * @param config            {@link RuntimeConfig} of the agent
+   * @param resourceId        id of the resource of the node, which should not be used by any other resource in
+   *                          the traces it is merged with
+   * @param wtaWriter         {@link WtaWriter} to write the resource and its states with
+   * @param engine            {@link SupplierExtractionEngine} that pings the suppliers
+   * @since 1.0.0
+   */
+  public CollectorAgent(
+      RuntimeConfig config,
+      long resourceId,
+      WtaWriter wtaWriter,
+      SupplierExtractionEngine<BaseSupplierDto> engine) {
+    this.resourceId = resourceId;
+    this.engine = engine;
+    this.wtaWriter = wtaWriter;
+    this.source = "node-" + resourceId;
+    this.flushInterval = config.getExecutorSynchronizationInterval() > 0
+        ? config.getExecutorSynchronizationInterval()
+        : DEFAULT_FLUSH_INTERVAL;
+    this.stateWriter = wtaWriter.createRollingWriter(ResourceState.class, config.getExportSegmentSize(), source);
+  }
+
+  /**
+   * Starts pinging the suppliers, and periodically writes the resource states derived from the pings.
+   *
+   * @since 1.0.0
+   */
+  public void start() {
+    log.info("Starting the collector agent for resource {}.", resourceId);
+    engine.startPinging();
+    flusher.scheduleAtFixedRate(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Writes the resource states of the pings buffered since the last flush.
+   *
+   * @return          number of resource states written
+   * @since 1.0.0
+   */
+  public synchronized int flush() {
+    List<BaseSupplierDto> pings = engine.getAndClear();
+    int written = 0;
+    for (BaseSupplierDto ping : pings) {
+      Resource update = ResourceStateFactory.createResource(resourceId, ping);
+      resource = resource == null ? update : ResourceStateFactory.mergeResources(resource, update);
+      try {
+        stateWriter.write(ResourceStateFactory.createResourceState(resourceId, ping));
+        written++;
+      } catch (IOException e) {
+        log.error("Could not write a resource state of resource {}.", resourceId);
+      }
+    }
+    log.trace("Wrote {} resource states of resource {}.", written, resourceId);
+    return written;
+  }
+
+  /**
+   * Stops pinging the suppliers, writes the remaining resource states, and writes the resource itself.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    log.info("Stopping the collector agent for resource {}.", resourceId);
+    flusher.shutdown();
+    engine.stopPinging();
+    flush();
+    try {
+      stateWriter.close();
+    } catch (IOException e) {
+      log.error("Could not close the resource state segment of resource {}.", resourceId);
+    }
+    if (resource == null) {
+      return;
+    }
+    try (RollingParquetWriter<Resource> resourceWriter =
+        wtaWriter.createRollingWriter(Resource.class, -1, source)) {
+      resourceWriter.write(resource);
+    } catch (IOException e) {
+      log.error("Could not write resource {}.", resourceId);
+    }
+  }
+
+  /**
+   * Runs the agent until the process is stopped.
+   *
+   * @param args        path to the config file, and the id of the resource of the node
+   * @throws IllegalArgumentException when the arguments are invalid
+   * @since 1.0.0
+   */
+  public static void main(String[] args) {
+    if (args.length != 2) {
+      log.error("Expected the path to the config file and the resource id of the node as arguments.");
+      throw new IllegalArgumentException("Usage: <config file> <resource id>");
+    }
+    long resourceId;
+    try {
+      resourceId = Long.parseLong(args[1]);
+    } catch (NumberFormatException e) {
+      resourceId = -1L;
+    }
+    if (resourceId < 0) {
+      log.error("The resource id must be a non-negative number, but was {}.", args[1]);
+      throw new IllegalArgumentException("The resource id must be a non-negative number");
+    }
+    RuntimeConfig config = RuntimeConfig.readConfig(args[0]);
+    WtaWriter wtaWriter = new WtaWriter(
+        new OutputFileFactory().create(config.getOutputPath()),
+        SCHEMA_VERSION,
+        String.valueOf(System.currentTimeMillis()),
+        TOOL_VERSION,
+        ParquetWriterConfig.fromRuntimeConfig(config));
+    CollectorAgent agent =
+        new CollectorAgent(config, resourceId, wtaWriter, new NodeSupplierExtractionEngine(config));
+    Runtime.getRuntime().addShutdownHook(new Thread(agent::close, "wta-agent-shutdown"));
+    agent.start();
+  }
+}
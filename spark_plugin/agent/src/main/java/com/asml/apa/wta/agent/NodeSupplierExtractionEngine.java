@@ -0,0 +1,40 @@
+package com.asml.apa.wta.agent;
+
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.supplier.SupplierExtractionEngine;
+
+/**
+ * Extraction engine of the collector agent. It runs the same suppliers as the executors of the Spark plugin,
+ * but as the agent does not run any work itself, the metrics of its own process are left out.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+public class NodeSupplierExtractionEngine extends SupplierExtractionEngine<BaseSupplierDto> {
+
+  /**
+   * Constructs the engine.
+   *
+   * @param config          {@link RuntimeConfig} with the ping intervals, whether collectors are persistent and the
+   *                        supplier cadences and change threshold
+   * @since 1.0.0
+   */
+  public NodeSupplierExtractionEngine(RuntimeConfig config) {
+    super(config);
+  }
+
+  /**
+   * Removes the metrics of the process of the agent from the record.
+   *
+   * @param record      'bare-bones' information of the node
+   * @return            the record without process metrics
+   * @since 1.0.0
+   */
+  @Override
+  public BaseSupplierDto transform(BaseSupplierDto record) {
+    record.setProcessDto(null);
+    record.setJvmRuntimeDto(null);
+    return record;
+  }
+}
@@ -0,0 +1,90 @@
+package com.asml.apa.wta.agent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.asml.apa.wta.core.WtaWriter;
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.dto.OsInfoDto;
+import com.asml.apa.wta.core.io.DiskOutputFile;
+import com.asml.apa.wta.core.io.RollingParquetWriter;
+import com.asml.apa.wta.core.io.WtaTraceReader;
+import com.asml.apa.wta.core.model.Resource;
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.supplier.SupplierExtractionEngine;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CollectorAgentTest {
+
+  @TempDir
+  Path output;
+
+  private SupplierExtractionEngine<BaseSupplierDto> engine;
+
+  private WtaWriter wtaWriter;
+
+  private static BaseSupplierDto ping(long timestamp) {
+    return BaseSupplierDto.builder()
+        .timestamp(timestamp)
+        .osInfoDto(OsInfoDto.builder()
+            .os("Linux")
+            .availableProcessors(4)
+            .freePhysicalMemorySize(1073741824L)
+            .build())
+        .build();
+  }
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    engine = mock(SupplierExtractionEngine.class);
+    wtaWriter = new WtaWriter(new DiskOutputFile(output), "schema-1.0", "1", "agent");
+  }
+
+  @Test
+  void pingsAreWrittenAsResourceStatesOfTheNode() throws IOException {
+    when(engine.getAndClear()).thenReturn(List.of(ping(1L), ping(2L)), List.of());
+    CollectorAgent sut = new CollectorAgent(RuntimeConfig.builder().build(), 7L, wtaWriter, engine);
+
+    assertThat(sut.flush()).isEqualTo(2);
+    sut.close();
+    sut.close();
+
+    verify(engine).stopPinging();
+    assertThat(sut.getResource().getOs()).isEqualTo("Linux");
+    try (WtaTraceReader reader = new WtaTraceReader(output.resolve("1").resolve("agent"), "schema-1.0")) {
+      List<ResourceState> states = reader.read(ResourceState.class).toList();
+      assertThat(states).hasSize(2).allMatch(state -> state.getResourceId() == 7L);
+      assertThat(states).allMatch(state -> state.getAvailableResources() == 4.0);
+      assertThat(reader.read(Resource.class).toList())
+          .singleElement()
+          .satisfies(resource -> assertThat(resource.getId()).isEqualTo(7L));
+    }
+  }
+
+  @Test
+  void segmentsAreMergedWithTheTraceTheyAreWrittenTo() throws IOException {
+    try (RollingParquetWriter<ResourceState> executorStates =
+        wtaWriter.createRollingWriter(ResourceState.class, 10)) {
+      executorStates.write(
+          ResourceState.builder().resourceId(0L).timestamp(1L).build());
+    }
+    when(engine.getAndClear()).thenReturn(List.of(ping(1L)));
+    CollectorAgent sut = new CollectorAgent(RuntimeConfig.builder().build(), 7L, wtaWriter, engine);
+    sut.close();
+
+    try (WtaTraceReader reader = new WtaTraceReader(output.resolve("1").resolve("agent"), "schema-1.0")) {
+      assertThat(reader.read(ResourceState.class).toList())
+          .extracting(ResourceState::getResourceId)
+          .containsExactlyInAnyOrder(0L, 7L);
+    }
+  }
+}
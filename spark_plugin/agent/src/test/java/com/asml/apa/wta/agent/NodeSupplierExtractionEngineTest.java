@@ -0,0 +1,31 @@
+package com.asml.apa.wta.agent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.dto.JvmRuntimeDto;
+import com.asml.apa.wta.core.dto.OsInfoDto;
+import com.asml.apa.wta.core.dto.ProcessDto;
+import org.junit.jupiter.api.Test;
+
+class NodeSupplierExtractionEngineTest {
+
+  @Test
+  void metricsOfTheAgentProcessAreLeftOut() {
+    NodeSupplierExtractionEngine sut =
+        new NodeSupplierExtractionEngine(RuntimeConfig.builder().build());
+    BaseSupplierDto record = BaseSupplierDto.builder()
+        .osInfoDto(OsInfoDto.builder().os("Linux").build())
+        .processDto(ProcessDto.builder().cpuUtilization(0.5).build())
+        .jvmRuntimeDto(new JvmRuntimeDto())
+        .build();
+
+    BaseSupplierDto result = sut.transform(record);
+
+    assertThat(result.getOsInfoDto().getOs()).isEqualTo("Linux");
+    assertThat(result.getProcessDto()).isNull();
+    assertThat(result.getJvmRuntimeDto()).isNull();
+    sut.stopPinging();
+  }
+}
@@ -4,6 +4,8 @@ import com.asml.apa.wta.core.io.JsonWriter;
 import com.asml.apa.wta.core.io.OutputFile;
 import com.asml.apa.wta.core.io.ParquetSchema;
 import com.asml.apa.wta.core.io.ParquetWriter;
+import com.asml.apa.wta.core.io.ParquetWriterConfig;
+import com.asml.apa.wta.core.io.RollingParquetWriter;
 import com.asml.apa.wta.core.model.BaseTraceObject;
 import com.asml.apa.wta.core.model.Resource;
 import com.asml.apa.wta.core.model.ResourceState;
@@ -11,7 +13,9 @@ import com.asml.apa.wta.core.model.Task;
 import com.asml.apa.wta.core.model.Workflow;
 import com.asml.apa.wta.core.model.Workload;
 import com.asml.apa.wta.core.stream.Stream;
+import com.asml.apa.wta.core.util.ExternalMergeSort;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +33,8 @@ public class WtaWriter {
 
   private final String schemaVersion;
 
+  private final ParquetWriterConfig parquetWriterConfig;
+
   private final Map<Class<? extends BaseTraceObject>, String> parquetLabels = Map.of(
       Resource.class, "resources",
       ResourceState.class, "resource_states",
@@ -45,8 +51,28 @@ public class WtaWriter {
    * @since 1.0.0
    */
   public WtaWriter(@NonNull OutputFile path, String version, String currentTime, String toolVersion) {
+    this(path, version, currentTime, toolVersion, ParquetWriterConfig.defaults());
+  }
+
+  /**
+   * Sets up a WTA writer for the specified output path and version, writing Parquet files with the given properties.
+   *
+   * @param path          output path to write to
+   * @param version       version of files to write
+   * @param currentTime   current time in milliseconds
+   * @param toolVersion   version of the tool that writes to file
+   * @param config        {@link ParquetWriterConfig} with the properties of the Parquet files to write
+   * @since 1.0.0
+   */
+  public WtaWriter(
+      @NonNull OutputFile path,
+      String version,
+      String currentTime,
+      String toolVersion,
+      @NonNull ParquetWriterConfig config) {
     file = path.resolve(currentTime).resolve(toolVersion);
     schemaVersion = version;
+    parquetWriterConfig = config;
   }
 
   /**
@@ -66,6 +92,8 @@ public class WtaWriter {
 
   /**
    * Writes a {@link Stream} of WTA objects to their corresponding Parquet file.
+   * When a sort key is configured for the table, the objects are sorted on it first,
+   * so the row group statistics can be used to skip row groups when reading.
    *
    * @param clazz         class of WTA objects to write
    * @param wtaObjects    WTA objects to write
@@ -76,14 +104,20 @@ public class WtaWriter {
     log.debug("Writing objects of type {} to file.", clazz.getSimpleName());
     String label = parquetLabels.get(clazz);
     ParquetSchema schema = new ParquetSchema(clazz, wtaObjects.copy(), label);
+    List<String> sortKey = parquetWriterConfig.getSortKey(label);
+    Stream<T> toWrite = wtaObjects;
+    if (!sortKey.isEmpty()) {
+      log.debug("Sorting {} on {}.", label, sortKey);
+      toWrite = new ExternalMergeSort<>(schema.createComparator(clazz, sortKey)).sort(wtaObjects);
+    }
     try {
       OutputFile path = file.resolve(label)
           .resolve(schemaVersion)
           .clearDirectories()
           .resolve(label + ".parquet");
-      try (ParquetWriter<T> wtaParquetWriter = new ParquetWriter<>(path, schema)) {
-        while (!wtaObjects.isEmpty()) {
-          wtaParquetWriter.write(wtaObjects.head());
+      try (ParquetWriter<T> wtaParquetWriter = new ParquetWriter<>(path, schema, parquetWriterConfig)) {
+        while (!toWrite.isEmpty()) {
+          wtaParquetWriter.write(toWrite.head());
         }
       }
     } catch (IOException e) {
@@ -91,6 +125,51 @@ public class WtaWriter {
     }
   }
 
+  /**
+   * Creates a {@link RollingParquetWriter} to incrementally write WTA objects to segmented Parquet files.
+   * Clears the directory of the corresponding Parquet table. As the objects are not known up front,
+   * the schema covers all fields of the class.
+   *
+   * @param clazz               class of WTA objects to write
+   * @param recordsPerSegment   amount of records per Parquet segment, non-positive to write a single segment
+   * @param <T>                 type parameter for the type of WTA object to write, should extend
+   *                            {@link BaseTraceObject}
+   * @return                    {@link RollingParquetWriter} that writes to the table of the given class
+   * @throws IOException        when the directory of the table cannot be cleared
+   * @since 1.0.0
+   */
+  public <T extends BaseTraceObject> RollingParquetWriter<T> createRollingWriter(
+      Class<T> clazz, long recordsPerSegment) throws IOException {
+    log.debug("Creating rolling writer for objects of type {}.", clazz.getSimpleName());
+    String label = parquetLabels.get(clazz);
+    ParquetSchema schema = new ParquetSchema(clazz, new Stream<>(), label);
+    OutputFile directory = file.resolve(label).resolve(schemaVersion).clearDirectories();
+    return new RollingParquetWriter<>(directory, label, schema, recordsPerSegment, parquetWriterConfig);
+  }
+
+  /**
+   * Creates a {@link RollingParquetWriter} that names its segments after both the table and the given source,
+   * so the segments of several sources can be placed in the same table. Unlike
+   * {@link #createRollingWriter(Class, long)}, the directory of the table is not cleared.
+   *
+   * @param clazz               class of WTA objects to write
+   * @param recordsPerSegment   amount of records per Parquet segment, non-positive to write a single segment
+   * @param source              name of the source, segments are named {@code label-source-00000.parquet} etc.
+   * @param <T>                 type parameter for the type of WTA object to write, should extend
+   *                            {@link BaseTraceObject}
+   * @return                    {@link RollingParquetWriter} that writes to the table of the given class
+   * @since 1.0.0
+   */
+  public <T extends BaseTraceObject> RollingParquetWriter<T> createRollingWriter(
+      Class<T> clazz, long recordsPerSegment, String source) {
+    log.debug("Creating rolling writer for objects of type {} from {}.", clazz.getSimpleName(), source);
+    String label = parquetLabels.get(clazz);
+    ParquetSchema schema = new ParquetSchema(clazz, new Stream<>(), label);
+    OutputFile directory = file.resolve(label).resolve(schemaVersion);
+    return new RollingParquetWriter<>(
+        directory, label + "-" + source, schema, recordsPerSegment, parquetWriterConfig);
+  }
+
   /**
    * Creates a Workload json writer.
    *
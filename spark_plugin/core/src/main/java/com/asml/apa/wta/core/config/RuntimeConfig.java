@@ -6,6 +6,8 @@ import com.google.gson.JsonParseException;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -43,14 +45,71 @@ public class RuntimeConfig {
   @Builder.Default
   private int resourcePingInterval = 500;
 
+  @Builder.Default
+  private int maxResourcePingInterval = -1;
+
   @Builder.Default
   private int executorSynchronizationInterval = -1;
 
+  @Builder.Default
+  private boolean persistentCollectors = false;
+
+  @Builder.Default
+  private Map<String, Integer> supplierCadences = new HashMap<>();
+
+  @Builder.Default
+  private double supplierChangeThreshold = 0.1;
+
+  @Builder.Default
+  private int executorResourceStateWindow = -1;
+
+  @Builder.Default
+  private int driverIngestCapacity = -1;
+
+  @Builder.Default
+  private int driverIngestThreads = -1;
+
+  @Builder.Default
+  private long resourceStateFullResolution = -1L;
+
+  @Builder.Default
+  private long[] resourceStateRollupIntervals = new long[0];
+
+  @Builder.Default
+  private double resourceStateChangeThreshold = -1.0;
+
+  @Builder.Default
+  private boolean taskResourceCorrelation = false;
+
   private String outputPath;
 
   @Builder.Default
   private boolean aggregateMetrics = false;
 
+  @Builder.Default
+  private boolean incrementalExport = false;
+
+  @Builder.Default
+  private long exportSegmentSize = 1000000L;
+
+  @Builder.Default
+  private long parquetRowGroupSize = 134217728L;
+
+  @Builder.Default
+  private int parquetPageSize = 1048576;
+
+  @Builder.Default
+  private boolean parquetDictionaryEncoding = true;
+
+  @Builder.Default
+  private boolean parquetBloomFilters = false;
+
+  @Builder.Default
+  private String parquetCompressionCodec = "SNAPPY";
+
+  @Builder.Default
+  private Map<String, String[]> sortKeys = new HashMap<>();
+
   /**
    * Reads the config file and creates the associated config object.
    *
@@ -81,6 +140,21 @@ public class RuntimeConfig {
       } else if (config.getResourcePingInterval() <= 0) {
         log.error("Resource ping interval must be greater than 0.");
         throw new IllegalArgumentException("Resource ping interval must be greater than 0");
+      } else if (config.getParquetRowGroupSize() <= 0 || config.getParquetPageSize() <= 0) {
+        log.error("Parquet row group and page sizes must be greater than 0.");
+        throw new IllegalArgumentException("Parquet row group and page sizes must be greater than 0");
+      }
+      if (config.getSupplierCadences().values().stream().anyMatch(cadence -> cadence == null || cadence <= 0)) {
+        log.error("Supplier cadences must be greater than 0.");
+        throw new IllegalArgumentException("Supplier cadences must be greater than 0");
+      } else if (config.getSupplierChangeThreshold() < 0) {
+        log.error("Supplier change threshold must not be negative.");
+        throw new IllegalArgumentException("Supplier change threshold must not be negative");
+      }
+      if (config.isStageLevel() && config.isTaskResourceCorrelation()) {
+        log.error("Task resource correlation is only supported with task level metrics, not with stage level.");
+        throw new IllegalArgumentException(
+            "Task resource correlation is not supported with stage level metrics");
       }
       log.trace("Successfully read config file from {}.", configFile);
       return config;
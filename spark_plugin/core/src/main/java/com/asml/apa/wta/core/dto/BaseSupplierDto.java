@@ -41,4 +41,13 @@ public class BaseSupplierDto implements Serializable {
 
   @Builder.Default
   private ProcDto procDto = null;
+
+  @Builder.Default
+  private CgroupDto cgroupDto = null;
+
+  @Builder.Default
+  private ProcessDto processDto = null;
+
+  @Builder.Default
+  private JvmRuntimeDto jvmRuntimeDto = null;
 }
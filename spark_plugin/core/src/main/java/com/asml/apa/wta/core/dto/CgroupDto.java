@@ -0,0 +1,79 @@
+package com.asml.apa.wta.core.dto;
+
+import com.asml.apa.wta.core.supplier.CgroupSupplier;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for the {@link CgroupSupplier}. Limits that are not set are reported as -1.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CgroupDto implements SupplierDto {
+
+  private static final long serialVersionUID = -3409284155201923446L;
+
+  @Builder.Default
+  private int version = -1;
+
+  @Builder.Default
+  private long cpuUsageMicros = -1;
+
+  @Builder.Default
+  private long cpuUserMicros = -1;
+
+  @Builder.Default
+  private long cpuSystemMicros = -1;
+
+  @Builder.Default
+  private long cpuPeriods = -1;
+
+  @Builder.Default
+  private long cpuThrottledPeriods = -1;
+
+  @Builder.Default
+  private long cpuThrottledMicros = -1;
+
+  @Builder.Default
+  private double cpuLimit = -1.0;
+
+  @Builder.Default
+  private long memoryCurrent = -1;
+
+  @Builder.Default
+  private long memoryMax = -1;
+
+  @Builder.Default
+  private long ioReadBytes = -1;
+
+  @Builder.Default
+  private long ioWrittenBytes = -1;
+
+  @Builder.Default
+  private long ioReadOperations = -1;
+
+  @Builder.Default
+  private long ioWriteOperations = -1;
+
+  @Builder.Default
+  private double cpuPressureSome = -1.0;
+
+  @Builder.Default
+  private double memoryPressureSome = -1.0;
+
+  @Builder.Default
+  private double memoryPressureFull = -1.0;
+
+  @Builder.Default
+  private double ioPressureSome = -1.0;
+
+  @Builder.Default
+  private double ioPressureFull = -1.0;
+}
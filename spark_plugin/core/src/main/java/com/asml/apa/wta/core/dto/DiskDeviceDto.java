@@ -0,0 +1,41 @@
+package com.asml.apa.wta.core.dto;
+
+import com.asml.apa.wta.core.supplier.ProcSupplier;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rates of a single block device, computed by the {@link ProcSupplier} between two pings.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiskDeviceDto implements Serializable {
+
+  private static final long serialVersionUID = 2318203650457713125L;
+
+  @Builder.Default
+  private String name = "unknown";
+
+  @Builder.Default
+  private double readBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private double writtenBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private double readsPerSecond = -1.0;
+
+  @Builder.Default
+  private double writesPerSecond = -1.0;
+
+  @Builder.Default
+  private double utilization = -1.0;
+}
@@ -0,0 +1,60 @@
+package com.asml.apa.wta.core.dto;
+
+import com.asml.apa.wta.core.supplier.JvmRuntimeSupplier;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for the {@link JvmRuntimeSupplier}. The garbage collection and allocation metrics
+ * cover the interval since the previous snapshot.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class JvmRuntimeDto implements SupplierDto {
+
+  private static final long serialVersionUID = 7731804928741296021L;
+
+  @Builder.Default
+  private long gcPauses = -1;
+
+  @Builder.Default
+  private double gcPauseMillis = -1.0;
+
+  @Builder.Default
+  private double maxGcPauseMillis = -1.0;
+
+  @Builder.Default
+  private long gcCycles = -1;
+
+  @Builder.Default
+  private double gcCycleMillis = -1.0;
+
+  @Builder.Default
+  private double allocatedBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private long heapUsed = -1;
+
+  @Builder.Default
+  private long heapCommitted = -1;
+
+  @Builder.Default
+  private long heapMax = -1;
+
+  @Builder.Default
+  private long nonHeapUsed = -1;
+
+  @Builder.Default
+  private int threads = -1;
+
+  @Builder.Default
+  private List<MemoryPoolDto> memoryPools = List.of();
+}
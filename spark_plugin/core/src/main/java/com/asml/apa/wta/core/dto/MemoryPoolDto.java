@@ -0,0 +1,41 @@
+package com.asml.apa.wta.core.dto;
+
+import com.asml.apa.wta.core.supplier.JvmRuntimeSupplier;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Usage of a single memory pool of the JVM, as read by the {@link JvmRuntimeSupplier}.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MemoryPoolDto implements Serializable {
+
+  private static final long serialVersionUID = -5113542470468233129L;
+
+  @Builder.Default
+  private String name = "unknown";
+
+  @Builder.Default
+  private boolean heap = false;
+
+  @Builder.Default
+  private long used = -1;
+
+  @Builder.Default
+  private long committed = -1;
+
+  @Builder.Default
+  private long max = -1;
+
+  @Builder.Default
+  private long usedAfterLastCollection = -1;
+}
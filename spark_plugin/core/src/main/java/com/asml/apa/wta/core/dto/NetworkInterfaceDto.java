@@ -0,0 +1,38 @@
+package com.asml.apa.wta.core.dto;
+
+import com.asml.apa.wta.core.supplier.ProcSupplier;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rates of a single network interface, computed by the {@link ProcSupplier} between two pings.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NetworkInterfaceDto implements Serializable {
+
+  private static final long serialVersionUID = -7044162357190418262L;
+
+  @Builder.Default
+  private String name = "unknown";
+
+  @Builder.Default
+  private double receivedBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private double transmittedBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private double receivedPacketsPerSecond = -1.0;
+
+  @Builder.Default
+  private double transmittedPacketsPerSecond = -1.0;
+}
@@ -1,6 +1,7 @@
 package com.asml.apa.wta.core.dto;
 
 import com.asml.apa.wta.core.supplier.ProcSupplier;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -71,6 +72,27 @@ public class ProcDto implements SupplierDto {
   @Builder.Default
   private long timeSpentFlushing = -1;
 
+  @Builder.Default
+  private double diskReadBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private double diskWrittenBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private double diskIosPerSecond = -1.0;
+
+  @Builder.Default
+  private List<DiskDeviceDto> diskDevices = List.of();
+
+  @Builder.Default
+  private double networkReceivedBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private double networkTransmittedBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private List<NetworkInterfaceDto> networkInterfaces = List.of();
+
   @Builder.Default
   private long hugePagesTotal = -1;
 
@@ -0,0 +1,66 @@
+package com.asml.apa.wta.core.dto;
+
+import com.asml.apa.wta.core.supplier.ProcessSupplier;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for the {@link ProcessSupplier}. It describes the executor process itself rather than
+ * the host it runs on. Rates are computed over the interval since the previous snapshot, and are -1 for the
+ * first snapshot.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessDto implements SupplierDto {
+
+  private static final long serialVersionUID = 6046617416094425307L;
+
+  @Builder.Default
+  private double cpuUserSeconds = -1.0;
+
+  @Builder.Default
+  private double cpuSystemSeconds = -1.0;
+
+  @Builder.Default
+  private double cpuUtilization = -1.0;
+
+  @Builder.Default
+  private double busiestThreadCpuUtilization = -1.0;
+
+  @Builder.Default
+  private long residentMemory = -1;
+
+  @Builder.Default
+  private long virtualMemory = -1;
+
+  @Builder.Default
+  private int threads = -1;
+
+  @Builder.Default
+  private long readBytes = -1;
+
+  @Builder.Default
+  private long writtenBytes = -1;
+
+  @Builder.Default
+  private double readBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private double writtenBytesPerSecond = -1.0;
+
+  @Builder.Default
+  private long voluntaryContextSwitches = -1;
+
+  @Builder.Default
+  private long involuntaryContextSwitches = -1;
+
+  @Builder.Default
+  private double contextSwitchesPerSecond = -1.0;
+}
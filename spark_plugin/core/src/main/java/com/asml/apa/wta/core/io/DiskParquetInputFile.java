@@ -2,26 +2,284 @@ package com.asml.apa.wta.core.io;
 
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import lombok.RequiredArgsConstructor;
+import java.nio.file.StandardOpenOption;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.parquet.io.InputFile;
 import org.apache.parquet.io.SeekableInputStream;
 
 /**
  * {@code DiskInputFile} is an implementation needed by Parquet to read
  * data files from disk using {@link SeekableInputStream} instances.
+ * Data is read through a {@link FileChannel} directly into the caller's buffers,
+ * optionally from a memory-mapped view of the file.
  *
  * @author Atour Mousavi Gourabi
  * @since 1.0.0
  */
-@RequiredArgsConstructor
+@Slf4j
 public class DiskParquetInputFile implements InputFile {
 
+  /**
+   * {@link SeekableInputStream} that reads from a {@link FileChannel} using positional reads.
+   * Heap and direct {@link ByteBuffer}s are filled without intermediate copies.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  public class DiskSeekableInputStream extends SeekableInputStream {
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer mapped;
+
+    private final ByteBuffer single = ByteBuffer.allocate(1);
+
+    private long pos = 0;
+
+    DiskSeekableInputStream() throws IOException {
+      channel = FileChannel.open(path, StandardOpenOption.READ);
+      long size = channel.size();
+      if (memoryMapped && size <= Integer.MAX_VALUE) {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      } else {
+        mapped = null;
+      }
+    }
+
+    /**
+     * Return the current position in the InputStream.
+     *
+     * @return              current position in bytes from the start of the stream
+     * @since 1.0.0
+     */
+    @Override
+    public long getPos() {
+      return pos;
+    }
+
+    /**
+     * Seek to a new position in the InputStream.
+     *
+     * @param newPos        new position to seek to
+     * @throws IOException  when the new position is negative
+     * @since 1.0.0
+     */
+    @Override
+    public void seek(long newPos) throws IOException {
+      if (newPos < 0) {
+        throw new IOException("Cannot seek to negative position " + newPos);
+      }
+      pos = newPos;
+    }
+
+    /**
+     * Reads the next byte of data from the input stream. The value byte is
+     * returned as an {@code int} in the range {@code 0} to
+     * {@code 255}. If no byte is available because the end of the stream
+     * has been reached, the value {@code -1} is returned.
+     *
+     * @return              the next byte of data, or {@code -1} if the end of the stream is reached
+     * @throws IOException  if an I/O error occurs
+     * @since 1.0.0
+     */
+    @Override
+    public int read() throws IOException {
+      single.clear();
+      if (read(single) < 1) {
+        return -1;
+      }
+      return single.get(0) & 0xFF;
+    }
+
+    /**
+     * Reads up to {@code len} bytes of data into an array, at position {@code off}.
+     *
+     * @param bytes         byte array to fill with data from the stream
+     * @param off           starting position in the byte array for data
+     * @param len           maximum amount of bytes to read
+     * @return              number of bytes read or -1 if the stream ended
+     * @throws IOException  if an I/O error occurs
+     * @since 1.0.0
+     */
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      return read(ByteBuffer.wrap(bytes, off, len));
+    }
+
+    /**
+     * Read {@code buf.remaining()} bytes of data into a {@link ByteBuffer}.
+     * <p>
+     * This method will copy available bytes into the buffer, reading at most
+     * {@code buf.remaining()} bytes. The number of bytes actually copied is
+     * returned by the method, or -1 is returned to signal that the end of the
+     * underlying stream has been reached.
+     *
+     * @param buf           byte buffer to fill with data from the stream
+     * @return              number of bytes read or -1 if the stream ended
+     * @throws IOException  if the underlying channel throws IOException
+     * @since 1.0.0
+     */
+    @Override
+    public int read(ByteBuffer buf) throws IOException {
+      int read = readAt(pos, buf);
+      if (read > 0) {
+        pos += read;
+      }
+      return read;
+    }
+
+    /**
+     * Read a byte array of data, from position 0 to the end of the array.
+     * <p>
+     * This method is equivalent to {@code read(bytes, 0, bytes.length)}.
+     * <p>
+     * This method will block until len bytes are available to copy into the
+     * array, or will throw {@link EOFException} if the stream ends before the
+     * array is full.
+     *
+     * @param bytes         byte array to fill with data from the stream
+     * @throws IOException  if the underlying channel throws IOException
+     * @throws EOFException if the stream has fewer bytes left than are needed to fill the array, {@code bytes.length}
+     * @since 1.0.0
+     */
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+      readFully(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Read {@code len} bytes of data into an array, at position {@code start}.
+     * <p>
+     * This method will block until len bytes are available to copy into the
+     * array, or will throw {@link EOFException} if the stream ends before the
+     * array is full.
+     *
+     * @param bytes         byte array to fill with data from the stream
+     * @param start         starting position in the byte array for data
+     * @param len           length of bytes to read into the byte array
+     * @throws IOException  if the underlying channel throws IOException
+     * @throws EOFException if the stream has fewer than {@code len} bytes left
+     * @since 1.0.0
+     */
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+      readFully(ByteBuffer.wrap(bytes, start, len));
+    }
+
+    /**
+     * Read {@code buf.remaining()} bytes of data into a {@link ByteBuffer}.
+     * <p>
+     * This method will block until {@code buf.remaining()} bytes are available
+     * to copy into the buffer, or will throw {@link EOFException} if the stream
+     * ends before the buffer is full.
+     *
+     * @param buf           byte buffer to fill with data from the stream
+     * @throws IOException  if the underlying channel throws IOException
+     * @throws EOFException if the stream has fewer bytes left than are needed to fill the
+     *                      buffer {@code buf.remaining()}
+     * @since 1.0.0
+     */
+    @Override
+    public void readFully(ByteBuffer buf) throws IOException {
+      pos += readFullyAt(pos, buf);
+    }
+
+    /**
+     * Reads as many bytes as are available into the buffer, starting at the given offset in the file.
+     *
+     * @param offset        offset in the file to read from
+     * @param buf           buffer to read into
+     * @return              number of bytes read or -1 if the offset lies at or past the end of the file
+     * @throws IOException  if the underlying channel throws IOException
+     * @since 1.0.0
+     */
+    private int readAt(long offset, ByteBuffer buf) throws IOException {
+      if (mapped == null) {
+        return channel.read(buf, offset);
+      }
+      if (offset >= mapped.capacity()) {
+        return -1;
+      }
+      int available = (int) Math.min(buf.remaining(), mapped.capacity() - offset);
+      ByteBuffer view = mapped.duplicate();
+      view.position((int) offset).limit((int) offset + available);
+      buf.put(view);
+      return available;
+    }
+
+    /**
+     * Fills the buffer, starting at the given offset in the file.
+     *
+     * @param offset        offset in the file to read from
+     * @param buf           buffer to fill
+     * @return              number of bytes read
+     * @throws IOException  if the underlying channel throws IOException
+     * @throws EOFException if the file ends before the buffer is full
+     * @since 1.0.0
+     */
+    private int readFullyAt(long offset, ByteBuffer buf) throws IOException {
+      int total = 0;
+      while (buf.hasRemaining()) {
+        int read = readAt(offset + total, buf);
+        if (read < 0) {
+          throw new EOFException(
+              "Reached the end of " + path + " with " + buf.remaining() + " bytes left to read");
+        }
+        total += read;
+      }
+      return total;
+    }
+
+    /**
+     * Closes the underlying {@link FileChannel}.
+     *
+     * @throws IOException  if the underlying channel throws an IOException
+     * @since 1.0.0
+     */
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
   private final Path path;
+
+  private final boolean memoryMapped;
+
   private long length = -1;
 
+  /**
+   * Constructs an input file that reads the file through a {@link FileChannel}.
+   *
+   * @param path              {@link Path} of the file to read
+   * @since 1.0.0
+   */
+  public DiskParquetInputFile(Path path) {
+    this(path, false);
+  }
+
+  /**
+   * Constructs an input file that reads the file through a {@link FileChannel}.
+   * Memory mapping avoids system calls for every read, but keeps the mapping alive until it is garbage collected.
+   * Files larger than 2 GiB are never memory mapped.
+   *
+   * @param path              {@link Path} of the file to read
+   * @param memoryMapped      whether to read from a memory-mapped view of the file
+   * @since 1.0.0
+   */
+  public DiskParquetInputFile(Path path, boolean memoryMapped) {
+    this.path = path;
+    this.memoryMapped = memoryMapped;
+  }
+
   /**
    * Returns the total length of the file.
    *
@@ -32,9 +290,7 @@ public class DiskParquetInputFile implements InputFile {
   @Override
   public long getLength() throws IOException {
     if (length == -1) {
-      try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
-        length = file.length();
-      }
+      length = Files.size(path);
     }
     return length;
   }
@@ -42,147 +298,13 @@ public class DiskParquetInputFile implements InputFile {
   /**
    * Open a new {@link SeekableInputStream} for the underlying data file.
    *
-   * @return                  new {@link SeekableInputStream} to read the file
+   * @return                  new {@link DiskSeekableInputStream} to read the file
    * @throws IOException      if the stream cannot be opened
    * @since 1.0.0
    */
   @Override
-  public SeekableInputStream newStream() throws IOException {
-
-    return new SeekableInputStream() {
-
-      private final RandomAccessFile randomAccessFile = new RandomAccessFile(path.toFile(), "r");
-
-      /**
-       * Return the current position in the InputStream.
-       *
-       * @return              current position in bytes from the start of the stream
-       * @throws IOException  if the underlying stream throws IOException
-       * @since 1.0.0
-       */
-      @Override
-      public long getPos() throws IOException {
-        return randomAccessFile.getFilePointer();
-      }
-
-      /**
-       * Seek to a new position in the InputStream.
-       *
-       * @param newPos        new position to seek to
-       * @throws IOException  if the underlying stream throws IOException
-       * @since 1.0.0
-       */
-      @Override
-      public void seek(long newPos) throws IOException {
-        randomAccessFile.seek(newPos);
-      }
-
-      /**
-       * Reads the next byte of data from the input stream. The value byte is
-       * returned as an {@code int} in the range {@code 0} to
-       * {@code 255}. If no byte is available because the end of the stream
-       * has been reached, the value {@code -1} is returned. This method
-       * blocks until input data is available, the end of the stream is detected,
-       * or an exception is thrown.
-       *
-       * @return              the next byte of data, or {@code -1} if the end of the stream is reached
-       * @throws IOException  if an I/O error occurs
-       * @since 1.0.0
-       */
-      @Override
-      public int read() throws IOException {
-        return randomAccessFile.read();
-      }
-
-      /**
-       * Read {@code buf.remaining()} bytes of data into a {@link ByteBuffer}.
-       * <p>
-       * This method will copy available bytes into the buffer, reading at most
-       * {@code buf.remaining()} bytes. The number of bytes actually copied is
-       * returned by the method, or -1 is returned to signal that the end of the
-       * underlying stream has been reached.
-       *
-       * @param buf           byte buffer to fill with data from the stream
-       * @return              number of bytes read or -1 if the stream ended
-       * @throws IOException  if the underlying stream throws IOException
-       * @since 1.0.0
-       */
-      @Override
-      public int read(ByteBuffer buf) throws IOException {
-        byte[] buffer = new byte[buf.remaining()];
-        int code = read(buffer);
-        buf.put(buffer, buf.position() + buf.arrayOffset(), buf.remaining());
-        return code;
-      }
-
-      /**
-       * Read a byte array of data, from position 0 to the end of the array.
-       * <p>
-       * This method is equivalent to {@code read(bytes, 0, bytes.length)}.
-       * <p>
-       * This method will block until len bytes are available to copy into the
-       * array, or will throw {@link EOFException} if the stream ends before the
-       * array is full.
-       *
-       * @param bytes         byte array to fill with data from the stream
-       * @throws IOException  if the underlying stream throws IOException
-       * @throws EOFException if the stream has fewer bytes left than are needed to fill the array, {@code bytes.length}
-       * @since 1.0.0
-       */
-      @Override
-      public void readFully(byte[] bytes) throws IOException {
-        randomAccessFile.readFully(bytes);
-      }
-
-      /**
-       * Read {@code len} bytes of data into an array, at position {@code start}.
-       * <p>
-       * This method will block until len bytes are available to copy into the
-       * array, or will throw {@link EOFException} if the stream ends before the
-       * array is full.
-       *
-       * @param bytes         byte array to fill with data from the stream
-       * @param start         starting position in the byte array for data
-       * @param len           length of bytes to read into the byte array
-       * @throws IOException  if the underlying stream throws IOException
-       * @throws EOFException if the stream has fewer than {@code len} bytes left
-       * @since 1.0.0
-       */
-      @Override
-      public void readFully(byte[] bytes, int start, int len) throws IOException {
-        randomAccessFile.readFully(bytes, start, len);
-      }
-
-      /**
-       * Read {@code buf.remaining()} bytes of data into a {@link ByteBuffer}.
-       * <p>
-       * This method will block until {@code buf.remaining()} bytes are available
-       * to copy into the buffer, or will throw {@link EOFException} if the stream
-       * ends before the buffer is full.
-       *
-       * @param buf           byte buffer to fill with data from the stream
-       * @throws IOException  if the underlying stream throws IOException
-       * @throws EOFException if the stream has fewer bytes left than are needed to fill the
-       *                      buffer {@code buf.remaining()}
-       * @since 1.0.0
-       */
-      @Override
-      public void readFully(ByteBuffer buf) throws IOException {
-        byte[] buffer = new byte[buf.remaining()];
-        readFully(buffer);
-        buf.put(buffer, buf.position() + buf.arrayOffset(), buf.remaining());
-      }
-
-      /**
-       * Closes the resource.
-       *
-       * @throws IOException  if the underlying resource throws an IOException
-       * @since 1.0.0
-       */
-      @Override
-      public void close() throws IOException {
-        randomAccessFile.close();
-      }
-    };
+  public DiskSeekableInputStream newStream() throws IOException {
+    log.trace("Opening stream to read from {}.", path);
+    return new DiskSeekableInputStream();
   }
 }
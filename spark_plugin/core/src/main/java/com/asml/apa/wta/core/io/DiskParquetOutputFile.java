@@ -27,6 +27,9 @@ public class DiskParquetOutputFile implements OutputFile {
     private long pos = 0;
 
     LocalPositionOutputStream(int buffer, StandardOpenOption... openOption) throws IOException {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
       stream = new BufferedOutputStream(Files.newOutputStream(path, openOption), buffer);
     }
 
@@ -147,25 +150,25 @@ public class DiskParquetOutputFile implements OutputFile {
   }
 
   /**
-   * Checks whether the output file supports block size.
+   * Checks whether the output file supports block size. Local files have no block size to align row groups to.
    *
-   * @return        {@code true}
+   * @return        {@code false}
    * @since 1.0.0
    */
   @Override
   public boolean supportsBlockSize() {
-    return true;
+    return false;
   }
 
   /**
    * Returns the default block size.
    *
-   * @return        {@code 512}, the default value for {@link BufferedOutputStream}
+   * @return        {@code 0}, as block sizes are not supported
    * @since 1.0.0
    */
   @Override
   public long defaultBlockSize() {
-    return 512;
+    return 0;
   }
 
   /**
@@ -0,0 +1,692 @@
+package com.asml.apa.wta.core.io;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary format of the metric batches that are written by the {@link MetricBatchWriter} and read by the
+ * {@link MetricBatchReader}. Objects are flattened into columns, one for every primitive or {@link String}
+ * field that is reached, so list elements get columns of their own. Columns are numbered in the order in
+ * which they are first reached, which is the same when writing and reading. Every column is written as one
+ * block per batch. Numbers are written as the zigzag varint of their difference to the previous value in the
+ * column, doubles as the non-zero bytes of their XOR with the previous value, and strings only when they
+ * change. The previous values carry over from batch to batch, so static fields cost a single byte per sample.
+ * Key frames reset all columns, so a reader can start decoding at any of them.
+ *
+ * <p>A batch consists of a version byte, a flags byte, and the varints for the sequence number of the
+ * batch, the number of samples and the number of columns, followed by the length and contents of every
+ * column block.</p>
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+final class MetricBatchFormat {
+
+  static final byte VERSION = 1;
+
+  static final int KEY_FRAME = 1;
+
+  private static final Map<Class<?>, ClassLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+  /**
+   * Private constructor, as this class only holds the format.
+   *
+   * @since 1.0.0
+   */
+  private MetricBatchFormat() {}
+
+  /**
+   * Gets the layout of a class, creating it the first time it is requested.
+   *
+   * @param clazz       {@link Class} to get the layout of
+   * @return            the {@link ClassLayout}
+   * @throws IllegalArgumentException when the class has fields of an unsupported type, or no constructor
+   *                                  without arguments
+   * @since 1.0.0
+   */
+  static ClassLayout layoutOf(Class<?> clazz) {
+    ClassLayout layout = LAYOUTS.get(clazz);
+    if (layout == null) {
+      layout = new ClassLayout(clazz);
+      LAYOUTS.putIfAbsent(clazz, layout);
+    }
+    return layout;
+  }
+
+  /**
+   * Kinds of fields that can be written.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  enum Kind {
+    BOOLEAN,
+    INT,
+    LONG,
+    DOUBLE,
+    STRING,
+    OBJECT,
+    LIST
+  }
+
+  /**
+   * The fields of a class, in declaration order with the fields of superclasses first.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  static final class ClassLayout {
+
+    private final Class<?> clazz;
+
+    private final MethodHandle constructor;
+
+    private final FieldLayout[] fields;
+
+    private ClassLayout(Class<?> clazz) {
+      this.clazz = clazz;
+      List<Class<?>> hierarchy = new ArrayList<>();
+      for (Class<?> current = clazz;
+          current != null && current != Object.class;
+          current = current.getSuperclass()) {
+        hierarchy.add(0, current);
+      }
+      List<FieldLayout> layouts = new ArrayList<>();
+      try {
+        for (Class<?> current : hierarchy) {
+          MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(current, MethodHandles.lookup());
+          for (Field field : current.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+              layouts.add(new FieldLayout(field, lookup.unreflectVarHandle(field)));
+            }
+          }
+        }
+        this.constructor = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup())
+            .findConstructor(clazz, MethodType.methodType(void.class));
+      } catch (IllegalAccessException | NoSuchMethodException e) {
+        throw new IllegalArgumentException("Could not create a metric batch layout for " + clazz, e);
+      }
+      this.fields = layouts.toArray(new FieldLayout[0]);
+    }
+
+    /**
+     * Gets the fields of the class.
+     *
+     * @return            the {@link FieldLayout}s
+     * @since 1.0.0
+     */
+    FieldLayout[] getFields() {
+      return fields;
+    }
+
+    /**
+     * Creates an instance of the class with its constructor without arguments.
+     *
+     * @return            the new instance
+     * @throws IllegalStateException when the constructor fails
+     * @since 1.0.0
+     */
+    Object newInstance() {
+      try {
+        return constructor.invoke();
+      } catch (Throwable e) {
+        throw new IllegalStateException("Could not create an instance of " + clazz, e);
+      }
+    }
+  }
+
+  /**
+   * A field of a class.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  static final class FieldLayout {
+
+    private static final Map<Class<?>, Kind> SCALARS = Map.of(
+        boolean.class, Kind.BOOLEAN,
+        int.class, Kind.INT,
+        long.class, Kind.LONG,
+        double.class, Kind.DOUBLE,
+        String.class, Kind.STRING);
+
+    private final Kind kind;
+
+    private final VarHandle handle;
+
+    private final Class<?> valueClass;
+
+    private FieldLayout(Field field, VarHandle handle) {
+      this.handle = handle;
+      this.kind = kindOf(field);
+      this.valueClass = kind == Kind.LIST
+          ? (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0]
+          : field.getType();
+    }
+
+    /**
+     * Determines how a field is written.
+     *
+     * @param field       the field
+     * @return            the {@link Kind} of the field
+     * @throws IllegalArgumentException when fields of its type cannot be written
+     * @since 1.0.0
+     */
+    private static Kind kindOf(Field field) {
+      Class<?> type = field.getType();
+      if (SCALARS.containsKey(type)) {
+        return SCALARS.get(type);
+      } else if (type == List.class && field.getGenericType() instanceof ParameterizedType) {
+        return Kind.LIST;
+      } else if (type.isPrimitive() || type.isArray() || type.isInterface()) {
+        throw new IllegalArgumentException("Could not create a metric batch layout for " + field);
+      }
+      return Kind.OBJECT;
+    }
+
+    /**
+     * Gets the kind of the field.
+     *
+     * @return            the {@link Kind}
+     * @since 1.0.0
+     */
+    Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Gets the handle to access the field with.
+     *
+     * @return            the {@link VarHandle}
+     * @since 1.0.0
+     */
+    VarHandle getHandle() {
+      return handle;
+    }
+
+    /**
+     * Gets the layout of the value of the field, or of its elements if the field is a list.
+     *
+     * @return            the {@link ClassLayout}
+     * @since 1.0.0
+     */
+    ClassLayout getValueLayout() {
+      return layoutOf(valueClass);
+    }
+  }
+
+  /**
+   * The columns of all batches between two key frames.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  static final class Session {
+
+    private final List<Column> columns = new ArrayList<>();
+
+    private final Node root = new Node(this);
+
+    private byte[] batch;
+
+    private int[] offsets = new int[0];
+
+    private int[] lengths = new int[0];
+
+    /**
+     * Gets the node of the samples themselves.
+     *
+     * @return            the root {@link Node}
+     * @since 1.0.0
+     */
+    Node getRoot() {
+      return root;
+    }
+
+    /**
+     * Gets all columns, in the order in which they were created.
+     *
+     * @return            the {@link Column}s
+     * @since 1.0.0
+     */
+    List<Column> getColumns() {
+      return columns;
+    }
+
+    /**
+     * Binds the columns to the blocks of a batch that is being read. Columns that are created while reading
+     * the batch are bound as they are created.
+     *
+     * @param source          the batch
+     * @param blockOffsets    offsets of the column blocks in the batch
+     * @param blockLengths    lengths of the column blocks
+     * @throws IllegalArgumentException when the batch has fewer blocks than there are columns
+     * @since 1.0.0
+     */
+    void bind(byte[] source, int[] blockOffsets, int[] blockLengths) {
+      if (blockOffsets.length < columns.size()) {
+        throw new IllegalArgumentException("The metric batch is missing columns");
+      }
+      this.batch = source;
+      this.offsets = blockOffsets;
+      this.lengths = blockLengths;
+      for (int id = 0; id < columns.size(); id++) {
+        columns.get(id).bind(batch, offsets[id], lengths[id]);
+      }
+    }
+
+    private Column newColumn() {
+      Column column = new Column();
+      int id = columns.size();
+      columns.add(column);
+      if (batch != null) {
+        if (id >= offsets.length) {
+          throw new IllegalArgumentException("The metric batch is missing columns");
+        }
+        column.bind(batch, offsets[id], lengths[id]);
+      }
+      return column;
+    }
+  }
+
+  /**
+   * The columns of an object at a fixed position in the samples. A node has a column that tells whether the
+   * object is present, and columns for the fields of the object once it has been present.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  static final class Node {
+
+    private final Session session;
+
+    private final Column presence;
+
+    private Column[] columns;
+
+    private Node[] children;
+
+    private List<List<Node>> elements;
+
+    private Node(Session session) {
+      this.session = session;
+      this.presence = session.newColumn();
+    }
+
+    /**
+     * Gets the column that tells whether the object is present.
+     *
+     * @return            the presence {@link Column}
+     * @since 1.0.0
+     */
+    Column getPresence() {
+      return presence;
+    }
+
+    /**
+     * Gets the column of a field, creating the columns of all fields the first time the object is present.
+     *
+     * @param layout      layout of the object
+     * @param index       index of the field
+     * @return            the {@link Column} of the field, or {@code null} if the field holds an object
+     * @since 1.0.0
+     */
+    Column column(ClassLayout layout, int index) {
+      if (columns == null) {
+        FieldLayout[] fields = layout.getFields();
+        columns = new Column[fields.length];
+        children = new Node[fields.length];
+        elements = new ArrayList<>(Collections.nCopies(fields.length, null));
+        for (int field = 0; field < fields.length; field++) {
+          if (fields[field].getKind() != Kind.OBJECT) {
+            columns[field] = session.newColumn();
+          }
+        }
+      }
+      return columns[index];
+    }
+
+    /**
+     * Gets the node of an object field.
+     *
+     * @param index       index of the field
+     * @return            the {@link Node} of the field
+     * @since 1.0.0
+     */
+    Node child(int index) {
+      if (children[index] == null) {
+        children[index] = new Node(session);
+      }
+      return children[index];
+    }
+
+    /**
+     * Gets the node of an element of a list field.
+     *
+     * @param index       index of the field
+     * @param element     index of the element
+     * @return            the {@link Node} of the element
+     * @since 1.0.0
+     */
+    Node element(int index, int element) {
+      if (elements.get(index) == null) {
+        elements.set(index, new ArrayList<>());
+      }
+      List<Node> nodes = elements.get(index);
+      while (nodes.size() <= element) {
+        nodes.add(new Node(session));
+      }
+      return nodes.get(element);
+    }
+  }
+
+  /**
+   * Growable buffer of bytes, with varint encoding.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  static class Buffer {
+
+    private byte[] bytes;
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * Constructs an empty buffer to write to.
+     *
+     * @since 1.0.0
+     */
+    Buffer() {
+      bytes = new byte[32];
+    }
+
+    /**
+     * Constructs a buffer to read the given bytes from.
+     *
+     * @param bytes       bytes to read
+     * @since 1.0.0
+     */
+    Buffer(byte[] bytes) {
+      bind(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads the given range of bytes from now on.
+     *
+     * @param source      bytes to read
+     * @param offset      offset of the first byte to read
+     * @param length      number of bytes to read
+     * @since 1.0.0
+     */
+    final void bind(byte[] source, int offset, int length) {
+      this.bytes = source;
+      this.position = offset;
+      this.limit = offset + length;
+    }
+
+    /**
+     * Writes a byte.
+     *
+     * @param value       byte to write
+     * @since 1.0.0
+     */
+    final void writeByte(int value) {
+      if (position == bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      bytes[position++] = (byte) value;
+    }
+
+    /**
+     * Writes a range of bytes.
+     *
+     * @param values      bytes to write
+     * @param offset      offset of the first byte to write
+     * @param length      number of bytes to write
+     * @since 1.0.0
+     */
+    final void writeBytes(byte[] values, int offset, int length) {
+      if (position + length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + length));
+      }
+      System.arraycopy(values, offset, bytes, position, length);
+      position += length;
+    }
+
+    /**
+     * Writes a number as an unsigned varint, seven bits per byte.
+     *
+     * @param value       number to write
+     * @since 1.0.0
+     */
+    final void writeVarLong(long value) {
+      long remaining = value;
+      while ((remaining & ~0x7FL) != 0) {
+        writeByte((int) (remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      writeByte((int) remaining);
+    }
+
+    /**
+     * Reads a byte.
+     *
+     * @return            the byte, as an unsigned number
+     * @throws IllegalArgumentException when the batch is malformed
+     * @since 1.0.0
+     */
+    final int readByte() {
+      if (position >= limit) {
+        throw new IllegalArgumentException("The metric batch ends unexpectedly");
+      }
+      return bytes[position++] & 0xFF;
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @return            the number
+     * @throws IllegalArgumentException when the batch is malformed
+     * @since 1.0.0
+     */
+    final long readVarLong() {
+      long value = 0L;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int current = readByte();
+        value |= (long) (current & 0x7F) << shift;
+        if ((current & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("The metric batch holds a malformed varint");
+    }
+
+    /**
+     * Skips the given number of bytes.
+     *
+     * @param length      number of bytes to skip
+     * @return            offset of the first skipped byte
+     * @since 1.0.0
+     */
+    final int skip(int length) {
+      if (length < 0 || length > limit - position) {
+        throw new IllegalArgumentException("The metric batch ends unexpectedly");
+      }
+      int offset = position;
+      position += length;
+      return offset;
+    }
+
+    /**
+     * Gets the underlying bytes.
+     *
+     * @return            the bytes
+     * @since 1.0.0
+     */
+    final byte[] getBytes() {
+      return bytes;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return            the number of bytes written
+     * @since 1.0.0
+     */
+    final int getPosition() {
+      return position;
+    }
+
+    /**
+     * Discards the written bytes.
+     *
+     * @since 1.0.0
+     */
+    final void reset() {
+      position = 0;
+    }
+  }
+
+  /**
+   * A column, which encodes its values relative to the previous value.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  static final class Column extends Buffer {
+
+    private static final int STRING_UNCHANGED = 0;
+
+    private static final int STRING_NULL = 1;
+
+    private static final int STRING_CHANGED = 2;
+
+    private long last;
+
+    private String lastString;
+
+    /**
+     * Writes a number as the zigzag varint of its difference to the previous value.
+     *
+     * @param value       number to write
+     * @since 1.0.0
+     */
+    void writeLong(long value) {
+      long delta = value - last;
+      writeVarLong((delta << 1) ^ (delta >> 63));
+      last = value;
+    }
+
+    /**
+     * Reads a number that was written with {@link #writeLong(long)}.
+     *
+     * @return            the number
+     * @since 1.0.0
+     */
+    long readLong() {
+      long zigzag = readVarLong();
+      last += (zigzag >>> 1) ^ -(zigzag & 1);
+      return last;
+    }
+
+    /**
+     * Writes a double as the non-zero bytes of its XOR with the previous value, preceded by a byte that
+     * tells which bytes these are. Unchanged values take a single byte.
+     *
+     * @param value       double to write
+     * @since 1.0.0
+     */
+    void writeDouble(double value) {
+      long bits = Double.doubleToRawLongBits(value);
+      long xor = bits ^ last;
+      last = bits;
+      if (xor == 0) {
+        writeByte(0);
+        return;
+      }
+      int leading = Long.numberOfLeadingZeros(xor) / 8;
+      int trailing = Long.numberOfTrailingZeros(xor) / 8;
+      writeByte(1 + leading * 8 + trailing);
+      for (int shift = 56 - leading * 8; shift >= trailing * 8; shift -= 8) {
+        writeByte((int) (xor >>> shift));
+      }
+    }
+
+    /**
+     * Reads a double that was written with {@link #writeDouble(double)}.
+     *
+     * @return            the double
+     * @since 1.0.0
+     */
+    double readDouble() {
+      int header = readByte();
+      if (header != 0) {
+        int leading = (header - 1) / 8;
+        int trailing = (header - 1) % 8;
+        long xor = 0L;
+        for (int shift = 56 - leading * 8; shift >= trailing * 8; shift -= 8) {
+          xor |= (long) readByte() << shift;
+        }
+        last ^= xor;
+      }
+      return Double.longBitsToDouble(last);
+    }
+
+    /**
+     * Writes a string if it differs from the previous value, and a single byte otherwise.
+     *
+     * @param value       string to write, may be {@code null}
+     * @since 1.0.0
+     */
+    void writeString(String value) {
+      if (Objects.equals(value, lastString)) {
+        writeByte(STRING_UNCHANGED);
+      } else if (value == null) {
+        writeByte(STRING_NULL);
+      } else {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        writeByte(STRING_CHANGED);
+        writeVarLong(encoded.length);
+        writeBytes(encoded, 0, encoded.length);
+      }
+      lastString = value;
+    }
+
+    /**
+     * Reads a string that was written with {@link #writeString(String)}.
+     *
+     * @return            the string, may be {@code null}
+     * @throws IllegalArgumentException when the batch is malformed
+     * @since 1.0.0
+     */
+    String readString() {
+      int tag = readByte();
+      if (tag == STRING_NULL) {
+        lastString = null;
+      } else if (tag == STRING_CHANGED) {
+        int length = (int) readVarLong();
+        int offset = skip(length);
+        lastString = new String(getBytes(), offset, length, StandardCharsets.UTF_8);
+      } else if (tag != STRING_UNCHANGED) {
+        throw new IllegalArgumentException("The metric batch holds a malformed string");
+      }
+      return lastString;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package com.asml.apa.wta.core.io;
+
+import com.asml.apa.wta.core.io.MetricBatchFormat.ClassLayout;
+import com.asml.apa.wta.core.io.MetricBatchFormat.Column;
+import com.asml.apa.wta.core.io.MetricBatchFormat.FieldLayout;
+import com.asml.apa.wta.core.io.MetricBatchFormat.Node;
+import com.asml.apa.wta.core.io.MetricBatchFormat.Session;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the batches of metric samples that were written by a {@link MetricBatchWriter}. Batches depend on
+ * the batches before them, up to the last key frame. When a batch is missing, the following batches are
+ * skipped until the next key frame arrives.
+ *
+ * @param <T>     type of the samples, which should have a constructor without arguments
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class MetricBatchReader<T> {
+
+  private final Class<T> clazz;
+
+  private final ClassLayout layout;
+
+  private Session session;
+
+  private long expectedSequence;
+
+  /**
+   * Constructs a reader.
+   *
+   * @param clazz       {@link Class} of the samples
+   * @throws IllegalArgumentException when the samples cannot be read in this format
+   * @since 1.0.0
+   */
+  public MetricBatchReader(Class<T> clazz) {
+    this.clazz = clazz;
+    this.layout = MetricBatchFormat.layoutOf(clazz);
+  }
+
+  /**
+   * Reads a batch of samples.
+   *
+   * @param batch       the encoded batch
+   * @return            the samples, or an empty {@link List} if the batch depends on a batch that is missing
+   * @throws IllegalArgumentException when the batch is malformed, after which batches are skipped until the
+   *                                  next key frame
+   * @since 1.0.0
+   */
+  public synchronized List<T> read(byte[] batch) {
+    MetricBatchFormat.Buffer input = new MetricBatchFormat.Buffer(batch);
+    if (input.readByte() != MetricBatchFormat.VERSION) {
+      throw new IllegalArgumentException("The metric batch has an unsupported version");
+    }
+    boolean keyFrame = (input.readByte() & MetricBatchFormat.KEY_FRAME) != 0;
+    long sequence = input.readVarLong();
+    if (keyFrame) {
+      session = new Session();
+    } else if (session == null || sequence != expectedSequence) {
+      log.warn("Skipping metric batch {}, as it depends on a batch that is missing.", sequence);
+      session = null;
+      return List.of();
+    }
+    try {
+      List<T> samples = readSamples(input);
+      expectedSequence = sequence + 1;
+      return samples;
+    } catch (IllegalArgumentException | ClassCastException e) {
+      session = null;
+      throw new IllegalArgumentException("The metric batch is malformed", e);
+    }
+  }
+
+  /**
+   * Reads the column blocks and the samples of a batch.
+   *
+   * @param input       the batch, positioned after its sequence number
+   * @return            the samples
+   * @since 1.0.0
+   */
+  private List<T> readSamples(MetricBatchFormat.Buffer input) {
+    int count = (int) input.readVarLong();
+    int columns = (int) input.readVarLong();
+    if (count < 0 || columns < 0) {
+      throw new IllegalArgumentException("The metric batch has a malformed header");
+    }
+    int[] offsets = new int[columns];
+    int[] lengths = new int[columns];
+    for (int id = 0; id < columns; id++) {
+      lengths[id] = (int) input.readVarLong();
+      offsets[id] = input.skip(lengths[id]);
+    }
+    session.bind(input.getBytes(), offsets, lengths);
+    List<T> samples = new ArrayList<>(count);
+    for (int sample = 0; sample < count; sample++) {
+      samples.add(clazz.cast(readObject(session.getRoot(), layout)));
+    }
+    return samples;
+  }
+
+  /**
+   * Reads an object and its fields from the columns of its node.
+   *
+   * @param node        {@link Node} of the object
+   * @param layout      {@link ClassLayout} of the object
+   * @return            the object, or {@code null} if it was not present
+   * @since 1.0.0
+   */
+  @SuppressWarnings("CyclomaticComplexity")
+  private static Object readObject(Node node, ClassLayout layout) {
+    if (node.getPresence().readLong() == 0L) {
+      return null;
+    }
+    Object object = layout.newInstance();
+    FieldLayout[] fields = layout.getFields();
+    for (int index = 0; index < fields.length; index++) {
+      FieldLayout field = fields[index];
+      Column column = node.column(layout, index);
+      switch (field.getKind()) {
+        case BOOLEAN:
+          field.getHandle().set(object, column.readLong() != 0L);
+          break;
+        case INT:
+          field.getHandle().set(object, (int) column.readLong());
+          break;
+        case LONG:
+          field.getHandle().set(object, column.readLong());
+          break;
+        case DOUBLE:
+          field.getHandle().set(object, column.readDouble());
+          break;
+        case STRING:
+          field.getHandle().set(object, column.readString());
+          break;
+        case OBJECT:
+          field.getHandle().set(object, readObject(node.child(index), field.getValueLayout()));
+          break;
+        default:
+          field.getHandle().set(object, readList(node, field, index, column));
+      }
+    }
+    return object;
+  }
+
+  /**
+   * Reads the size and the elements of a list.
+   *
+   * @param node        {@link Node} of the object that holds the list
+   * @param field       {@link FieldLayout} of the list
+   * @param index       index of the field
+   * @param size        {@link Column} of the size of the list
+   * @return            the list, or {@code null} if it was not present
+   * @since 1.0.0
+   */
+  private static List<Object> readList(Node node, FieldLayout field, int index, Column size) {
+    long length = size.readLong();
+    if (length < 0) {
+      return null;
+    }
+    List<Object> list = new ArrayList<>((int) Math.min(length, 1024));
+    for (int element = 0; element < length; element++) {
+      list.add(readObject(node.element(index, element), field.getValueLayout()));
+    }
+    return list;
+  }
+}
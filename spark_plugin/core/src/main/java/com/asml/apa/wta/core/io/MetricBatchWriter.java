@@ -0,0 +1,148 @@
+package com.asml.apa.wta.core.io;
+
+import com.asml.apa.wta.core.io.MetricBatchFormat.ClassLayout;
+import com.asml.apa.wta.core.io.MetricBatchFormat.Column;
+import com.asml.apa.wta.core.io.MetricBatchFormat.FieldLayout;
+import com.asml.apa.wta.core.io.MetricBatchFormat.Node;
+import com.asml.apa.wta.core.io.MetricBatchFormat.Session;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes batches of metric samples in a compact, columnar binary format, to be read by a
+ * {@link MetricBatchReader}. Every writer keeps the previous value of every column, so it should be paired
+ * with a single reader, and its batches should be read in order. Once every so many batches, a key frame is
+ * written that does not depend on earlier batches, so that the reader can recover from lost batches.
+ *
+ * @param <T>     type of the samples, which should have a constructor without arguments
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+public class MetricBatchWriter<T> {
+
+  private final ClassLayout layout;
+
+  private final int keyFrameInterval;
+
+  private final MetricBatchFormat.Buffer output = new MetricBatchFormat.Buffer();
+
+  private Session session;
+
+  private long sequence;
+
+  /**
+   * Constructs a writer.
+   *
+   * @param clazz               {@link Class} of the samples
+   * @param keyFrameInterval    number of batches from one key frame to the next
+   * @throws IllegalArgumentException when the samples cannot be written in this format
+   * @since 1.0.0
+   */
+  public MetricBatchWriter(Class<T> clazz, int keyFrameInterval) {
+    this.layout = MetricBatchFormat.layoutOf(clazz);
+    this.keyFrameInterval = Math.max(1, keyFrameInterval);
+  }
+
+  /**
+   * Writes a batch of samples.
+   *
+   * @param samples     samples to write, none of them {@code null}
+   * @return            the encoded batch
+   * @throws ClassCastException when a sample does not match the layout, after which the next batch is a
+   *                            key frame
+   * @since 1.0.0
+   */
+  public synchronized byte[] write(List<T> samples) {
+    boolean keyFrame = session == null || sequence % keyFrameInterval == 0;
+    if (keyFrame) {
+      session = new Session();
+    }
+    try {
+      for (T sample : samples) {
+        writeObject(session.getRoot(), layout, sample);
+      }
+    } catch (RuntimeException e) {
+      session = null;
+      throw e;
+    }
+    List<Column> columns = session.getColumns();
+    output.reset();
+    output.writeByte(MetricBatchFormat.VERSION);
+    output.writeByte(keyFrame ? MetricBatchFormat.KEY_FRAME : 0);
+    output.writeVarLong(sequence++);
+    output.writeVarLong(samples.size());
+    output.writeVarLong(columns.size());
+    for (Column column : columns) {
+      output.writeVarLong(column.getPosition());
+      output.writeBytes(column.getBytes(), 0, column.getPosition());
+      column.reset();
+    }
+    return Arrays.copyOf(output.getBytes(), output.getPosition());
+  }
+
+  /**
+   * Writes an object and its fields to the columns of its node.
+   *
+   * @param node        {@link Node} of the object
+   * @param layout      {@link ClassLayout} of the object
+   * @param object      object to write, may be {@code null}
+   * @since 1.0.0
+   */
+  @SuppressWarnings("CyclomaticComplexity")
+  private static void writeObject(Node node, ClassLayout layout, Object object) {
+    node.getPresence().writeLong(object == null ? 0L : 1L);
+    if (object == null) {
+      return;
+    }
+    FieldLayout[] fields = layout.getFields();
+    for (int index = 0; index < fields.length; index++) {
+      FieldLayout field = fields[index];
+      Column column = node.column(layout, index);
+      switch (field.getKind()) {
+        case BOOLEAN:
+          column.writeLong((boolean) field.getHandle().get(object) ? 1L : 0L);
+          break;
+        case INT:
+          column.writeLong((int) field.getHandle().get(object));
+          break;
+        case LONG:
+          column.writeLong((long) field.getHandle().get(object));
+          break;
+        case DOUBLE:
+          column.writeDouble((double) field.getHandle().get(object));
+          break;
+        case STRING:
+          column.writeString((String) field.getHandle().get(object));
+          break;
+        case OBJECT:
+          writeObject(
+              node.child(index),
+              field.getValueLayout(),
+              field.getHandle().get(object));
+          break;
+        default:
+          writeList(node, field, index, (List<?>) field.getHandle().get(object), column);
+      }
+    }
+  }
+
+  /**
+   * Writes the size and the elements of a list.
+   *
+   * @param node        {@link Node} of the object that holds the list
+   * @param field       {@link FieldLayout} of the list
+   * @param index       index of the field
+   * @param list        list to write, may be {@code null}
+   * @param size        {@link Column} of the size of the list
+   * @since 1.0.0
+   */
+  private static void writeList(Node node, FieldLayout field, int index, List<?> list, Column size) {
+    size.writeLong(list == null ? -1L : list.size());
+    if (list == null) {
+      return;
+    }
+    for (int element = 0; element < list.size(); element++) {
+      writeObject(node.element(index, element), field.getValueLayout(), list.get(element));
+    }
+  }
+}
@@ -10,9 +10,11 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
@@ -46,9 +48,6 @@ public class ParquetSchema {
    */
   @SuppressWarnings("CyclomaticComplexity")
   public <T extends BaseTraceObject> ParquetSchema(Class<T> clazz, Stream<T> objects, String name) {
-    String followedByCapitalized = "([a-z0-9])([A-Z]+)";
-    String followedByDigit = "([a-zA-Z])([0-9]+)";
-    String replacement = "$1_$2";
     Field[] fields = clazz.getDeclaredFields();
     SchemaBuilder.FieldAssembler<Schema> schemaBuilder = SchemaBuilder.record(name)
         .namespace("com.asml.apa.wta.core.model")
@@ -76,11 +75,8 @@ public class ParquetSchema {
       for (Field field : nonStaticValidFields) {
         VarHandle typeInfoHandle = lookup.unreflectVarHandle(field);
         Class<?> fieldType = typeInfoHandle.varType();
-        String fieldName = lookup.revealDirect(fieldHandles.get(field))
-            .getName()
-            .replaceAll(followedByCapitalized, replacement)
-            .replaceAll(followedByDigit, replacement)
-            .toLowerCase();
+        String fieldName = toColumnName(
+            lookup.revealDirect(fieldHandles.get(field)).getName());
         if (String.class.isAssignableFrom(fieldType) || Domain.class.isAssignableFrom(fieldType)) {
           schemaBuilder = schemaBuilder.requiredString(fieldName);
         } else if (long.class.isAssignableFrom(fieldType)
@@ -121,6 +117,81 @@ public class ParquetSchema {
     }
   }
 
+  /**
+   * Converts the name of a field to the name of the corresponding column.
+   *
+   * @param fieldName   camel case name of the field
+   * @return            snake case name of the column
+   * @since 1.0.0
+   */
+  static String toColumnName(String fieldName) {
+    String followedByCapitalized = "([a-z0-9])([A-Z]+)";
+    String followedByDigit = "([a-zA-Z])([0-9]+)";
+    String replacement = "$1_$2";
+    return fieldName
+        .replaceAll(followedByCapitalized, replacement)
+        .replaceAll(followedByDigit, replacement)
+        .toLowerCase();
+  }
+
+  /**
+   * Creates a {@link Comparator} that orders objects on the given columns, in order of precedence.
+   * Columns that are not part of the schema, or that do not hold comparable values, are skipped.
+   *
+   * @param clazz       {@link Class} of the objects to compare
+   * @param columns     names of the columns to order on, as they appear in the schema
+   * @param <T>         type parameter for the {@link Class}
+   * @return            {@link Comparator} ordering on the given columns
+   * @since 1.0.0
+   */
+  public <T extends BaseTraceObject> Comparator<T> createComparator(Class<T> clazz, List<String> columns) {
+    Comparator<T> comparator = (left, right) -> 0;
+    for (String column : columns) {
+      Optional<String> fieldName = fieldsToSchema.entrySet().stream()
+          .filter(entry -> entry.getValue().equals(column))
+          .map(Map.Entry::getKey)
+          .findFirst();
+      if (fieldName.isEmpty()) {
+        log.warn("Could not order on column {}, as it is not part of the schema.", column);
+        continue;
+      }
+      try {
+        Field field = clazz.getDeclaredField(fieldName.get());
+        Class<?> fieldType = field.getType();
+        if (!fieldType.isPrimitive()
+            && !String.class.isAssignableFrom(fieldType)
+            && !Domain.class.isAssignableFrom(fieldType)) {
+          log.warn("Could not order on column {}, as it does not hold comparable values.", column);
+          continue;
+        }
+        MethodHandle handle = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup())
+            .unreflectGetter(field);
+        comparator = comparator.thenComparing(object -> getComparable(handle, object));
+      } catch (NoSuchFieldException | IllegalAccessException e) {
+        log.error("Could not order on column {} because {}.", column, e.getMessage());
+      }
+    }
+    return comparator;
+  }
+
+  /**
+   * Gets the value of a field as a {@link Comparable}.
+   *
+   * @param handle      getter of the field
+   * @param object      object to get the value from
+   * @return            value of the field
+   * @since 1.0.0
+   */
+  @SuppressWarnings("unchecked")
+  private static Comparable<Object> getComparable(MethodHandle handle, Object object) {
+    try {
+      return (Comparable<Object>) handle.invoke(object);
+    } catch (Throwable e) {
+      log.error("Could not read field for comparison {}.", e.getMessage());
+      throw new IllegalStateException("Could not read field for comparison", e);
+    }
+  }
+
   /**
    * Convert POJO to a {@link GenericRecord} to write it with the {@link org.apache.parquet.avro.AvroParquetWriter}.
    *
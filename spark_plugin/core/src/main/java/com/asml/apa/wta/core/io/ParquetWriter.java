@@ -3,10 +3,10 @@ package com.asml.apa.wta.core.io;
 import com.asml.apa.wta.core.model.BaseTraceObject;
 import java.io.IOException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.parquet.avro.AvroParquetWriter;
 import org.apache.parquet.hadoop.ParquetFileWriter;
-import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 
 /**
  * Writes records to a Parquet file.
@@ -21,19 +21,53 @@ public class ParquetWriter<T extends BaseTraceObject> implements AutoCloseable {
   private final ParquetSchema parquetSchema;
 
   /**
-   * Constructs a writer to write records to Parquet.
+   * Constructs a writer to write records to Parquet with the default properties.
    *
    * @param path        {@link OutputFile} to write to
    * @param schema      {@link ParquetSchema} to write
    * @since 1.0.0
    */
   public ParquetWriter(OutputFile path, ParquetSchema schema) throws IOException {
+    this(path, schema, ParquetWriterConfig.defaults());
+  }
+
+  /**
+   * Constructs a writer to write records to Parquet.
+   *
+   * @param path        {@link OutputFile} to write to
+   * @param schema      {@link ParquetSchema} to write
+   * @param config      {@link ParquetWriterConfig} with the properties of the Parquet file to write
+   * @since 1.0.0
+   */
+  public ParquetWriter(OutputFile path, ParquetSchema schema, ParquetWriterConfig config) throws IOException {
     parquetSchema = schema;
-    writer = AvroParquetWriter.<GenericRecord>builder(path.wrap())
+    AvroParquetWriter.Builder<GenericRecord> builder = AvroParquetWriter.<GenericRecord>builder(path.wrap())
         .withSchema(schema.getAvroSchema())
-        .withCompressionCodec(CompressionCodecName.SNAPPY)
-        .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
-        .build();
+        .withCompressionCodec(config.getCompressionCodec())
+        .withRowGroupSize(config.getRowGroupSize())
+        .withPageSize(config.getPageSize())
+        .withDictionaryEncoding(config.isDictionaryEncoding())
+        .withWriteMode(ParquetFileWriter.Mode.OVERWRITE);
+    if (config.isBloomFilters()) {
+      for (Schema.Field field : schema.getAvroSchema().getFields()) {
+        if (isIdColumn(field)) {
+          builder = builder.withBloomFilterEnabled(field.name(), true);
+        }
+      }
+    }
+    writer = builder.build();
+  }
+
+  /**
+   * Checks whether the column holds a single identifier, these are the columns that benefit from bloom filters.
+   *
+   * @param field       Avro {@link Schema.Field} of the column
+   * @return            {@code true} if the column is an identifier column, {@code false} otherwise
+   * @since 1.0.0
+   */
+  private static boolean isIdColumn(Schema.Field field) {
+    return field.schema().getType() == Schema.Type.LONG
+        && (field.name().equals("id") || field.name().endsWith("_id"));
   }
 
   /**
@@ -0,0 +1,111 @@
+package com.asml.apa.wta.core.io;
+
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+/**
+ * Tunable properties of the Parquet files written by the {@link ParquetWriter}.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+@Getter
+@Builder
+public class ParquetWriterConfig {
+
+  private static final Set<CompressionCodecName> SUPPORTED_CODECS = Set.of(
+      CompressionCodecName.SNAPPY,
+      CompressionCodecName.ZSTD,
+      CompressionCodecName.GZIP,
+      CompressionCodecName.LZ4,
+      CompressionCodecName.UNCOMPRESSED);
+
+  @Builder.Default
+  private final long rowGroupSize = 134217728L;
+
+  @Builder.Default
+  private final int pageSize = 1048576;
+
+  @Builder.Default
+  private final boolean dictionaryEncoding = true;
+
+  @Builder.Default
+  private final boolean bloomFilters = false;
+
+  @Builder.Default
+  private final CompressionCodecName compressionCodec = CompressionCodecName.SNAPPY;
+
+  @Builder.Default
+  private final Map<String, List<String>> sortKeys = Map.of();
+
+  /**
+   * Creates the default Parquet writer config.
+   *
+   * @return                            {@link ParquetWriterConfig} with the default properties
+   * @since 1.0.0
+   */
+  public static ParquetWriterConfig defaults() {
+    return ParquetWriterConfig.builder().build();
+  }
+
+  /**
+   * Creates the Parquet writer config specified in the {@link RuntimeConfig}.
+   *
+   * @param config                      {@link RuntimeConfig} to read the Parquet properties from
+   * @return                            {@link ParquetWriterConfig} with the configured properties
+   * @throws IllegalArgumentException   when the configured compression codec is not supported
+   * @since 1.0.0
+   */
+  public static ParquetWriterConfig fromRuntimeConfig(RuntimeConfig config) {
+    return ParquetWriterConfig.builder()
+        .rowGroupSize(config.getParquetRowGroupSize())
+        .pageSize(config.getParquetPageSize())
+        .dictionaryEncoding(config.isParquetDictionaryEncoding())
+        .bloomFilters(config.isParquetBloomFilters())
+        .compressionCodec(parseCompressionCodec(config.getParquetCompressionCodec()))
+        .sortKeys(config.getSortKeys().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> List.of(entry.getValue()))))
+        .build();
+  }
+
+  /**
+   * Gets the columns to sort the given table on.
+   *
+   * @param label                       label of the table
+   * @return                            {@link List} of columns to sort on, in order of precedence, empty if the
+   *                                    table should not be sorted
+   * @since 1.0.0
+   */
+  public List<String> getSortKey(String label) {
+    return sortKeys.getOrDefault(label, List.of());
+  }
+
+  /**
+   * Parses the name of a supported compression codec.
+   *
+   * @param codec                       name of the compression codec, case-insensitive
+   * @return                            the corresponding {@link CompressionCodecName}
+   * @throws IllegalArgumentException   when the compression codec is not supported
+   * @since 1.0.0
+   */
+  public static CompressionCodecName parseCompressionCodec(String codec) {
+    try {
+      CompressionCodecName codecName = CompressionCodecName.valueOf(codec.toUpperCase(Locale.ROOT));
+      if (SUPPORTED_CODECS.contains(codecName)) {
+        return codecName;
+      }
+    } catch (IllegalArgumentException | NullPointerException e) {
+      log.error("Could not parse compression codec {}.", codec);
+    }
+    throw new IllegalArgumentException("Unsupported Parquet compression codec " + codec);
+  }
+}
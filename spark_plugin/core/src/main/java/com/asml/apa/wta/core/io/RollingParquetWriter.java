@@ -0,0 +1,106 @@
+package com.asml.apa.wta.core.io;
+
+import com.asml.apa.wta.core.model.BaseTraceObject;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes records to a sequence of Parquet files in a single directory.
+ * Once a file holds the configured amount of records it is closed and a new file is opened,
+ * so every completed segment is a valid Parquet file on its own.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class RollingParquetWriter<T extends BaseTraceObject> implements AutoCloseable {
+
+  private final OutputFile directory;
+
+  private final String label;
+
+  private final ParquetSchema schema;
+
+  private final long recordsPerSegment;
+
+  private final ParquetWriterConfig config;
+
+  private ParquetWriter<T> currentWriter;
+
+  private long recordsInCurrentSegment;
+
+  private int segment;
+
+  /**
+   * Constructs a rolling writer. The writer opens its first segment lazily on the first write.
+   *
+   * @param directory           {@link OutputFile} pointing to the directory to write the segments to
+   * @param label               label of the files to write, segments are named {@code label-00000.parquet} etc.
+   * @param schema              {@link ParquetSchema} to write, shared by all segments
+   * @param recordsPerSegment   amount of records after which a segment is closed, non-positive to never roll
+   * @param config              {@link ParquetWriterConfig} with the properties of the segments to write
+   * @since 1.0.0
+   */
+  public RollingParquetWriter(
+      OutputFile directory,
+      String label,
+      ParquetSchema schema,
+      long recordsPerSegment,
+      ParquetWriterConfig config) {
+    this.directory = directory;
+    this.label = label;
+    this.schema = schema;
+    this.recordsPerSegment = recordsPerSegment;
+    this.config = config;
+    segment = 0;
+    recordsInCurrentSegment = 0;
+  }
+
+  /**
+   * Writes the record to the current segment, rolling over to a new segment when the current one is full.
+   *
+   * @param record        record to write
+   * @throws IOException  when something goes wrong when writing
+   * @since 1.0.0
+   */
+  public synchronized void write(T record) throws IOException {
+    if (currentWriter == null) {
+      OutputFile path = directory.resolve(String.format("%s-%05d.parquet", label, segment));
+      log.debug("Opening {} segment {} at {}.", label, segment, path);
+      currentWriter = new ParquetWriter<>(path, schema, config);
+    }
+    currentWriter.write(record);
+    recordsInCurrentSegment++;
+    if (recordsPerSegment > 0 && recordsInCurrentSegment >= recordsPerSegment) {
+      roll();
+    }
+  }
+
+  /**
+   * Closes the current segment, if any. The next write opens a new segment.
+   *
+   * @throws IOException  when something goes wrong when writing
+   * @since 1.0.0
+   */
+  public synchronized void roll() throws IOException {
+    if (currentWriter == null) {
+      return;
+    }
+    log.debug("Closing {} segment {} after {} records.", label, segment, recordsInCurrentSegment);
+    currentWriter.close();
+    currentWriter = null;
+    recordsInCurrentSegment = 0;
+    segment++;
+  }
+
+  /**
+   * Closes the writer and its current segment.
+   *
+   * @throws IOException  when something goes wrong when writing
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    roll();
+  }
+}
@@ -0,0 +1,499 @@
+package com.asml.apa.wta.core.io;
+
+import com.asml.apa.wta.core.model.BaseTraceObject;
+import com.asml.apa.wta.core.model.Domain;
+import com.asml.apa.wta.core.model.Resource;
+import com.asml.apa.wta.core.model.ResourceState;
+import com.asml.apa.wta.core.model.Task;
+import com.asml.apa.wta.core.model.Workflow;
+import com.asml.apa.wta.core.stream.Stream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.avro.AvroReadSupport;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.filter2.predicate.UserDefinedPredicate;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+
+/**
+ * Reads a trace written by the {@link com.asml.apa.wta.core.WtaWriter} back into WTA objects.
+ * Supports column projection and row group level predicate pushdown, and reads the row groups of all files
+ * of a table in parallel.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class WtaTraceReader implements AutoCloseable {
+
+  private static final String AVRO_SCHEMA_KEY = "parquet.avro.schema";
+
+  private final Map<Class<? extends BaseTraceObject>, String> parquetLabels = Map.of(
+      Resource.class, "resources",
+      ResourceState.class, "resource_states",
+      Task.class, "tasks",
+      Workflow.class, "workflows");
+
+  private final Path trace;
+
+  private final String schemaVersion;
+
+  private final ExecutorService threadPool;
+
+  private final int parallelism;
+
+  private final boolean memoryMapped;
+
+  /**
+   * Row group of a Parquet file, the unit of work that is read in parallel.
+   */
+  private static final class RowGroup {
+
+    private final Path file;
+
+    private final long start;
+
+    private final long end;
+
+    private final Schema schema;
+
+    RowGroup(Path file, long start, long end, Schema schema) {
+      this.file = file;
+      this.start = start;
+      this.end = end;
+      this.schema = schema;
+    }
+  }
+
+  /**
+   * Converts records to WTA objects using the builder of their class.
+   * Fields without a column in the record keep their default values.
+   */
+  private static final class RecordConverter<T> {
+
+    private final Class<T> clazz;
+
+    private final MethodHandle builder;
+
+    private final MethodHandle build;
+
+    private final List<String> columns = new ArrayList<>();
+
+    private final List<Class<?>> types = new ArrayList<>();
+
+    private final List<MethodHandle> setters = new ArrayList<>();
+
+    RecordConverter(Class<T> clazz) throws IOException {
+      this.clazz = clazz;
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Method builderMethod = clazz.getMethod("builder");
+        Class<?> builderClass = builderMethod.getReturnType();
+        builder = lookup.unreflect(builderMethod);
+        build = lookup.unreflect(builderClass.getMethod("build"));
+        for (Field field : clazz.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            columns.add(ParquetSchema.toColumnName(field.getName()));
+            types.add(field.getType());
+            setters.add(lookup.unreflect(builderClass.getMethod(field.getName(), field.getType())));
+          }
+        }
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        log.error("Could not access the builder of {}.", clazz);
+        throw new IOException("Could not access the builder of " + clazz, e);
+      }
+    }
+
+    T convert(GenericRecord record) throws IOException {
+      try {
+        Object objectBuilder = builder.invoke();
+        for (int field = 0; field < setters.size(); field++) {
+          Object value = record.hasField(columns.get(field)) ? record.get(columns.get(field)) : null;
+          if (value != null) {
+            setters.get(field).invoke(objectBuilder, convertValue(value, types.get(field)));
+          }
+        }
+        return clazz.cast(build.invoke(objectBuilder));
+      } catch (Throwable e) {
+        log.error("Could not convert record {} to {}.", record, clazz);
+        throw new IOException("Could not convert record to " + clazz, e);
+      }
+    }
+  }
+
+  /**
+   * Consumes the records of a table as they are read.
+   */
+  @FunctionalInterface
+  private interface RecordConsumer {
+
+    void accept(GenericRecord record) throws IOException;
+  }
+
+  /**
+   * Collects the names of the columns a {@link FilterPredicate} refers to.
+   */
+  private static final class FilterColumns implements FilterPredicate.Visitor<Set<String>> {
+
+    @Override
+    public <T extends Comparable<T>> Set<String> visit(Operators.Eq<T> eq) {
+      return Set.of(eq.getColumn().getColumnPath().toDotString());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Set<String> visit(Operators.NotEq<T> notEq) {
+      return Set.of(notEq.getColumn().getColumnPath().toDotString());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Set<String> visit(Operators.Lt<T> lt) {
+      return Set.of(lt.getColumn().getColumnPath().toDotString());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Set<String> visit(Operators.LtEq<T> ltEq) {
+      return Set.of(ltEq.getColumn().getColumnPath().toDotString());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Set<String> visit(Operators.Gt<T> gt) {
+      return Set.of(gt.getColumn().getColumnPath().toDotString());
+    }
+
+    @Override
+    public <T extends Comparable<T>> Set<String> visit(Operators.GtEq<T> gtEq) {
+      return Set.of(gtEq.getColumn().getColumnPath().toDotString());
+    }
+
+    @Override
+    public Set<String> visit(Operators.And and) {
+      Set<String> columns = new HashSet<>(and.getLeft().accept(this));
+      columns.addAll(and.getRight().accept(this));
+      return columns;
+    }
+
+    @Override
+    public Set<String> visit(Operators.Or or) {
+      Set<String> columns = new HashSet<>(or.getLeft().accept(this));
+      columns.addAll(or.getRight().accept(this));
+      return columns;
+    }
+
+    @Override
+    public Set<String> visit(Operators.Not not) {
+      return not.getPredicate().accept(this);
+    }
+
+    @Override
+    public <T extends Comparable<T>, U extends UserDefinedPredicate<T>> Set<String> visit(
+        Operators.UserDefined<T, U> userDefined) {
+      return Set.of(userDefined.getColumn().getColumnPath().toDotString());
+    }
+
+    @Override
+    public <T extends Comparable<T>, U extends UserDefinedPredicate<T>> Set<String> visit(
+        Operators.LogicalNotUserDefined<T, U> logicalNotUserDefined) {
+      return logicalNotUserDefined.getUserDefined().accept(this);
+    }
+  }
+
+  /**
+   * Constructs a reader for the trace in the given directory, reading with one thread per available core.
+   *
+   * @param trace           directory the trace was written to, holding a directory per table
+   * @param version         version of the schema to read
+   * @since 1.0.0
+   */
+  public WtaTraceReader(Path trace, String version) {
+    this(trace, version, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs a reader for the trace in the given directory.
+   *
+   * @param trace           directory the trace was written to, holding a directory per table
+   * @param version         version of the schema to read
+   * @param parallelism     amount of row groups to read in parallel
+   * @since 1.0.0
+   */
+  public WtaTraceReader(Path trace, String version, int parallelism) {
+    this(trace, version, parallelism, false);
+  }
+
+  /**
+   * Constructs a reader for the trace in the given directory, optionally reading the Parquet files from
+   * memory-mapped views. This saves a system call per read, which pays off when many small row groups or
+   * pages are read.
+   *
+   * @param trace           directory the trace was written to, holding a directory per table
+   * @param version         version of the schema to read
+   * @param parallelism     amount of row groups to read in parallel
+   * @param memoryMapped    whether to read the Parquet files from memory-mapped views
+   * @since 1.0.0
+   */
+  public WtaTraceReader(Path trace, String version, int parallelism, boolean memoryMapped) {
+    this.trace = trace;
+    schemaVersion = version;
+    this.memoryMapped = memoryMapped;
+    this.parallelism = Math.max(1, parallelism);
+    threadPool = Executors.newFixedThreadPool(this.parallelism);
+  }
+
+  /**
+   * Reads all objects of the given type.
+   *
+   * @param clazz           class of the WTA objects to read
+   * @param <T>             type of the WTA objects to read
+   * @return                {@link Stream} of all objects in the trace, in file order
+   * @throws IOException    when the trace cannot be read
+   * @since 1.0.0
+   */
+  public <T extends BaseTraceObject> Stream<T> read(Class<T> clazz) throws IOException {
+    return read(clazz, List.of(), null);
+  }
+
+  /**
+   * Reads the objects of the given type that match the filter. Only the projected columns and the columns
+   * the filter refers to are read, fields of other columns are left at their default values.
+   *
+   * @param clazz           class of the WTA objects to read
+   * @param columns         names of the columns to read, empty to read all columns
+   * @param filter          {@link FilterPredicate} on the columns of the table, {@code null} to read all rows
+   * @param <T>             type of the WTA objects to read
+   * @return                {@link Stream} of the matching objects, in file order
+   * @throws IOException    when the trace cannot be read
+   * @since 1.0.0
+   */
+  public <T extends BaseTraceObject> Stream<T> read(
+      Class<T> clazz, Collection<String> columns, FilterPredicate filter) throws IOException {
+    RecordConverter<T> converter = new RecordConverter<>(clazz);
+    Stream<T> objects = new Stream<>();
+    readRowGroups(clazz, columns, filter, record -> objects.addToStream(converter.convert(record)));
+    return objects;
+  }
+
+  /**
+   * Reads a single numeric column of the rows that match the filter as a primitive batch.
+   *
+   * @param clazz           class of the WTA objects whose table to read
+   * @param column          name of the numeric column to read
+   * @param filter          {@link FilterPredicate} on the columns of the table, {@code null} to read all rows
+   * @return                values of the column, in file order
+   * @throws IOException    when the trace cannot be read
+   * @since 1.0.0
+   */
+  public double[] readColumn(Class<? extends BaseTraceObject> clazz, String column, FilterPredicate filter)
+      throws IOException {
+    DoubleStream.Builder values = DoubleStream.builder();
+    readRowGroups(clazz, List.of(column), filter, record -> {
+      Object value = record.get(column);
+      values.add(value instanceof Number ? ((Number) value).doubleValue() : Double.NaN);
+    });
+    return values.build().toArray();
+  }
+
+  /**
+   * Reads the matching records of all row groups of the table in parallel, and hands them to a consumer in
+   * file order as soon as their row group is read. At most {@link #parallelism} row groups are read ahead, so
+   * only those are held in memory at once.
+   *
+   * @param clazz           class of the WTA objects whose table to read
+   * @param columns         names of the columns to read, empty to read all columns
+   * @param filter          {@link FilterPredicate} on the columns of the table, {@code null} to read all rows
+   * @param consumer        consumes the matching records, in file order
+   * @throws IOException    when the trace cannot be read
+   * @since 1.0.0
+   */
+  private void readRowGroups(
+      Class<? extends BaseTraceObject> clazz,
+      Collection<String> columns,
+      FilterPredicate filter,
+      RecordConsumer consumer)
+      throws IOException {
+    List<RowGroup> rowGroups = listRowGroups(parquetLabels.get(clazz));
+    Deque<Future<List<GenericRecord>>> futures = new ArrayDeque<>();
+    int submitted = 0;
+    try {
+      while (submitted < rowGroups.size() || !futures.isEmpty()) {
+        while (submitted < rowGroups.size() && futures.size() < parallelism) {
+          RowGroup rowGroup = rowGroups.get(submitted++);
+          futures.addLast(threadPool.submit(() -> readRowGroup(rowGroup, columns, filter)));
+        }
+        for (GenericRecord record : futures.pollFirst().get()) {
+          consumer.accept(record);
+        }
+      }
+    } catch (InterruptedException e) {
+      log.error("Interrupted while reading {}.", parquetLabels.get(clazz));
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading " + parquetLabels.get(clazz), e);
+    } catch (ExecutionException e) {
+      log.error(
+          "Could not read {} because {}.",
+          parquetLabels.get(clazz),
+          e.getCause().getMessage());
+      throw new IOException("Could not read " + parquetLabels.get(clazz), e.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  /**
+   * Lists the row groups of all Parquet files of a table, in file order.
+   *
+   * @param label           label of the table
+   * @return                {@link List} of the row groups of the table
+   * @throws IOException    when the table cannot be listed or a footer cannot be read
+   * @since 1.0.0
+   */
+  private List<RowGroup> listRowGroups(String label) throws IOException {
+    Path directory = trace.resolve(label).resolve(schemaVersion);
+    if (!Files.isDirectory(directory)) {
+      log.warn("The trace does not contain {}.", label);
+      return List.of();
+    }
+    List<Path> files;
+    try (java.util.stream.Stream<Path> listing = Files.list(directory)) {
+      files = listing.filter(path -> path.getFileName().toString().endsWith(".parquet"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+    List<RowGroup> rowGroups = new ArrayList<>();
+    for (Path file : files) {
+      try (ParquetFileReader fileReader = ParquetFileReader.open(new DiskParquetInputFile(file, memoryMapped))) {
+        ParquetMetadata footer = fileReader.getFooter();
+        Schema schema = new Schema.Parser()
+            .parse(footer.getFileMetaData().getKeyValueMetaData().get(AVRO_SCHEMA_KEY));
+        for (BlockMetaData block : footer.getBlocks()) {
+          rowGroups.add(new RowGroup(
+              file, block.getStartingPos(), block.getStartingPos() + block.getCompressedSize(), schema));
+        }
+      }
+    }
+    log.debug("Reading {} row groups of {} in {} files.", rowGroups.size(), label, files.size());
+    return rowGroups;
+  }
+
+  /**
+   * Reads the matching records of a single row group.
+   *
+   * @param rowGroup        {@link RowGroup} to read
+   * @param columns         names of the columns to read, empty to read all columns
+   * @param filter          {@link FilterPredicate} on the columns of the table, {@code null} to read all rows
+   * @return                {@link List} of the matching records
+   * @throws IOException    when the row group cannot be read
+   * @since 1.0.0
+   */
+  private List<GenericRecord> readRowGroup(RowGroup rowGroup, Collection<String> columns, FilterPredicate filter)
+      throws IOException {
+    Configuration conf = new Configuration(false);
+    Set<String> projection = new HashSet<>(columns);
+    if (!columns.isEmpty() && filter != null) {
+      projection.addAll(filter.accept(new FilterColumns()));
+    }
+    AvroReadSupport.setRequestedProjection(conf, project(rowGroup.schema, projection));
+    List<GenericRecord> records = new ArrayList<>();
+    try (org.apache.parquet.hadoop.ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(
+            new DiskParquetInputFile(rowGroup.file, memoryMapped))
+        .withDataModel(GenericData.get())
+        .withConf(conf)
+        .withFileRange(rowGroup.start, rowGroup.end)
+        .withFilter(filter == null ? FilterCompat.NOOP : FilterCompat.get(filter))
+        .build()) {
+      GenericRecord record = reader.read();
+      while (record != null) {
+        records.add(record);
+        record = reader.read();
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Projects the Avro schema of a file onto the requested columns. Columns that are not in the file are ignored.
+   *
+   * @param schema          Avro {@link Schema} of the file
+   * @param columns         names of the columns to read, empty to read all columns
+   * @return                projected Avro {@link Schema}
+   * @since 1.0.0
+   */
+  private static Schema project(Schema schema, Collection<String> columns) {
+    if (columns.isEmpty()) {
+      return schema;
+    }
+    List<Schema.Field> fields = schema.getFields().stream()
+        .filter(field -> columns.contains(field.name()))
+        .map(field -> new Schema.Field(field, field.schema()))
+        .collect(Collectors.toList());
+    return Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), false, fields);
+  }
+
+  /**
+   * Converts an Avro value to the type of the corresponding field.
+   *
+   * @param value           Avro value to convert
+   * @param type            type of the field
+   * @return                converted value
+   * @since 1.0.0
+   */
+  private static Object convertValue(Object value, Class<?> type) {
+    if (value == null) {
+      return null;
+    } else if (String.class.equals(type)) {
+      return value.toString();
+    } else if (Domain.class.equals(type)) {
+      String domain = value.toString();
+      return domain.isEmpty() ? null : Domain.valueOf(domain.toUpperCase(Locale.ROOT));
+    } else if (long[].class.equals(type)) {
+      return ((List<?>) value).stream().mapToLong(item -> (Long) item).toArray();
+    } else if (Long[].class.equals(type)) {
+      return ((List<?>) value).stream().map(item -> (Long) item).toArray(Long[]::new);
+    } else if (Map.class.isAssignableFrom(type)) {
+      Map<String, String> map = new HashMap<>();
+      ((Map<?, ?>) value).forEach((key, entry) -> map.put(key.toString(), entry.toString()));
+      return map;
+    }
+    return value;
+  }
+
+  /**
+   * Shuts down the threads reading the trace.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public void close() {
+    threadPool.shutdown();
+  }
+}
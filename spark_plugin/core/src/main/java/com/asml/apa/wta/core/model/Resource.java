@@ -15,7 +15,7 @@ import org.apache.avro.generic.GenericRecord;
  * @since 1.0.0
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @Slf4j
 public class Resource implements BaseTraceObject {
 
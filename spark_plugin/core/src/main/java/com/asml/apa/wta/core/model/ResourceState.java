@@ -14,7 +14,7 @@ import org.apache.avro.generic.GenericRecord;
  */
 @Data
 @Slf4j
-@Builder
+@Builder(toBuilder = true)
 public class ResourceState implements BaseTraceObject {
 
   private static final long serialVersionUID = 8912154769719138654L;
@@ -54,6 +54,18 @@ public class ResourceState implements BaseTraceObject {
   @Builder.Default
   private final double averageUtilization15Minute = -1.0;
 
+  @Builder.Default
+  private final double processCpuUtilization = -1.0;
+
+  @Builder.Default
+  private final double processMemory = -1.0;
+
+  @Builder.Default
+  private final double processDiskIoBandwidth = -1.0;
+
+  @Builder.Default
+  private final double processContextSwitchesPerSecond = -1.0;
+
   /**
    * This method should never be called as we do not need to ever fetch its ID.
    *
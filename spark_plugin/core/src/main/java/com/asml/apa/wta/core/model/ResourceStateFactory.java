@@ -0,0 +1,340 @@
+package com.asml.apa.wta.core.model;
+
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.dto.CgroupDto;
+import com.asml.apa.wta.core.dto.IostatDto;
+import com.asml.apa.wta.core.dto.OsInfoDto;
+import com.asml.apa.wta.core.dto.ProcDto;
+import com.asml.apa.wta.core.dto.ProcessDto;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Turns the pings of executors into resources and resource states. This is done on the driver of the Spark
+ * plugin for the raw pings it receives, on the executors themselves when they pre-aggregate their pings, and by
+ * the standalone collector agent for the node it runs on.
+ *
+ * @author Atour Mousavi Gourabi
+ * @author Henry Page
+ * @since 1.0.0
+ */
+public final class ResourceStateFactory {
+
+  /**
+   * Id of the resources and resource states that executors derive themselves. The driver assigns the actual
+   * id of the resource when it receives them.
+   */
+  public static final long UNASSIGNED_RESOURCE_ID = -1L;
+
+  private static final long bytesToGb = 1073741824;
+
+  private static final long kBpsToGbps = 125000;
+
+  private static final long bpsToGbps = 125000000;
+
+  private static final List<StateMetric> METRICS = List.of(
+      new StateMetric(
+          ResourceState::getAvailableResources, ResourceState.ResourceStateBuilder::availableResources),
+      new StateMetric(ResourceState::getAvailableMemory, ResourceState.ResourceStateBuilder::availableMemory),
+      new StateMetric(
+          ResourceState::getAvailableDiskSpace, ResourceState.ResourceStateBuilder::availableDiskSpace),
+      new StateMetric(
+          ResourceState::getAvailableDiskIoBandwidth,
+          ResourceState.ResourceStateBuilder::availableDiskIoBandwidth),
+      new StateMetric(
+          ResourceState::getAvailableNetworkBandwidth,
+          ResourceState.ResourceStateBuilder::availableNetworkBandwidth),
+      new StateMetric(
+          ResourceState::getAverageUtilization1Minute,
+          ResourceState.ResourceStateBuilder::averageUtilization1Minute),
+      new StateMetric(
+          ResourceState::getAverageUtilization5Minute,
+          ResourceState.ResourceStateBuilder::averageUtilization5Minute),
+      new StateMetric(
+          ResourceState::getAverageUtilization15Minute,
+          ResourceState.ResourceStateBuilder::averageUtilization15Minute),
+      new StateMetric(
+          ResourceState::getProcessCpuUtilization, ResourceState.ResourceStateBuilder::processCpuUtilization),
+      new StateMetric(ResourceState::getProcessMemory, ResourceState.ResourceStateBuilder::processMemory),
+      new StateMetric(
+          ResourceState::getProcessDiskIoBandwidth,
+          ResourceState.ResourceStateBuilder::processDiskIoBandwidth),
+      new StateMetric(
+          ResourceState::getProcessContextSwitchesPerSecond,
+          ResourceState.ResourceStateBuilder::processContextSwitchesPerSecond));
+
+  /**
+   * Private constructor, as this class only holds static methods.
+   *
+   * @since 1.0.0
+   */
+  private ResourceStateFactory() {}
+
+  /**
+   * Merges two resources describing the same executor, preferring known values over unknown ones.
+   *
+   * @param known       resource produced from earlier pings
+   * @param update      resource produced from later pings
+   * @return            merged {@link Resource}
+   * @since 1.0.0
+   */
+  @SuppressWarnings("CyclomaticComplexity")
+  public static Resource mergeResources(Resource known, Resource update) {
+    return Resource.builder()
+        .id(known.getId())
+        .numResources(known.getNumResources() >= 0 ? known.getNumResources() : update.getNumResources())
+        .memory(known.getMemory() >= 0 ? known.getMemory() : update.getMemory())
+        .diskSpace(known.getDiskSpace() >= 0 ? known.getDiskSpace() : update.getDiskSpace())
+        .procModel(
+            known.getProcModel().startsWith("unknown")
+                    && !update.getProcModel().startsWith("unknown")
+                ? update.getProcModel()
+                : known.getProcModel())
+        .os(known.getOs().equals("unknown") ? update.getOs() : known.getOs())
+        .build();
+  }
+
+  /**
+   * Constructs a resource from a ping. The resources of consecutive pings of an executor are combined using
+   * {@link #mergeResources(Resource, Resource)}.
+   *
+   * @param executorId      transformed id of the executor
+   * @param ping            ping of this executor
+   * @return                {@link Resource} object that is constructed from the given information
+   * @since 1.0.0
+   */
+  public static Resource createResource(long executorId, BaseSupplierDto ping) {
+    final Optional<OsInfoDto> osInfo = Optional.ofNullable(ping.getOsInfoDto());
+    final Optional<CgroupDto> cgroupInfo = Optional.ofNullable(ping.getCgroupDto());
+
+    final String os = osInfo.map(OsInfoDto::getOs).orElse("unknown");
+
+    StringBuilder processorInformation = new StringBuilder();
+    processorInformation.append(Optional.ofNullable(ping.getProcDto())
+        .map(ProcDto::getCpuModel)
+        .filter(pModel -> !pModel.equals("unknown"))
+        .orElse("unknown"));
+    osInfo.map(OsInfoDto::getArchitecture)
+        .ifPresent(architecture -> processorInformation.append(" / ").append(architecture));
+
+    final double numResources = cgroupInfo
+        .map(CgroupDto::getCpuLimit)
+        .filter(cpuLimit -> cpuLimit > 0)
+        .orElseGet(() ->
+            (double) osInfo.map(OsInfoDto::getAvailableProcessors).orElse(-1));
+    final long memory = cgroupInfo
+        .map(CgroupDto::getMemoryMax)
+        .filter(memoryMax -> memoryMax > 0)
+        .map(memoryMax -> memoryMax / bytesToGb)
+        .orElseGet(() -> osInfo.map(pg -> pg.getTotalPhysicalMemorySize() / bytesToGb)
+            .orElse(-1L));
+
+    final long diskSpace = Optional.ofNullable(ping.getJvmFileDto())
+        .map(jvmDto -> jvmDto.getTotalSpace() / bytesToGb)
+        .orElse(-1L);
+
+    return Resource.builder()
+        .id(executorId)
+        .numResources(numResources)
+        .memory(memory)
+        .diskSpace(diskSpace)
+        .procModel(processorInformation.toString())
+        .os(os)
+        .build();
+  }
+
+  /**
+   * Constructs a resource state from a ping.
+   *
+   * @param resourceId      associated resource id
+   * @param ping            ping that is to be transformed to a state
+   * @return                resource state that is constructed from the given information
+   * @since 1.0.0
+   */
+  public static ResourceState createResourceState(long resourceId, BaseSupplierDto ping) {
+    final long timestamp = ping.getTimestamp();
+    final String eventType = "resource active";
+    final Optional<CgroupDto> cgroupDto = Optional.ofNullable(ping.getCgroupDto());
+    final double availableResources = cgroupDto
+        .map(CgroupDto::getCpuLimit)
+        .filter(cpuLimit -> cpuLimit > 0)
+        .orElseGet(() -> Optional.ofNullable(ping.getOsInfoDto())
+            .map(pg -> (double) pg.getAvailableProcessors())
+            .orElse(-1.0));
+    final double availableMemory = cgroupDto
+        .filter(pg -> pg.getMemoryMax() > 0 && pg.getMemoryCurrent() >= 0)
+        .map(pg -> (double) (pg.getMemoryMax() - pg.getMemoryCurrent()) / bytesToGb)
+        .orElseGet(() -> Optional.ofNullable(ping.getOsInfoDto())
+            .map(pg -> (double) pg.getFreePhysicalMemorySize() / bytesToGb)
+            .orElse(-1.0));
+    final double availableDiskSpace = Optional.ofNullable(ping.getJvmFileDto())
+        .map(pg -> (double) pg.getUsableSpace() / bytesToGb)
+        .orElse(-1.0);
+
+    final Optional<ProcDto> procDto = Optional.ofNullable(ping.getProcDto());
+
+    double availableDiskIoBandwidth = procDto.filter(pg -> pg.getDiskReadBytesPerSecond() >= 0)
+        .map(pg -> (pg.getDiskReadBytesPerSecond() + pg.getDiskWrittenBytesPerSecond()) / bpsToGbps)
+        .orElse(-1.0);
+
+    if (availableDiskIoBandwidth < 0 && ping.getIostatDto() != null) {
+      final IostatDto iostatDto = ping.getIostatDto();
+      availableDiskIoBandwidth =
+          iostatDto.getKiloByteReadPerSec() / kBpsToGbps + iostatDto.getKiloByteWrtnPerSec() / kBpsToGbps;
+    }
+
+    final double availableNetworkBandwidth = procDto.filter(pg -> pg.getNetworkReceivedBytesPerSecond() >= 0)
+        .map(pg ->
+            (pg.getNetworkReceivedBytesPerSecond() + pg.getNetworkTransmittedBytesPerSecond()) / bpsToGbps)
+        .orElse(-1.0);
+
+    final double numCores = Optional.ofNullable(ping.getOsInfoDto())
+        .map(OsInfoDto::getAvailableProcessors)
+        .orElse(-1);
+
+    final double averageUtilization1Minute = procDto.map(ProcDto::getLoadAvgOneMinute)
+        .filter(loadAvg -> loadAvg != -1)
+        .map(loadAvg -> loadAvg / numCores)
+        .orElse(-1.0);
+
+    final double averageUtilization5Minute = procDto.map(ProcDto::getLoadAvgFiveMinutes)
+        .filter(loadAvg -> loadAvg != -1)
+        .map(loadAvg -> loadAvg / numCores)
+        .orElse(-1.0);
+
+    final double averageUtilization15Minute = procDto.map(ProcDto::getLoadAvgFifteenMinutes)
+        .filter(loadAvg -> loadAvg != -1)
+        .map(loadAvg -> loadAvg / numCores)
+        .orElse(-1.0);
+
+    final Optional<ProcessDto> processDto = Optional.ofNullable(ping.getProcessDto());
+
+    final double processCpuUtilization =
+        processDto.map(ProcessDto::getCpuUtilization).orElse(-1.0);
+
+    final double processMemory = processDto
+        .filter(pg -> pg.getResidentMemory() >= 0)
+        .map(pg -> (double) pg.getResidentMemory() / bytesToGb)
+        .orElse(-1.0);
+
+    final double processDiskIoBandwidth = processDto
+        .filter(pg -> pg.getReadBytesPerSecond() >= 0)
+        .map(pg -> (pg.getReadBytesPerSecond() + pg.getWrittenBytesPerSecond()) / bpsToGbps)
+        .orElse(-1.0);
+
+    final double processContextSwitchesPerSecond =
+        processDto.map(ProcessDto::getContextSwitchesPerSecond).orElse(-1.0);
+
+    return ResourceState.builder()
+        .resourceId(resourceId)
+        .timestamp(timestamp)
+        .eventType(eventType)
+        .availableResources(availableResources)
+        .availableDiskSpace(availableDiskSpace)
+        .availableMemory(availableMemory)
+        .availableDiskIoBandwidth(availableDiskIoBandwidth)
+        .availableNetworkBandwidth(availableNetworkBandwidth)
+        .averageUtilization1Minute(averageUtilization1Minute)
+        .averageUtilization5Minute(averageUtilization5Minute)
+        .averageUtilization15Minute(averageUtilization15Minute)
+        .processCpuUtilization(processCpuUtilization)
+        .processMemory(processMemory)
+        .processDiskIoBandwidth(processDiskIoBandwidth)
+        .processContextSwitchesPerSecond(processContextSwitchesPerSecond)
+        .build();
+  }
+
+  /**
+   * Averages consecutive resource states of the same resource into one. Metrics are averaged over the states
+   * in which they are known, and stay unknown if they are unknown in all of them. The averaged state takes the
+   * timestamp of the first state.
+   *
+   * @param states          consecutive resource states of the same resource, at least one
+   * @return                the averaged {@link ResourceState}
+   * @since 1.0.0
+   */
+  public static ResourceState average(List<ResourceState> states) {
+    int[] weights = new int[states.size()];
+    Arrays.fill(weights, 1);
+    return average(states, weights);
+  }
+
+  /**
+   * Averages consecutive resource states of the same resource into one, weighing every state by the number of
+   * samples it stands for. This is used to average states that are themselves averages.
+   *
+   * @param states          consecutive resource states of the same resource, at least one
+   * @param weights         number of samples every state stands for, in the order of the states
+   * @return                the averaged {@link ResourceState}
+   * @since 1.0.0
+   */
+  public static ResourceState average(List<ResourceState> states, int[] weights) {
+    ResourceState first = states.get(0);
+    if (states.size() == 1) {
+      return first;
+    }
+    ResourceState.ResourceStateBuilder builder = ResourceState.builder()
+        .resourceId(first.getResourceId())
+        .timestamp(first.getTimestamp())
+        .eventType(first.getEventType())
+        .platformId(first.getPlatformId());
+    for (StateMetric metric : METRICS) {
+      double sum = 0.0;
+      long known = 0;
+      for (int index = 0; index < states.size(); index++) {
+        double value = metric.getter.applyAsDouble(states.get(index));
+        if (value >= 0) {
+          sum += value * weights[index];
+          known += weights[index];
+        }
+      }
+      metric.setter.apply(builder, known > 0 ? sum / known : -1.0);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Checks whether any metric changed beyond a threshold between two resource states of the same resource.
+   * A metric that became known or unknown always counts as changed.
+   *
+   * @param previous        earlier {@link ResourceState}
+   * @param next            later {@link ResourceState}
+   * @param threshold       largest change that is ignored, relative to the largest of the two values
+   * @return                {@code true} if any metric changed beyond the threshold
+   * @since 1.0.0
+   */
+  public static boolean changed(ResourceState previous, ResourceState next, double threshold) {
+    for (StateMetric metric : METRICS) {
+      double before = metric.getter.applyAsDouble(previous);
+      double after = metric.getter.applyAsDouble(next);
+      if ((before < 0) != (after < 0)
+          || Math.abs(after - before) > threshold * Math.max(Math.abs(before), Math.abs(after))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A metric of a resource state, with its getter and the setter of its builder.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  private static final class StateMetric {
+
+    private final ToDoubleFunction<ResourceState> getter;
+
+    private final BiFunction<ResourceState.ResourceStateBuilder, Double, ResourceState.ResourceStateBuilder> setter;
+
+    private StateMetric(
+        ToDoubleFunction<ResourceState> getter,
+        BiFunction<ResourceState.ResourceStateBuilder, Double, ResourceState.ResourceStateBuilder> setter) {
+      this.getter = getter;
+      this.setter = setter;
+    }
+  }
+}
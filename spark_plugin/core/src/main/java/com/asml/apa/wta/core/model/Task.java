@@ -81,6 +81,18 @@ public class Task implements BaseTraceObject {
   @Builder.Default
   private final long resourceUsed = -1L;
 
+  @Builder.Default
+  private double resourceCpuUtilization = -1.0;
+
+  @Builder.Default
+  private double resourceAvailableMemory = -1.0;
+
+  @Builder.Default
+  private double resourceDiskIoBandwidth = -1.0;
+
+  @Builder.Default
+  private double resourceNetworkBandwidth = -1.0;
+
   /**
    * Converts the POJO object into record object, enabling it to be written by Avro.
    * It will put all fields allowed by the checker into the record.
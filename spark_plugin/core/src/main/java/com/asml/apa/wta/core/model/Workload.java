@@ -1,6 +1,7 @@
 package com.asml.apa.wta.core.model;
 
 import com.asml.apa.wta.core.io.ParquetSchema;
+import java.util.Map;
 import lombok.Builder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +29,9 @@ public class Workload implements BaseTraceObject {
   @Builder.Default
   private final String workloadDescription = "";
 
+  @Builder.Default
+  private final Map<String, Long> resourceIds = Map.of();
+
   @Builder.Default
   private final long totalWorkflows = -1L;
 
@@ -32,11 +32,13 @@ public class KeyedStream<K, V extends Serializable> {
    */
   public void addToStream(K key, @NonNull V record) {
     log.trace("Adding object to stream");
-    if (streams.containsKey(key)) {
-      streams.get(key).addToStream(record);
-    } else {
-      streams.put(key, new Stream<>(record));
-    }
+    streams.compute(key, (k, stream) -> {
+      if (stream == null) {
+        return new Stream<>(record);
+      }
+      stream.addToStream(record);
+      return stream;
+    });
   }
 
   /**
@@ -66,6 +68,26 @@ public class KeyedStream<K, V extends Serializable> {
     return stream;
   }
 
+  /**
+   * Performs the mapping operation over the {@link KeyedStream} per key, removing every key it maps.
+   * Records added while draining are either part of the mapped stream or end up in a new stream for the key.
+   *
+   * @param mapper    mapping function, takes in the key and value of the element to map
+   * @param <R>       type parameter for the mapper's return type
+   * @return          result of the mapping operation
+   * @since 1.0.0
+   */
+  public <R> List<R> drainKeyList(@NonNull BiFunction<K, Stream<V>, R> mapper) {
+    List<R> stream = new ArrayList<>();
+    for (K key : streams.keySet()) {
+      Stream<V> drained = streams.remove(key);
+      if (drained != null) {
+        stream.add(mapper.apply(key, drained));
+      }
+    }
+    return stream;
+  }
+
   /**
    * Get the message stream at a given key.
    *
@@ -0,0 +1,453 @@
+package com.asml.apa.wta.core.supplier;
+
+import com.asml.apa.wta.core.dto.CgroupDto;
+import com.asml.apa.wta.core.util.ProcFileScanner;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Supplier for the resource accounting of the cgroup the executor runs in. When the executor runs in a
+ * container, this reports the limits and usage of the container rather than those of the whole host.
+ * Both the unified cgroup v2 hierarchy and the cgroup v1 controllers are supported. The files are found
+ * once, kept open in between snapshots, and parsed without allocating.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class CgroupSupplier implements InformationSupplier<CgroupDto> {
+
+  private static final byte[][] CPU_STAT_KEYS =
+      keys("usage_usec", "user_usec", "system_usec", "nr_periods", "nr_throttled", "throttled_usec");
+
+  private static final byte[][] CPU_STAT_V1_KEYS =
+      keys("-", "-", "-", "nr_periods", "nr_throttled", "throttled_time");
+
+  private static final byte[][] CPU_ACCT_STAT_KEYS = keys("user", "system");
+
+  private static final byte[] READ = "Read".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] WRITE = "Write".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] MAX = "max".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] MINUS = "-".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] SOME = "some".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] FULL = "full".getBytes(StandardCharsets.US_ASCII);
+
+  private static final long UNLIMITED = 1L << 60;
+
+  private static final long MICROS_PER_TICK = 10000L;
+
+  private final int version;
+
+  private final ProcFileScanner cpuStat;
+
+  private final ProcFileScanner cpuMax;
+
+  private final ProcFileScanner cpuPeriod;
+
+  private final ProcFileScanner cpuUsage;
+
+  private final ProcFileScanner cpuTimes;
+
+  private final ProcFileScanner memoryCurrent;
+
+  private final ProcFileScanner memoryMax;
+
+  private final ProcFileScanner ioBytes;
+
+  private final ProcFileScanner ioOperations;
+
+  private final ProcFileScanner cpuPressure;
+
+  private final ProcFileScanner memoryPressure;
+
+  private final ProcFileScanner ioPressure;
+
+  private final List<ProcFileScanner> scanners = new ArrayList<>();
+
+  private final long[] cpu = new long[CPU_STAT_KEYS.length];
+
+  private final long[] cpuTicks = new long[CPU_ACCT_STAT_KEYS.length];
+
+  private final long[] io = new long[4];
+
+  private final double[] pressure = new double[2];
+
+  /**
+   * Constructs the supplier for the cgroup of the current process, mounted at {@code /sys/fs/cgroup}.
+   *
+   * @since 1.0.0
+   */
+  public CgroupSupplier() {
+    this(Path.of("/proc/self/cgroup"), Path.of("/sys/fs/cgroup"));
+  }
+
+  /**
+   * Constructs the supplier. The cgroup is looked up once, in the membership file, and resolved against the
+   * cgroup mount. When the cgroup is not visible in the mount, as with cgroup namespaces, the root of the
+   * mount is used instead.
+   *
+   * @param membership      membership file of the process, {@code /proc/self/cgroup} outside of tests
+   * @param cgroupRoot      mount point of the cgroup file system, {@code /sys/fs/cgroup} outside of tests
+   * @since 1.0.0
+   */
+  public CgroupSupplier(Path membership, Path cgroupRoot) {
+    Map<String, String> cgroups = readMembership(membership);
+    if (Files.exists(cgroupRoot.resolve("cgroup.controllers")) && cgroups.containsKey("")) {
+      Path cgroup = resolve(cgroupRoot, cgroups.get(""));
+      version = 2;
+      cpuStat = open(cgroup, "cpu.stat");
+      cpuMax = open(cgroup, "cpu.max");
+      cpuPeriod = null;
+      cpuUsage = null;
+      cpuTimes = null;
+      memoryCurrent = open(cgroup, "memory.current");
+      memoryMax = open(cgroup, "memory.max");
+      ioBytes = open(cgroup, "io.stat");
+      ioOperations = null;
+      cpuPressure = open(cgroup, "cpu.pressure");
+      memoryPressure = open(cgroup, "memory.pressure");
+      ioPressure = open(cgroup, "io.pressure");
+    } else {
+      Path cpuCgroup = controller(cgroupRoot, cgroups, "cpu");
+      Path cpuAcctCgroup = controller(cgroupRoot, cgroups, "cpuacct");
+      Path memoryCgroup = controller(cgroupRoot, cgroups, "memory");
+      Path blkioCgroup = controller(cgroupRoot, cgroups, "blkio");
+      version = Stream.of(cpuCgroup, cpuAcctCgroup, memoryCgroup, blkioCgroup)
+              .anyMatch(Objects::nonNull)
+          ? 1
+          : -1;
+      cpuStat = open(cpuCgroup, "cpu.stat");
+      cpuMax = open(cpuCgroup, "cpu.cfs_quota_us");
+      cpuPeriod = open(cpuCgroup, "cpu.cfs_period_us");
+      cpuUsage = open(cpuAcctCgroup, "cpuacct.usage");
+      cpuTimes = open(cpuAcctCgroup, "cpuacct.stat");
+      memoryCurrent = open(memoryCgroup, "memory.usage_in_bytes");
+      memoryMax = open(memoryCgroup, "memory.limit_in_bytes");
+      ioBytes = open(blkioCgroup, "blkio.throttle.io_service_bytes");
+      ioOperations = open(blkioCgroup, "blkio.throttle.io_serviced");
+      cpuPressure = null;
+      memoryPressure = null;
+      ioPressure = null;
+    }
+  }
+
+  /**
+   * Checks whether the cgroup of the process could be found.
+   *
+   * @return      {@code true} when the cgroup files can be read
+   * @since 1.0.0
+   */
+  @Override
+  public boolean isAvailable() {
+    return version > 0 && !scanners.isEmpty();
+  }
+
+  /**
+   * Reads the usage and limits of the cgroup. Metrics that cannot be read are set to -1.
+   *
+   * @return      if the cgroup was found, {@link Optional} {@link CgroupDto} wrapped in a {@link CompletableFuture}
+   *              that will be sent to the driver. Otherwise {@link CompletableFuture} with an empty {@link Optional}
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized CompletableFuture<Optional<CgroupDto>> getSnapshot() {
+    if (!isAvailable()) {
+      return notAvailableResult();
+    }
+    CgroupDto.CgroupDtoBuilder builder = CgroupDto.builder().version(version);
+    if (version == 2) {
+      readKeyed(cpuStat, CPU_STAT_KEYS, cpu);
+      readIoStat();
+      builder.cpuUsageMicros(cpu[0])
+          .cpuUserMicros(cpu[1])
+          .cpuSystemMicros(cpu[2])
+          .cpuThrottledMicros(cpu[5])
+          .cpuLimit(readCpuMax());
+      readPressure(cpuPressure);
+      builder.cpuPressureSome(pressure[0]);
+      readPressure(memoryPressure);
+      builder.memoryPressureSome(pressure[0]).memoryPressureFull(pressure[1]);
+      readPressure(ioPressure);
+      builder.ioPressureSome(pressure[0]).ioPressureFull(pressure[1]);
+    } else {
+      readKeyed(cpuStat, CPU_STAT_V1_KEYS, cpu);
+      readKeyed(cpuTimes, CPU_ACCT_STAT_KEYS, cpuTicks);
+      readBlkio(ioBytes, 0);
+      readBlkio(ioOperations, 2);
+      long usage = readValue(cpuUsage);
+      long quota = readLimit(cpuMax);
+      long period = readValue(cpuPeriod);
+      builder.cpuUsageMicros(usage < 0 ? -1 : usage / 1000)
+          .cpuUserMicros(cpuTicks[0] < 0 ? -1 : cpuTicks[0] * MICROS_PER_TICK)
+          .cpuSystemMicros(cpuTicks[1] < 0 ? -1 : cpuTicks[1] * MICROS_PER_TICK)
+          .cpuThrottledMicros(cpu[5] < 0 ? -1 : cpu[5] / 1000)
+          .cpuLimit(quota > 0 && period > 0 ? (double) quota / period : -1.0);
+    }
+    return CompletableFuture.completedFuture(Optional.of(builder.cpuPeriods(cpu[3])
+        .cpuThrottledPeriods(cpu[4])
+        .memoryCurrent(readValue(memoryCurrent))
+        .memoryMax(readLimit(memoryMax))
+        .ioReadBytes(io[0])
+        .ioWrittenBytes(io[1])
+        .ioReadOperations(io[2])
+        .ioWriteOperations(io[3])
+        .build()));
+  }
+
+  /**
+   * Reads a file of keys followed by values, such as {@code cpu.stat}, into the given values.
+   * Keys that are not listed are set to -1.
+   *
+   * @param scanner     scanner of the file, or {@code null} if it is not readable
+   * @param keys        ASCII keys to read the values of
+   * @param values      values to read into, in the order of the keys
+   * @since 1.0.0
+   */
+  private static void readKeyed(ProcFileScanner scanner, byte[][] keys, long[] values) {
+    Arrays.fill(values, -1L);
+    if (scanner == null || !scanner.refresh()) {
+      return;
+    }
+    while (scanner.hasRemaining()) {
+      for (int index = 0; index < keys.length; index++) {
+        if (scanner.startsWith(keys[index])) {
+          scanner.skipToken();
+          values[index] = scanner.nextLong();
+          break;
+        }
+      }
+      scanner.nextLine();
+    }
+  }
+
+  /**
+   * Reads the bytes and operations in {@code io.stat}, summed over all devices.
+   *
+   * @since 1.0.0
+   */
+  private void readIoStat() {
+    Arrays.fill(io, -1L);
+    if (ioBytes == null || !ioBytes.refresh()) {
+      return;
+    }
+    while (ioBytes.hasRemaining()) {
+      ioBytes.skipToken();
+      for (int column = 0; column < io.length && ioBytes.skipPast('='); column++) {
+        io[column] = Math.max(io[column], 0L) + ioBytes.nextLong();
+      }
+      ioBytes.nextLine();
+    }
+  }
+
+  /**
+   * Reads the reads and writes in a cgroup v1 blkio file, summed over all devices.
+   *
+   * @param scanner     scanner of the file, or {@code null} if it is not readable
+   * @param offset      index in the I/O metrics of the reads, the writes directly follow it
+   * @since 1.0.0
+   */
+  private void readBlkio(ProcFileScanner scanner, int offset) {
+    io[offset] = -1L;
+    io[offset + 1] = -1L;
+    if (scanner == null || !scanner.refresh()) {
+      return;
+    }
+    while (scanner.hasRemaining()) {
+      scanner.skipToken();
+      scanner.skipBlanks();
+      if (scanner.startsWith(READ)) {
+        io[offset] = Math.max(io[offset], 0L) + scanner.nextLong();
+      } else if (scanner.startsWith(WRITE)) {
+        io[offset + 1] = Math.max(io[offset + 1], 0L) + scanner.nextLong();
+      }
+      scanner.nextLine();
+    }
+  }
+
+  /**
+   * Reads the CPU limit from {@code cpu.max}.
+   *
+   * @return            the number of CPUs the cgroup may use, or -1.0 if it is not limited
+   * @since 1.0.0
+   */
+  private double readCpuMax() {
+    if (cpuMax == null || !cpuMax.refresh() || cpuMax.startsWith(MAX)) {
+      return -1.0;
+    }
+    long quota = cpuMax.nextLong();
+    long period = cpuMax.nextLong();
+    return quota > 0 && period > 0 ? (double) quota / period : -1.0;
+  }
+
+  /**
+   * Reads the averages over the last 10 seconds from a pressure stall information file.
+   *
+   * @param scanner     scanner of the file, or {@code null} if it is not readable
+   * @since 1.0.0
+   */
+  private void readPressure(ProcFileScanner scanner) {
+    Arrays.fill(pressure, -1.0);
+    if (scanner == null || !scanner.refresh()) {
+      return;
+    }
+    if (scanner.findLine(SOME) && scanner.skipPast('=')) {
+      pressure[0] = scanner.nextDouble();
+    }
+    if (scanner.findLine(FULL) && scanner.skipPast('=')) {
+      pressure[1] = scanner.nextDouble();
+    }
+  }
+
+  /**
+   * Reads a file that holds a single value.
+   *
+   * @param scanner     scanner of the file, or {@code null} if it is not readable
+   * @return            the value, or -1 if it cannot be read
+   * @since 1.0.0
+   */
+  private static long readValue(ProcFileScanner scanner) {
+    return scanner != null && scanner.refresh() ? scanner.nextLong() : -1L;
+  }
+
+  /**
+   * Reads a file that holds a single limit, which is either {@code max}, negative or very large when unset.
+   *
+   * @param scanner     scanner of the file, or {@code null} if it is not readable
+   * @return            the limit, or -1 if it is not set or cannot be read
+   * @since 1.0.0
+   */
+  private static long readLimit(ProcFileScanner scanner) {
+    if (scanner == null || !scanner.refresh() || scanner.startsWith(MAX) || scanner.startsWith(MINUS)) {
+      return -1L;
+    }
+    long limit = scanner.nextLong();
+    return limit >= UNLIMITED ? -1L : limit;
+  }
+
+  /**
+   * Opens a scanner for a file of a cgroup.
+   *
+   * @param cgroup      directory of the cgroup, or {@code null} if it was not found
+   * @param file        name of the file
+   * @return            the {@link ProcFileScanner}, or {@code null} if the file is not readable
+   * @since 1.0.0
+   */
+  private ProcFileScanner open(Path cgroup, String file) {
+    if (cgroup == null || !Files.isReadable(cgroup.resolve(file))) {
+      return null;
+    }
+    ProcFileScanner scanner = new ProcFileScanner(cgroup.resolve(file));
+    scanners.add(scanner);
+    return scanner;
+  }
+
+  /**
+   * Reads the cgroup membership of the process. Every controller is mapped to the path of its cgroup, the
+   * unified cgroup v2 hierarchy is mapped from the empty string.
+   *
+   * @param membership  membership file of the process
+   * @return            the cgroup paths by controller
+   * @since 1.0.0
+   */
+  private static Map<String, String> readMembership(Path membership) {
+    Map<String, String> cgroups = new HashMap<>();
+    if (!System.getProperty("os.name").toLowerCase().contains("linux") || !Files.isReadable(membership)) {
+      return cgroups;
+    }
+    try {
+      for (String line : Files.readAllLines(membership)) {
+        String[] fields = line.split(":", 3);
+        if (fields.length == 3) {
+          for (String controller : fields[1].split(",")) {
+            cgroups.put(controller, fields[2]);
+          }
+        }
+      }
+    } catch (IOException e) {
+      log.error("Could not read the cgroup membership in {}.", membership);
+    }
+    return cgroups;
+  }
+
+  /**
+   * Finds the cgroup of a cgroup v1 controller. Controllers can be mounted on their own, or together with
+   * other controllers, such as at {@code cpu,cpuacct}.
+   *
+   * @param cgroupRoot  mount point of the cgroup file system
+   * @param cgroups     the cgroup paths by controller
+   * @param controller  name of the controller
+   * @return            directory of the cgroup, or {@code null} if the controller is not mounted
+   * @since 1.0.0
+   */
+  private static Path controller(Path cgroupRoot, Map<String, String> cgroups, String controller) {
+    if (!cgroups.containsKey(controller) || !Files.isDirectory(cgroupRoot)) {
+      return null;
+    }
+    try (Stream<Path> mounts = Files.list(cgroupRoot)) {
+      List<Path> candidates = mounts.filter(Files::isDirectory)
+          .filter(mount -> Arrays.asList(
+                  mount.getFileName().toString().split(","))
+              .contains(controller))
+          .sorted()
+          .collect(Collectors.toList());
+      return candidates.isEmpty() ? null : resolve(candidates.get(0), cgroups.get(controller));
+    } catch (IOException e) {
+      log.error("Could not list the cgroup mounts in {}.", cgroupRoot);
+      return null;
+    }
+  }
+
+  /**
+   * Resolves the path of a cgroup against the mount of its hierarchy.
+   *
+   * @param mount       mount of the hierarchy
+   * @param cgroup      absolute path of the cgroup within the hierarchy
+   * @return            directory of the cgroup, or the mount itself if the cgroup is not visible in it
+   * @since 1.0.0
+   */
+  private static Path resolve(Path mount, String cgroup) {
+    Path directory = mount.resolve(cgroup.replaceFirst("^/+", ""));
+    return Files.isDirectory(directory) ? directory : mount;
+  }
+
+  /**
+   * Converts keys to ASCII.
+   *
+   * @param keys        keys to convert
+   * @return            the ASCII keys
+   * @since 1.0.0
+   */
+  private static byte[][] keys(String... keys) {
+    return Stream.of(keys)
+        .map(key -> key.getBytes(StandardCharsets.US_ASCII))
+        .toArray(byte[][]::new);
+  }
+
+  /**
+   * Closes the cgroup files.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized void close() {
+    scanners.forEach(ProcFileScanner::close);
+  }
+}
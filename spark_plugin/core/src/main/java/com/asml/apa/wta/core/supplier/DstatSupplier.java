@@ -2,17 +2,20 @@ package com.asml.apa.wta.core.supplier;
 
 import com.asml.apa.wta.core.dto.DstatDto;
 import com.asml.apa.wta.core.util.ShellRunner;
+import com.asml.apa.wta.core.util.StreamingShellCommand;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * DstatDataSource class for the Dstat tool.
+ * DstatDataSource class for the Dstat tool. In collector mode a single dstat process reports at a fixed
+ * interval, and snapshots return its latest sample without blocking.
  *
  * @author Lohithsai Yadala Chanchu
  * @since 1.0.0
@@ -21,10 +24,33 @@ import lombok.extern.slf4j.Slf4j;
 public class DstatSupplier implements InformationSupplier<DstatDto> {
   private final ShellRunner shellRunner;
   private final boolean isDstatAvailable;
+  private final StreamingShellCommand collector;
+  private final AtomicReference<DstatDto> latestSample = new AtomicReference<>();
 
+  /**
+   * Constructs the supplier, running dstat once per snapshot.
+   *
+   * @param shellRunner           shell utils instance to use
+   * @since 1.0.0
+   */
   public DstatSupplier(ShellRunner shellRunner) {
+    this(shellRunner, 0);
+  }
+
+  /**
+   * Constructs the supplier.
+   *
+   * @param shellRunner           shell utils instance to use
+   * @param collectorInterval     interval in seconds at which a single long-running dstat process reports, or a
+   *                              non-positive value to run dstat once per snapshot
+   * @since 1.0.0
+   */
+  public DstatSupplier(ShellRunner shellRunner, int collectorInterval) {
     this.shellRunner = shellRunner;
     this.isDstatAvailable = isAvailable();
+    this.collector = isDstatAvailable && collectorInterval > 0
+        ? shellRunner.streamCommand("dstat -cdngy --noupdate " + collectorInterval, this::acceptLine)
+        : null;
   }
 
   /**
@@ -39,6 +65,9 @@ public class DstatSupplier implements InformationSupplier<DstatDto> {
     if (!isDstatAvailable) {
       return notAvailableResult();
     }
+    if (collector != null && collector.ensureRunning()) {
+      return CompletableFuture.completedFuture(Optional.ofNullable(latestSample.get()));
+    }
     CompletableFuture<String> allMetrics = shellRunner.executeCommand("dstat -cdngy 1 1", false);
 
     return allMetrics.thenApply(result -> {
@@ -46,21 +75,7 @@ public class DstatSupplier implements InformationSupplier<DstatDto> {
         try {
           List<Long> metrics = extractNumbers(result);
           if (metrics.size() == 13) {
-            return Optional.of(DstatDto.builder()
-                .totalUsageUsr(metrics.get(0))
-                .totalUsageSys(metrics.get(1))
-                .totalUsageIdl(metrics.get(2))
-                .totalUsageWai(metrics.get(3))
-                .totalUsageStl(metrics.get(4))
-                .dskRead(metrics.get(5))
-                .dskWrite(metrics.get(6))
-                .netRecv(metrics.get(7))
-                .netSend(metrics.get(8))
-                .pagingIn(metrics.get(9))
-                .pagingOut(metrics.get(10))
-                .systemInt(metrics.get(11))
-                .systemCsw(metrics.get(12))
-                .build());
+            return Optional.of(toDto(metrics));
           }
         } catch (NullPointerException e) {
           log.error("A null pointer exception when gather metrics from dstat");
@@ -76,6 +91,49 @@ public class DstatSupplier implements InformationSupplier<DstatDto> {
     });
   }
 
+  /**
+   * Handles a line of output of the long-running dstat process. Lines that hold a complete sample replace
+   * the latest sample, header lines are ignored.
+   *
+   * @param line      line of dstat output
+   * @since 1.0.0
+   */
+  void acceptLine(String line) {
+    try {
+      List<Long> metrics = extractNumbers(line);
+      if (metrics.size() == 13) {
+        latestSample.set(toDto(metrics));
+      }
+    } catch (NumberFormatException e) {
+      log.error("Something went wrong while parsing dstat terminal output");
+    }
+  }
+
+  /**
+   * Creates the {@link DstatDto} from the parsed numbers of a dstat sample.
+   *
+   * @param metrics   the 13 numbers of a dstat sample
+   * @return          the {@link DstatDto}
+   * @since 1.0.0
+   */
+  private static DstatDto toDto(List<Long> metrics) {
+    return DstatDto.builder()
+        .totalUsageUsr(metrics.get(0))
+        .totalUsageSys(metrics.get(1))
+        .totalUsageIdl(metrics.get(2))
+        .totalUsageWai(metrics.get(3))
+        .totalUsageStl(metrics.get(4))
+        .dskRead(metrics.get(5))
+        .dskWrite(metrics.get(6))
+        .netRecv(metrics.get(7))
+        .netSend(metrics.get(8))
+        .pagingIn(metrics.get(9))
+        .pagingOut(metrics.get(10))
+        .systemInt(metrics.get(11))
+        .systemCsw(metrics.get(12))
+        .build();
+  }
+
   /**
    * Parse Dstat terminal output.
    *
@@ -128,4 +186,16 @@ public class DstatSupplier implements InformationSupplier<DstatDto> {
       return false;
     }
   }
+
+  /**
+   * Stops the long-running dstat process, if any.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public void close() {
+    if (collector != null) {
+      collector.close();
+    }
+  }
 }
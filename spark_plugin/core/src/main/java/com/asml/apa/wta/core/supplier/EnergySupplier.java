@@ -0,0 +1,201 @@
+package com.asml.apa.wta.core.supplier;
+
+import com.asml.apa.wta.core.dto.PerfDto;
+import com.asml.apa.wta.core.util.ProcFileScanner;
+import com.asml.apa.wta.core.util.ShellRunner;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Supplier for the energy usage of the CPU packages. The cumulative RAPL energy counters exposed by the
+ * powercap framework in sysfs are read on every snapshot, and the power is computed from the energy used
+ * since the previous snapshot. When the counters cannot be read, for example because the kernel lacks RAPL
+ * support or the plugin lacks permission, {@code perf} is used instead.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class EnergySupplier implements InformationSupplier<PerfDto> {
+
+  private static final Pattern PACKAGE_ZONE = Pattern.compile("intel-rapl:\\d+");
+
+  private final List<RaplZone> zones;
+
+  private final PerfSupplier fallback;
+
+  private final boolean isAvailable;
+
+  private final LongSupplier clock;
+
+  private long lastSnapshot = -1L;
+
+  /**
+   * Constructs the supplier reading from {@code /sys/class/powercap}.
+   *
+   * @param shellRunner     shell utils instance to use for the {@code perf} fallback
+   * @since 1.0.0
+   */
+  public EnergySupplier(ShellRunner shellRunner) {
+    this(Path.of("/sys/class/powercap"), shellRunner);
+  }
+
+  /**
+   * Constructs the supplier.
+   *
+   * @param powercapRoot    root of the powercap class in sysfs, {@code /sys/class/powercap} outside of tests
+   * @param shellRunner     shell utils instance to use for the {@code perf} fallback
+   * @since 1.0.0
+   */
+  public EnergySupplier(Path powercapRoot, ShellRunner shellRunner) {
+    this(powercapRoot, shellRunner, System::nanoTime);
+  }
+
+  /**
+   * Constructs the supplier with the clock that is used to compute the power.
+   *
+   * @param powercapRoot    root of the powercap class in sysfs
+   * @param shellRunner     shell utils instance to use for the {@code perf} fallback
+   * @param clock           monotonic clock in nanoseconds
+   * @since 1.0.0
+   */
+  EnergySupplier(Path powercapRoot, ShellRunner shellRunner, LongSupplier clock) {
+    this.clock = clock;
+    this.zones = findZones(powercapRoot);
+    if (zones.isEmpty()) {
+      log.info("RAPL energy counters are not readable, falling back to perf.");
+      this.fallback = new PerfSupplier(shellRunner);
+    } else {
+      this.fallback = null;
+    }
+    this.isAvailable = !zones.isEmpty() || fallback.isAvailable();
+  }
+
+  /**
+   * Finds the readable package zones of the RAPL powercap driver.
+   *
+   * @param powercapRoot    root of the powercap class in sysfs
+   * @return                the readable zones, empty if there are none
+   * @since 1.0.0
+   */
+  private static List<RaplZone> findZones(Path powercapRoot) {
+    if (!System.getProperty("os.name").toLowerCase().contains("linux") || !Files.isDirectory(powercapRoot)) {
+      return List.of();
+    }
+    try (Stream<Path> children = Files.list(powercapRoot)) {
+      return children.filter(zone ->
+              PACKAGE_ZONE.matcher(zone.getFileName().toString()).matches())
+          .sorted()
+          .filter(zone -> Files.isReadable(zone.resolve("energy_uj")))
+          .map(RaplZone::new)
+          .filter(zone -> zone.maxEnergyRange > 0)
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      log.error("Something went wrong while listing the powercap zones.");
+      return List.of();
+    }
+  }
+
+  /**
+   * Checks whether either the RAPL energy counters or {@code perf} are available.
+   *
+   * @return      {@code true} when energy metrics can be gathered
+   * @since 1.0.0
+   */
+  @Override
+  public boolean isAvailable() {
+    return isAvailable;
+  }
+
+  /**
+   * Gets the average power of the CPU packages since the previous snapshot. The first snapshot taken from
+   * the RAPL counters only records the counters, so its result is empty.
+   *
+   * @return      {@link Optional} {@link PerfDto} wrapped in a {@link CompletableFuture}, empty when the power
+   *              is not known
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized CompletableFuture<Optional<PerfDto>> getSnapshot() {
+    if (zones.isEmpty()) {
+      return fallback.getSnapshot();
+    }
+    long now = clock.getAsLong();
+    double seconds = lastSnapshot < 0 ? -1.0 : (now - lastSnapshot) / 1e9;
+    lastSnapshot = now;
+    long microJoules = 0L;
+    boolean complete = true;
+    for (RaplZone zone : zones) {
+      long used = zone.read();
+      complete &= used >= 0;
+      microJoules += Math.max(used, 0L);
+    }
+    if (!complete || seconds <= 0) {
+      return notAvailableResult();
+    }
+    return CompletableFuture.completedFuture(
+        Optional.of(PerfDto.builder().watt(microJoules / 1e6 / seconds).build()));
+  }
+
+  /**
+   * Closes the energy counter files.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized void close() {
+    zones.forEach(RaplZone::close);
+  }
+
+  /**
+   * Cumulative energy counter of a RAPL zone, kept open in between snapshots.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  private static final class RaplZone {
+
+    private final ProcFileScanner energy;
+
+    private final long maxEnergyRange;
+
+    private long previous = -1L;
+
+    private RaplZone(Path zone) {
+      energy = new ProcFileScanner(zone.resolve("energy_uj"));
+      try (ProcFileScanner range = new ProcFileScanner(zone.resolve("max_energy_range_uj"))) {
+        maxEnergyRange = range.refresh() ? range.nextLong() : -1L;
+      }
+    }
+
+    /**
+     * Reads the counter, and computes the energy used since the previous read. The counter wraps around at
+     * its maximum energy range.
+     *
+     * @return        energy used since the previous read in microjoules, or -1 if it is not known
+     * @since 1.0.0
+     */
+    private long read() {
+      long current = energy.refresh() ? energy.nextLong() : -1L;
+      long last = previous;
+      previous = current;
+      if (current < 0 || last < 0) {
+        return -1L;
+      }
+      return current >= last ? current - last : current + maxEnergyRange - last;
+    }
+
+    private void close() {
+      energy.close();
+    }
+  }
+}
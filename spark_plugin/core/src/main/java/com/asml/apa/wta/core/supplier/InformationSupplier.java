@@ -11,7 +11,7 @@ import java.util.concurrent.CompletableFuture;
  * @author Henry Page
  * @since 1.0.0
  */
-public interface InformationSupplier<T extends SupplierDto> {
+public interface InformationSupplier<T extends SupplierDto> extends AutoCloseable {
 
   /**
    * Corresponds to whether a supplier is available, and able to give information.
@@ -39,4 +39,13 @@ public interface InformationSupplier<T extends SupplierDto> {
   default CompletableFuture<Optional<T>> notAvailableResult() {
     return CompletableFuture.completedFuture(Optional.empty());
   }
+
+  /**
+   * Releases the resources, such as open files or long-running processes, held by the supplier.
+   * Suppliers that hold no resources do not have to override this.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  default void close() {}
 }
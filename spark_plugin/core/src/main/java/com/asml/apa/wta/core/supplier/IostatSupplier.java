@@ -2,19 +2,22 @@ package com.asml.apa.wta.core.supplier;
 
 import com.asml.apa.wta.core.dto.IostatDto;
 import com.asml.apa.wta.core.util.ShellRunner;
+import com.asml.apa.wta.core.util.StreamingShellCommand;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Supplier for Iostat information.
+ * Supplier for Iostat information. In collector mode a single iostat process reports at a fixed interval,
+ * and snapshots return its latest report without blocking.
  *
  * @author Lohithsai Yadala Chanchu
  * @author Henry Page
@@ -27,17 +30,38 @@ public class IostatSupplier implements InformationSupplier<IostatDto> {
 
   private boolean isAvailable;
 
+  private final StreamingShellCommand collector;
+
+  private final AtomicReference<IostatDto> latestReport = new AtomicReference<>();
+
+  private final StringBuilder pendingReport = new StringBuilder();
+
   private static final int NUMBER_OF_IOSTAT_METRICS = 7;
 
   /**
-   * Constructs the supplier with a given instance of shell utils.
+   * Constructs the supplier with a given instance of shell utils, running iostat once per snapshot.
    *
    * @param shellRunner     shell utils instance to use
    * @since 1.0.0
    */
   public IostatSupplier(ShellRunner shellRunner) {
+    this(shellRunner, 0);
+  }
+
+  /**
+   * Constructs the supplier with a given instance of shell utils.
+   *
+   * @param shellRunner           shell utils instance to use
+   * @param collectorInterval     interval in seconds at which a single long-running iostat process reports, or a
+   *                              non-positive value to run iostat once per snapshot
+   * @since 1.0.0
+   */
+  public IostatSupplier(ShellRunner shellRunner, int collectorInterval) {
     this.shellRunner = shellRunner;
     this.isAvailable = isAvailable();
+    this.collector = isAvailable && collectorInterval > 0
+        ? shellRunner.streamCommand("iostat -d " + collectorInterval, this::acceptLine)
+        : null;
   }
 
   /**
@@ -76,50 +100,84 @@ public class IostatSupplier implements InformationSupplier<IostatDto> {
       return notAvailableResult();
     }
 
+    if (collector != null && collector.ensureRunning()) {
+      return CompletableFuture.completedFuture(Optional.ofNullable(latestReport.get()));
+    }
+
     CompletableFuture<String> allMetrics = shellRunner.executeCommand("iostat -d", false);
 
-    return allMetrics.thenApply(result -> {
-      if (result != null) {
-        try {
-          List<OutputLine> rows = parseIostat(result);
-          double[] metrics = aggregateIostat(rows);
-
-          if (metrics.length == 7) {
-            return Optional.of(IostatDto.builder()
-                .tps(metrics[0])
-                .kiloByteReadPerSec(metrics[1])
-                .kiloByteWrtnPerSec(metrics[2])
-                .kiloByteDscdPerSec(metrics[3])
-                .kiloByteRead(metrics[4])
-                .kiloByteWrtn(metrics[5])
-                .kiloByteDscd(metrics[6])
-                .build());
-          }
-        } catch (NullPointerException npe) {
-          log.error("Iostat returned a malformed output: {}", npe.toString());
-        } catch (IndexOutOfBoundsException e) {
-          log.error("A different number of iostat metrics were found than expected");
-        } catch (NumberFormatException e) {
-          log.error("Something went wrong while parsing iostat terminal output");
-        } catch (Exception e) {
-          log.error("Something went wrong while handling iostat metrics");
-        }
+    return allMetrics.thenApply(result -> result == null ? Optional.empty() : toDto(result));
+  }
+
+  /**
+   * Handles a line of output of the long-running iostat process. Reports are separated by blank lines,
+   * and every complete report replaces the latest report.
+   *
+   * @param line      line of iostat output
+   * @since 1.0.0
+   */
+  void acceptLine(String line) {
+    if (!line.isBlank()) {
+      pendingReport.append(line).append('\n');
+      return;
+    }
+    if (pendingReport.indexOf("Device") >= 0) {
+      toDto(pendingReport.toString()).ifPresent(latestReport::set);
+    }
+    pendingReport.setLength(0);
+  }
+
+  /**
+   * Creates the {@link IostatDto} from a report of iostat.
+   *
+   * @param report    iostat report to parse
+   * @return          {@link Optional} holding the {@link IostatDto}, or an empty {@link Optional} if the report
+   *                  is malformed
+   * @since 1.0.0
+   */
+  private Optional<IostatDto> toDto(String report) {
+    try {
+      List<OutputLine> rows = parseIostat(report);
+      double[] metrics = aggregateIostat(rows);
+
+      if (metrics.length == 7) {
+        return Optional.of(IostatDto.builder()
+            .tps(metrics[0])
+            .kiloByteReadPerSec(metrics[1])
+            .kiloByteWrtnPerSec(metrics[2])
+            .kiloByteDscdPerSec(metrics[3])
+            .kiloByteRead(metrics[4])
+            .kiloByteWrtn(metrics[5])
+            .kiloByteDscd(metrics[6])
+            .build());
       }
-      return Optional.empty();
-    });
+    } catch (NullPointerException npe) {
+      log.error("Iostat returned a malformed output: {}", npe.toString());
+    } catch (IndexOutOfBoundsException e) {
+      log.error("A different number of iostat metrics were found than expected");
+    } catch (NumberFormatException e) {
+      log.error("Something went wrong while parsing iostat terminal output");
+    } catch (Exception e) {
+      log.error("Something went wrong while handling iostat metrics");
+    }
+    return Optional.empty();
   }
 
   /**
-   * Sums the respective fields of each column and returns the aggregated result.
+   * Parses the device rows of the iostat output. Partitions and virtual block devices are left out, as their
+   * I/O is already counted on the underlying disks.
    *
    * @param input     input of the Iostat command
    * @return          parsed output of the Iostat command
    * @since 1.0.0
    */
   private List<OutputLine> parseIostat(String input) {
-    List<OutputLine> rows =
-        Arrays.stream(input.split("\n")).skip(1).map(OutputLine::new).collect(Collectors.toList());
-    return rows;
+    return Arrays.stream(input.split("\n"))
+        .map(String::trim)
+        .filter(line -> !line.isEmpty() && !line.startsWith("Linux") && !line.startsWith("Device"))
+        .map(OutputLine::new)
+        .filter(row -> ProcSupplier.isPhysicalDisk(row.getMetricAt(0)))
+        .collect(Collectors.toList());
   }
 
   /**
@@ -144,6 +202,18 @@ public class IostatSupplier implements InformationSupplier<IostatDto> {
     return new double[NUMBER_OF_IOSTAT_METRICS];
   }
 
+  /**
+   * Stops the long-running iostat process, if any.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public void close() {
+    if (collector != null) {
+      collector.close();
+    }
+  }
+
   /**
    * Container class to be used in nested String Lists.
    *
@@ -0,0 +1,290 @@
+package com.asml.apa.wta.core.supplier;
+
+import com.asml.apa.wta.core.dto.JvmRuntimeDto;
+import com.asml.apa.wta.core.dto.MemoryPoolDto;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Supplier for the runtime of the executor JVM: garbage collection, allocation and the memory pools.
+ * Garbage collection pauses are counted as they happen, through the notifications of the collectors, so
+ * the snapshots report every pause in their interval and not only the totals. Everything is read from the
+ * platform MXBeans, so no process is started and no file is read.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class JvmRuntimeSupplier implements InformationSupplier<JvmRuntimeDto> {
+
+  private final MemoryMXBean memoryBean;
+
+  private final List<MemoryPoolMXBean> memoryPoolBeans;
+
+  private final List<GarbageCollectorMXBean> collectorBeans;
+
+  private final ThreadMXBean threadBean;
+
+  private final com.sun.management.ThreadMXBean allocationBean;
+
+  private final LongSupplier clock;
+
+  private final NotificationListener pauseListener = (notification, handback) -> handleNotification(notification);
+
+  private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+  private final LongAdder pauses = new LongAdder();
+
+  private final LongAdder pauseMillis = new LongAdder();
+
+  private final LongAccumulator maxPauseMillis = new LongAccumulator(Math::max, 0L);
+
+  private Map<Long, Long> threadAllocations = new HashMap<>();
+
+  private Map<Long, Long> previousThreadAllocations = new HashMap<>();
+
+  private long previousCycles = -1L;
+
+  private long previousCycleMillis = -1L;
+
+  private long lastSnapshot = -1L;
+
+  /**
+   * Constructs the supplier for the platform MXBeans of the running JVM.
+   *
+   * @since 1.0.0
+   */
+  public JvmRuntimeSupplier() {
+    this(
+        ManagementFactory.getMemoryMXBean(),
+        ManagementFactory.getMemoryPoolMXBeans(),
+        ManagementFactory.getGarbageCollectorMXBeans(),
+        ManagementFactory.getThreadMXBean(),
+        System::nanoTime);
+  }
+
+  /**
+   * Constructs the supplier. Listeners for the pauses are registered on all collectors that emit
+   * notifications, and allocation tracking is used when the JVM supports it.
+   *
+   * @param memoryBean        {@link MemoryMXBean} of the JVM
+   * @param memoryPoolBeans   {@link MemoryPoolMXBean}s of the JVM
+   * @param collectorBeans    {@link GarbageCollectorMXBean}s of the JVM
+   * @param threadBean        {@link ThreadMXBean} of the JVM
+   * @param clock             monotonic clock in nanoseconds
+   * @since 1.0.0
+   */
+  JvmRuntimeSupplier(
+      MemoryMXBean memoryBean,
+      List<MemoryPoolMXBean> memoryPoolBeans,
+      List<GarbageCollectorMXBean> collectorBeans,
+      ThreadMXBean threadBean,
+      LongSupplier clock) {
+    this.memoryBean = memoryBean;
+    this.memoryPoolBeans = memoryPoolBeans;
+    this.collectorBeans = collectorBeans;
+    this.threadBean = threadBean;
+    this.clock = clock;
+    this.allocationBean = threadBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemoryEnabled()
+        ? (com.sun.management.ThreadMXBean) threadBean
+        : null;
+    for (GarbageCollectorMXBean collector : collectorBeans) {
+      if (collector instanceof NotificationEmitter) {
+        ((NotificationEmitter) collector).addNotificationListener(pauseListener, null, null);
+        emitters.add((NotificationEmitter) collector);
+      }
+    }
+  }
+
+  /**
+   * The MXBeans are part of every JVM, so this supplier is always available.
+   *
+   * @return      {@code true}
+   * @since 1.0.0
+   */
+  @Override
+  public boolean isAvailable() {
+    return true;
+  }
+
+  /**
+   * Reads the garbage collection and allocation since the previous snapshot, and the current usage of the
+   * memory pools. Reading the MXBeans is cheap, so the snapshot is taken synchronously.
+   *
+   * @return      {@link Optional} {@link JvmRuntimeDto} wrapped in a {@link CompletableFuture} that will be
+   *              sent to the driver
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized CompletableFuture<Optional<JvmRuntimeDto>> getSnapshot() {
+    long now = clock.getAsLong();
+    double seconds = lastSnapshot < 0 ? -1.0 : (now - lastSnapshot) / 1e9;
+    lastSnapshot = now;
+
+    JvmRuntimeDto.JvmRuntimeDtoBuilder builder = JvmRuntimeDto.builder()
+        .threads(threadBean.getThreadCount())
+        .allocatedBytesPerSecond(readAllocationRate(seconds))
+        .memoryPools(readMemoryPools());
+    readCollections(builder);
+    if (!emitters.isEmpty()) {
+      builder.gcPauses(pauses.sumThenReset())
+          .gcPauseMillis(pauseMillis.sumThenReset())
+          .maxGcPauseMillis(maxPauseMillis.getThenReset());
+    }
+    MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+    return CompletableFuture.completedFuture(Optional.of(builder.heapUsed(heap.getUsed())
+        .heapCommitted(heap.getCommitted())
+        .heapMax(heap.getMax())
+        .nonHeapUsed(memoryBean.getNonHeapMemoryUsage().getUsed())
+        .build()));
+  }
+
+  /**
+   * Computes the number of bytes that were allocated per second since the previous snapshot, summed over all
+   * threads. Threads that were started since the previous snapshot count with everything they allocated.
+   *
+   * @param seconds     seconds since the previous snapshot, or a negative value if there was none
+   * @return            the allocation rate, or -1.0 if it cannot be computed
+   * @since 1.0.0
+   */
+  private double readAllocationRate(double seconds) {
+    if (allocationBean == null) {
+      return -1.0;
+    }
+    long[] ids = threadBean.getAllThreadIds();
+    long[] allocated = allocationBean.getThreadAllocatedBytes(ids);
+    Map<Long, Long> previous = threadAllocations;
+    threadAllocations = previousThreadAllocations;
+    previousThreadAllocations = previous;
+    threadAllocations.clear();
+    long delta = 0L;
+    for (int index = 0; index < ids.length; index++) {
+      if (allocated[index] < 0) {
+        continue;
+      }
+      threadAllocations.put(ids[index], allocated[index]);
+      delta += Math.max(0L, allocated[index] - previous.getOrDefault(ids[index], 0L));
+    }
+    return seconds > 0 ? delta / seconds : -1.0;
+  }
+
+  /**
+   * Adds the collections since the previous snapshot, as polled from the collectors. These include the
+   * concurrent cycles of collectors that do most of their work alongside the application.
+   *
+   * @param builder     builder of the {@link JvmRuntimeDto} to add the collections to
+   * @since 1.0.0
+   */
+  private void readCollections(JvmRuntimeDto.JvmRuntimeDtoBuilder builder) {
+    long cycles = 0L;
+    long cycleMillis = 0L;
+    for (GarbageCollectorMXBean collector : collectorBeans) {
+      cycles += Math.max(0L, collector.getCollectionCount());
+      cycleMillis += Math.max(0L, collector.getCollectionTime());
+    }
+    if (previousCycles >= 0 && cycles >= previousCycles && cycleMillis >= previousCycleMillis) {
+      builder.gcCycles(cycles - previousCycles).gcCycleMillis(cycleMillis - previousCycleMillis);
+    }
+    previousCycles = cycles;
+    previousCycleMillis = cycleMillis;
+  }
+
+  /**
+   * Reads the usage of all valid memory pools.
+   *
+   * @return            the {@link MemoryPoolDto}s
+   * @since 1.0.0
+   */
+  private List<MemoryPoolDto> readMemoryPools() {
+    List<MemoryPoolDto> pools = new ArrayList<>(memoryPoolBeans.size());
+    for (MemoryPoolMXBean pool : memoryPoolBeans) {
+      if (!pool.isValid()) {
+        continue;
+      }
+      MemoryUsage usage = pool.getUsage();
+      MemoryUsage afterCollection = pool.getCollectionUsage();
+      pools.add(MemoryPoolDto.builder()
+          .name(pool.getName())
+          .heap(pool.getType() == MemoryType.HEAP)
+          .used(usage.getUsed())
+          .committed(usage.getCommitted())
+          .max(usage.getMax())
+          .usedAfterLastCollection(afterCollection == null ? -1L : afterCollection.getUsed())
+          .build());
+    }
+    return pools;
+  }
+
+  /**
+   * Counts the pauses reported by the collectors.
+   *
+   * @param notification    notification of a collector
+   * @since 1.0.0
+   */
+  private void handleNotification(Notification notification) {
+    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+      return;
+    }
+    GarbageCollectionNotificationInfo info =
+        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+    if (isPause(info.getGcName(), info.getGcAction())) {
+      long duration = info.getGcInfo().getDuration();
+      pauses.increment();
+      pauseMillis.add(duration);
+      maxPauseMillis.accumulate(duration);
+    }
+  }
+
+  /**
+   * Checks whether a collection paused the application. The concurrent cycles of collectors such as ZGC and
+   * Shenandoah are reported separately from their pauses, and do not stop the application.
+   *
+   * @param gcName          name of the collector
+   * @param gcAction        action the collector performed
+   * @return                {@code true} when the collection paused the application
+   * @since 1.0.0
+   */
+  static boolean isPause(String gcName, String gcAction) {
+    return !gcName.endsWith("Cycles") && !gcAction.contains("cycle");
+  }
+
+  /**
+   * Removes the listeners from the collectors.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized void close() {
+    for (NotificationEmitter emitter : emitters) {
+      try {
+        emitter.removeNotificationListener(pauseListener);
+      } catch (ListenerNotFoundException e) {
+        log.error("Could not remove the garbage collection listener.");
+      }
+    }
+    emitters.clear();
+  }
+}
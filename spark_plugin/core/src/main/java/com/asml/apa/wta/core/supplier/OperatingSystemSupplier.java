@@ -19,6 +19,10 @@ public class OperatingSystemSupplier implements InformationSupplier<OsInfoDto> {
 
   private boolean isAvailable;
 
+  private final String architecture;
+
+  private final String operatingSystem;
+
   /**
    * Constructs the Supplier.
    *
@@ -27,6 +31,8 @@ public class OperatingSystemSupplier implements InformationSupplier<OsInfoDto> {
   public OperatingSystemSupplier() {
     bean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
     this.isAvailable = isAvailable();
+    this.architecture = isAvailable ? getArch() : "unknown";
+    this.operatingSystem = isAvailable ? getOperatingSystem() : "unknown";
   }
 
   /**
@@ -137,7 +143,8 @@ public class OperatingSystemSupplier implements InformationSupplier<OsInfoDto> {
   }
 
   /**
-   * Gathers the metrics the supplier provides (computed asynchronously).
+   * Gathers the metrics the supplier provides (computed asynchronously). The architecture and operating
+   * system do not change while the JVM runs, so they are read once.
    *
    * @return      if supplier is available, {@link Optional} {@link OsInfoDto} wrapped in a {@link CompletableFuture}
    *              that will be sent to the driver. Otherwise {@link CompletableFuture} with an empty {@link Optional}
@@ -157,8 +164,6 @@ public class OperatingSystemSupplier implements InformationSupplier<OsInfoDto> {
       long totalMemSize = getTotalPhysicalMemorySize();
       int availableProc = getAvailableProcessors();
       double systemLoadAverage = getSystemLoadAverage();
-      String architecture = getArch();
-      String os = getOperatingSystem();
       return Optional.of(new OsInfoDto(
           vMemSize,
           freeMemSize,
@@ -168,7 +173,7 @@ public class OperatingSystemSupplier implements InformationSupplier<OsInfoDto> {
           availableProc,
           systemLoadAverage,
           architecture,
-          os));
+          operatingSystem));
     });
   }
 }
@@ -1,35 +1,128 @@
 package com.asml.apa.wta.core.supplier;
 
+import com.asml.apa.wta.core.dto.DiskDeviceDto;
+import com.asml.apa.wta.core.dto.NetworkInterfaceDto;
 import com.asml.apa.wta.core.dto.ProcDto;
-import com.asml.apa.wta.core.util.ShellRunner;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
+import com.asml.apa.wta.core.util.ProcFileScanner;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * ProcSupplier class for the pseudo-file system Proc.
+ * The files are read directly, kept open in between snapshots, and parsed without forking any processes.
+ * Disk and network counters are tracked per device, so rates can be computed between two snapshots.
+ * Partitions and virtual block devices are left out of the disk metrics, as their I/O is already counted
+ * on the underlying disks.
  *
  * @author Lohithsai Yadala Chanchu
+ * @author Atour Mousavi Gourabi
  * @since 1.0.0
  */
 @Slf4j
 public class ProcSupplier implements InformationSupplier<ProcDto> {
 
-  private final ShellRunner shellRunner;
+  private static final byte[] MODEL_NAME = "model name".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[][] MEM_INFO_KEYS = Stream.of(
+          "MemTotal",
+          "MemFree",
+          "MemAvailable",
+          "Buffers",
+          "Cached",
+          "SwapCached",
+          "Active",
+          "Inactive",
+          "Active(anon)",
+          "Inactive(anon)",
+          "Active(file)",
+          "Inactive(file)",
+          "Unevictable",
+          "Mlocked",
+          "SwapTotal",
+          "SwapFree",
+          "Dirty",
+          "Writeback",
+          "AnonPages",
+          "Mapped",
+          "Shmem",
+          "KReclaimable",
+          "Slab",
+          "SReclaimable",
+          "SUnreclaim",
+          "KernelStack",
+          "PageTables",
+          "NFS_Unstable",
+          "Bounce",
+          "WritebackTmp",
+          "CommitLimit",
+          "Committed_AS",
+          "VmallocTotal",
+          "VmallocUsed",
+          "VmallocChunk",
+          "Percpu",
+          "AnonHugePages",
+          "ShmemHugePages",
+          "ShmemPmdMapped",
+          "FileHugePages",
+          "FilePmdMapped",
+          "HugePages_Total",
+          "HugePages_Free",
+          "HugePages_Rsvd",
+          "HugePages_Surp",
+          "Hugepagesize",
+          "Hugetlb",
+          "DirectMap4k",
+          "DirectMap2M",
+          "DirectMap1G")
+      .map(key -> key.getBytes(StandardCharsets.US_ASCII))
+      .toArray(byte[][]::new);
+
+  private static final Pattern VIRTUAL_DISK = Pattern.compile("(loop|ram|zram|dm-|md|nbd|sr|fd)\\d+");
+
+  private static final Pattern PARTITION =
+      Pattern.compile("(sd|vd|xvd|hd)[a-z]+\\d+|(nvme\\d+n\\d+|mmcblk\\d+)p\\d+");
+
+  private static final String LOOPBACK = "lo";
+
+  private static final int SECTOR_SIZE = 512;
+
+  private final ProcFileScanner diskStats;
+
+  private final ProcFileScanner memInfo;
+
+  private final ProcFileScanner loadAvg;
+
+  private final ProcFileScanner netDev;
+
+  private final LongSupplier clock;
+
+  private final List<DiskDevice> disks = new ArrayList<>();
+
+  private final List<NetworkInterface> interfaces = new ArrayList<>();
+
+  private byte[][] interfaceKeys = new byte[0][];
+
+  private long lastSnapshot = -1L;
+
+  private final long[] diskMetrics = new long[17];
+
+  private final long[] memMetrics = new long[MEM_INFO_KEYS.length];
+
+  private final double[] loadAvgMetrics = new double[6];
+
+  private final String cpuModel;
 
   @Setter
   private boolean isProcAvailable;
@@ -38,32 +131,49 @@ public class ProcSupplier implements InformationSupplier<ProcDto> {
 
   private final boolean isMemMetricsAvailable;
 
-  private final boolean isCpuMetricsAvailable;
-
   private final boolean isLoadAvgMetricsAvailable;
 
+  private final boolean isNetworkMetricsAvailable;
+
+  /**
+   * Constructor for the Proc supplier reading from {@code /proc}.
+   *
+   * @since 1.0.0
+   */
+  public ProcSupplier() {
+    this(Path.of("/proc"));
+  }
+
   /**
    * Constructor for the Proc supplier. It checks not only whether Proc is available but also each of
-   * its subdirectories.
+   * the files it reads. The CPU model is static, so it is read once here.
+   *
+   * @param procRoot      root of the Proc file system, {@code /proc} outside of tests
+   * @since 1.0.0
+   */
+  public ProcSupplier(Path procRoot) {
+    this(procRoot, System::nanoTime);
+  }
+
+  /**
+   * Constructor for the Proc supplier with the clock that is used to compute rates.
    *
-   * @param shellRunner   shell utils instance to use
+   * @param procRoot      root of the Proc file system, {@code /proc} outside of tests
+   * @param clock         monotonic clock in nanoseconds
    * @since 1.0.0
    */
-  public ProcSupplier(ShellRunner shellRunner) {
-    this.shellRunner = shellRunner;
+  ProcSupplier(Path procRoot, LongSupplier clock) {
+    this.clock = clock;
     isProcAvailable = isAvailable();
-    this.isDiskMetricsAvailable =
-        this.shellRunner.executeCommand("cat /proc/diskstats", true).join() != null;
-    this.isMemMetricsAvailable =
-        this.shellRunner.executeCommand("cat /proc/meminfo", true).join() != null;
-    this.isCpuMetricsAvailable = this.shellRunner
-            .executeCommand(
-                "grep -m 1 \"model name\" /proc/cpuinfo | awk -F: '{print $2}' | sed 's/^[ \\t]*//'",
-                true)
-            .join()
-        != null;
-    this.isLoadAvgMetricsAvailable =
-        this.shellRunner.executeCommand("cat /proc/loadavg", true).join() != null;
+    diskStats = new ProcFileScanner(procRoot.resolve("diskstats"));
+    memInfo = new ProcFileScanner(procRoot.resolve("meminfo"));
+    loadAvg = new ProcFileScanner(procRoot.resolve("loadavg"));
+    netDev = new ProcFileScanner(procRoot.resolve("net").resolve("dev"));
+    isDiskMetricsAvailable = Files.isReadable(procRoot.resolve("diskstats"));
+    isMemMetricsAvailable = Files.isReadable(procRoot.resolve("meminfo"));
+    isLoadAvgMetricsAvailable = Files.isReadable(procRoot.resolve("loadavg"));
+    isNetworkMetricsAvailable = Files.isReadable(procRoot.resolve("net").resolve("dev"));
+    cpuModel = readCpuModel(procRoot.resolve("cpuinfo"));
   }
 
   /**
@@ -79,331 +189,464 @@ public class ProcSupplier implements InformationSupplier<ProcDto> {
 
   /**
    * Gets information from proc directory to get disk and memory metrics.
+   * Reading the files is cheap, so the snapshot is taken synchronously.
    *
    * @return      if Proc is available, {@link Optional} {@link ProcDto} wrapped in a {@link CompletableFuture} that
    *              will be sent to the driver. Otherwise {@link CompletableFuture} with an empty {@link Optional}
    * @since 1.0.0
    */
-  public CompletableFuture<Optional<ProcDto>> getSnapshot() {
+  @Override
+  public synchronized CompletableFuture<Optional<ProcDto>> getSnapshot() {
     if (!isProcAvailable) {
       return notAvailableResult();
     }
+    long now = clock.getAsLong();
+    double seconds = lastSnapshot < 0 ? -1.0 : (now - lastSnapshot) / 1e9;
+    lastSnapshot = now;
+    readDiskMetrics();
+    readMemMetrics();
+    readLoadAvgMetrics();
+    readNetworkMetrics();
+    return CompletableFuture.completedFuture(createDto(seconds));
+  }
 
-    CompletableFuture<Optional<Long>[]> diskStatsFuture;
-    CompletableFuture<Optional<Long>[]> memStatsFuture;
-    CompletableFuture<Optional<String>> cpuModelFuture;
-    CompletableFuture<Optional<Double>[]> loadAvgStatsFuture;
-    if (this.isDiskMetricsAvailable) {
-      diskStatsFuture = getDiskMetrics();
-    } else {
-      diskStatsFuture = CompletableFuture.completedFuture(
-          Stream.generate(Optional::empty).limit(17).toArray(Optional[]::new));
-    }
-    if (this.isMemMetricsAvailable) {
-      memStatsFuture = getMemMetrics();
-    } else {
-      memStatsFuture = CompletableFuture.completedFuture(
-          Stream.generate(Optional::empty).limit(60).toArray(Optional[]::new));
-    }
-    if (this.isCpuMetricsAvailable) {
-      cpuModelFuture = getCpuModel();
-    } else {
-      cpuModelFuture = CompletableFuture.completedFuture(Optional.empty());
+  /**
+   * Creates the {@link ProcDto} from the most recently read metrics.
+   *
+   * @param seconds     seconds since the previous snapshot, or a negative value if there was none
+   * @return            {@link Optional} holding the {@link ProcDto}
+   * @since 1.0.0
+   */
+  private Optional<ProcDto> createDto(double seconds) {
+    List<DiskDeviceDto> diskDevices = new ArrayList<>();
+    for (DiskDevice disk : disks) {
+      if (disk.physical && disk.hasRates(seconds)) {
+        diskDevices.add(disk.toDto(seconds));
+      }
     }
-    if (this.isLoadAvgMetricsAvailable) {
-      loadAvgStatsFuture = getLoadAvgMetrics();
-    } else {
-      loadAvgStatsFuture = CompletableFuture.completedFuture(
-          Stream.generate(Optional::empty).limit(6).toArray(Optional[]::new));
+    List<NetworkInterfaceDto> networkInterfaces = new ArrayList<>();
+    for (NetworkInterface networkInterface : interfaces) {
+      if (!networkInterface.name.equals(LOOPBACK) && networkInterface.hasRates(seconds)) {
+        networkInterfaces.add(networkInterface.toDto(seconds));
+      }
     }
-
-    CompletableFuture<Optional<String>> finalCpuModelFuture = cpuModelFuture;
-    CompletableFuture<Optional<Double>[]> finalLoadAvgStatsFuture = loadAvgStatsFuture;
-    return CompletableFuture.allOf(diskStatsFuture, memStatsFuture, cpuModelFuture, loadAvgStatsFuture)
-        .thenApply((v) -> {
-          Optional<Long>[] diskResult = diskStatsFuture.join();
-          Optional<Long>[] memResult = memStatsFuture.join();
-          Optional<String> cpuModel = finalCpuModelFuture.join();
-          Optional<Double>[] loadAvgResult = finalLoadAvgStatsFuture.join();
-
-          return Optional.of(ProcDto.builder()
-              .readsCompleted(diskResult[0].orElse(-1L))
-              .readsMerged(diskResult[1].orElse(-1L))
-              .sectorsRead(diskResult[2].orElse(-1L))
-              .timeSpentReading(diskResult[3].orElse(-1L))
-              .writesCompleted(diskResult[4].orElse(-1L))
-              .writesMerged(diskResult[5].orElse(-1L))
-              .sectorsWritten(diskResult[6].orElse(-1L))
-              .timeSpentWriting(diskResult[7].orElse(-1L))
-              .iosInProgress(diskResult[8].orElse(-1L))
-              .timeSpentDoingIos(diskResult[9].orElse(-1L))
-              .weightedTimeSpentDoingIos(diskResult[9].orElse(-1L))
-              .discardsCompleted(diskResult[10].orElse(-1L))
-              .discardsMerged(diskResult[11].orElse(-1L))
-              .sectorsDiscarded(diskResult[12].orElse(-1L))
-              .timeSpentDiscarding(diskResult[13].orElse(-1L))
-              .flushReqCompleted(diskResult[14].orElse(-1L))
-              .timeSpentFlushing(diskResult[15].orElse(-1L))
-              .memTotal(memResult[0].orElse(-1L))
-              .memFree(memResult[1].orElse(-1L))
-              .memAvailable(memResult[2].orElse(-1L))
-              .buffers(memResult[3].orElse(-1L))
-              .cached(memResult[4].orElse(-1L))
-              .swapCached(memResult[5].orElse(-1L))
-              .active(memResult[6].orElse(-1L))
-              .inactive(memResult[7].orElse(-1L))
-              .activeAnon(memResult[8].orElse(-1L))
-              .inactiveAnon(memResult[9].orElse(-1L))
-              .activeFile(memResult[10].orElse(-1L))
-              .inactiveFile(memResult[11].orElse(-1L))
-              .unevictable(memResult[12].orElse(-1L))
-              .mLocked(memResult[13].orElse(-1L))
-              .swapTotal(memResult[14].orElse(-1L))
-              .swapFree(memResult[15].orElse(-1L))
-              .dirty(memResult[16].orElse(-1L))
-              .writeback(memResult[17].orElse(-1L))
-              .anonPages(memResult[18].orElse(-1L))
-              .mapped(memResult[19].orElse(-1L))
-              .shmem(memResult[20].orElse(-1L))
-              .kReclaimable(memResult[21].orElse(-1L))
-              .slab(memResult[22].orElse(-1L))
-              .sReclaimable(memResult[23].orElse(-1L))
-              .sUnreclaim(memResult[24].orElse(-1L))
-              .kernelStack(memResult[25].orElse(-1L))
-              .pageTables(memResult[26].orElse(-1L))
-              .nfsUnstable(memResult[27].orElse(-1L))
-              .bounce(memResult[28].orElse(-1L))
-              .writebackTmp(memResult[29].orElse(-1L))
-              .commitLimit(memResult[30].orElse(-1L))
-              .committedAs(memResult[31].orElse(-1L))
-              .vMallocTotal(memResult[32].orElse(-1L))
-              .vMallocUsed(memResult[33].orElse(-1L))
-              .vMallocChunk(memResult[34].orElse(-1L))
-              .percpu(memResult[35].orElse(-1L))
-              .anonHugePages(memResult[36].orElse(-1L))
-              .shmemHugePages(memResult[37].orElse(-1L))
-              .shmemPmdMapped(memResult[38].orElse(-1L))
-              .fileHugePages(memResult[39].orElse(-1L))
-              .filePmdMapped(memResult[40].orElse(-1L))
-              .hugePagesTotal(memResult[41].orElse(-1L))
-              .hugePagesFree(memResult[42].orElse(-1L))
-              .hugePagesRsvd(memResult[43].orElse(-1L))
-              .hugePagesSurp(memResult[44].orElse(-1L))
-              .hugePageSize(memResult[45].orElse(-1L))
-              .hugetlb(memResult[46].orElse(-1L))
-              .directMap4k(memResult[47].orElse(-1L))
-              .directMap2M(memResult[48].orElse(-1L))
-              .directMap1G(memResult[49].orElse(-1L))
-              .cpuModel(cpuModel.orElse("unknown"))
-              .loadAvgOneMinute(loadAvgResult[0].orElse(-1.0))
-              .loadAvgFiveMinutes(loadAvgResult[1].orElse(-1.0))
-              .loadAvgFifteenMinutes(loadAvgResult[2].orElse(-1.0))
-              .numberOfExecutingKernelSchedulingEntities(loadAvgResult[3].orElse(-1.0))
-              .numberOfExistingKernelSchedulingEntities(loadAvgResult[4].orElse(-1.0))
-              .pIdOfMostRecentlyCreatedProcess(loadAvgResult[5].orElse(-1.0))
-              .build());
-        });
+    disks.forEach(DiskDevice::shift);
+    interfaces.forEach(NetworkInterface::shift);
+    return Optional.of(ProcDto.builder()
+        .readsCompleted(diskMetrics[0])
+        .readsMerged(diskMetrics[1])
+        .sectorsRead(diskMetrics[2])
+        .timeSpentReading(diskMetrics[3])
+        .writesCompleted(diskMetrics[4])
+        .writesMerged(diskMetrics[5])
+        .sectorsWritten(diskMetrics[6])
+        .timeSpentWriting(diskMetrics[7])
+        .iosInProgress(diskMetrics[8])
+        .timeSpentDoingIos(diskMetrics[9])
+        .weightedTimeSpentDoingIos(diskMetrics[10])
+        .discardsCompleted(diskMetrics[11])
+        .discardsMerged(diskMetrics[12])
+        .sectorsDiscarded(diskMetrics[13])
+        .timeSpentDiscarding(diskMetrics[14])
+        .flushReqCompleted(diskMetrics[15])
+        .timeSpentFlushing(diskMetrics[16])
+        .diskReadBytesPerSecond(sum(diskDevices, DiskDeviceDto::getReadBytesPerSecond))
+        .diskWrittenBytesPerSecond(sum(diskDevices, DiskDeviceDto::getWrittenBytesPerSecond))
+        .diskIosPerSecond(sum(diskDevices, disk -> disk.getReadsPerSecond() + disk.getWritesPerSecond()))
+        .diskDevices(diskDevices)
+        .networkReceivedBytesPerSecond(sum(networkInterfaces, NetworkInterfaceDto::getReceivedBytesPerSecond))
+        .networkTransmittedBytesPerSecond(
+            sum(networkInterfaces, NetworkInterfaceDto::getTransmittedBytesPerSecond))
+        .networkInterfaces(networkInterfaces)
+        .memTotal(memMetrics[0])
+        .memFree(memMetrics[1])
+        .memAvailable(memMetrics[2])
+        .buffers(memMetrics[3])
+        .cached(memMetrics[4])
+        .swapCached(memMetrics[5])
+        .active(memMetrics[6])
+        .inactive(memMetrics[7])
+        .activeAnon(memMetrics[8])
+        .inactiveAnon(memMetrics[9])
+        .activeFile(memMetrics[10])
+        .inactiveFile(memMetrics[11])
+        .unevictable(memMetrics[12])
+        .mLocked(memMetrics[13])
+        .swapTotal(memMetrics[14])
+        .swapFree(memMetrics[15])
+        .dirty(memMetrics[16])
+        .writeback(memMetrics[17])
+        .anonPages(memMetrics[18])
+        .mapped(memMetrics[19])
+        .shmem(memMetrics[20])
+        .kReclaimable(memMetrics[21])
+        .slab(memMetrics[22])
+        .sReclaimable(memMetrics[23])
+        .sUnreclaim(memMetrics[24])
+        .kernelStack(memMetrics[25])
+        .pageTables(memMetrics[26])
+        .nfsUnstable(memMetrics[27])
+        .bounce(memMetrics[28])
+        .writebackTmp(memMetrics[29])
+        .commitLimit(memMetrics[30])
+        .committedAs(memMetrics[31])
+        .vMallocTotal(memMetrics[32])
+        .vMallocUsed(memMetrics[33])
+        .vMallocChunk(memMetrics[34])
+        .percpu(memMetrics[35])
+        .anonHugePages(memMetrics[36])
+        .shmemHugePages(memMetrics[37])
+        .shmemPmdMapped(memMetrics[38])
+        .fileHugePages(memMetrics[39])
+        .filePmdMapped(memMetrics[40])
+        .hugePagesTotal(memMetrics[41])
+        .hugePagesFree(memMetrics[42])
+        .hugePagesRsvd(memMetrics[43])
+        .hugePagesSurp(memMetrics[44])
+        .hugePageSize(memMetrics[45])
+        .hugetlb(memMetrics[46])
+        .directMap4k(memMetrics[47])
+        .directMap2M(memMetrics[48])
+        .directMap1G(memMetrics[49])
+        .cpuModel(cpuModel)
+        .loadAvgOneMinute(loadAvgMetrics[0])
+        .loadAvgFiveMinutes(loadAvgMetrics[1])
+        .loadAvgFifteenMinutes(loadAvgMetrics[2])
+        .numberOfExecutingKernelSchedulingEntities(loadAvgMetrics[3])
+        .numberOfExistingKernelSchedulingEntities(loadAvgMetrics[4])
+        .pIdOfMostRecentlyCreatedProcess(loadAvgMetrics[5])
+        .build());
   }
 
   /**
-   * Parse /proc/meminfo.
+   * Sums a rate over a list of devices.
    *
-   * @param input     input to be parsed.
-   * @return          list of parsed numbers from the /proc/meminfo file
+   * @param devices     devices to sum the rate of
+   * @param rate        rate to sum
+   * @param <D>         type of the devices
+   * @return            the summed rate, or -1.0 if there are no devices
    * @since 1.0.0
    */
-  private List<Long> parseMemMetrics(String input) {
-    String[] lines = input.split("\n");
-    Pattern pattern = Pattern.compile("\\b\\d+\\b");
-
-    List<Long> numbersList = Arrays.stream(lines)
-        .flatMap(line -> pattern.matcher(line).results())
-        .map(matchResult -> {
-          try {
-            return Long.parseLong(matchResult.group());
-          } catch (NumberFormatException e) {
-            log.error("There was an error parsing the contents of the /proc/meminfo file");
-            return null;
-          }
-        })
-        .collect(Collectors.toList());
-    return numbersList;
+  private static <D> double sum(List<D> devices, ToDoubleFunction<D> rate) {
+    return devices.isEmpty() ? -1.0 : devices.stream().mapToDouble(rate).sum();
   }
 
   /**
-   * Get contents of /proc/meminfo.
+   * Reads /proc/meminfo into the memory metrics. The metrics are mapped by their key, so kernels that list
+   * a different set of keys, or list them in a different order, are parsed correctly.
+   * Metrics that are not listed are set to -1.
    *
-   * @return      if /proc/meminfo file is available, {@link Optional} of parsed numbers wrapped in a
-   *              {@link CompletableFuture}. Otherwise {@link CompletableFuture} with an empty {@link Optional}
    * @since 1.0.0
    */
-  private CompletableFuture<Optional<Long>[]> getMemMetrics() {
-    CompletableFuture<String> memMetrics = shellRunner.executeCommand("cat /proc/meminfo", false);
-    return memMetrics.thenApply(result -> {
-      Optional<Long>[] agg = Stream.generate(Optional::empty).limit(60).toArray(Optional[]::new);
-      if (result != null && !result.isEmpty() && !fileNotFound(result)) {
-        List<Long> parsedList = parseMemMetrics(result);
-        IntStream.range(0, parsedList.size()).forEach(i -> agg[i] = Optional.of(parsedList.get(i)));
+  private void readMemMetrics() {
+    Arrays.fill(memMetrics, -1L);
+    if (!isMemMetricsAvailable || !memInfo.refresh()) {
+      return;
+    }
+    int expected = 0;
+    while (memInfo.hasRemaining()) {
+      int index = memInfo.matchKey(MEM_INFO_KEYS, expected);
+      if (index >= 0) {
+        memMetrics[index] = memInfo.nextLong();
+        expected = index + 1;
       }
-      return agg;
-    });
+      memInfo.nextLine();
+    }
   }
 
   /**
-   * Parse /proc/diskstats.
+   * Reads /proc/diskstats into the per-device counters, and sums the counters of the physical disks into the
+   * disk metrics. Metrics that cannot be read are set to -1.
    *
-   * @param input     input to be parsed.
-   * @return          list of parsed numbers from the /proc/diskstats file
    * @since 1.0.0
    */
-  private List<OutputLine> parseDiskMetrics(String input) {
-    List<OutputLine> result = new ArrayList<>();
-    try (BufferedReader reader = new BufferedReader(new StringReader(input))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        String[] tokens = line.trim().split("\\s+");
-
-        OutputLine outputLine = new OutputLine();
-        for (String token : tokens) {
-          outputLine.addToLine(token);
+  private void readDiskMetrics() {
+    Arrays.fill(diskMetrics, -1L);
+    disks.forEach(disk -> disk.present = false);
+    if (!isDiskMetricsAvailable || !diskStats.refresh()) {
+      return;
+    }
+    while (diskStats.hasRemaining()) {
+      DiskDevice disk = nextDiskDevice();
+      if (disk != null) {
+        disk.present = true;
+        Arrays.fill(disk.counters, -1L);
+        for (int column = 0; column < diskMetrics.length && diskStats.hasNextNumber(); column++) {
+          disk.counters[column] = diskStats.nextLong();
+          if (disk.physical) {
+            diskMetrics[column] = Math.max(diskMetrics[column], 0L) + disk.counters[column];
+          }
         }
-        result.add(outputLine);
       }
-    } catch (IOException e) {
-      log.error("Something went wrong while parsing the contents of /proc/diskstats");
+      diskStats.nextLine();
+    }
+  }
+
+  /**
+   * Looks up the device on the current line of /proc/diskstats by its major and minor number. Devices that
+   * are seen for the first time are registered. Moves the cursor past the device name.
+   *
+   * @return            the device, or {@code null} if the line does not describe a device
+   * @since 1.0.0
+   */
+  private DiskDevice nextDiskDevice() {
+    long major = diskStats.nextLong();
+    long minor = diskStats.nextLong();
+    if (minor < 0) {
+      return null;
     }
-    return result;
+    for (DiskDevice disk : disks) {
+      if (disk.major == major && disk.minor == minor) {
+        diskStats.skipToken();
+        return disk;
+      }
+    }
+    String name = diskStats.nextToken();
+    if (name == null) {
+      return null;
+    }
+    DiskDevice disk = new DiskDevice(major, minor, name, isPhysicalDisk(name));
+    disks.add(disk);
+    return disk;
+  }
+
+  /**
+   * Checks whether a block device is a physical disk, rather than a partition or a virtual device such as a
+   * loop, RAM, device mapper, or software RAID device.
+   *
+   * @param name        kernel name of the block device
+   * @return            {@code true} when the device is a physical disk
+   * @since 1.0.0
+   */
+  static boolean isPhysicalDisk(String name) {
+    return !VIRTUAL_DISK.matcher(name).matches() && !PARTITION.matcher(name).matches();
   }
 
   /**
-   * Get contents /proc/diskstats.
+   * Reads /proc/net/dev into the per-interface counters.
    *
-   * @return      if /proc/diskstats file is available, {@link Optional} of parsed numbers wrapped in a
-   *              {@link CompletableFuture}. Otherwise {@link CompletableFuture} with an empty {@link Optional}
    * @since 1.0.0
    */
-  private CompletableFuture<Optional<Long>[]> getDiskMetrics() {
-    CompletableFuture<String> diskMetrics = shellRunner.executeCommand("cat /proc/diskstats", false);
-
-    return diskMetrics.thenApply(result -> {
-      Optional<Long>[] agg = Stream.generate(Optional::empty).limit(17).toArray(Optional[]::new);
-      if (result != null && !result.isEmpty() && !fileNotFound(result)) {
-        List<OutputLine> parsedList = parseDiskMetrics(result);
-        int rowLength = parsedList.get(0).getLineLength();
-        for (OutputLine line : parsedList) {
-          for (int inner = 3; inner < rowLength; inner++) {
-            try {
-              agg[inner - 3] =
-                  Optional.of(agg[inner - 3].orElse(0L) + Long.parseLong(line.getElementAt(inner)));
-            } catch (NumberFormatException e) {
-              log.error("There was an error parsing the contents of the /proc/diskstats file");
-            }
+  private void readNetworkMetrics() {
+    interfaces.forEach(networkInterface -> networkInterface.present = false);
+    if (!isNetworkMetricsAvailable || !netDev.refresh()) {
+      return;
+    }
+    int expected = 0;
+    while (netDev.hasRemaining()) {
+      NetworkInterface networkInterface = nextNetworkInterface(expected);
+      if (networkInterface != null) {
+        networkInterface.present = true;
+        Arrays.fill(networkInterface.counters, -1L);
+        for (int column = 0; column < 10 && netDev.hasNextNumber(); column++) {
+          long value = netDev.nextLong();
+          if (column < 2) {
+            networkInterface.counters[column] = value;
+          } else if (column >= 8) {
+            networkInterface.counters[column - 6] = value;
           }
         }
+        expected = interfaces.indexOf(networkInterface) + 1;
       }
-      return agg;
-    });
+      netDev.nextLine();
+    }
+  }
+
+  /**
+   * Looks up the interface on the current line of /proc/net/dev by its name. Interfaces that are seen for
+   * the first time are registered. Moves the cursor past the colon that follows the name.
+   *
+   * @param expected    index of the interface that is expected on the current line
+   * @return            the interface, or {@code null} if the line does not describe an interface
+   * @since 1.0.0
+   */
+  private NetworkInterface nextNetworkInterface(int expected) {
+    int index = netDev.matchKey(interfaceKeys, expected);
+    if (index >= 0) {
+      return interfaces.get(index);
+    }
+    String name = netDev.nextKey();
+    if (name == null || name.isEmpty()) {
+      return null;
+    }
+    NetworkInterface networkInterface = new NetworkInterface(name);
+    interfaces.add(networkInterface);
+    interfaceKeys = Arrays.copyOf(interfaceKeys, interfaceKeys.length + 1);
+    interfaceKeys[interfaceKeys.length - 1] = name.getBytes(StandardCharsets.US_ASCII);
+    return networkInterface;
   }
 
   /**
-   * Get cpu model from /proc/cpuinfo.
+   * Reads /proc/loadavg into the load average metrics. Metrics that cannot be read are set to -1.
    *
-   * @return      if /proc/cpuinfo file is available, {@link Optional} of parsed numbers wrapped in a
-   *              {@link CompletableFuture}. Otherwise {@link CompletableFuture} with an empty {@link Optional}
    * @since 1.0.0
    */
-  private CompletableFuture<Optional<String>> getCpuModel() {
-    CompletableFuture<String> cpuMetrics = shellRunner.executeCommand(
-        "grep -m 1 \"model name\" /proc/cpuinfo | awk -F: '{print $2}' | sed 's/^[ \\t]*//'", false);
-    return cpuMetrics.thenApply(result -> {
-      if (result != null && !result.isEmpty() && !fileNotFound(result)) {
-        return Optional.of(result.replace("\n", ""));
+  private void readLoadAvgMetrics() {
+    Arrays.fill(loadAvgMetrics, -1.0);
+    if (!isLoadAvgMetricsAvailable || !loadAvg.refresh()) {
+      return;
+    }
+    for (int index = 0; index < loadAvgMetrics.length && loadAvg.hasNextNumber(); index++) {
+      loadAvgMetrics[index] = loadAvg.nextDouble();
+    }
+  }
+
+  /**
+   * Reads the cpu model from /proc/cpuinfo.
+   *
+   * @param cpuInfo     {@link Path} of /proc/cpuinfo
+   * @return            the model name of the first processor, or {@code unknown} if it cannot be read
+   * @since 1.0.0
+   */
+  private static String readCpuModel(Path cpuInfo) {
+    if (!Files.isReadable(cpuInfo)) {
+      return "unknown";
+    }
+    try (ProcFileScanner scanner = new ProcFileScanner(cpuInfo)) {
+      if (scanner.refresh() && scanner.findLine(MODEL_NAME)) {
+        String model = scanner.valueAfterColon();
+        return model.isEmpty() ? "unknown" : model;
       }
-      return Optional.empty();
-    });
+    }
+    return "unknown";
   }
 
   /**
-   * Get loadAvgStats from /proc/loadavg.
+   * Closes the Proc files.
    *
-   * @return      if /proc/loadavg file is available, {@link Optional} of parsed numbers wrapped in a
-   *              {@link CompletableFuture}. Otherwise {@link CompletableFuture} with an empty {@link Optional}
    * @since 1.0.0
    */
-  private CompletableFuture<Optional<Double>[]> getLoadAvgMetrics() {
-    CompletableFuture<String> loadAvgMetrics = shellRunner.executeCommand("cat /proc/loadavg", false);
-
-    Pattern pattern = Pattern.compile("\\d+(?:[.,]\\d+)?");
-
-    return loadAvgMetrics.thenApply(result -> {
-      Optional<Double>[] agg = (Optional<Double>[]) new Optional<?>[6];
-      Arrays.fill(agg, Optional.empty());
-      if (result != null && !result.isEmpty() && !fileNotFound(result)) {
-        Matcher matcher = pattern.matcher(result);
-        for (int index = 0; index < agg.length && matcher.find(); index++) {
-          try {
-            agg[index] =
-                Optional.of(Double.parseDouble(matcher.group().replace(',', '.')));
-          } catch (NumberFormatException e) {
-            log.error("There was an error parsing the contents of the /proc/loadavg file");
-          }
-        }
+  @Override
+  public synchronized void close() {
+    diskStats.close();
+    memInfo.close();
+    loadAvg.close();
+    netDev.close();
+  }
+
+  /**
+   * Computes a rate from two readings of a counter.
+   *
+   * @param previous    previous reading of the counter
+   * @param current     current reading of the counter
+   * @param seconds     seconds in between the readings
+   * @return            the increase per second
+   * @since 1.0.0
+   */
+  private static double rate(long previous, long current, double seconds) {
+    return (current - previous) / seconds;
+  }
+
+  /**
+   * Checks whether two readings of counters can be used to compute rates. This is not the case when either
+   * of them is missing, or when the counters were reset in between.
+   *
+   * @param previous    previous readings of the counters
+   * @param current     current readings of the counters
+   * @param columns     indices of the counters that are used
+   * @return            {@code true} when rates can be computed
+   * @since 1.0.0
+   */
+  private static boolean isMonotonic(long[] previous, long[] current, int... columns) {
+    for (int column : columns) {
+      if (previous[column] < 0 || current[column] < previous[column]) {
+        return false;
       }
-      return agg;
-    });
+    }
+    return true;
   }
 
   /**
-   * Checks the terminal output if the file that is going to be accessed exists.
+   * Counters of a block device in /proc/diskstats.
    *
-   * @param output    output of the cat terminal command
-   * @return          boolean value that represents if the file was not found
+   * @author Atour Mousavi Gourabi
    * @since 1.0.0
    */
-  private boolean fileNotFound(String output) {
-    return output.contains("No such file or directory");
+  private static final class DiskDevice {
+
+    private final long major;
+
+    private final long minor;
+
+    private final String name;
+
+    private final boolean physical;
+
+    private final long[] counters = new long[17];
+
+    private final long[] previous = new long[17];
+
+    private boolean present;
+
+    private boolean hadPrevious;
+
+    private DiskDevice(long major, long minor, String name, boolean physical) {
+      this.major = major;
+      this.minor = minor;
+      this.name = name;
+      this.physical = physical;
+    }
+
+    private boolean hasRates(double seconds) {
+      return seconds > 0 && present && hadPrevious && isMonotonic(previous, counters, 0, 2, 4, 6, 9);
+    }
+
+    private DiskDeviceDto toDto(double seconds) {
+      return DiskDeviceDto.builder()
+          .name(name)
+          .readsPerSecond(rate(previous[0], counters[0], seconds))
+          .readBytesPerSecond(rate(previous[2], counters[2], seconds) * SECTOR_SIZE)
+          .writesPerSecond(rate(previous[4], counters[4], seconds))
+          .writtenBytesPerSecond(rate(previous[6], counters[6], seconds) * SECTOR_SIZE)
+          .utilization(Math.min(rate(previous[9], counters[9], seconds) / 1000.0, 1.0))
+          .build();
+    }
+
+    private void shift() {
+      hadPrevious = present;
+      System.arraycopy(counters, 0, previous, 0, counters.length);
+    }
   }
 
   /**
-   * Container class to be used in nested String Lists.
+   * Byte and packet counters of a network interface in /proc/net/dev.
    *
-   * @author Lohithsai Yadala Chanchu
+   * @author Atour Mousavi Gourabi
    * @since 1.0.0
    */
-  @NoArgsConstructor
-  @Data
-  private class OutputLine {
-    private List<String> outputLine = new ArrayList<>();
-
-    /**
-     * Add an element to the outputLine.
-     *
-     * @param element     string to be added to the outputLine
-     * @since 1.0.0
-     */
-    public void addToLine(String element) {
-      this.outputLine.add(element);
+  private static final class NetworkInterface {
+
+    private final String name;
+
+    private final long[] counters = new long[4];
+
+    private final long[] previous = new long[4];
+
+    private boolean present;
+
+    private boolean hadPrevious;
+
+    private NetworkInterface(String name) {
+      this.name = name;
+    }
+
+    private boolean hasRates(double seconds) {
+      return seconds > 0 && present && hadPrevious && isMonotonic(previous, counters, 0, 1, 2, 3);
     }
 
-    /**
-     * Gets the length of the outputLine.
-     *
-     * @return      length of the outputLine
-     * @since 1.0.0
-     */
-    public int getLineLength() {
-      return this.outputLine.size();
+    private NetworkInterfaceDto toDto(double seconds) {
+      return NetworkInterfaceDto.builder()
+          .name(name)
+          .receivedBytesPerSecond(rate(previous[0], counters[0], seconds))
+          .receivedPacketsPerSecond(rate(previous[1], counters[1], seconds))
+          .transmittedBytesPerSecond(rate(previous[2], counters[2], seconds))
+          .transmittedPacketsPerSecond(rate(previous[3], counters[3], seconds))
+          .build();
     }
 
-    /**
-     * Gets the element at the specified index.
-     *
-     * @param index     index of the element we want to receive
-     * @return          string that is at the specified index
-     * @since 1.0.0
-     */
-    public String getElementAt(int index) {
-      return this.outputLine.get(index);
+    private void shift() {
+      hadPrevious = present;
+      System.arraycopy(counters, 0, previous, 0, counters.length);
     }
   }
 }
@@ -0,0 +1,326 @@
+package com.asml.apa.wta.core.supplier;
+
+import com.asml.apa.wta.core.dto.ProcessDto;
+import com.asml.apa.wta.core.util.ProcFileScanner;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Supplier for the resource usage of the executor process itself, read from {@code /proc/self}. Where the
+ * other suppliers describe the whole host, this one allows usage to be attributed to a single executor when
+ * several executors share a node. The files are kept open in between snapshots and parsed without allocating;
+ * only the listing of the threads allocates.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class ProcessSupplier implements InformationSupplier<ProcessDto> {
+
+  private static final byte[][] STATUS_KEYS =
+      keys("VmSize", "VmRSS", "Threads", "voluntary_ctxt_switches", "nonvoluntary_ctxt_switches");
+
+  private static final byte[][] IO_KEYS = keys("read_bytes", "write_bytes");
+
+  private static final double TICKS_PER_SECOND = 100.0;
+
+  private static final int FIELDS_BEFORE_USER_TIME = 11;
+
+  private final Path processDirectory;
+
+  private final LongSupplier clock;
+
+  private final boolean isProcessAvailable;
+
+  private final ProcFileScanner stat;
+
+  private final ProcFileScanner status;
+
+  private final ProcFileScanner io;
+
+  private final Map<String, ProcessThread> threads = new HashMap<>();
+
+  private final long[] cpuTicks = new long[2];
+
+  private final long[] threadTicks = new long[2];
+
+  private final long[] statusValues = new long[STATUS_KEYS.length];
+
+  private final long[] ioValues = new long[IO_KEYS.length];
+
+  private final long[] previousCpuTicks = {-1L, -1L};
+
+  private final long[] previousStatusValues = {-1L, -1L, -1L, -1L, -1L};
+
+  private final long[] previousIoValues = {-1L, -1L};
+
+  private long lastSnapshot = -1L;
+
+  /**
+   * Constructs the supplier for the current process.
+   *
+   * @since 1.0.0
+   */
+  public ProcessSupplier() {
+    this(Path.of("/proc/self"), System::nanoTime);
+  }
+
+  /**
+   * Constructs the supplier for the process with the given Proc directory.
+   *
+   * @param processDirectory    Proc directory of the process, {@code /proc/self} outside of tests
+   * @param clock               monotonic clock in nanoseconds
+   * @since 1.0.0
+   */
+  ProcessSupplier(Path processDirectory, LongSupplier clock) {
+    this.processDirectory = processDirectory;
+    this.clock = clock;
+    isProcessAvailable = System.getProperty("os.name").toLowerCase().contains("linux")
+        && Files.isReadable(processDirectory.resolve("stat"));
+    stat = new ProcFileScanner(processDirectory.resolve("stat"));
+    status = Files.isReadable(processDirectory.resolve("status"))
+        ? new ProcFileScanner(processDirectory.resolve("status"))
+        : null;
+    io = Files.isReadable(processDirectory.resolve("io"))
+        ? new ProcFileScanner(processDirectory.resolve("io"))
+        : null;
+  }
+
+  /**
+   * Checks whether the Proc directory of the process can be read.
+   *
+   * @return      {@code true} when the process runs on Linux and its stat file is readable
+   * @since 1.0.0
+   */
+  @Override
+  public boolean isAvailable() {
+    return isProcessAvailable;
+  }
+
+  /**
+   * Reads the CPU time, memory, I/O and context switches of the process and of its threads.
+   *
+   * @return      if the Proc directory is available, {@link Optional} {@link ProcessDto} wrapped in a
+   *              {@link CompletableFuture} that will be sent to the driver. Otherwise {@link CompletableFuture}
+   *              with an empty {@link Optional}
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized CompletableFuture<Optional<ProcessDto>> getSnapshot() {
+    if (!isProcessAvailable) {
+      return notAvailableResult();
+    }
+    long now = clock.getAsLong();
+    double seconds = lastSnapshot < 0 ? -1.0 : (now - lastSnapshot) / 1e9;
+    lastSnapshot = now;
+    readCpuTicks(stat, cpuTicks);
+    readKeyed(status, STATUS_KEYS, statusValues);
+    readKeyed(io, IO_KEYS, ioValues);
+    double busiestThread = readThreads(seconds);
+
+    ProcessDto.ProcessDtoBuilder builder = ProcessDto.builder()
+        .cpuUserSeconds(cpuTicks[0] < 0 ? -1.0 : cpuTicks[0] / TICKS_PER_SECOND)
+        .cpuSystemSeconds(cpuTicks[1] < 0 ? -1.0 : cpuTicks[1] / TICKS_PER_SECOND)
+        .busiestThreadCpuUtilization(busiestThread)
+        .virtualMemory(statusValues[0] < 0 ? -1L : statusValues[0] * 1024)
+        .residentMemory(statusValues[1] < 0 ? -1L : statusValues[1] * 1024)
+        .threads((int) statusValues[2])
+        .voluntaryContextSwitches(statusValues[3])
+        .involuntaryContextSwitches(statusValues[4])
+        .readBytes(ioValues[0])
+        .writtenBytes(ioValues[1]);
+    if (seconds > 0) {
+      addRates(builder, seconds);
+    }
+    System.arraycopy(cpuTicks, 0, previousCpuTicks, 0, cpuTicks.length);
+    System.arraycopy(statusValues, 0, previousStatusValues, 0, statusValues.length);
+    System.arraycopy(ioValues, 0, previousIoValues, 0, ioValues.length);
+    return CompletableFuture.completedFuture(Optional.of(builder.build()));
+  }
+
+  /**
+   * Adds the rates between the previous and the current snapshot, for the counters that were read both times.
+   *
+   * @param builder     builder of the {@link ProcessDto} to add the rates to
+   * @param seconds     seconds since the previous snapshot
+   * @since 1.0.0
+   */
+  private void addRates(ProcessDto.ProcessDtoBuilder builder, double seconds) {
+    if (isMonotonic(previousCpuTicks, cpuTicks, 0, 1)) {
+      builder.cpuUtilization((cpuTicks[0] + cpuTicks[1] - previousCpuTicks[0] - previousCpuTicks[1])
+          / TICKS_PER_SECOND
+          / seconds);
+    }
+    if (isMonotonic(previousStatusValues, statusValues, 3, 4)) {
+      builder.contextSwitchesPerSecond(
+          (statusValues[3] + statusValues[4] - previousStatusValues[3] - previousStatusValues[4]) / seconds);
+    }
+    if (isMonotonic(previousIoValues, ioValues, 0, 1)) {
+      builder.readBytesPerSecond((ioValues[0] - previousIoValues[0]) / seconds)
+          .writtenBytesPerSecond((ioValues[1] - previousIoValues[1]) / seconds);
+    }
+  }
+
+  /**
+   * Reads the CPU time of every thread of the process. Threads that exited since the previous snapshot are
+   * forgotten, threads that were started since are tracked from now on.
+   *
+   * @param seconds     seconds since the previous snapshot, or a negative value if there was none
+   * @return            the CPU utilization of the busiest thread, or -1.0 if it cannot be computed
+   * @since 1.0.0
+   */
+  private double readThreads(double seconds) {
+    threads.values().forEach(thread -> thread.present = false);
+    try (DirectoryStream<Path> tasks = Files.newDirectoryStream(processDirectory.resolve("task"))) {
+      for (Path task : tasks) {
+        threads.computeIfAbsent(task.getFileName().toString(), tid -> new ProcessThread(task.resolve("stat")))
+            .present = true;
+      }
+    } catch (IOException e) {
+      log.error("Could not list the threads in {}.", processDirectory.resolve("task"));
+    }
+    double busiest = -1.0;
+    Iterator<ProcessThread> iterator = threads.values().iterator();
+    while (iterator.hasNext()) {
+      ProcessThread thread = iterator.next();
+      if (!thread.present) {
+        thread.scanner.close();
+        iterator.remove();
+        continue;
+      }
+      long previous = thread.ticks;
+      readCpuTicks(thread.scanner, threadTicks);
+      thread.ticks = threadTicks[0] < 0 ? -1L : threadTicks[0] + threadTicks[1];
+      if (seconds > 0 && previous >= 0 && thread.ticks >= previous) {
+        busiest = Math.max(busiest, (thread.ticks - previous) / TICKS_PER_SECOND / seconds);
+      }
+    }
+    return busiest;
+  }
+
+  /**
+   * Reads the user and system time from a stat file. The command name may hold spaces and parentheses, so the
+   * fields are counted from its closing parenthesis.
+   *
+   * @param scanner     scanner of the stat file
+   * @param ticks       array to read the user and system time into, in clock ticks
+   * @since 1.0.0
+   */
+  private static void readCpuTicks(ProcFileScanner scanner, long[] ticks) {
+    Arrays.fill(ticks, -1L);
+    if (!scanner.refresh() || !scanner.skipPastLast(')')) {
+      return;
+    }
+    for (int field = 0; field < FIELDS_BEFORE_USER_TIME; field++) {
+      scanner.skipToken();
+    }
+    ticks[0] = scanner.nextLong();
+    ticks[1] = scanner.nextLong();
+  }
+
+  /**
+   * Reads a file of colon-separated keys and values, such as {@code status}, into the given values. Keys
+   * that are not found are set to -1.
+   *
+   * @param scanner     scanner of the file, or {@code null} if it is not readable
+   * @param keys        ASCII keys to read the values of
+   * @param values      values to read into, in the order of the keys
+   * @since 1.0.0
+   */
+  private static void readKeyed(ProcFileScanner scanner, byte[][] keys, long[] values) {
+    Arrays.fill(values, -1L);
+    if (scanner == null || !scanner.refresh()) {
+      return;
+    }
+    int hint = 0;
+    while (scanner.hasRemaining()) {
+      int index = scanner.matchKey(keys, hint);
+      if (index >= 0) {
+        values[index] = scanner.nextLong();
+        hint = index + 1;
+      }
+      scanner.nextLine();
+    }
+  }
+
+  /**
+   * Checks whether two readings of counters can be used to compute rates. This is not the case when either
+   * of them is missing, or when the counters were reset in between.
+   *
+   * @param previous    previous readings of the counters
+   * @param current     current readings of the counters
+   * @param columns     indices of the counters that are used
+   * @return            {@code true} when rates can be computed
+   * @since 1.0.0
+   */
+  private static boolean isMonotonic(long[] previous, long[] current, int... columns) {
+    for (int column : columns) {
+      if (previous[column] < 0 || current[column] < previous[column]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Converts keys to ASCII.
+   *
+   * @param keys        keys to convert
+   * @return            the ASCII keys
+   * @since 1.0.0
+   */
+  private static byte[][] keys(String... keys) {
+    return Stream.of(keys)
+        .map(key -> key.getBytes(StandardCharsets.US_ASCII))
+        .toArray(byte[][]::new);
+  }
+
+  /**
+   * Closes the files of the process and its threads.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized void close() {
+    stat.close();
+    if (status != null) {
+      status.close();
+    }
+    if (io != null) {
+      io.close();
+    }
+    threads.values().forEach(thread -> thread.scanner.close());
+    threads.clear();
+  }
+
+  /**
+   * A thread of the process.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  private static final class ProcessThread {
+
+    private final ProcFileScanner scanner;
+
+    private long ticks = -1L;
+
+    private boolean present;
+
+    private ProcessThread(Path stat) {
+      scanner = new ProcFileScanner(stat);
+    }
+  }
+}
@@ -1,26 +1,39 @@
 package com.asml.apa.wta.core.supplier;
 
+import com.asml.apa.wta.core.config.RuntimeConfig;
 import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.dto.CgroupDto;
 import com.asml.apa.wta.core.dto.DstatDto;
 import com.asml.apa.wta.core.dto.IostatDto;
 import com.asml.apa.wta.core.dto.JvmFileDto;
+import com.asml.apa.wta.core.dto.JvmRuntimeDto;
 import com.asml.apa.wta.core.dto.OsInfoDto;
 import com.asml.apa.wta.core.dto.PerfDto;
 import com.asml.apa.wta.core.dto.ProcDto;
+import com.asml.apa.wta.core.dto.ProcessDto;
+import com.asml.apa.wta.core.dto.SupplierDto;
+import com.asml.apa.wta.core.util.AdaptiveInterval;
+import com.asml.apa.wta.core.util.SampleRingBuffer;
 import com.asml.apa.wta.core.util.ShellRunner;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Used to extract resources from dependencies. Should be instantiated once per executor/node.
+ * The suppliers are pinged at the resource ping interval. When a maximum interval is set, the engine backs
+ * off exponentially towards it while the metrics do not change and the executor is idle, and returns to the
+ * resource ping interval as soon as they change again. Results are buffered in a bounded, lock-free buffer
+ * until they are collected. When they are not collected in time, the buffer is downsampled rather than
+ * growing without bound.
  *
  * @author Henry Page
  * @since 1.0.0
@@ -28,24 +41,45 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public abstract class SupplierExtractionEngine<T extends BaseSupplierDto> {
 
-  private final OperatingSystemSupplier operatingSystemSupplier;
+  private static final Map<String, Integer> DEFAULT_CADENCES = Map.of("jvmFile", 10);
 
-  private final IostatSupplier iostatSupplier;
+  private static final int BUFFER_CAPACITY = 4096;
 
-  private final DstatSupplier dstatSupplier;
+  private final ShellRunner shellRunner = new ShellRunner();
 
-  private final ProcSupplier procSupplier;
+  private final Cadence<OsInfoDto> osInfoCadence;
 
-  private final PerfSupplier perfSupplier;
+  private final Cadence<IostatDto> iostatCadence;
 
-  private final JavaFileSupplier javaFileSupplier;
+  private final Cadence<DstatDto> dstatCadence;
 
-  private final int resourcePingInterval;
+  private final Cadence<ProcDto> procCadence;
+
+  private final Cadence<PerfDto> perfCadence;
+
+  private final Cadence<JvmFileDto> jvmFileCadence;
+
+  private final Cadence<CgroupDto> cgroupCadence;
+
+  private final Cadence<ProcessDto> processCadence;
+
+  private final Cadence<JvmRuntimeDto> jvmRuntimeCadence;
+
+  private final double changeThreshold;
+
+  private final AdaptiveInterval pingInterval;
+
+  private volatile BaseSupplierDto lastRecord;
+
+  private volatile boolean changed = true;
 
   @Getter
-  private final Collection<T> buffer = new ArrayList<>();
+  private final SampleRingBuffer<T> buffer =
+      new SampleRingBuffer<>(BUFFER_CAPACITY, SampleRingBuffer.OverflowPolicy.DOWNSAMPLE);
+
+  private long reportedDrops;
 
-  private final ScheduledExecutorService resourcePinger = Executors.newScheduledThreadPool(1);
+  private final ScheduledThreadPoolExecutor resourcePinger = new ScheduledThreadPoolExecutor(1);
 
   /**
    * Constructor for the resource extraction engine.
@@ -55,14 +89,71 @@ public abstract class SupplierExtractionEngine<T extends BaseSupplierDto> {
    * @since 1.0.0
    */
   public SupplierExtractionEngine(int resourcePingInterval) {
-    ShellRunner shellRunner = new ShellRunner();
-    this.resourcePingInterval = resourcePingInterval;
-    this.operatingSystemSupplier = new OperatingSystemSupplier();
-    this.javaFileSupplier = new JavaFileSupplier();
-    this.iostatSupplier = new IostatSupplier(shellRunner);
-    this.dstatSupplier = new DstatSupplier(shellRunner);
-    this.procSupplier = new ProcSupplier(shellRunner);
-    this.perfSupplier = new PerfSupplier(shellRunner);
+    this(resourcePingInterval, false);
+  }
+
+  /**
+   * Constructor for the resource extraction engine.
+   * Suppliers should be injected here.
+   *
+   * @param resourcePingInterval    how often to ping the suppliers, in milliseconds
+   * @param persistentCollectors    whether dstat and iostat run as single long-running processes that report
+   *                                at the ping interval, rather than being started on every ping
+   * @since 1.0.0
+   */
+  public SupplierExtractionEngine(int resourcePingInterval, boolean persistentCollectors) {
+    this(resourcePingInterval, -1, persistentCollectors);
+  }
+
+  /**
+   * Constructor for the resource extraction engine.
+   * Suppliers should be injected here.
+   *
+   * @param resourcePingInterval      how often to ping the suppliers while the metrics change, in milliseconds
+   * @param maxResourcePingInterval   longest interval to back off to while the metrics do not change, in
+   *                                  milliseconds, the interval is fixed when this is not larger than the
+   *                                  resource ping interval
+   * @param persistentCollectors      whether dstat and iostat run as single long-running processes that report
+   *                                  at the ping interval, rather than being started on every ping
+   * @since 1.0.0
+   */
+  public SupplierExtractionEngine(
+      int resourcePingInterval, int maxResourcePingInterval, boolean persistentCollectors) {
+    this(RuntimeConfig.builder()
+        .resourcePingInterval(resourcePingInterval)
+        .maxResourcePingInterval(maxResourcePingInterval)
+        .persistentCollectors(persistentCollectors)
+        .build());
+  }
+
+  /**
+   * Constructor for the resource extraction engine.
+   * Suppliers should be injected here. Every supplier is pinged once every so many pings, as set by the
+   * supplier cadences of the config, and repeats its previous snapshot in between.
+   *
+   * @param config      {@link RuntimeConfig} with the ping intervals, whether collectors are persistent, the
+   *                    supplier cadences and the supplier change threshold
+   * @since 1.0.0
+   */
+  public SupplierExtractionEngine(RuntimeConfig config) {
+    int resourcePingInterval = config.getResourcePingInterval();
+    int collectorInterval = config.isPersistentCollectors() ? Math.max(1, (resourcePingInterval + 999) / 1000) : 0;
+    Map<String, Integer> cadences = new HashMap<>(DEFAULT_CADENCES);
+    cadences.putAll(config.getSupplierCadences());
+    this.pingInterval = new AdaptiveInterval(resourcePingInterval, config.getMaxResourcePingInterval());
+    this.changeThreshold = config.getSupplierChangeThreshold();
+    this.resourcePinger.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    this.osInfoCadence = new Cadence<>(new OperatingSystemSupplier(), cadences.getOrDefault("osInfo", 1));
+    this.iostatCadence =
+        new Cadence<>(new IostatSupplier(shellRunner, collectorInterval), cadences.getOrDefault("iostat", 1));
+    this.dstatCadence =
+        new Cadence<>(new DstatSupplier(shellRunner, collectorInterval), cadences.getOrDefault("dstat", 1));
+    this.procCadence = new Cadence<>(new ProcSupplier(), cadences.getOrDefault("proc", 1));
+    this.perfCadence = new Cadence<>(new EnergySupplier(shellRunner), cadences.getOrDefault("perf", 1));
+    this.jvmFileCadence = new Cadence<>(new JavaFileSupplier(), cadences.getOrDefault("jvmFile", 1));
+    this.cgroupCadence = new Cadence<>(new CgroupSupplier(), cadences.getOrDefault("cgroup", 1));
+    this.processCadence = new Cadence<>(new ProcessSupplier(), cadences.getOrDefault("process", 1));
+    this.jvmRuntimeCadence = new Cadence<>(new JvmRuntimeSupplier(), cadences.getOrDefault("jvmRuntime", 1));
   }
 
   /**
@@ -73,12 +164,16 @@ public abstract class SupplierExtractionEngine<T extends BaseSupplierDto> {
    * @since 1.0.0
    */
   protected CompletableFuture<T> ping() {
-    CompletableFuture<Optional<OsInfoDto>> osInfoDtoCompletableFuture = this.operatingSystemSupplier.getSnapshot();
-    CompletableFuture<Optional<IostatDto>> iostatDtoCompletableFuture = this.iostatSupplier.getSnapshot();
-    CompletableFuture<Optional<DstatDto>> dstatDtoCompletableFuture = this.dstatSupplier.getSnapshot();
-    CompletableFuture<Optional<PerfDto>> perfDtoCompletableFuture = this.perfSupplier.getSnapshot();
-    CompletableFuture<Optional<JvmFileDto>> jvmFileDtoCompletableFuture = this.javaFileSupplier.getSnapshot();
-    CompletableFuture<Optional<ProcDto>> procDtoCompletableFuture = this.procSupplier.getSnapshot();
+    CompletableFuture<Optional<OsInfoDto>> osInfoDtoCompletableFuture = this.osInfoCadence.getSnapshot();
+    CompletableFuture<Optional<IostatDto>> iostatDtoCompletableFuture = this.iostatCadence.getSnapshot();
+    CompletableFuture<Optional<DstatDto>> dstatDtoCompletableFuture = this.dstatCadence.getSnapshot();
+    CompletableFuture<Optional<PerfDto>> perfDtoCompletableFuture = this.perfCadence.getSnapshot();
+    CompletableFuture<Optional<JvmFileDto>> jvmFileDtoCompletableFuture = this.jvmFileCadence.getSnapshot();
+    CompletableFuture<Optional<ProcDto>> procDtoCompletableFuture = this.procCadence.getSnapshot();
+    CompletableFuture<Optional<CgroupDto>> cgroupDtoCompletableFuture = this.cgroupCadence.getSnapshot();
+    CompletableFuture<Optional<ProcessDto>> processDtoCompletableFuture = this.processCadence.getSnapshot();
+    CompletableFuture<Optional<JvmRuntimeDto>> jvmRuntimeDtoCompletableFuture =
+        this.jvmRuntimeCadence.getSnapshot();
 
     return CompletableFuture.allOf(
             osInfoDtoCompletableFuture,
@@ -86,7 +181,10 @@ public abstract class SupplierExtractionEngine<T extends BaseSupplierDto> {
             dstatDtoCompletableFuture,
             perfDtoCompletableFuture,
             jvmFileDtoCompletableFuture,
-            procDtoCompletableFuture)
+            procDtoCompletableFuture,
+            cgroupDtoCompletableFuture,
+            processDtoCompletableFuture,
+            jvmRuntimeDtoCompletableFuture)
         .thenCompose((v) -> {
           long timestamp = System.currentTimeMillis();
           OsInfoDto osInfoDto = osInfoDtoCompletableFuture.join().orElse(null);
@@ -95,8 +193,24 @@ public abstract class SupplierExtractionEngine<T extends BaseSupplierDto> {
           PerfDto perfDto = perfDtoCompletableFuture.join().orElse(null);
           JvmFileDto jvmFileDto = jvmFileDtoCompletableFuture.join().orElse(null);
           ProcDto procDto = procDtoCompletableFuture.join().orElse(null);
-          return CompletableFuture.completedFuture(transform(new BaseSupplierDto(
-              timestamp, osInfoDto, iostatDto, dstatDto, perfDto, jvmFileDto, procDto)));
+          CgroupDto cgroupDto = cgroupDtoCompletableFuture.join().orElse(null);
+          ProcessDto processDto = processDtoCompletableFuture.join().orElse(null);
+          JvmRuntimeDto jvmRuntimeDto =
+              jvmRuntimeDtoCompletableFuture.join().orElse(null);
+          BaseSupplierDto record = new BaseSupplierDto(
+              timestamp,
+              osInfoDto,
+              iostatDto,
+              dstatDto,
+              perfDto,
+              jvmFileDto,
+              procDto,
+              cgroupDto,
+              processDto,
+              jvmRuntimeDto);
+          changed = lastRecord == null || hasChanged(lastRecord, record, changeThreshold);
+          lastRecord = record;
+          return CompletableFuture.completedFuture(transform(record));
         });
   }
 
@@ -112,23 +226,135 @@ public abstract class SupplierExtractionEngine<T extends BaseSupplierDto> {
   }
 
   /**
-   * Starts pinging the suppliers at a fixed rate.
+   * Starts pinging the suppliers. Without a maximum interval they are pinged at a fixed rate, otherwise
+   * every ping schedules the next one after the adapted interval.
    *
    * @since 1.0.0
    */
   public void startPinging() {
     log.trace("Starting to ping suppliers.");
-    resourcePinger.scheduleAtFixedRate(this::pingAndBuffer, 0, resourcePingInterval, TimeUnit.MILLISECONDS);
+    if (pingInterval.isAdaptive()) {
+      resourcePinger.execute(this::pingAndReschedule);
+    } else {
+      resourcePinger.scheduleAtFixedRate(
+          this::pingAndBuffer, 0, pingInterval.getCurrent(), TimeUnit.MILLISECONDS);
+    }
   }
 
   /**
-   * Stops pinging the suppliers.
+   * Pings the suppliers, and schedules the next ping once the result is buffered.
+   *
+   * @since 1.0.0
+   */
+  private void pingAndReschedule() {
+    pingAndBuffer().whenComplete((result, throwable) -> {
+      long interval = pingInterval.next(changed || isBusy());
+      try {
+        resourcePinger.schedule(this::pingAndReschedule, interval, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        log.trace("Not rescheduling the ping as the engine stopped pinging.");
+      }
+    });
+  }
+
+  /**
+   * Checks whether the executor is doing work, in which case the suppliers are pinged at the resource ping
+   * interval even when the metrics do not change. Engines that know about the work of the executor, such as
+   * the tasks it runs, should override this.
+   *
+   * @return      {@code true} when the executor is doing work
+   * @since 1.0.0
+   */
+  protected boolean isBusy() {
+    return false;
+  }
+
+  /**
+   * Gets the interval after which the suppliers are pinged next.
+   *
+   * @return      the current ping interval, in milliseconds
+   * @since 1.0.0
+   */
+  public long getCurrentPingInterval() {
+    return pingInterval.getCurrent();
+  }
+
+  /**
+   * Checks whether the metrics that vary with the load of the executor changed between two records.
+   *
+   * @param previous    previous record
+   * @param current     current record
+   * @param threshold   relative change beyond which a metric counts as changed
+   * @return            {@code true} when any of the metrics changed by more than the threshold
+   * @since 1.0.0
+   */
+  static boolean hasChanged(BaseSupplierDto previous, BaseSupplierDto current, double threshold) {
+    return hasChanged(previous.getProcessDto(), current.getProcessDto(), ProcessDto::getCpuUtilization, threshold)
+        || hasChanged(
+            previous.getProcessDto(), current.getProcessDto(), ProcessDto::getResidentMemory, threshold)
+        || hasChanged(previous.getProcDto(), current.getProcDto(), ProcDto::getLoadAvgOneMinute, threshold)
+        || hasChanged(
+            previous.getProcDto(),
+            current.getProcDto(),
+            proc -> proc.getDiskReadBytesPerSecond() + proc.getDiskWrittenBytesPerSecond(),
+            threshold)
+        || hasChanged(
+            previous.getProcDto(),
+            current.getProcDto(),
+            proc -> proc.getNetworkReceivedBytesPerSecond() + proc.getNetworkTransmittedBytesPerSecond(),
+            threshold)
+        || hasChanged(
+            previous.getOsInfoDto(),
+            current.getOsInfoDto(),
+            OsInfoDto::getFreePhysicalMemorySize,
+            threshold)
+        || hasChanged(
+            previous.getJvmRuntimeDto(), current.getJvmRuntimeDto(), JvmRuntimeDto::getHeapUsed, threshold);
+  }
+
+  /**
+   * Checks whether a metric changed by more than the threshold, relative to its previous value. Metrics that
+   * are missing from either record do not count as changed.
+   *
+   * @param previous    previous dto, or {@code null}
+   * @param current     current dto, or {@code null}
+   * @param metric      function that reads the metric from the dto
+   * @param threshold   relative change beyond which the metric counts as changed
+   * @param <D>         type of the dto
+   * @return            {@code true} when the metric changed by more than the threshold
+   * @since 1.0.0
+   */
+  private static <D extends SupplierDto> boolean hasChanged(
+      D previous, D current, ToDoubleFunction<D> metric, double threshold) {
+    if (previous == null || current == null) {
+      return false;
+    }
+    double before = metric.applyAsDouble(previous);
+    double after = metric.applyAsDouble(current);
+    return before >= 0 && after >= 0 && Math.abs(after - before) > threshold * Math.max(before, 1.0);
+  }
+
+  /**
+   * Stops pinging the suppliers and releases the files and processes they hold. The metrics of the shell
+   * commands that were run are logged.
    *
    * @since 1.0.0
    */
   public void stopPinging() {
     log.trace("Stopping to ping suppliers.");
     resourcePinger.shutdown();
+    List.of(
+            osInfoCadence,
+            iostatCadence,
+            dstatCadence,
+            procCadence,
+            perfCadence,
+            jvmFileCadence,
+            cgroupCadence,
+            processCadence,
+            jvmRuntimeCadence)
+        .forEach(Cadence::close);
+    shellRunner.logMetrics();
   }
 
   /**
@@ -147,10 +373,50 @@ public abstract class SupplierExtractionEngine<T extends BaseSupplierDto> {
    * @return            buffer contents as a list
    * @since 1.0.0
    */
-  public List<T> getAndClear() {
+  public synchronized List<T> getAndClear() {
     log.trace("Getting and clearing buffer.");
-    List<T> result = new ArrayList<>(buffer);
-    buffer.clear();
+    List<T> result = buffer.drain();
+    long drops = buffer.getDroppedCount();
+    if (drops > reportedDrops) {
+      log.warn("Dropped {} resource samples because the buffer was full.", drops - reportedDrops);
+      reportedDrops = drops;
+    }
     return result;
   }
+
+  /**
+   * Pings a supplier only every so many pings, and repeats its previous snapshot in between. This is used for
+   * suppliers whose metrics change slowly. A cadence of one pings the supplier every time.
+   *
+   * @param <D>     type of the dto of the supplier
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  private static final class Cadence<D extends SupplierDto> {
+
+    private final InformationSupplier<D> supplier;
+
+    private final int pings;
+
+    private int count;
+
+    private CompletableFuture<Optional<D>> snapshot;
+
+    private Cadence(InformationSupplier<D> supplier, int pings) {
+      this.supplier = supplier;
+      this.pings = pings;
+    }
+
+    private synchronized CompletableFuture<Optional<D>> getSnapshot() {
+      if (snapshot == null || ++count >= pings) {
+        count = 0;
+        snapshot = supplier.getSnapshot();
+      }
+      return snapshot;
+    }
+
+    private void close() {
+      supplier.close();
+    }
+  }
 }
@@ -0,0 +1,56 @@
+package com.asml.apa.wta.core.util;
+
+import lombok.Getter;
+
+/**
+ * Interval that stays at its minimum while there is activity, and backs off exponentially towards its
+ * maximum while there is none.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+public class AdaptiveInterval {
+
+  private final long minimum;
+
+  private final long maximum;
+
+  @Getter
+  private long current;
+
+  /**
+   * Constructs the interval, starting at its minimum. When the maximum is not larger than the minimum, the
+   * interval is fixed at the minimum.
+   *
+   * @param minimum       shortest interval, used while there is activity
+   * @param maximum       longest interval to back off to
+   * @since 1.0.0
+   */
+  public AdaptiveInterval(long minimum, long maximum) {
+    this.minimum = minimum;
+    this.maximum = Math.max(minimum, maximum);
+    this.current = minimum;
+  }
+
+  /**
+   * Checks whether the interval can change at all.
+   *
+   * @return              {@code true} when the maximum is larger than the minimum
+   * @since 1.0.0
+   */
+  public boolean isAdaptive() {
+    return maximum > minimum;
+  }
+
+  /**
+   * Computes the next interval. Activity resets it to the minimum, otherwise it is doubled up to the maximum.
+   *
+   * @param active        whether there was activity during the current interval
+   * @return              the next interval
+   * @since 1.0.0
+   */
+  public synchronized long next(boolean active) {
+    current = active ? minimum : Math.min(maximum, current * 2);
+    return current;
+  }
+}
@@ -0,0 +1,116 @@
+package com.asml.apa.wta.core.util;
+
+import com.asml.apa.wta.core.stream.Stream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sorts a {@link Stream} that does not necessarily fit in memory.
+ * The {@link Stream} is split into sorted runs of bounded size, which are held in {@link Stream}s of their own
+ * so that they spill to disk, after which the runs are merged using a k-way merge.
+ *
+ * @param <T> type of the elements to sort, to extend {@link Serializable}
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class ExternalMergeSort<T extends Serializable> {
+
+  private final Comparator<T> comparator;
+
+  private final int runSize;
+
+  /**
+   * Constructs a sorter with the given comparator and run size.
+   *
+   * @param comparator    {@link Comparator} to sort the elements by
+   * @param runSize       maximum amount of elements to sort in memory at once, must be positive
+   * @since 1.0.0
+   */
+  public ExternalMergeSort(@NonNull Comparator<T> comparator, int runSize) {
+    if (runSize < 1) {
+      throw new IllegalArgumentException("Run size must be positive");
+    }
+    this.comparator = comparator;
+    this.runSize = runSize;
+  }
+
+  /**
+   * Constructs a sorter with the given comparator and a run size of 100000 elements.
+   *
+   * @param comparator    {@link Comparator} to sort the elements by
+   * @since 1.0.0
+   */
+  public ExternalMergeSort(@NonNull Comparator<T> comparator) {
+    this(comparator, 100000);
+  }
+
+  /**
+   * Sorts the {@link Stream}. The sort is stable. Consumes the {@link Stream}.
+   *
+   * @param data          {@link Stream} to sort
+   * @return              sorted {@link Stream}
+   * @since 1.0.0
+   */
+  public Stream<T> sort(@NonNull Stream<T> data) {
+    List<Stream<T>> runs = createSortedRuns(data);
+    log.debug("Merging {} sorted runs.", runs.size());
+    if (runs.size() == 1) {
+      return runs.get(0);
+    }
+    return merge(runs);
+  }
+
+  /**
+   * Splits the {@link Stream} into sorted runs. Consumes the {@link Stream}.
+   *
+   * @param data          {@link Stream} to split
+   * @return              {@link List} of sorted runs
+   * @since 1.0.0
+   */
+  private List<Stream<T>> createSortedRuns(Stream<T> data) {
+    List<Stream<T>> runs = new ArrayList<>();
+    while (!data.isEmpty()) {
+      List<T> run = new ArrayList<>();
+      while (run.size() < runSize && !data.isEmpty()) {
+        run.add(data.head());
+      }
+      run.sort(comparator);
+      runs.add(new Stream<>(run));
+    }
+    return runs;
+  }
+
+  /**
+   * Merges the sorted runs. Ties are broken on the index of the run, which keeps the sort stable.
+   * Consumes the runs.
+   *
+   * @param runs          {@link List} of sorted runs
+   * @return              sorted {@link Stream} holding the elements of all runs
+   * @since 1.0.0
+   */
+  private Stream<T> merge(List<Stream<T>> runs) {
+    Comparator<Integer> onHeads = (left, right) ->
+        comparator.compare(runs.get(left).peek(), runs.get(right).peek());
+    PriorityQueue<Integer> queue = new PriorityQueue<>(onHeads.thenComparing(Comparator.naturalOrder()));
+    for (int i = 0; i < runs.size(); i++) {
+      if (!runs.get(i).isEmpty()) {
+        queue.add(i);
+      }
+    }
+    Stream<T> sorted = new Stream<>();
+    while (!queue.isEmpty()) {
+      int run = queue.poll();
+      sorted.addToStream(runs.get(run).head());
+      if (!runs.get(run).isEmpty()) {
+        queue.add(run);
+      }
+    }
+    return sorted;
+  }
+}
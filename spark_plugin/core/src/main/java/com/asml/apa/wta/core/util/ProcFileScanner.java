@@ -0,0 +1,437 @@
+package com.asml.apa.wta.core.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scanner over small pseudo-files such as those in {@code /proc}. The file is kept open and re-read
+ * into a reusable {@link ByteBuffer} on every {@link #refresh()}, after which its contents can be parsed
+ * without allocating.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class ProcFileScanner implements AutoCloseable {
+
+  private final Path path;
+
+  private FileChannel channel;
+
+  private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+  private int position;
+
+  private int limit;
+
+  /**
+   * Constructs a scanner for the given file. The file is opened lazily on the first refresh.
+   *
+   * @param path            {@link Path} of the file to scan
+   * @since 1.0.0
+   */
+  public ProcFileScanner(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Re-reads the complete file and moves the cursor to its start.
+   *
+   * @return                {@code true} when the file was read, {@code false} when it could not be read
+   * @since 1.0.0
+   */
+  public boolean refresh() {
+    position = 0;
+    limit = 0;
+    try {
+      if (channel == null) {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+      }
+      buffer.clear();
+      long offset = 0;
+      int read = channel.read(buffer, offset);
+      while (read >= 0) {
+        offset += read;
+        if (!buffer.hasRemaining()) {
+          ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+          buffer.flip();
+          larger.put(buffer);
+          buffer = larger;
+        }
+        read = channel.read(buffer, offset);
+      }
+      limit = buffer.position();
+      return true;
+    } catch (IOException e) {
+      log.error("Could not read {}.", path);
+      return false;
+    }
+  }
+
+  /**
+   * Checks whether the cursor is before the end of the contents.
+   *
+   * @return                {@code true} when there are contents left to scan
+   * @since 1.0.0
+   */
+  public boolean hasRemaining() {
+    return position < limit;
+  }
+
+  /**
+   * Moves the cursor to the start of the next line.
+   *
+   * @since 1.0.0
+   */
+  public void nextLine() {
+    while (position < limit && buffer.get(position) != '\n') {
+      position++;
+    }
+    if (position < limit) {
+      position++;
+    }
+  }
+
+  /**
+   * Checks whether the remainder of the file starts with the given ASCII prefix, without moving the cursor.
+   *
+   * @param prefix          ASCII prefix to check for
+   * @return                {@code true} when the remainder starts with the prefix
+   * @since 1.0.0
+   */
+  public boolean startsWith(byte[] prefix) {
+    if (limit - position < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (buffer.get(position + i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Moves the cursor to the start of the first line from the cursor onwards that starts with the given prefix.
+   *
+   * @param prefix          ASCII prefix of the line to find
+   * @return                {@code true} when such a line was found
+   * @since 1.0.0
+   */
+  public boolean findLine(byte[] prefix) {
+    while (position < limit) {
+      if (startsWith(prefix)) {
+        return true;
+      }
+      nextLine();
+    }
+    return false;
+  }
+
+  /**
+   * Matches the key of the current line, the text up to its first colon without leading blanks, against
+   * the given ASCII keys. The key at index {@code hint} is compared first, so files that list their keys in
+   * the expected order take a single comparison per line. Moves the cursor past the colon when a key matches.
+   *
+   * @param keys            ASCII keys to match against
+   * @param hint            index of the key that is expected on the current line
+   * @return                index of the matching key, or -1 when the line has no colon or an unknown key
+   * @since 1.0.0
+   */
+  public int matchKey(byte[][] keys, int hint) {
+    skipBlanks();
+    int colon = findColon();
+    if (colon < 0) {
+      return -1;
+    }
+    int length = colon - position;
+    if (hint >= 0 && hint < keys.length && regionEquals(length, keys[hint])) {
+      position = colon + 1;
+      return hint;
+    }
+    for (int index = 0; index < keys.length; index++) {
+      if (regionEquals(length, keys[index])) {
+        position = colon + 1;
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the key of the current line, the text up to its first colon, trimmed. Moves the cursor past the
+   * colon. This allocates, so it is meant for keys that are seen for the first time.
+   *
+   * @return                the key, or {@code null} when the current line holds no colon
+   * @since 1.0.0
+   */
+  public String nextKey() {
+    int colon = findColon();
+    if (colon < 0) {
+      return null;
+    }
+    String key = copy(position, colon).trim();
+    position = colon + 1;
+    return key;
+  }
+
+  /**
+   * Returns the next whitespace-separated token on the current line. Moves the cursor past the token.
+   * This allocates, so it is meant for tokens that are seen for the first time.
+   *
+   * @return                the token, or {@code null} when the current line holds no further token
+   * @since 1.0.0
+   */
+  public String nextToken() {
+    skipBlanks();
+    int start = position;
+    if (!skipToken()) {
+      return null;
+    }
+    return copy(start, position);
+  }
+
+  /**
+   * Skips the next whitespace-separated token on the current line.
+   *
+   * @return                {@code true} when a token was skipped
+   * @since 1.0.0
+   */
+  public boolean skipToken() {
+    skipBlanks();
+    if (position >= limit || buffer.get(position) == '\n') {
+      return false;
+    }
+    while (position < limit && !isWhitespace(buffer.get(position))) {
+      position++;
+    }
+    return true;
+  }
+
+  /**
+   * Moves the cursor past spaces and tabs.
+   *
+   * @since 1.0.0
+   */
+  public void skipBlanks() {
+    while (position < limit && (buffer.get(position) == ' ' || buffer.get(position) == '\t')) {
+      position++;
+    }
+  }
+
+  /**
+   * Moves the cursor past the next occurrence of the delimiter on the current line.
+   *
+   * @param delimiter       ASCII character to move past
+   * @return                {@code true} when the delimiter was found on the current line
+   * @since 1.0.0
+   */
+  public boolean skipPast(char delimiter) {
+    while (position < limit && buffer.get(position) != '\n') {
+      if (buffer.get(position++) == delimiter) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Moves the cursor past the last occurrence of the delimiter on the current line. This is used for fields
+   * that may themselves hold the delimiter, such as the command name in {@code /proc/[pid]/stat}.
+   *
+   * @param delimiter       ASCII character to move past
+   * @return                {@code true} when the delimiter was found on the current line
+   * @since 1.0.0
+   */
+  public boolean skipPastLast(char delimiter) {
+    int last = -1;
+    for (int cursor = position; cursor < limit && buffer.get(cursor) != '\n'; cursor++) {
+      if (buffer.get(cursor) == delimiter) {
+        last = cursor;
+      }
+    }
+    if (last < 0) {
+      return false;
+    }
+    position = last + 1;
+    return true;
+  }
+
+  /**
+   * Checks whether the current line holds another number.
+   *
+   * @return                {@code true} when a number follows on the current line
+   * @since 1.0.0
+   */
+  public boolean hasNextNumber() {
+    int cursor = position;
+    while (cursor < limit && buffer.get(cursor) != '\n') {
+      if (isDigit(buffer.get(cursor))) {
+        return true;
+      }
+      cursor++;
+    }
+    return false;
+  }
+
+  /**
+   * Parses the next non-negative integer on the current line, skipping any characters before it.
+   * Moves the cursor past the integer.
+   *
+   * @return                the parsed integer, or -1 when the current line holds no further integer
+   * @since 1.0.0
+   */
+  public long nextLong() {
+    if (!skipToDigit()) {
+      return -1L;
+    }
+    long value = 0;
+    while (position < limit && isDigit(buffer.get(position))) {
+      value = value * 10 + (buffer.get(position) - '0');
+      position++;
+    }
+    return value;
+  }
+
+  /**
+   * Parses the next non-negative decimal number on the current line, skipping any characters before it.
+   * Both a dot and a comma are accepted as the decimal separator. Moves the cursor past the number.
+   *
+   * @return                the parsed number, or -1.0 when the current line holds no further number
+   * @since 1.0.0
+   */
+  public double nextDouble() {
+    if (!skipToDigit()) {
+      return -1.0;
+    }
+    long digits = nextLong();
+    long scale = 1;
+    if (position + 1 < limit
+        && (buffer.get(position) == '.' || buffer.get(position) == ',')
+        && isDigit(buffer.get(position + 1))) {
+      position++;
+      while (position < limit && isDigit(buffer.get(position))) {
+        digits = digits * 10 + (buffer.get(position) - '0');
+        scale *= 10;
+        position++;
+      }
+    }
+    return (double) digits / scale;
+  }
+
+  /**
+   * Returns the remainder of the current line after the next colon, trimmed. Moves the cursor to the next line.
+   * This allocates, so it is meant for static data that is read once.
+   *
+   * @return                the value after the colon, or an empty {@link String} if the line holds no colon
+   * @since 1.0.0
+   */
+  public String valueAfterColon() {
+    while (position < limit && buffer.get(position) != ':' && buffer.get(position) != '\n') {
+      position++;
+    }
+    if (position >= limit || buffer.get(position) == '\n') {
+      nextLine();
+      return "";
+    }
+    int start = position + 1;
+    nextLine();
+    return copy(start, position).trim();
+  }
+
+  /**
+   * Closes the underlying {@link FileChannel}, if it was opened.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public void close() {
+    try {
+      if (channel != null) {
+        channel.close();
+      }
+    } catch (IOException e) {
+      log.error("Could not close {}.", path);
+    }
+  }
+
+  /**
+   * Finds the first colon on the current line, without moving the cursor.
+   *
+   * @return                position of the colon, or -1 when the current line holds no colon
+   * @since 1.0.0
+   */
+  private int findColon() {
+    for (int cursor = position; cursor < limit && buffer.get(cursor) != '\n'; cursor++) {
+      if (buffer.get(cursor) == ':') {
+        return cursor;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Copies a region of the contents into a {@link String}.
+   *
+   * @param start           start of the region, inclusive
+   * @param end             end of the region, exclusive
+   * @return                the region decoded as ASCII
+   * @since 1.0.0
+   */
+  private String copy(int start, int end) {
+    byte[] bytes = new byte[end - start];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(start + i);
+    }
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Checks whether the region of the given length at the cursor equals the key.
+   *
+   * @param length          length of the region
+   * @param key             ASCII key to compare the region to
+   * @return                {@code true} when the region equals the key
+   * @since 1.0.0
+   */
+  private boolean regionEquals(int length, byte[] key) {
+    if (length != key.length) {
+      return false;
+    }
+    for (int offset = 0; offset < length; offset++) {
+      if (buffer.get(position + offset) != key[offset]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Moves the cursor to the next digit on the current line.
+   *
+   * @return                {@code true} when a digit was found on the current line
+   * @since 1.0.0
+   */
+  private boolean skipToDigit() {
+    while (position < limit && !isDigit(buffer.get(position))) {
+      if (buffer.get(position) == '\n') {
+        return false;
+      }
+      position++;
+    }
+    return position < limit;
+  }
+
+  private static boolean isDigit(byte character) {
+    return character >= '0' && character <= '9';
+  }
+
+  private static boolean isWhitespace(byte character) {
+    return character == ' ' || character == '\t' || character == '\n';
+  }
+}
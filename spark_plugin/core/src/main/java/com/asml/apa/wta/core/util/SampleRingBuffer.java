@@ -0,0 +1,244 @@
+package com.asml.apa.wta.core.util;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-capacity, lock-free buffer of samples. Any number of threads can add samples while another thread
+ * drains them. Every slot carries a sequence number that tells producers and consumers whose turn it is, so
+ * no locks are taken. When the buffer is full, samples are dropped according to the {@link OverflowPolicy},
+ * and the number of dropped samples is counted.
+ *
+ * @param <T>   type of the samples
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+public class SampleRingBuffer<T> extends AbstractCollection<T> {
+
+  /**
+   * What to do with new samples when the buffer is full.
+   *
+   * @author Atour Mousavi Gourabi
+   * @since 1.0.0
+   */
+  public enum OverflowPolicy {
+    /**
+     * Drops the oldest sample to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drops the oldest sample like {@link #DROP_OLDEST}, but also halves the rate at which new samples are
+     * accepted every time half of the buffer has been replaced without a drain. The buffer then covers a
+     * longer period at a lower resolution.
+     */
+    DOWNSAMPLE
+  }
+
+  private final int mask;
+
+  private final OverflowPolicy policy;
+
+  private final AtomicReferenceArray<T> samples;
+
+  private final AtomicLongArray sequences;
+
+  private final AtomicLong head = new AtomicLong();
+
+  private final AtomicLong tail = new AtomicLong();
+
+  private final AtomicLong offered = new AtomicLong();
+
+  private final AtomicLong evicted = new AtomicLong();
+
+  private final AtomicInteger stride = new AtomicInteger(1);
+
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * Constructs the buffer.
+   *
+   * @param capacity      maximum number of samples, rounded up to a power of two
+   * @param policy        what to do with new samples when the buffer is full
+   * @throws IllegalArgumentException when the capacity is not between 1 and 2^30
+   * @since 1.0.0
+   */
+  public SampleRingBuffer(int capacity, OverflowPolicy policy) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("The capacity of the buffer must be between 1 and 2^30");
+    }
+    int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+    this.mask = size - 1;
+    this.policy = policy;
+    this.samples = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int index = 0; index < size; index++) {
+      sequences.set(index, index);
+    }
+  }
+
+  /**
+   * Adds a sample. When the buffer is full, samples are dropped according to the {@link OverflowPolicy}.
+   *
+   * @param sample        sample to add
+   * @return              {@code true} when the sample was added, {@code false} when it was dropped
+   * @since 1.0.0
+   */
+  @Override
+  public boolean add(T sample) {
+    if (policy == OverflowPolicy.DOWNSAMPLE && offered.getAndIncrement() % stride.get() != 0) {
+      dropped.increment();
+      return false;
+    }
+    while (!offer(sample)) {
+      if (poll() != null) {
+        dropped.increment();
+        if (policy == OverflowPolicy.DOWNSAMPLE
+            && evicted.incrementAndGet() % Math.max(1, capacity() / 2) == 0) {
+          stride.updateAndGet(current -> current < 1 << 20 ? current * 2 : current);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes all samples, oldest first. Draining resets the rate of a {@link OverflowPolicy#DOWNSAMPLE} buffer.
+   *
+   * @return              the samples that were in the buffer
+   * @since 1.0.0
+   */
+  public List<T> drain() {
+    List<T> result = new ArrayList<>(size());
+    T sample = poll();
+    while (sample != null) {
+      result.add(sample);
+      sample = poll();
+    }
+    stride.set(1);
+    evicted.set(0L);
+    return result;
+  }
+
+  /**
+   * Tries to add a sample to a free slot.
+   *
+   * @param sample        sample to add
+   * @return              {@code true} when it was added, {@code false} when the buffer is full
+   * @since 1.0.0
+   */
+  private boolean offer(T sample) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          samples.set(index, sample);
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Takes the oldest sample.
+   *
+   * @return              the oldest sample, or {@code null} when the buffer is empty
+   * @since 1.0.0
+   */
+  private T poll() {
+    long position = head.get();
+    while (true) {
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          T sample = samples.getAndSet(index, null);
+          sequences.set(index, position + mask + 1);
+          return sample;
+        }
+        position = head.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of samples in the buffer. Samples that are being added or drained concurrently may or may
+   * not be counted.
+   *
+   * @return              the number of samples
+   * @since 1.0.0
+   */
+  @Override
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0L, Math.min(size, capacity()));
+  }
+
+  /**
+   * Iterates over a copy of the samples that are currently in the buffer, oldest first.
+   *
+   * @return              {@link Iterator} over the samples
+   * @since 1.0.0
+   */
+  @Override
+  public Iterator<T> iterator() {
+    List<T> copy = new ArrayList<>();
+    long end = tail.get();
+    for (long position = head.get(); position < end; position++) {
+      T sample = samples.get((int) position & mask);
+      if (sample != null) {
+        copy.add(sample);
+      }
+    }
+    return copy.iterator();
+  }
+
+  /**
+   * Removes all samples.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public void clear() {
+    drain();
+  }
+
+  /**
+   * Gets the maximum number of samples in the buffer.
+   *
+   * @return              the capacity
+   * @since 1.0.0
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Gets the number of samples that were dropped because the buffer was full.
+   *
+   * @return              the number of dropped samples
+   * @since 1.0.0
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+}
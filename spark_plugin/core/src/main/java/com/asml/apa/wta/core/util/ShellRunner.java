@@ -2,21 +2,78 @@ package com.asml.apa.wta.core.util;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Utility class to run shell commands.
+ * Utility class to run shell commands. Commands run on a small dedicated pool of daemon threads rather than
+ * the common pool, are killed when they exceed their timeout, and have their stdout and stderr drained
+ * while they run, so a command that writes a lot of output cannot block on a full pipe.
  *
  * @author Lohithsai Yadala Chanchu
+ * @author Atour Mousavi Gourabi
  * @since 1.0.0
  */
 @Slf4j
 public class ShellRunner {
 
+  private static final long DEFAULT_TIMEOUT = 10000L;
+
+  private static final int MAX_CONCURRENT_COMMANDS = 4;
+
+  private static final int MAX_QUEUED_COMMANDS = 64;
+
+  private final ExecutorService commandExecutor = new ThreadPoolExecutor(
+      MAX_CONCURRENT_COMMANDS,
+      MAX_CONCURRENT_COMMANDS,
+      30L,
+      TimeUnit.SECONDS,
+      new ArrayBlockingQueue<>(MAX_QUEUED_COMMANDS),
+      daemonThreads("wta-shell"));
+
+  private final ExecutorService streamExecutor = new ThreadPoolExecutor(
+      0,
+      2 * MAX_CONCURRENT_COMMANDS,
+      30L,
+      TimeUnit.SECONDS,
+      new SynchronousQueue<>(),
+      daemonThreads("wta-shell-io"));
+
+  private final LongAdder forks = new LongAdder();
+
+  private final LongAdder forkNanos = new LongAdder();
+
+  private final LongAdder timeouts = new LongAdder();
+
+  private final LongAdder rejections = new LongAdder();
+
   /**
-   * Executes given shell command and returns the terminal output.
+   * Constructs a shell runner. Its threads time out when idle, so it does not have to be shut down.
+   *
+   * @since 1.0.0
+   */
+  public ShellRunner() {
+    ((ThreadPoolExecutor) commandExecutor).allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Executes given shell command and returns the terminal output. The command is killed when it runs for
+   * longer than 10 seconds.
    *
    * @param command           shell command string that is run
    * @param suppressErrors    decides if logs written on error
@@ -24,44 +81,118 @@ public class ShellRunner {
    * @since 1.0.0
    */
   public CompletableFuture<String> executeCommand(String command, boolean suppressErrors) {
+    return executeCommand(command, suppressErrors, DEFAULT_TIMEOUT);
+  }
+
+  /**
+   * Executes given shell command and returns the terminal output.
+   *
+   * @param command           shell command string that is run
+   * @param suppressErrors    decides if logs written on error
+   * @param timeout           time in milliseconds after which the command is killed
+   * @return                  {@link CompletableFuture} that returns the output of the command, or {@code null}
+   *                          when the command failed, timed out, or could not be scheduled
+   * @since 1.0.0
+   */
+  public CompletableFuture<String> executeCommand(String command, boolean suppressErrors, long timeout) {
     log.trace("Executing shell command: {}.", command);
-    return CompletableFuture.supplyAsync(() -> {
-      try {
-        String[] commands = {"sh", "-c", command};
-        Process process = new ProcessBuilder(commands).start();
-        int exitValue = process.waitFor();
-
-        if (exitValue != 0) {
-          if (!suppressErrors) {
-            log.error(
-                "Shell command {} failed to execute correctly with exit code: {}.", command, exitValue);
-          }
-          return null;
+    try {
+      return CompletableFuture.supplyAsync(() -> run(command, suppressErrors, timeout), commandExecutor);
+    } catch (RejectedExecutionException e) {
+      rejections.increment();
+      if (!suppressErrors) {
+        log.error("Too many shell commands are queued, not executing {}.", command);
+      }
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  /**
+   * Runs the shell command on the current thread, draining its output concurrently.
+   *
+   * @param command           shell command string that is run
+   * @param suppressErrors    decides if logs written on error
+   * @param timeout           time in milliseconds after which the command is killed
+   * @return                  the output of the command, or {@code null} when the command failed or timed out
+   * @since 1.0.0
+   */
+  private String run(String command, boolean suppressErrors, long timeout) {
+    Process process = null;
+    try {
+      long start = System.nanoTime();
+      process = new ProcessBuilder("sh", "-c", command).start();
+      forkNanos.add(System.nanoTime() - start);
+      forks.increment();
+      CompletableFuture<String> output = drain(process.getInputStream());
+      CompletableFuture<String> errors = drain(process.getErrorStream());
+
+      if (!process.waitFor(timeout, TimeUnit.MILLISECONDS)) {
+        process.destroyForcibly();
+        timeouts.increment();
+        if (!suppressErrors) {
+          log.error("Shell command {} did not finish within {} ms and was killed.", command, timeout);
         }
-        return readProcessOutput(process);
-      } catch (Exception e) {
+        return null;
+      }
+      int exitValue = process.exitValue();
+      if (exitValue != 0) {
         if (!suppressErrors) {
-          log.error("Something went wrong while trying to execute the shell command.");
+          log.error("Shell command {} failed to execute correctly with exit code: {}.", command, exitValue);
+          log.trace(
+              "Shell command {} wrote to stderr: {}.",
+              command,
+              errors.get(timeout, TimeUnit.MILLISECONDS));
         }
         return null;
       }
-    });
+      return output.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (IOException | ExecutionException | TimeoutException e) {
+      if (!suppressErrors) {
+        log.error("Something went wrong while trying to execute the shell command.");
+      }
+      return null;
+    } finally {
+      if (process != null && process.isAlive()) {
+        process.destroyForcibly();
+      }
+    }
+  }
+
+  /**
+   * Reads a stream of the process until it is closed. When no thread is available to read it, as earlier
+   * commands left processes behind that keep their streams open, the output is dropped.
+   *
+   * @param stream    stdout or stderr of the process
+   * @return          {@link CompletableFuture} of the contents of the stream, or {@code null} if it could not be read
+   * @since 1.0.0
+   */
+  private CompletableFuture<String> drain(InputStream stream) {
+    try {
+      return CompletableFuture.supplyAsync(() -> readFully(stream), streamExecutor);
+    } catch (RejectedExecutionException e) {
+      rejections.increment();
+      log.error("Too many shell command outputs are being read, the output of this command is dropped.");
+      return CompletableFuture.completedFuture(null);
+    }
   }
 
   /**
-   * Reads the terminal output.
+   * Reads a stream of the process on the current thread until it is closed.
    *
-   * @param process   {@link Process}
-   * @return          terminal output
+   * @param stream    stdout or stderr of the process
+   * @return          the contents of the stream, or {@code null} if it could not be read
    * @since 1.0.0
    */
-  private String readProcessOutput(Process process) {
-    log.trace("Reading shell command outputs.");
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+  private static String readFully(InputStream stream) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
       StringBuilder output = new StringBuilder();
-      String line;
-      while ((line = reader.readLine()) != null) {
+      String line = reader.readLine();
+      while (line != null) {
         output.append(line).append(System.lineSeparator());
+        line = reader.readLine();
       }
       return output.toString();
     } catch (IOException e) {
@@ -69,4 +200,89 @@ public class ShellRunner {
       return null;
     }
   }
+
+  /**
+   * Creates a long-running shell command whose output is streamed to the given consumer. The command is
+   * started lazily, see {@link StreamingShellCommand#ensureRunning()}.
+   *
+   * @param command           shell command string that is run
+   * @param lineConsumer      consumer of the output lines
+   * @return                  the {@link StreamingShellCommand}
+   * @since 1.0.0
+   */
+  public StreamingShellCommand streamCommand(String command, Consumer<String> lineConsumer) {
+    return new StreamingShellCommand(command, lineConsumer);
+  }
+
+  /**
+   * Gets the number of processes this runner has started.
+   *
+   * @return                  the number of started processes
+   * @since 1.0.0
+   */
+  public long getForkCount() {
+    return forks.sum();
+  }
+
+  /**
+   * Gets the average time it took to start a process.
+   *
+   * @return                  the average fork latency in nanoseconds, or -1 if no process was started
+   * @since 1.0.0
+   */
+  public double getAverageForkLatency() {
+    long count = forks.sum();
+    return count == 0 ? -1.0 : (double) forkNanos.sum() / count;
+  }
+
+  /**
+   * Gets the number of commands that were killed because they exceeded their timeout.
+   *
+   * @return                  the number of timed out commands
+   * @since 1.0.0
+   */
+  public long getTimeoutCount() {
+    return timeouts.sum();
+  }
+
+  /**
+   * Gets the number of commands that were not run because too many commands were queued.
+   *
+   * @return                  the number of rejected commands
+   * @since 1.0.0
+   */
+  public long getRejectionCount() {
+    return rejections.sum();
+  }
+
+  /**
+   * Logs the number of processes started, their average fork latency, and the number of commands that timed
+   * out or were rejected.
+   *
+   * @since 1.0.0
+   */
+  public void logMetrics() {
+    log.info(
+        "Started {} shell commands with a mean fork latency of {} us, {} timed out and {} were rejected.",
+        getForkCount(),
+        forks.sum() == 0 ? -1L : (long) getAverageForkLatency() / 1000,
+        getTimeoutCount(),
+        getRejectionCount());
+  }
+
+  /**
+   * Creates a factory for named daemon threads, so the pools never keep the JVM alive.
+   *
+   * @param name              prefix of the thread names
+   * @return                  the {@link ThreadFactory}
+   * @since 1.0.0
+   */
+  private static ThreadFactory daemonThreads(String name) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
 }
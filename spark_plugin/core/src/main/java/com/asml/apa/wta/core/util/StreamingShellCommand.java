@@ -0,0 +1,125 @@
+package com.asml.apa.wta.core.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Long-running shell command whose output is streamed, line by line, to a consumer on a dedicated
+ * daemon thread. Used for tools such as dstat and iostat that can report samples at a fixed interval,
+ * so a single process can serve all pings instead of forking one per ping.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public class StreamingShellCommand implements AutoCloseable {
+
+  private static final int MAX_RESTARTS = 3;
+
+  private final String command;
+
+  private final Consumer<String> lineConsumer;
+
+  private Process process;
+
+  private int restarts;
+
+  private boolean closed;
+
+  /**
+   * Constructs the command. The command is not started until {@link #ensureRunning()} is called.
+   *
+   * @param command           shell command string that is run
+   * @param lineConsumer      consumer of the output lines, called from the reader thread
+   * @since 1.0.0
+   */
+  public StreamingShellCommand(String command, Consumer<String> lineConsumer) {
+    this.command = command;
+    this.lineConsumer = lineConsumer;
+  }
+
+  /**
+   * Starts the command if it is not running. A command that exits is restarted a limited number of times,
+   * after which it is given up on.
+   *
+   * @return                  {@code true} when the command is running
+   * @since 1.0.0
+   */
+  public synchronized boolean ensureRunning() {
+    if (closed) {
+      return false;
+    }
+    if (process != null && process.isAlive()) {
+      return true;
+    }
+    if (process != null && ++restarts > MAX_RESTARTS) {
+      log.error("Shell command {} exited too often, giving up on it.", command);
+      closed = true;
+      return false;
+    }
+    try {
+      log.trace("Starting streaming shell command: {}.", command);
+      ProcessBuilder builder =
+          new ProcessBuilder("sh", "-c", command).redirectError(ProcessBuilder.Redirect.DISCARD);
+      builder.environment().put("PYTHONUNBUFFERED", "1");
+      Process started = builder.start();
+      process = started;
+      Thread reader = new Thread(() -> readOutput(started), "wta-" + command.split(" ")[0] + "-reader");
+      reader.setDaemon(true);
+      reader.start();
+      return true;
+    } catch (IOException e) {
+      log.error("Something went wrong while trying to start the shell command {}.", command);
+      closed = true;
+      return false;
+    }
+  }
+
+  /**
+   * Streams the output of the process to the line consumer until the process exits.
+   *
+   * @param running           process to read the output of
+   * @since 1.0.0
+   */
+  private void readOutput(Process running) {
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(running.getInputStream(), StandardCharsets.UTF_8))) {
+      String line = reader.readLine();
+      while (line != null) {
+        lineConsumer.accept(line);
+        line = reader.readLine();
+      }
+    } catch (IOException e) {
+      log.trace("Stopped reading the output of shell command {}.", command);
+    } catch (RuntimeException e) {
+      log.error("Something went wrong while handling the output of shell command {}.", command);
+    }
+  }
+
+  /**
+   * Stops the command. It is not restarted afterwards.
+   *
+   * @since 1.0.0
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (process == null) {
+      return;
+    }
+    process.destroy();
+    try {
+      if (!process.waitFor(1, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
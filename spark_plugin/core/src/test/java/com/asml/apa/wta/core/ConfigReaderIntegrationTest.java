@@ -79,6 +79,18 @@ class ConfigReaderIntegrationTest {
         .isInstanceOf(IllegalArgumentException.class);
   }
 
+  @Test
+  void rejectsTaskResourceCorrelationAtStageLevel() {
+    assertThatThrownBy(() -> RuntimeConfig.readConfig("src/test/resources/testConfigStageLevelCorrelation.json"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void rejectsNonPositiveSupplierCadences() {
+    assertThatThrownBy(() -> RuntimeConfig.readConfig("src/test/resources/testConfigInvalidSupplierCadence.json"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   @Test
   void readsConfigFileWhereIsStageLevelIsNotThere() {
     RuntimeConfig cr = RuntimeConfig.readConfig("src/test/resources/testConfigNoIsStageLevel.json");
@@ -18,5 +18,6 @@ class RuntimeConfigTest {
     assertThat(cr.getExecutorSynchronizationInterval()).isEqualTo(-1);
     assertThat(cr.getOutputPath()).isNull();
     assertThat(cr.isAggregateMetrics()).isFalse();
+    assertThat(cr.isTaskResourceCorrelation()).isFalse();
   }
 }
@@ -4,7 +4,11 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 import com.asml.apa.wta.core.io.DiskOutputFile;
+import com.asml.apa.wta.core.io.DiskParquetInputFile;
 import com.asml.apa.wta.core.io.OutputFile;
+import com.asml.apa.wta.core.io.ParquetReader;
+import com.asml.apa.wta.core.io.ParquetWriterConfig;
+import com.asml.apa.wta.core.io.RollingParquetWriter;
 import com.asml.apa.wta.core.model.Resource;
 import com.asml.apa.wta.core.model.ResourceState;
 import com.asml.apa.wta.core.model.Task;
@@ -16,6 +20,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -88,6 +94,62 @@ class WtaWriterIntegrationTest {
         .isTrue();
   }
 
+  @Test
+  void writeTasksIncrementally() throws IOException {
+    try (RollingParquetWriter<Task> writer = sut.createRollingWriter(Task.class, 2)) {
+      for (long id = 1; id <= 5; id++) {
+        writer.write(Task.builder().id(id).build());
+      }
+    }
+    String directory = "wta-output/" + currentTime + "/" + TOOL_VERSION + "/tasks/schema-1.0/";
+    assertThat(new File(directory + "tasks-00000.parquet").exists()).isTrue();
+    assertThat(new File(directory + "tasks-00001.parquet").exists()).isTrue();
+    assertThat(new File(directory + "tasks-00002.parquet").exists()).isTrue();
+    assertThat(new File(directory + "tasks-00003.parquet").exists()).isFalse();
+    try (ParquetReader reader =
+        new ParquetReader(new DiskParquetInputFile(Path.of(directory + "tasks-00002.parquet")))) {
+      assertThat(reader.read().get("id")).isEqualTo(5L);
+      assertThat(reader.read()).isNull();
+    }
+  }
+
+  @Test
+  void writeSegmentsOfSeveralSources() throws IOException {
+    try (RollingParquetWriter<ResourceState> first = sut.createRollingWriter(ResourceState.class, 2, "node-1");
+        RollingParquetWriter<ResourceState> second =
+            sut.createRollingWriter(ResourceState.class, 2, "node-2")) {
+      first.write(ResourceState.builder().resourceId(1L).build());
+      second.write(ResourceState.builder().resourceId(2L).build());
+    }
+    String directory = "wta-output/" + currentTime + "/" + TOOL_VERSION + "/resource_states/schema-1.0/";
+    assertThat(new File(directory + "resource_states-node-1-00000.parquet").exists())
+        .isTrue();
+    assertThat(new File(directory + "resource_states-node-2-00000.parquet").exists())
+        .isTrue();
+  }
+
+  @Test
+  void writeSortedTasks() throws IOException {
+    OutputFile file = new DiskOutputFile(Path.of("wta-output"));
+    ParquetWriterConfig config = ParquetWriterConfig.builder()
+        .sortKeys(Map.of("tasks", List.of("workflow_id", "ts_submit")))
+        .build();
+    String time = currentTime + "-sorted";
+    WtaWriter sortingWriter = new WtaWriter(file, "schema-1.0", time, TOOL_VERSION, config);
+    Stream<Task> tasks = new Stream<>();
+    tasks.addToStream(Task.builder().id(1).workflowId(2).tsSubmit(5).build());
+    tasks.addToStream(Task.builder().id(2).workflowId(1).tsSubmit(9).build());
+    tasks.addToStream(Task.builder().id(3).workflowId(1).tsSubmit(3).build());
+    sortingWriter.write(Task.class, tasks);
+
+    Path path = Path.of("wta-output/" + time + "/" + TOOL_VERSION + "/tasks/schema-1.0/tasks.parquet");
+    try (ParquetReader reader = new ParquetReader(new DiskParquetInputFile(path))) {
+      assertThat(reader.read().get("id")).isEqualTo(3L);
+      assertThat(reader.read().get("id")).isEqualTo(2L);
+      assertThat(reader.read().get("id")).isEqualTo(1L);
+    }
+  }
+
   @AfterAll
   static void cleanUp() throws IOException {
     Files.walk(Path.of("wta-output"))
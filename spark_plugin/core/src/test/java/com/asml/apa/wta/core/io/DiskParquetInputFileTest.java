@@ -0,0 +1,83 @@
+package com.asml.apa.wta.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiskParquetInputFileTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    byte[] data = new byte[256];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    file = tempDirectory.resolve("data.bin");
+    Files.write(file, data);
+  }
+
+  @Test
+  void lengthAndSingleBytes() throws IOException {
+    for (boolean memoryMapped : new boolean[] {false, true}) {
+      DiskParquetInputFile inputFile = new DiskParquetInputFile(file, memoryMapped);
+      assertThat(inputFile.getLength()).isEqualTo(256L);
+      try (DiskParquetInputFile.DiskSeekableInputStream stream = inputFile.newStream()) {
+        assertThat(stream.read()).isEqualTo(0);
+        stream.seek(255);
+        assertThat(stream.read()).isEqualTo(255);
+        assertThat(stream.getPos()).isEqualTo(256L);
+        assertThat(stream.read()).isEqualTo(-1);
+      }
+    }
+  }
+
+  @Test
+  void readIntoBufferAtNonZeroPositions() throws IOException {
+    for (boolean memoryMapped : new boolean[] {false, true}) {
+      try (DiskParquetInputFile.DiskSeekableInputStream stream =
+          new DiskParquetInputFile(file, memoryMapped).newStream()) {
+        stream.seek(10);
+        ByteBuffer heap = ByteBuffer.allocate(8);
+        heap.position(3);
+        assertThat(stream.read(heap)).isEqualTo(5);
+        assertThat(heap.get(3)).isEqualTo((byte) 10);
+        assertThat(heap.get(7)).isEqualTo((byte) 14);
+        ByteBuffer direct = ByteBuffer.allocateDirect(4);
+        stream.readFully(direct);
+        assertThat(direct.flip().get(0)).isEqualTo((byte) 15);
+        assertThat(stream.getPos()).isEqualTo(19L);
+        stream.seek(250);
+        ByteBuffer partial = ByteBuffer.allocate(16);
+        assertThat(stream.read(partial)).isEqualTo(6);
+        assertThat(stream.read(partial)).isEqualTo(-1);
+      }
+    }
+  }
+
+  @Test
+  void readFullyPastEndOfFile() throws IOException {
+    for (boolean memoryMapped : new boolean[] {false, true}) {
+      try (DiskParquetInputFile.DiskSeekableInputStream stream =
+          new DiskParquetInputFile(file, memoryMapped).newStream()) {
+        stream.seek(200);
+        assertThatThrownBy(() -> stream.readFully(new byte[100])).isInstanceOf(EOFException.class);
+        byte[] bytes = new byte[6];
+        stream.readFully(bytes, 2, 4);
+        assertThat(bytes).containsExactly(0, 0, 200, 201, 202, 203);
+      }
+    }
+  }
+}
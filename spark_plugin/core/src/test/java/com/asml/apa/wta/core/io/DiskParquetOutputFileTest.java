@@ -1,7 +1,7 @@
 package com.asml.apa.wta.core.io;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import java.io.File;
 import java.io.IOException;
@@ -49,8 +49,8 @@ class DiskParquetOutputFileTest {
     outputStream.write(data, 1, 2);
     assertEquals(7, outputStream.getPos());
 
-    assertTrue(outputFile.supportsBlockSize());
-    assertEquals(512, outputFile.defaultBlockSize());
+    assertFalse(outputFile.supportsBlockSize());
+    assertEquals(0, outputFile.defaultBlockSize());
 
     // Close the output stream
     outputStream.close();
@@ -0,0 +1,103 @@
+package com.asml.apa.wta.core.io;
+
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Encodes synthetic metric batches both through Java serialization and through the {@link MetricBatchWriter},
+ * and logs the size and latency of both. This is not part of the test suite, run it through its main method.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public final class MetricBatchWriterBenchmark {
+
+  static final int BATCHES = 2_000;
+
+  static final int SAMPLES_PER_BATCH = 2;
+
+  private MetricBatchWriterBenchmark() {}
+
+  /**
+   * Creates synthetic metric batches.
+   *
+   * @param amount        amount of batches to create
+   * @return              the batches, each holding {@link #SAMPLES_PER_BATCH} samples
+   * @since 1.0.0
+   */
+  static List<List<BaseSupplierDto>> syntheticBatches(int amount) {
+    List<List<BaseSupplierDto>> batches = new ArrayList<>();
+    for (int batch = 0; batch < amount; batch++) {
+      List<BaseSupplierDto> samples = new ArrayList<>();
+      for (int index = 0; index < SAMPLES_PER_BATCH; index++) {
+        samples.add(MetricBatchWriterTest.sample((long) batch * SAMPLES_PER_BATCH + index));
+      }
+      batches.add(samples);
+    }
+    return batches;
+  }
+
+  /**
+   * Serializes a batch through Java serialization.
+   *
+   * @param batch         the batch to serialize
+   * @return              the size of the serialized batch in bytes
+   * @throws IOException  when the batch cannot be serialized
+   * @since 1.0.0
+   */
+  static int javaSerializedSize(List<BaseSupplierDto> batch) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeObject(new ArrayList<>(batch));
+    }
+    return bytes.size();
+  }
+
+  /**
+   * Encodes the synthetic batches through both paths, and logs their size and latency.
+   *
+   * @param args          unused
+   * @throws IOException  when a batch cannot be serialized
+   * @since 1.0.0
+   */
+  public static void main(String[] args) throws IOException {
+    List<List<BaseSupplierDto>> batches = syntheticBatches(BATCHES);
+    MetricBatchWriter<BaseSupplierDto> writer = new MetricBatchWriter<>(BaseSupplierDto.class, 16);
+    MetricBatchReader<BaseSupplierDto> reader = new MetricBatchReader<>(BaseSupplierDto.class);
+
+    long serializedBytes = 0L;
+    long serializationStart = System.nanoTime();
+    for (List<BaseSupplierDto> batch : batches) {
+      serializedBytes += javaSerializedSize(batch);
+    }
+    long serializationNanos = System.nanoTime() - serializationStart;
+
+    long encodedBytes = 0L;
+    long encodeNanos = 0L;
+    long decodeNanos = 0L;
+    for (List<BaseSupplierDto> batch : batches) {
+      long start = System.nanoTime();
+      byte[] encoded = writer.write(batch);
+      long middle = System.nanoTime();
+      reader.read(encoded);
+      decodeNanos += System.nanoTime() - middle;
+      encodeNanos += middle - start;
+      encodedBytes += encoded.length;
+    }
+
+    log.info(
+        "Java serialization: {} bytes per sample in {} us per batch. Metric batches: {} bytes per sample, "
+            + "encoded in {} us and decoded in {} us per batch.",
+        serializedBytes / (BATCHES * SAMPLES_PER_BATCH),
+        serializationNanos / 1000 / BATCHES,
+        encodedBytes / (BATCHES * SAMPLES_PER_BATCH),
+        encodeNanos / 1000 / BATCHES,
+        decodeNanos / 1000 / BATCHES);
+  }
+}
@@ -0,0 +1,30 @@
+package com.asml.apa.wta.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MetricBatchWriterIntegrationTest {
+
+  @Test
+  void batchesAreMuchSmallerThanJavaSerialization() throws IOException {
+    List<List<BaseSupplierDto>> batches =
+        MetricBatchWriterBenchmark.syntheticBatches(MetricBatchWriterBenchmark.BATCHES);
+    MetricBatchWriter<BaseSupplierDto> writer = new MetricBatchWriter<>(BaseSupplierDto.class, 16);
+    MetricBatchReader<BaseSupplierDto> reader = new MetricBatchReader<>(BaseSupplierDto.class);
+
+    long serializedBytes = 0L;
+    long encodedBytes = 0L;
+    for (List<BaseSupplierDto> batch : batches) {
+      serializedBytes += MetricBatchWriterBenchmark.javaSerializedSize(batch);
+      byte[] encoded = writer.write(batch);
+      encodedBytes += encoded.length;
+      assertThat(reader.read(encoded)).isEqualTo(batch);
+    }
+
+    assertThat(encodedBytes * 10).isLessThan(serializedBytes);
+  }
+}
@@ -0,0 +1,121 @@
+package com.asml.apa.wta.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.dto.DiskDeviceDto;
+import com.asml.apa.wta.core.dto.JvmRuntimeDto;
+import com.asml.apa.wta.core.dto.MemoryPoolDto;
+import com.asml.apa.wta.core.dto.OsInfoDto;
+import com.asml.apa.wta.core.dto.ProcDto;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MetricBatchWriterTest {
+
+  static BaseSupplierDto sample(long index) {
+    ProcDto proc = new ProcDto();
+    proc.setMemFree(1_000_000L - index * 17);
+    proc.setCpuModel("Intel(R) Xeon(R) CPU E5-2690 v4 @ 2.60GHz");
+    proc.setLoadAvgOneMinute(1.25 + index % 3);
+    proc.setDiskDevices(List.of(
+        DiskDeviceDto.builder()
+            .name("sda")
+            .readBytesPerSecond(4096.0 * index)
+            .build(),
+        DiskDeviceDto.builder().name("nvme0n1").utilization(0.5).build()));
+    JvmRuntimeDto jvm = new JvmRuntimeDto();
+    jvm.setHeapUsed(256L * 1024 * 1024 + index * 4096);
+    jvm.setMemoryPools(List.of(MemoryPoolDto.builder()
+        .name("G1 Eden Space")
+        .heap(true)
+        .used(index)
+        .build()));
+    return BaseSupplierDto.builder()
+        .timestamp(1_700_000_000_000L + index * 1000)
+        .osInfoDto(OsInfoDto.builder()
+            .os("Linux")
+            .architecture("amd64")
+            .availableProcessors(16)
+            .processCpuLoad(0.1 * (index % 10))
+            .build())
+        .procDto(proc)
+        .jvmRuntimeDto(jvm)
+        .build();
+  }
+
+  @Test
+  void batchesRoundTrip() {
+    MetricBatchWriter<BaseSupplierDto> writer = new MetricBatchWriter<>(BaseSupplierDto.class, 4);
+    MetricBatchReader<BaseSupplierDto> reader = new MetricBatchReader<>(BaseSupplierDto.class);
+    for (int batch = 0; batch < 10; batch++) {
+      List<BaseSupplierDto> samples = new ArrayList<>();
+      for (int index = 0; index < 3; index++) {
+        samples.add(sample(batch * 3L + index));
+      }
+      samples.get(1).setProcDto(null);
+      samples.get(2).getOsInfoDto().setOs(null);
+      assertThat(reader.read(writer.write(samples))).isEqualTo(samples);
+    }
+  }
+
+  @Test
+  void listsThatChangeInSizeRoundTrip() {
+    MetricBatchWriter<BaseSupplierDto> writer = new MetricBatchWriter<>(BaseSupplierDto.class, 16);
+    MetricBatchReader<BaseSupplierDto> reader = new MetricBatchReader<>(BaseSupplierDto.class);
+    BaseSupplierDto first = sample(0);
+    BaseSupplierDto second = sample(1);
+    second.getProcDto().setDiskDevices(List.of());
+    BaseSupplierDto third = sample(2);
+    third.getJvmRuntimeDto().setMemoryPools(null);
+    List<BaseSupplierDto> samples = List.of(first, second, third);
+    assertThat(reader.read(writer.write(samples))).isEqualTo(samples);
+    assertThat(reader.read(writer.write(List.of()))).isEmpty();
+    assertThat(reader.read(writer.write(List.of(first)))).containsExactly(first);
+  }
+
+  @Test
+  void unchangedSamplesTakeAboutOneBytePerColumn() {
+    MetricBatchWriter<BaseSupplierDto> writer = new MetricBatchWriter<>(BaseSupplierDto.class, 16);
+    byte[] first = writer.write(List.of(sample(0)));
+    byte[] second = writer.write(List.of(sample(0), sample(0)));
+    assertThat(second.length).isLessThan(first.length);
+    assertThat(second.length).isLessThan(3 * 200);
+  }
+
+  @Test
+  void batchesAfterAMissingBatchAreSkippedUntilTheNextKeyFrame() {
+    MetricBatchWriter<BaseSupplierDto> writer = new MetricBatchWriter<>(BaseSupplierDto.class, 3);
+    MetricBatchReader<BaseSupplierDto> reader = new MetricBatchReader<>(BaseSupplierDto.class);
+    assertThat(reader.read(writer.write(List.of(sample(0))))).hasSize(1);
+    writer.write(List.of(sample(1)));
+    assertThat(reader.read(writer.write(List.of(sample(2))))).isEmpty();
+    assertThat(reader.read(writer.write(List.of(sample(3))))).containsExactly(sample(3));
+    assertThat(reader.read(writer.write(List.of(sample(4))))).containsExactly(sample(4));
+  }
+
+  @Test
+  void readerStartsAtAKeyFrame() {
+    MetricBatchWriter<BaseSupplierDto> writer = new MetricBatchWriter<>(BaseSupplierDto.class, 2);
+    writer.write(List.of(sample(0)));
+    byte[] dependent = writer.write(List.of(sample(1)));
+    byte[] keyFrame = writer.write(List.of(sample(2)));
+    MetricBatchReader<BaseSupplierDto> reader = new MetricBatchReader<>(BaseSupplierDto.class);
+    assertThat(reader.read(dependent)).isEmpty();
+    assertThat(reader.read(keyFrame)).containsExactly(sample(2));
+  }
+
+  @Test
+  void malformedBatchesAreRejected() {
+    MetricBatchWriter<BaseSupplierDto> writer = new MetricBatchWriter<>(BaseSupplierDto.class, 16);
+    MetricBatchReader<BaseSupplierDto> reader = new MetricBatchReader<>(BaseSupplierDto.class);
+    byte[] batch = writer.write(List.of(sample(0)));
+    byte[] truncated = Arrays.copyOf(batch, batch.length / 2);
+    assertThatThrownBy(() -> reader.read(truncated)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> reader.read(new byte[] {42})).isInstanceOf(IllegalArgumentException.class);
+    assertThat(reader.read(writer.write(List.of(sample(1))))).isEmpty();
+  }
+}
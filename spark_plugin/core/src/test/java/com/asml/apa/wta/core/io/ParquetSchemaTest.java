@@ -1,5 +1,6 @@
 package com.asml.apa.wta.core.io;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 import com.asml.apa.wta.core.model.Resource;
@@ -7,6 +8,9 @@ import com.asml.apa.wta.core.model.ResourceState;
 import com.asml.apa.wta.core.model.Task;
 import com.asml.apa.wta.core.model.Workflow;
 import com.asml.apa.wta.core.stream.Stream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class ParquetSchemaTest {
@@ -39,4 +43,27 @@ class ParquetSchemaTest {
         new ParquetSchema(ResourceState.class, new Stream<>(resourceState), "resource_states");
     assertDoesNotThrow(() -> resourceState.convertToRecord(parquetSchema));
   }
+
+  @Test
+  void comparatorOrdersOnColumnsInPrecedence() {
+    Task first = Task.builder().id(3).workflowId(1).tsSubmit(20).build();
+    Task second = Task.builder().id(2).workflowId(2).tsSubmit(10).build();
+    Task third = Task.builder().id(1).workflowId(2).tsSubmit(30).build();
+    ParquetSchema parquetSchema = new ParquetSchema(Task.class, new Stream<>(first), "tasks");
+    Comparator<Task> comparator = parquetSchema.createComparator(Task.class, List.of("workflow_id", "ts_submit"));
+    List<Task> tasks = new ArrayList<>(List.of(third, first, second));
+    tasks.sort(comparator);
+    assertThat(tasks).containsExactly(first, second, third);
+  }
+
+  @Test
+  void comparatorSkipsUnknownAndIncomparableColumns() {
+    Task first = Task.builder().id(1).parents(new long[] {2L}).build();
+    Task second = Task.builder().id(2).build();
+    ParquetSchema parquetSchema = new ParquetSchema(Task.class, new Stream<>(first), "tasks");
+    Comparator<Task> comparator =
+        parquetSchema.createComparator(Task.class, List.of("does_not_exist", "parents", "id"));
+    assertThat(comparator.compare(first, second)).isNegative();
+    assertThat(comparator.compare(second, first)).isPositive();
+  }
 }
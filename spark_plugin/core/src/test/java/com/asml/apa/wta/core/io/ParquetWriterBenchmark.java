@@ -0,0 +1,113 @@
+package com.asml.apa.wta.core.io;
+
+import com.asml.apa.wta.core.model.Task;
+import com.asml.apa.wta.core.stream.Stream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+/**
+ * Writes a synthetic task trace for every combination of Parquet writer settings, and logs the file size
+ * and write time of each combination. This is not part of the test suite, run it through its main method.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public final class ParquetWriterBenchmark {
+
+  private static final int AMOUNT_OF_TASKS = 10000;
+
+  private static final long[] ROW_GROUP_SIZES = {1048576L, 134217728L};
+
+  private static final CompressionCodecName[] CODECS = {
+    CompressionCodecName.SNAPPY,
+    CompressionCodecName.ZSTD,
+    CompressionCodecName.GZIP,
+    CompressionCodecName.LZ4,
+    CompressionCodecName.UNCOMPRESSED
+  };
+
+  private ParquetWriterBenchmark() {}
+
+  /**
+   * Creates a synthetic task trace.
+   *
+   * @param amount        amount of tasks to create
+   * @return              {@link Stream} of the tasks
+   * @since 1.0.0
+   */
+  static Stream<Task> syntheticTasks(int amount) {
+    Random random = new Random(42);
+    Stream<Task> tasks = new Stream<>();
+    for (long id = 1; id <= amount; id++) {
+      tasks.addToStream(Task.builder()
+          .id(id)
+          .type("task")
+          .tsSubmit(1690000000000L + id * 10 + random.nextInt(10))
+          .workflowId(id / 100 + 1)
+          .runtime(random.nextInt(10000))
+          .parents(id > 1 ? new long[] {id - 1} : new long[0])
+          .userId(random.nextInt(4))
+          .memoryRequested(random.nextInt(1024))
+          .diskSpaceRequested(random.nextDouble() * 1024)
+          .resourceUsed(random.nextInt(16))
+          .build());
+    }
+    return tasks;
+  }
+
+  /**
+   * Writes the synthetic trace for every combination of settings.
+   *
+   * @param args          unused
+   * @throws IOException  when a trace cannot be written
+   * @since 1.0.0
+   */
+  public static void main(String[] args) throws IOException {
+    for (CompressionCodecName codec : CODECS) {
+      for (boolean dictionaryEncoding : new boolean[] {true, false}) {
+        for (boolean bloomFilters : new boolean[] {true, false}) {
+          for (long rowGroupSize : ROW_GROUP_SIZES) {
+            ParquetWriterConfig config = ParquetWriterConfig.builder()
+                .compressionCodec(codec)
+                .dictionaryEncoding(dictionaryEncoding)
+                .bloomFilters(bloomFilters)
+                .rowGroupSize(rowGroupSize)
+                .build();
+            String name = String.format(
+                "codec=%s,dictionary=%b,bloom=%b,rowGroup=%d",
+                codec, dictionaryEncoding, bloomFilters, rowGroupSize);
+            write(name, config);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the synthetic trace with the given settings, and logs its size and write time.
+   *
+   * @param name          name of the combination of settings
+   * @param config        {@link ParquetWriterConfig} to write with
+   * @throws IOException  when the trace cannot be written
+   * @since 1.0.0
+   */
+  private static void write(String name, ParquetWriterConfig config) throws IOException {
+    Path path = Files.createTempFile("tasks", ".parquet");
+    Stream<Task> tasks = syntheticTasks(AMOUNT_OF_TASKS);
+    ParquetSchema schema = new ParquetSchema(Task.class, tasks.copy(), "tasks");
+    long start = System.nanoTime();
+    try (ParquetWriter<Task> writer = new ParquetWriter<>(new DiskOutputFile(path), schema, config)) {
+      while (!tasks.isEmpty()) {
+        writer.write(tasks.head());
+      }
+    }
+    long writeMillis = (System.nanoTime() - start) / 1000000;
+    log.info("{}: {} bytes written in {} ms.", name, Files.size(path), writeMillis);
+    Files.delete(path);
+  }
+}
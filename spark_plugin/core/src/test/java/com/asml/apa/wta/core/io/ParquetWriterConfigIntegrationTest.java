@@ -0,0 +1,88 @@
+package com.asml.apa.wta.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.model.Task;
+import com.asml.apa.wta.core.stream.Stream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParquetWriterConfigIntegrationTest {
+
+  private static final int AMOUNT_OF_TASKS = 2000;
+
+  @TempDir
+  private Path directory;
+
+  private List<BlockMetaData> writeAndReadFooter(ParquetWriterConfig config) throws IOException {
+    Path path = directory.resolve("tasks.parquet");
+    Stream<Task> tasks = ParquetWriterBenchmark.syntheticTasks(AMOUNT_OF_TASKS);
+    ParquetSchema schema = new ParquetSchema(Task.class, tasks.copy(), "tasks");
+    try (ParquetWriter<Task> writer = new ParquetWriter<>(new DiskOutputFile(path), schema, config)) {
+      while (!tasks.isEmpty()) {
+        writer.write(tasks.head());
+      }
+    }
+    try (ParquetFileReader reader = ParquetFileReader.open(new DiskParquetInputFile(path))) {
+      assertThat(reader.getRecordCount()).isEqualTo(AMOUNT_OF_TASKS);
+      return reader.getFooter().getBlocks();
+    }
+  }
+
+  private static ColumnChunkMetaData column(BlockMetaData block, String name) {
+    return block.getColumns().stream()
+        .filter(column -> column.getPath().toDotString().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  @Test
+  void codecDictionaryAndBloomFiltersAreWritten() throws IOException {
+    ParquetWriterConfig config = ParquetWriterConfig.builder()
+        .compressionCodec(CompressionCodecName.ZSTD)
+        .dictionaryEncoding(true)
+        .bloomFilters(true)
+        .build();
+    List<BlockMetaData> blocks = writeAndReadFooter(config);
+
+    ColumnChunkMetaData workflowId = column(blocks.get(0), "workflow_id");
+    assertThat(workflowId.getCodec()).isEqualTo(CompressionCodecName.ZSTD);
+    assertThat(workflowId.hasDictionaryPage()).isTrue();
+    assertThat(workflowId.getBloomFilterOffset()).isNotNegative();
+  }
+
+  @Test
+  void dictionaryAndBloomFiltersCanBeDisabled() throws IOException {
+    ParquetWriterConfig config = ParquetWriterConfig.builder()
+        .compressionCodec(CompressionCodecName.UNCOMPRESSED)
+        .dictionaryEncoding(false)
+        .bloomFilters(false)
+        .build();
+    List<BlockMetaData> blocks = writeAndReadFooter(config);
+
+    ColumnChunkMetaData workflowId = column(blocks.get(0), "workflow_id");
+    assertThat(workflowId.getCodec()).isEqualTo(CompressionCodecName.UNCOMPRESSED);
+    assertThat(workflowId.hasDictionaryPage()).isFalse();
+    assertThat(workflowId.getEncodings()).doesNotContain(Encoding.PLAIN_DICTIONARY, Encoding.RLE_DICTIONARY);
+    assertThat(workflowId.getBloomFilterOffset()).isNegative();
+  }
+
+  @Test
+  void smallRowGroupsSplitTheFile() throws IOException {
+    ParquetWriterConfig config = ParquetWriterConfig.builder()
+        .compressionCodec(CompressionCodecName.UNCOMPRESSED)
+        .dictionaryEncoding(false)
+        .rowGroupSize(16384L)
+        .build();
+    assertThat(writeAndReadFooter(config).size()).isGreaterThan(1);
+    assertThat(writeAndReadFooter(ParquetWriterConfig.defaults()).size()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,60 @@
+package com.asml.apa.wta.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.asml.apa.wta.core.config.RuntimeConfig;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.junit.jupiter.api.Test;
+
+class ParquetWriterConfigTest {
+
+  @Test
+  void defaultsMatchRuntimeConfigDefaults() {
+    ParquetWriterConfig defaults = ParquetWriterConfig.defaults();
+    ParquetWriterConfig fromConfig =
+        ParquetWriterConfig.fromRuntimeConfig(RuntimeConfig.builder().build());
+    assertThat(fromConfig.getRowGroupSize()).isEqualTo(defaults.getRowGroupSize());
+    assertThat(fromConfig.getPageSize()).isEqualTo(defaults.getPageSize());
+    assertThat(fromConfig.isDictionaryEncoding()).isEqualTo(defaults.isDictionaryEncoding());
+    assertThat(fromConfig.isBloomFilters()).isEqualTo(defaults.isBloomFilters());
+    assertThat(fromConfig.getCompressionCodec()).isEqualTo(CompressionCodecName.SNAPPY);
+  }
+
+  @Test
+  void fromRuntimeConfig() {
+    RuntimeConfig config = RuntimeConfig.builder()
+        .parquetRowGroupSize(1024L)
+        .parquetPageSize(256)
+        .parquetDictionaryEncoding(false)
+        .parquetBloomFilters(true)
+        .parquetCompressionCodec("zstd")
+        .build();
+    ParquetWriterConfig sut = ParquetWriterConfig.fromRuntimeConfig(config);
+    assertThat(sut.getRowGroupSize()).isEqualTo(1024L);
+    assertThat(sut.getPageSize()).isEqualTo(256);
+    assertThat(sut.isDictionaryEncoding()).isFalse();
+    assertThat(sut.isBloomFilters()).isTrue();
+    assertThat(sut.getCompressionCodec()).isEqualTo(CompressionCodecName.ZSTD);
+  }
+
+  @Test
+  void parseSupportedCompressionCodecs() {
+    assertThat(ParquetWriterConfig.parseCompressionCodec("snappy")).isEqualTo(CompressionCodecName.SNAPPY);
+    assertThat(ParquetWriterConfig.parseCompressionCodec("ZSTD")).isEqualTo(CompressionCodecName.ZSTD);
+    assertThat(ParquetWriterConfig.parseCompressionCodec("Gzip")).isEqualTo(CompressionCodecName.GZIP);
+    assertThat(ParquetWriterConfig.parseCompressionCodec("lz4")).isEqualTo(CompressionCodecName.LZ4);
+    assertThat(ParquetWriterConfig.parseCompressionCodec("uncompressed"))
+        .isEqualTo(CompressionCodecName.UNCOMPRESSED);
+  }
+
+  @Test
+  void parseUnsupportedCompressionCodec() {
+    assertThatThrownBy(() -> ParquetWriterConfig.parseCompressionCodec("BROTLI"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ParquetWriterConfig.parseCompressionCodec("zip"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ParquetWriterConfig.parseCompressionCodec(null))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
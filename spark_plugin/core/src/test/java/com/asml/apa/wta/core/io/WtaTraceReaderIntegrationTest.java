@@ -0,0 +1,128 @@
+package com.asml.apa.wta.core.io;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.eq;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.WtaWriter;
+import com.asml.apa.wta.core.model.Domain;
+import com.asml.apa.wta.core.model.Resource;
+import com.asml.apa.wta.core.model.Task;
+import com.asml.apa.wta.core.model.Workflow;
+import com.asml.apa.wta.core.stream.Stream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class WtaTraceReaderIntegrationTest {
+
+  private static final String TOOL_VERSION = "spark-wta-generator-1_0";
+
+  private static final String currentTime = String.valueOf(System.currentTimeMillis());
+
+  private static final Path trace = Path.of("wta-reader-output", currentTime, TOOL_VERSION);
+
+  @BeforeAll
+  static void setUp() throws IOException {
+    ParquetWriterConfig config =
+        ParquetWriterConfig.builder().rowGroupSize(4096L).pageSize(1024).build();
+    WtaWriter writer = new WtaWriter(
+        new DiskOutputFile(Path.of("wta-reader-output")), "schema-1.0", currentTime, TOOL_VERSION, config);
+    try (RollingParquetWriter<Task> taskWriter = writer.createRollingWriter(Task.class, 2500)) {
+      for (long id = 0; id < 10000; id++) {
+        taskWriter.write(Task.builder()
+            .id(id)
+            .workflowId(id / 100)
+            .tsSubmit(id * 10)
+            .parents(new long[] {id - 1})
+            .build());
+      }
+    }
+    writer.write(
+        Workflow.class,
+        new Stream<>(Workflow.builder()
+            .id(3)
+            .domain(Domain.SCIENTIFIC)
+            .taskIds(new Long[] {1L, 2L})
+            .build()));
+    writer.write(
+        Resource.class,
+        new Stream<>(
+            Resource.builder().id(7).events(Map.of("cores", "4")).build()));
+  }
+
+  @Test
+  void readsAllRowGroupsOfAllSegmentsInOrder() throws IOException {
+    try (WtaTraceReader sut = new WtaTraceReader(trace, "schema-1.0", 4)) {
+      List<Task> tasks = sut.read(Task.class).toList();
+      assertThat(tasks).hasSize(10000);
+      assertThat(tasks.get(4242).getId()).isEqualTo(4242L);
+      assertThat(tasks.get(4242).getWorkflowId()).isEqualTo(42L);
+      assertThat(tasks.get(4242).getParents()).containsExactly(4241L);
+      assertThat(tasks.get(4242).getResourceType()).isEqualTo("N/A");
+    }
+  }
+
+  @Test
+  void readsFromMemoryMappedFiles() throws IOException {
+    try (WtaTraceReader sut = new WtaTraceReader(trace, "schema-1.0", 2, true)) {
+      List<Task> tasks = sut.read(Task.class).toList();
+      assertThat(tasks).hasSize(10000);
+      assertThat(tasks.get(9999).getId()).isEqualTo(9999L);
+    }
+  }
+
+  @Test
+  void projectsAndFiltersColumns() throws IOException {
+    try (WtaTraceReader sut = new WtaTraceReader(trace, "schema-1.0")) {
+      List<Task> tasks = sut.read(Task.class, List.of("id", "workflow_id"), eq(longColumn("workflow_id"), 17L))
+          .toList();
+      assertThat(tasks).hasSize(100);
+      assertThat(tasks.get(0).getId()).isEqualTo(1700L);
+      assertThat(tasks.get(0).getTsSubmit()).isEqualTo(-1L);
+      assertThat(tasks.get(0).getParents()).isEmpty();
+    }
+  }
+
+  @Test
+  void readsPrimitiveColumn() throws IOException {
+    try (WtaTraceReader sut = new WtaTraceReader(trace, "schema-1.0")) {
+      double[] submitTimes = sut.readColumn(Task.class, "ts_submit", eq(longColumn("workflow_id"), 99L));
+      assertThat(submitTimes).hasSize(100);
+      assertThat(submitTimes[0]).isEqualTo(99000.0);
+    }
+  }
+
+  @Test
+  void readsDomainsArraysAndMaps() throws IOException {
+    try (WtaTraceReader sut = new WtaTraceReader(trace, "schema-1.0")) {
+      Workflow workflow = sut.read(Workflow.class).head();
+      assertThat(workflow.getDomain()).isEqualTo(Domain.SCIENTIFIC);
+      assertThat(workflow.getTaskIds()).containsExactly(1L, 2L);
+      Resource resource = sut.read(Resource.class).head();
+      assertThat(resource.getEvents()).containsEntry("cores", "4");
+    }
+  }
+
+  @Test
+  void missingTableIsEmpty() throws IOException {
+    try (WtaTraceReader sut = new WtaTraceReader(trace, "schema-2.0", 1)) {
+      assertThat(sut.read(Task.class).isEmpty()).isTrue();
+    }
+  }
+
+  @AfterAll
+  static void cleanUp() throws IOException {
+    Files.walk(Path.of("wta-reader-output"))
+        .sorted(Comparator.reverseOrder())
+        .map(Path::toFile)
+        .forEach(File::delete);
+  }
+}
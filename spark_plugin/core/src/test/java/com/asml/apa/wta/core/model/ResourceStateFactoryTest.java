@@ -0,0 +1,77 @@
+package com.asml.apa.wta.core.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.dto.OsInfoDto;
+import com.asml.apa.wta.core.dto.ProcDto;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ResourceStateFactoryTest {
+
+  private static ResourceState state(long timestamp, double availableMemory, double processMemory) {
+    return ResourceState.builder()
+        .resourceId(5L)
+        .timestamp(timestamp)
+        .eventType("resource active")
+        .availableMemory(availableMemory)
+        .processMemory(processMemory)
+        .build();
+  }
+
+  @Test
+  void averagingASingleStateReturnsIt() {
+    ResourceState state = state(1L, 2.0, 3.0);
+    assertThat(ResourceStateFactory.average(List.of(state))).isSameAs(state);
+  }
+
+  @Test
+  void averagingSkipsUnknownValues() {
+    ResourceState result = ResourceStateFactory.average(
+        List.of(state(10L, 2.0, -1.0), state(20L, 4.0, 3.0), state(30L, -1.0, -1.0)));
+    assertThat(result.getResourceId()).isEqualTo(5L);
+    assertThat(result.getTimestamp()).isEqualTo(10L);
+    assertThat(result.getEventType()).isEqualTo("resource active");
+    assertThat(result.getAvailableMemory()).isEqualTo(3.0);
+    assertThat(result.getProcessMemory()).isEqualTo(3.0);
+    assertThat(result.getAvailableResources()).isEqualTo(-1.0);
+  }
+
+  @Test
+  void averagingWeighsStatesByTheirSamples() {
+    ResourceState result =
+        ResourceStateFactory.average(List.of(state(10L, 2.0, -1.0), state(20L, 6.0, 3.0)), new int[] {3, 1});
+    assertThat(result.getTimestamp()).isEqualTo(10L);
+    assertThat(result.getAvailableMemory()).isEqualTo(3.0);
+    assertThat(result.getProcessMemory()).isEqualTo(3.0);
+  }
+
+  @Test
+  void resourcesOfConsecutivePingsAreMerged() {
+    Resource first = ResourceStateFactory.createResource(
+        5L,
+        BaseSupplierDto.builder()
+            .osInfoDto(OsInfoDto.builder()
+                .os("Linux")
+                .architecture("amd64")
+                .availableProcessors(4)
+                .build())
+            .build());
+    Resource second = ResourceStateFactory.createResource(
+        5L,
+        BaseSupplierDto.builder()
+            .procDto(ProcDto.builder().cpuModel("Ryzen 7").build())
+            .build());
+    Resource third = ResourceStateFactory.createResource(
+        5L, BaseSupplierDto.builder().build());
+
+    assertThat(first.getProcModel()).isEqualTo("unknown / amd64");
+    Resource merged =
+        ResourceStateFactory.mergeResources(ResourceStateFactory.mergeResources(first, third), second);
+    assertThat(merged.getId()).isEqualTo(5L);
+    assertThat(merged.getOs()).isEqualTo("Linux");
+    assertThat(merged.getNumResources()).isEqualTo(4.0);
+    assertThat(merged.getProcModel()).isEqualTo("Ryzen 7");
+  }
+}
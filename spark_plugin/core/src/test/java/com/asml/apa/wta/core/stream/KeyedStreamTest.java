@@ -3,6 +3,7 @@ package com.asml.apa.wta.core.stream;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -56,6 +57,20 @@ class KeyedStreamTest {
     assertThat(loremIpsum).isEqualTo("LoremIpsum");
   }
 
+  @Test
+  void drainKeyListRemovesDrainedKeys() {
+    KeyedStream<Integer, String> keyedStream = new KeyedStream<>();
+    keyedStream.addToStream(1, "Hello");
+    keyedStream.addToStream(1, "World!");
+    keyedStream.addToStream(2, "Lorem");
+    List<Long> counts = keyedStream.drainKeyList((key, stream) -> stream.count());
+    assertThat(counts).containsExactlyInAnyOrder(2L, 1L);
+    assertThat(keyedStream.onKey(1).isEmpty()).isTrue();
+    assertThat(keyedStream.onKey(2).isEmpty()).isTrue();
+    keyedStream.addToStream(1, "Ipsum");
+    assertThat(keyedStream.onKey(1).head()).isEqualTo("Ipsum");
+  }
+
   @Test
   void addToNullKeyStream() {
     KeyedStream<Boolean, String> keyedStream = new KeyedStream<>();
@@ -0,0 +1,138 @@
+package com.asml.apa.wta.core.supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.dto.CgroupDto;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+class CgroupSupplierTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  private Path write(Path directory, String file, String contents) throws IOException {
+    Files.createDirectories(directory);
+    return Files.writeString(directory.resolve(file), contents);
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void readsTheUnifiedHierarchy() throws IOException {
+    Path membership = write(tempDirectory, "cgroup", "0::/kubepods/pod1/executor\n");
+    Path root = tempDirectory.resolve("sys");
+    write(root, "cgroup.controllers", "cpu io memory\n");
+    Path cgroup = root.resolve("kubepods/pod1/executor");
+    write(
+        cgroup,
+        "cpu.stat",
+        "usage_usec 9000\nuser_usec 6000\nsystem_usec 3000\nnr_periods 40\nnr_throttled 4\n"
+            + "throttled_usec 1200\nnr_bursts 0\nburst_usec 0\n");
+    write(cgroup, "cpu.max", "150000 100000\n");
+    write(cgroup, "memory.current", "1073741824\n");
+    write(cgroup, "memory.max", "4294967296\n");
+    write(
+        cgroup,
+        "io.stat",
+        "8:0 rbytes=1000 wbytes=2000 rios=10 wios=20 dbytes=0 dios=0\n"
+            + "8:16 rbytes=500 wbytes=0 rios=5 wios=0 dbytes=0 dios=0\n");
+    write(cgroup, "cpu.pressure", "some avg10=1.50 avg60=0.80 avg300=0.10 total=12345\n");
+    write(
+        cgroup,
+        "memory.pressure",
+        "some avg10=0.25 avg60=0.00 avg300=0.00 total=1\nfull avg10=0.10 avg60=0.00 avg300=0.00 total=1\n");
+
+    try (CgroupSupplier sut = new CgroupSupplier(membership, root)) {
+      assertThat(sut.isAvailable()).isTrue();
+      CgroupDto result = sut.getSnapshot().join().get();
+      assertThat(result)
+          .isEqualTo(CgroupDto.builder()
+              .version(2)
+              .cpuUsageMicros(9000L)
+              .cpuUserMicros(6000L)
+              .cpuSystemMicros(3000L)
+              .cpuPeriods(40L)
+              .cpuThrottledPeriods(4L)
+              .cpuThrottledMicros(1200L)
+              .cpuLimit(1.5)
+              .memoryCurrent(1073741824L)
+              .memoryMax(4294967296L)
+              .ioReadBytes(1500L)
+              .ioWrittenBytes(2000L)
+              .ioReadOperations(15L)
+              .ioWriteOperations(20L)
+              .cpuPressureSome(1.5)
+              .memoryPressureSome(0.25)
+              .memoryPressureFull(0.1)
+              .build());
+
+      write(cgroup, "cpu.max", "max 100000\n");
+      write(cgroup, "memory.max", "max\n");
+      result = sut.getSnapshot().join().get();
+      assertThat(result.getCpuLimit()).isEqualTo(-1.0);
+      assertThat(result.getMemoryMax()).isEqualTo(-1L);
+    }
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void readsTheV1ControllersAndFallsBackToTheMountRoot() throws IOException {
+    Path membership = write(
+        tempDirectory,
+        "cgroup",
+        "12:blkio:/docker/abc\n4:memory:/docker/abc\n3:cpu,cpuacct:/docker/abc\n1:name=systemd:/docker/abc\n");
+    Path root = tempDirectory.resolve("sys");
+    Path cpu = root.resolve("cpu,cpuacct");
+    write(cpu, "cpu.stat", "nr_periods 40\nnr_throttled 4\nthrottled_time 1200000\n");
+    write(cpu, "cpu.cfs_quota_us", "200000\n");
+    write(cpu, "cpu.cfs_period_us", "100000\n");
+    write(cpu, "cpuacct.usage", "9000000\n");
+    write(cpu, "cpuacct.stat", "user 60\nsystem 30\n");
+    Path memory = root.resolve("memory/docker/abc");
+    write(memory, "memory.usage_in_bytes", "1073741824\n");
+    write(memory, "memory.limit_in_bytes", "9223372036854771712\n");
+    Path blkio = root.resolve("blkio/docker/abc");
+    write(
+        blkio,
+        "blkio.throttle.io_service_bytes",
+        "8:0 Read 1000\n8:0 Write 2000\n8:0 Sync 3000\n8:0 Async 0\n8:0 Total 3000\nTotal 3000\n");
+    write(blkio, "blkio.throttle.io_serviced", "8:0 Read 10\n8:0 Write 20\n8:0 Total 30\nTotal 30\n");
+
+    try (CgroupSupplier sut = new CgroupSupplier(membership, root)) {
+      assertThat(sut.isAvailable()).isTrue();
+      assertThat(sut.getSnapshot().join().get())
+          .isEqualTo(CgroupDto.builder()
+              .version(1)
+              .cpuUsageMicros(9000L)
+              .cpuUserMicros(600000L)
+              .cpuSystemMicros(300000L)
+              .cpuPeriods(40L)
+              .cpuThrottledPeriods(4L)
+              .cpuThrottledMicros(1200L)
+              .cpuLimit(2.0)
+              .memoryCurrent(1073741824L)
+              .memoryMax(-1L)
+              .ioReadBytes(1000L)
+              .ioWrittenBytes(2000L)
+              .ioReadOperations(10L)
+              .ioWriteOperations(20L)
+              .build());
+
+      write(cpu, "cpu.cfs_quota_us", "-1\n");
+      assertThat(sut.getSnapshot().join().get().getCpuLimit()).isEqualTo(-1.0);
+    }
+  }
+
+  @Test
+  void missingCgroupIsNotAvailable() {
+    try (CgroupSupplier sut = new CgroupSupplier(tempDirectory.resolve("cgroup"), tempDirectory.resolve("sys"))) {
+      assertThat(sut.isAvailable()).isFalse();
+      assertThat(sut.getSnapshot().join()).isEmpty();
+    }
+  }
+}
@@ -1,16 +1,22 @@
 package com.asml.apa.wta.core.supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.asml.apa.wta.core.dto.DstatDto;
 import com.asml.apa.wta.core.util.ShellRunner;
+import com.asml.apa.wta.core.util.StreamingShellCommand;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -111,4 +117,40 @@ class DstatSupplierTest {
 
     assertEquals(Optional.empty(), actual);
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void collectorServesTheLatestSample() {
+    ShellRunner shellRunner = mock(ShellRunner.class);
+    StreamingShellCommand collector = mock(StreamingShellCommand.class);
+    ArgumentCaptor<Consumer<String>> lineConsumer = ArgumentCaptor.forClass(Consumer.class);
+    boolean isLinux = System.getProperty("os.name").toLowerCase().contains("linux");
+    if (isLinux) {
+      when(shellRunner.executeCommand("dstat -cdngy 1 1", true))
+          .thenReturn(CompletableFuture.completedFuture("output"));
+      when(shellRunner.streamCommand(eq("dstat -cdngy --noupdate 2"), lineConsumer.capture()))
+          .thenReturn(collector);
+      when(collector.ensureRunning()).thenReturn(true);
+    }
+    DstatSupplier sut = new DstatSupplier(shellRunner, 2);
+    if (!isLinux) {
+      assertEquals(Optional.empty(), sut.getSnapshot().join());
+      return;
+    }
+
+    assertEquals(Optional.empty(), sut.getSnapshot().join());
+    lineConsumer.getValue().accept("----total-usage---- -dsk/total- -net/total- ---paging-- ---system--");
+    lineConsumer.getValue().accept("usr sys idl wai stl| read  writ| recv  send|  in   out | int   csw");
+    lineConsumer.getValue().accept("  1   2  97   0   0|   0     0 |   10B     0 |   0B     0B | 516   2116");
+    lineConsumer.getValue().accept("  3   1  96   0   0|   0    4k |   20B     0 |   0B     0B | 600   3000");
+
+    DstatDto actual = sut.getSnapshot().join().get();
+    assertEquals(3L, actual.getTotalUsageUsr());
+    assertEquals(4000L, actual.getDskWrite());
+    assertEquals(3000L, actual.getSystemCsw());
+    verify(shellRunner, never()).executeCommand("dstat -cdngy 1 1", false);
+
+    sut.close();
+    verify(collector).close();
+  }
 }
@@ -0,0 +1,86 @@
+package com.asml.apa.wta.core.supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.asml.apa.wta.core.util.ShellRunner;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+class EnergySupplierTest {
+
+  private static final String PERF_LIST = "perf list | grep -w 'power/energy-pkg/' | awk '{print $1}'";
+
+  @TempDir
+  public Path powercapRoot;
+
+  private final ShellRunner shellRunner = mock(ShellRunner.class);
+
+  private final AtomicLong clock = new AtomicLong(0L);
+
+  private void writeZone(String zone, long energy, long maxEnergyRange) throws IOException {
+    Path directory = Files.createDirectories(powercapRoot.resolve(zone));
+    Files.writeString(directory.resolve("energy_uj"), energy + "\n");
+    Files.writeString(directory.resolve("max_energy_range_uj"), maxEnergyRange + "\n");
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void computesPowerOfAllPackagesBetweenSnapshots() throws IOException {
+    writeZone("intel-rapl:0", 1_000_000L, 262_143_328_850L);
+    writeZone("intel-rapl:0:0", 500_000L, 262_143_328_850L);
+    writeZone("intel-rapl:1", 2_000_000L, 262_143_328_850L);
+    Files.createDirectories(powercapRoot.resolve("intel-rapl"));
+    EnergySupplier sut = new EnergySupplier(powercapRoot, shellRunner, clock::get);
+
+    assertThat(sut.isAvailable()).isTrue();
+    assertThat(sut.getSnapshot().join()).isEmpty();
+
+    writeZone("intel-rapl:0", 21_000_000L, 262_143_328_850L);
+    writeZone("intel-rapl:0:0", 99_000_000L, 262_143_328_850L);
+    writeZone("intel-rapl:1", 42_000_000L, 262_143_328_850L);
+    clock.set(2_000_000_000L);
+
+    assertThat(sut.getSnapshot().join().get().getWatt()).isEqualTo(30.0);
+    verifyNoInteractions(shellRunner);
+    sut.close();
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void handlesCounterWraparound() throws IOException {
+    writeZone("intel-rapl:0", 900L, 1_000L);
+    EnergySupplier sut = new EnergySupplier(powercapRoot, shellRunner, clock::get);
+    sut.getSnapshot().join();
+
+    writeZone("intel-rapl:0", 100L, 1_000L);
+    clock.set(1_000_000L);
+
+    assertThat(sut.getSnapshot().join().get().getWatt()).isEqualTo(0.2);
+    sut.close();
+  }
+
+  @Test
+  void fallsBackToPerfWithoutReadableCounters() {
+    when(shellRunner.executeCommand(PERF_LIST, true)).thenReturn(CompletableFuture.completedFuture(""));
+    EnergySupplier sut = new EnergySupplier(powercapRoot.resolve("missing"), shellRunner, clock::get);
+
+    assertThat(sut.isAvailable()).isFalse();
+    assertThat(sut.getSnapshot().join()).isEmpty();
+    if (System.getProperty("os.name").toLowerCase().contains("linux")) {
+      verify(shellRunner, atLeastOnce()).executeCommand(PERF_LIST, true);
+    }
+    sut.close();
+  }
+}
@@ -1,14 +1,21 @@
 package com.asml.apa.wta.core.supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import com.asml.apa.wta.core.dto.IostatDto;
 import com.asml.apa.wta.core.util.ShellRunner;
+import com.asml.apa.wta.core.util.StreamingShellCommand;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 class IostatSupplierTest {
@@ -53,6 +60,39 @@ class IostatSupplierTest {
     }
   }
 
+  @Test
+  public void getSnapshotOnlyCountsPhysicalDisks() {
+    doReturn(
+            CompletableFuture.completedFuture(
+                "Linux 5.15.0-86-generic (host) \t10/19/2026 \t_x86_64_\t(8 CPU)\n\n"
+                    + "Device             tps    kB_read/s    kB_wrtn/s    kB_dscd/s    kB_read    kB_wrtn    kB_dscd\n"
+                    + "loop0             0.01         0.10         0.00         0.00         10          0          0\n"
+                    + "nvme0n1           2.00         3.00         4.00         0.00        300        400          0\n"
+                    + "nvme0n1p1         2.00         3.00         4.00         0.00        300        400          0\n"
+                    + "sda               1.00         1.00         1.00         1.00        100        100        100\n"
+                    + "sda1              1.00         1.00         1.00         1.00        100        100        100\n\n"))
+        .when(shellRunner)
+        .executeCommand("iostat -d", false);
+
+    IostatDto expected = IostatDto.builder()
+        .tps(3.0)
+        .kiloByteReadPerSec(4.0)
+        .kiloByteWrtnPerSec(5.0)
+        .kiloByteDscdPerSec(1.0)
+        .kiloByteRead(400.0)
+        .kiloByteWrtn(500.0)
+        .kiloByteDscd(100.0)
+        .build();
+
+    Optional<IostatDto> result = sut.getSnapshot().join();
+
+    if (sut.isAvailable()) {
+      assertEquals(expected, result.get());
+    } else {
+      assertEquals(Optional.empty(), result);
+    }
+  }
+
   @Test
   public void aggregateIostatWorksCorrectlyWithZeroRows() {
     doReturn(CompletableFuture.completedFuture("")).when(shellRunner).executeCommand("iostat -d", false);
@@ -88,6 +128,49 @@ class IostatSupplierTest {
     }
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void collectorServesTheLatestCompleteReport() {
+    StreamingShellCommand collector = mock(StreamingShellCommand.class);
+    ArgumentCaptor<Consumer<String>> lineConsumer = ArgumentCaptor.forClass(Consumer.class);
+    doReturn(collector).when(shellRunner).streamCommand(eq("iostat -d 1"), lineConsumer.capture());
+    doReturn(true).when(collector).ensureRunning();
+    IostatSupplier collecting = new IostatSupplier(shellRunner, 1);
+    if (!collecting.isAvailable()) {
+      assertEquals(Optional.empty(), collecting.getSnapshot().join());
+      return;
+    }
+
+    assertEquals(Optional.empty(), collecting.getSnapshot().join());
+    lineConsumer.getValue().accept("Linux 5.15.0-86-generic (host) \t10/19/2026 \t_x86_64_\t(8 CPU)");
+    lineConsumer.getValue().accept("");
+    lineConsumer
+        .getValue()
+        .accept(
+            "Device             tps    kB_read/s    kB_wrtn/s    kB_dscd/s    kB_read    kB_wrtn    kB_dscd");
+    lineConsumer
+        .getValue()
+        .accept(
+            "sda               1.00         2.00         3.00         4.00          5          6          7");
+    lineConsumer.getValue().accept("");
+    lineConsumer
+        .getValue()
+        .accept(
+            "Device             tps    kB_read/s    kB_wrtn/s    kB_dscd/s    kB_read    kB_wrtn    kB_dscd");
+    lineConsumer
+        .getValue()
+        .accept(
+            "sda               9.00         2.00         3.00         4.00          5          6          7");
+
+    assertEquals(1.0, collecting.getSnapshot().join().get().getTps());
+    lineConsumer.getValue().accept("");
+    assertEquals(9.0, collecting.getSnapshot().join().get().getTps());
+    verify(shellRunner, never()).executeCommand("iostat -d", false);
+
+    collecting.close();
+    verify(collector).close();
+  }
+
   public void getSnapshotDifferentOutputReturnsEmptyIostatDto() {
     doReturn(CompletableFuture.completedFuture(
             "Device           kB_read/s    kB_wrtn/s    kB_dscd/s    kB_read    kB_wrtn    kB_dscd\n"
@@ -0,0 +1,40 @@
+package com.asml.apa.wta.core.supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures the overhead of a snapshot of the {@link JvmRuntimeSupplier}, and logs its mean latency. This is not
+ * part of the test suite, run it through its main method.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public final class JvmRuntimeSupplierBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 1000;
+
+  private static final int ITERATIONS = 10000;
+
+  private JvmRuntimeSupplierBenchmark() {}
+
+  /**
+   * Takes snapshots of the JVM runtime, and logs their mean latency.
+   *
+   * @param args          unused
+   * @since 1.0.0
+   */
+  public static void main(String[] args) {
+    try (JvmRuntimeSupplier supplier = new JvmRuntimeSupplier()) {
+      for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+        supplier.getSnapshot().join();
+      }
+      long start = System.nanoTime();
+      for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+        supplier.getSnapshot().join();
+      }
+      long averageNanos = (System.nanoTime() - start) / ITERATIONS;
+      log.info("JVM runtime supplier: {} ns per snapshot, over {} snapshots.", averageNanos, ITERATIONS);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.asml.apa.wta.core.supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class JvmRuntimeSupplierIntegrationTest {
+
+  @Test
+  void countsPausesFromCollectorNotifications() {
+    try (JvmRuntimeSupplier sut = new JvmRuntimeSupplier()) {
+      sut.getSnapshot().join();
+      byte[][] garbage = new byte[16][];
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+      long pauses = 0L;
+      for (int allocation = 0; pauses == 0L && System.nanoTime() < deadline; allocation++) {
+        garbage[allocation % garbage.length] = new byte[1 << 20];
+        if (allocation % 64 == 0) {
+          pauses += sut.getSnapshot().join().get().getGcPauses();
+        }
+      }
+      assertThat(garbage).isNotEmpty();
+      assertThat(pauses).isPositive();
+      sut.close();
+      assertThat(sut.getSnapshot().join().get().getGcPauses()).isEqualTo(-1L);
+    }
+  }
+}
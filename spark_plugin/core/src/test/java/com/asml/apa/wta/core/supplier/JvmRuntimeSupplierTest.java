@@ -0,0 +1,80 @@
+package com.asml.apa.wta.core.supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.asml.apa.wta.core.dto.JvmRuntimeDto;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class JvmRuntimeSupplierTest {
+
+  private final AtomicLong clock = new AtomicLong(0L);
+
+  private static byte[] garbage;
+
+  @Test
+  void readsHeapAndAllocationOfTheRunningJvm() {
+    JvmRuntimeSupplier sut = new JvmRuntimeSupplier(
+        ManagementFactory.getMemoryMXBean(),
+        ManagementFactory.getMemoryPoolMXBeans(),
+        ManagementFactory.getGarbageCollectorMXBeans(),
+        ManagementFactory.getThreadMXBean(),
+        clock::get);
+    assertThat(sut.isAvailable()).isTrue();
+
+    JvmRuntimeDto first = sut.getSnapshot().join().get();
+    assertThat(first.getAllocatedBytesPerSecond()).isEqualTo(-1.0);
+    assertThat(first.getGcCycles()).isEqualTo(-1L);
+    assertThat(first.getHeapUsed()).isPositive();
+    assertThat(first.getHeapCommitted()).isGreaterThanOrEqualTo(first.getHeapUsed());
+    assertThat(first.getThreads()).isPositive();
+    assertThat(first.getMemoryPools()).anyMatch(pool -> pool.isHeap() && pool.getUsed() >= 0);
+    assertThat(first.getMemoryPools()).anyMatch(pool -> !pool.isHeap());
+
+    garbage = new byte[16 * 1024 * 1024];
+    clock.set(1_000_000_000L);
+    JvmRuntimeDto second = sut.getSnapshot().join().get();
+    assertThat(second.getAllocatedBytesPerSecond()).isGreaterThanOrEqualTo(garbage.length);
+    assertThat(second.getGcCycles()).isGreaterThanOrEqualTo(0L);
+    sut.close();
+  }
+
+  @Test
+  void pollsCollectionsOfCollectorsWithoutNotifications() {
+    GarbageCollectorMXBean collector = mock(GarbageCollectorMXBean.class);
+    when(collector.getCollectionCount()).thenReturn(3L, 5L);
+    when(collector.getCollectionTime()).thenReturn(40L, 70L);
+    JvmRuntimeSupplier sut = new JvmRuntimeSupplier(
+        ManagementFactory.getMemoryMXBean(),
+        List.<MemoryPoolMXBean>of(),
+        List.of(collector),
+        ManagementFactory.getThreadMXBean(),
+        clock::get);
+
+    sut.getSnapshot().join();
+    clock.set(1_000_000_000L);
+    JvmRuntimeDto result = sut.getSnapshot().join().get();
+    assertThat(result.getGcCycles()).isEqualTo(2L);
+    assertThat(result.getGcCycleMillis()).isEqualTo(30.0);
+    assertThat(result.getGcPauses()).isEqualTo(-1L);
+    assertThat(result.getMemoryPools()).isEmpty();
+  }
+
+  @Test
+  void concurrentCyclesAreNotPauses() {
+    assertThat(JvmRuntimeSupplier.isPause("G1 Young Generation", "end of minor GC"))
+        .isTrue();
+    assertThat(JvmRuntimeSupplier.isPause("G1 Old Generation", "end of major GC"))
+        .isTrue();
+    assertThat(JvmRuntimeSupplier.isPause("ZGC Pauses", "end of GC pause")).isTrue();
+    assertThat(JvmRuntimeSupplier.isPause("ZGC Cycles", "end of GC cycle")).isFalse();
+    assertThat(JvmRuntimeSupplier.isPause("Shenandoah Cycles", "end of GC cycle"))
+        .isFalse();
+  }
+}
@@ -0,0 +1,60 @@
+package com.asml.apa.wta.core.supplier;
+
+import com.asml.apa.wta.core.util.ShellRunner;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the latency of a snapshot of the {@link ProcSupplier}, which reads the Proc files directly, with
+ * reading the same files through a forked {@code cat}, and logs the mean latency of both. This is not part of
+ * the test suite, run it through its main method on a Linux machine.
+ *
+ * @author Atour Mousavi Gourabi
+ * @since 1.0.0
+ */
+@Slf4j
+public final class ProcSupplierBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 100;
+
+  private static final int ITERATIONS = 1000;
+
+  private static final String SHELL_COMMAND =
+      "cat /proc/meminfo /proc/diskstats /proc/net/dev /proc/loadavg /proc/cpuinfo";
+
+  private ProcSupplierBenchmark() {}
+
+  /**
+   * Takes snapshots through both paths, and logs their mean latency.
+   *
+   * @param args          unused
+   * @since 1.0.0
+   */
+  public static void main(String[] args) {
+    try (ProcSupplier supplier = new ProcSupplier()) {
+      if (!supplier.isAvailable()) {
+        log.error("The Proc file system is not available on this machine.");
+        return;
+      }
+      ShellRunner shellRunner = new ShellRunner();
+      for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+        supplier.getSnapshot().join();
+        shellRunner.executeCommand(SHELL_COMMAND, true).join();
+      }
+      long start = System.nanoTime();
+      for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+        supplier.getSnapshot().join();
+      }
+      long readerNanos = (System.nanoTime() - start) / ITERATIONS;
+      start = System.nanoTime();
+      for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+        shellRunner.executeCommand(SHELL_COMMAND, true).join();
+      }
+      long shellNanos = (System.nanoTime() - start) / ITERATIONS;
+      log.info(
+          "Proc reader: {} us per snapshot, shell: {} us per snapshot, over {} snapshots.",
+          readerNanos / 1000,
+          shellNanos / 1000,
+          ITERATIONS);
+    }
+  }
+}
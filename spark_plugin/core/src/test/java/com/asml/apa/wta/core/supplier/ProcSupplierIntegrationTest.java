@@ -3,7 +3,6 @@ package com.asml.apa.wta.core.supplier;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.asml.apa.wta.core.dto.ProcDto;
-import com.asml.apa.wta.core.util.ShellRunner;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
@@ -13,7 +12,7 @@ class ProcSupplierIntegrationTest {
   @Test
   @Timeout(value = 10000L, unit = TimeUnit.MILLISECONDS)
   public void procSuccessfullyReturnsDtoObject() {
-    ProcSupplier a = new ProcSupplier(new ShellRunner());
+    ProcSupplier a = new ProcSupplier();
     Optional<ProcDto> actual = a.getSnapshot().join();
     if (a.isAvailable()) {
       assertThat(actual).isPresent();
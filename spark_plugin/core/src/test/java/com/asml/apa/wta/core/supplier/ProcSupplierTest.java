@@ -1,57 +1,108 @@
 package com.asml.apa.wta.core.supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.doReturn;
 
+import com.asml.apa.wta.core.dto.DiskDeviceDto;
+import com.asml.apa.wta.core.dto.NetworkInterfaceDto;
 import com.asml.apa.wta.core.dto.ProcDto;
-import com.asml.apa.wta.core.util.ShellRunner;
-import java.util.concurrent.CompletableFuture;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
 
 class ProcSupplierTest {
 
-  @Test
-  void getSnapshotReturnsProcDto() {
-    ShellRunner shellRunner = Mockito.mock(ShellRunner.class);
-    doReturn(CompletableFuture.completedFuture("8       0 sda 1114 437 141266 153\n"
-            + "8      16 sdb 103 0 4712 174\n" + "8      32 sdc 77636 10312 5307586 5345"))
-        .when(shellRunner)
-        .executeCommand("cat /proc/diskstats", false);
-    doReturn(CompletableFuture.completedFuture("8       0 sda 1114 437 141266 153\n"
-            + "8      16 sdb 103 0 4712 174\n" + "8      32 sdc 77636 10312 5307586 5345"))
-        .when(shellRunner)
-        .executeCommand("cat /proc/diskstats", true);
-
-    doReturn(CompletableFuture.completedFuture("MemTotal:       10118252 kB\n" + "MemFree:         1921196 kB\n"
-            + "MemAvailable:    5470300 kB\n"
-            + "Buffers:          239068 kB\n"))
-        .when(shellRunner)
-        .executeCommand("cat /proc/meminfo", false);
+  private static final Map<String, ToLongFunction<ProcDto>> MEM_INFO_FIELDS = Map.ofEntries(
+      Map.entry("MemTotal", ProcDto::getMemTotal),
+      Map.entry("MemFree", ProcDto::getMemFree),
+      Map.entry("MemAvailable", ProcDto::getMemAvailable),
+      Map.entry("Buffers", ProcDto::getBuffers),
+      Map.entry("Cached", ProcDto::getCached),
+      Map.entry("SwapCached", ProcDto::getSwapCached),
+      Map.entry("Active", ProcDto::getActive),
+      Map.entry("Inactive", ProcDto::getInactive),
+      Map.entry("Active(anon)", ProcDto::getActiveAnon),
+      Map.entry("Inactive(anon)", ProcDto::getInactiveAnon),
+      Map.entry("Active(file)", ProcDto::getActiveFile),
+      Map.entry("Inactive(file)", ProcDto::getInactiveFile),
+      Map.entry("Unevictable", ProcDto::getUnevictable),
+      Map.entry("Mlocked", ProcDto::getMLocked),
+      Map.entry("SwapTotal", ProcDto::getSwapTotal),
+      Map.entry("SwapFree", ProcDto::getSwapFree),
+      Map.entry("Dirty", ProcDto::getDirty),
+      Map.entry("Writeback", ProcDto::getWriteback),
+      Map.entry("AnonPages", ProcDto::getAnonPages),
+      Map.entry("Mapped", ProcDto::getMapped),
+      Map.entry("Shmem", ProcDto::getShmem),
+      Map.entry("KReclaimable", ProcDto::getKReclaimable),
+      Map.entry("Slab", ProcDto::getSlab),
+      Map.entry("SReclaimable", ProcDto::getSReclaimable),
+      Map.entry("SUnreclaim", ProcDto::getSUnreclaim),
+      Map.entry("KernelStack", ProcDto::getKernelStack),
+      Map.entry("PageTables", ProcDto::getPageTables),
+      Map.entry("NFS_Unstable", ProcDto::getNfsUnstable),
+      Map.entry("Bounce", ProcDto::getBounce),
+      Map.entry("WritebackTmp", ProcDto::getWritebackTmp),
+      Map.entry("CommitLimit", ProcDto::getCommitLimit),
+      Map.entry("Committed_AS", ProcDto::getCommittedAs),
+      Map.entry("VmallocTotal", ProcDto::getVMallocTotal),
+      Map.entry("VmallocUsed", ProcDto::getVMallocUsed),
+      Map.entry("VmallocChunk", ProcDto::getVMallocChunk),
+      Map.entry("Percpu", ProcDto::getPercpu),
+      Map.entry("AnonHugePages", ProcDto::getAnonHugePages),
+      Map.entry("ShmemHugePages", ProcDto::getShmemHugePages),
+      Map.entry("ShmemPmdMapped", ProcDto::getShmemPmdMapped),
+      Map.entry("FileHugePages", ProcDto::getFileHugePages),
+      Map.entry("FilePmdMapped", ProcDto::getFilePmdMapped),
+      Map.entry("HugePages_Total", ProcDto::getHugePagesTotal),
+      Map.entry("HugePages_Free", ProcDto::getHugePagesFree),
+      Map.entry("HugePages_Rsvd", ProcDto::getHugePagesRsvd),
+      Map.entry("HugePages_Surp", ProcDto::getHugePagesSurp),
+      Map.entry("Hugepagesize", ProcDto::getHugePageSize),
+      Map.entry("Hugetlb", ProcDto::getHugetlb),
+      Map.entry("DirectMap4k", ProcDto::getDirectMap4k),
+      Map.entry("DirectMap2M", ProcDto::getDirectMap2M),
+      Map.entry("DirectMap1G", ProcDto::getDirectMap1G));
+
+  @TempDir
+  public Path procRoot;
 
-    doReturn(CompletableFuture.completedFuture("MemTotal:       10118252 kB\n" + "MemFree:         1921196 kB\n"
+  private void writeProcFiles() throws IOException {
+    Files.writeString(
+        procRoot.resolve("diskstats"),
+        "   8       0 sda 1114 437 141266 153\n" + "   8      16 sdb 103 0 4712 174\n"
+            + "   8      32 sdc 77636 10312 5307586 5345\n");
+    Files.writeString(
+        procRoot.resolve("meminfo"),
+        "MemTotal:       10118252 kB\n" + "MemFree:         1921196 kB\n"
             + "MemAvailable:    5470300 kB\n"
-            + "Buffers:          239068 kB\n"))
-        .when(shellRunner)
-        .executeCommand("cat /proc/meminfo", true);
-
-    doReturn(CompletableFuture.completedFuture("Intel(R) Core(TM) i7-10750H CPU @ 2.60GHz"))
-        .when(shellRunner)
-        .executeCommand(
-            "grep -m 1 \"model name\" /proc/cpuinfo | awk -F: '{print $2}' | sed 's/^[ \\t]*//'", false);
-
-    doReturn(CompletableFuture.completedFuture("Intel(R) Core(TM) i7-10750H CPU @ 2.60GHz"))
-        .when(shellRunner)
-        .executeCommand(
-            "grep -m 1 \"model name\" /proc/cpuinfo | awk -F: '{print $2}' | sed 's/^[ \\t]*//'", true);
-
-    doReturn(CompletableFuture.completedFuture("0,62 1.23 1.02 1/479 278339"))
-        .when(shellRunner)
-        .executeCommand("cat /proc/loadavg", false);
-    doReturn(CompletableFuture.completedFuture("0,62 1.23 1.02 1/479 278339"))
-        .when(shellRunner)
-        .executeCommand("cat /proc/loadavg", true);
-    ProcSupplier sut = new ProcSupplier(shellRunner);
+            + "Buffers:          239068 kB\n");
+    Files.writeString(
+        procRoot.resolve("cpuinfo"),
+        "processor\t: 0\n" + "vendor_id\t: GenuineIntel\n"
+            + "model name\t: Intel(R) Core(TM) i7-10750H CPU @ 2.60GHz\n"
+            + "processor\t: 1\n"
+            + "model name\t: Something Else\n");
+    Files.writeString(procRoot.resolve("loadavg"), "0,62 1.23 1.02 1/479 278339\n");
+  }
+
+  @Test
+  void getSnapshotReturnsProcDto() throws IOException {
+    writeProcFiles();
+    ProcSupplier sut = new ProcSupplier(procRoot);
     sut.setProcAvailable(true);
 
     ProcDto expected = ProcDto.builder()
@@ -73,63 +124,195 @@ class ProcSupplierTest {
         .build();
 
     assertEquals(expected, sut.getSnapshot().join().get());
+    sut.close();
+  }
+
+  @Test
+  void getSnapshotRereadsOpenFiles() throws IOException {
+    writeProcFiles();
+    ProcSupplier sut = new ProcSupplier(procRoot);
+    sut.setProcAvailable(true);
+    assertEquals(10118252L, sut.getSnapshot().join().get().getMemTotal());
+
+    Files.writeString(procRoot.resolve("meminfo"), "MemTotal:       42 kB\n");
+    Files.writeString(procRoot.resolve("cpuinfo"), "model name\t: Changed\n");
+    ProcDto actual = sut.getSnapshot().join().get();
+
+    assertEquals(42L, actual.getMemTotal());
+    assertEquals(-1L, actual.getMemFree());
+    assertEquals("Intel(R) Core(TM) i7-10750H CPU @ 2.60GHz", actual.getCpuModel());
+    sut.close();
+  }
+
+  @Test
+  void partitionsAndVirtualDisksAreNotCounted() throws IOException {
+    Files.writeString(
+        procRoot.resolve("diskstats"),
+        "   7       0 loop0 50 0 800 3 0 0 0 0 0 4 3\n" + "   8       0 sda 100 0 1000 10 20 0 400 5 0 30 15\n"
+            + "   8       1 sda1 90 0 900 9 20 0 400 5 0 28 14\n"
+            + " 259       0 nvme0n1 10 0 100 1 2 0 40 1 0 3 2\n"
+            + " 259       1 nvme0n1p1 10 0 100 1 2 0 40 1 0 3 2\n"
+            + " 253       0 dm-0 100 0 1000 10 20 0 400 5 0 30 15\n");
+    ProcSupplier sut = new ProcSupplier(procRoot);
+    sut.setProcAvailable(true);
+
+    ProcDto actual = sut.getSnapshot().join().get();
+
+    assertEquals(110L, actual.getReadsCompleted());
+    assertEquals(1100L, actual.getSectorsRead());
+    assertEquals(440L, actual.getSectorsWritten());
+    assertEquals(-1L, actual.getDiscardsCompleted());
+    assertEquals(-1.0, actual.getDiskReadBytesPerSecond());
+    assertEquals(List.of(), actual.getDiskDevices());
+    sut.close();
   }
 
   @Test
-  void emptyOutputReturnEmptyProcDto() {
-    ShellRunner shellRunner = Mockito.mock(ShellRunner.class);
-    doReturn(CompletableFuture.completedFuture("")).when(shellRunner).executeCommand("cat /proc/diskstats", false);
-    doReturn(CompletableFuture.completedFuture("")).when(shellRunner).executeCommand("cat /proc/diskstats", true);
-
-    doReturn(CompletableFuture.completedFuture("")).when(shellRunner).executeCommand("cat /proc/meminfo", false);
-    doReturn(CompletableFuture.completedFuture("")).when(shellRunner).executeCommand("cat /proc/meminfo", true);
-
-    doReturn(CompletableFuture.completedFuture(""))
-        .when(shellRunner)
-        .executeCommand(
-            "grep -m 1 \"model name\" /proc/cpuinfo | awk -F: '{print $2}' | sed 's/^[ \\t]*//'", false);
-    doReturn(CompletableFuture.completedFuture(""))
-        .when(shellRunner)
-        .executeCommand(
-            "grep -m 1 \"model name\" /proc/cpuinfo | awk -F: '{print $2}' | sed 's/^[ \\t]*//'", true);
-
-    doReturn(CompletableFuture.completedFuture("")).when(shellRunner).executeCommand("cat /proc/loadavg", false);
-    doReturn(CompletableFuture.completedFuture("")).when(shellRunner).executeCommand("cat /proc/loadavg", true);
-    ProcSupplier sut = new ProcSupplier(shellRunner);
+  void ratesAreComputedPerDeviceBetweenSnapshots() throws IOException {
+    Files.writeString(
+        procRoot.resolve("diskstats"),
+        "   8       0 sda 100 0 1000 10 20 0 400 5 0 30 15\n"
+            + "   8       1 sda1 100 0 1000 10 20 0 400 5 0 30 15\n");
+    Files.createDirectory(procRoot.resolve("net"));
+    Files.writeString(
+        procRoot.resolve("net").resolve("dev"),
+        "Inter-|   Receive                            |  Transmit\n"
+            + " face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets\n"
+            + "    lo:  5000      50    0    0    0     0          0         0  5000      50\n"
+            + "  eth0:  1000      10    0    0    0     0          0         0  2000      20\n");
+    AtomicLong clock = new AtomicLong(0L);
+    ProcSupplier sut = new ProcSupplier(procRoot, clock::get);
+    sut.setProcAvailable(true);
+    assertEquals(List.of(), sut.getSnapshot().join().get().getNetworkInterfaces());
+
+    Files.writeString(
+        procRoot.resolve("diskstats"),
+        "   8       0 sda 300 0 3000 10 20 0 800 5 0 1030 15\n"
+            + "   8       1 sda1 300 0 3000 10 20 0 800 5 0 1030 15\n"
+            + "   8      16 sdb 1 0 1 1 1 0 1 1 0 1 1\n");
+    Files.writeString(
+        procRoot.resolve("net").resolve("dev"),
+        "Inter-|   Receive                            |  Transmit\n"
+            + " face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets\n"
+            + "  eth0:  5000      14    0    0    0     0          0         0  2000      20\n"
+            + "  eth1:  7000      70    0    0    0     0          0         0  7000      70\n"
+            + "    lo:  9000      90    0    0    0     0          0         0  9000      90\n");
+    clock.set(2_000_000_000L);
+    ProcDto actual = sut.getSnapshot().join().get();
+
+    DiskDeviceDto sda = DiskDeviceDto.builder()
+        .name("sda")
+        .readsPerSecond(100.0)
+        .readBytesPerSecond(512000.0)
+        .writesPerSecond(0.0)
+        .writtenBytesPerSecond(102400.0)
+        .utilization(0.5)
+        .build();
+    NetworkInterfaceDto eth0 = NetworkInterfaceDto.builder()
+        .name("eth0")
+        .receivedBytesPerSecond(2000.0)
+        .receivedPacketsPerSecond(2.0)
+        .transmittedBytesPerSecond(0.0)
+        .transmittedPacketsPerSecond(0.0)
+        .build();
+    assertEquals(List.of(sda), actual.getDiskDevices());
+    assertEquals(512000.0, actual.getDiskReadBytesPerSecond());
+    assertEquals(102400.0, actual.getDiskWrittenBytesPerSecond());
+    assertEquals(100.0, actual.getDiskIosPerSecond());
+    assertEquals(List.of(eth0), actual.getNetworkInterfaces());
+    assertEquals(2000.0, actual.getNetworkReceivedBytesPerSecond());
+    assertEquals(0.0, actual.getNetworkTransmittedBytesPerSecond());
+    sut.close();
+  }
+
+  @Test
+  void emptyOutputReturnEmptyProcDto() throws IOException {
+    Files.writeString(procRoot.resolve("diskstats"), "");
+    Files.writeString(procRoot.resolve("meminfo"), "");
+    Files.writeString(procRoot.resolve("cpuinfo"), "");
+    Files.writeString(procRoot.resolve("loadavg"), "");
+    ProcSupplier sut = new ProcSupplier(procRoot);
     sut.setProcAvailable(true);
 
     ProcDto expected = ProcDto.builder().build();
 
     assertEquals(expected, sut.getSnapshot().join().get());
+    sut.close();
   }
 
   @Test
   void testNoFilesInsideProc() {
-    ShellRunner shellRunner = Mockito.mock(ShellRunner.class);
-    doReturn(CompletableFuture.completedFuture(null))
-        .when(shellRunner)
-        .executeCommand("cat /proc/diskstats", false);
-    doReturn(CompletableFuture.completedFuture(null)).when(shellRunner).executeCommand("cat /proc/diskstats", true);
-
-    doReturn(CompletableFuture.completedFuture(null)).when(shellRunner).executeCommand("cat /proc/meminfo", false);
-    doReturn(CompletableFuture.completedFuture(null)).when(shellRunner).executeCommand("cat /proc/meminfo", true);
-
-    doReturn(CompletableFuture.completedFuture(null))
-        .when(shellRunner)
-        .executeCommand(
-            "grep -m 1 \"model name\" /proc/cpuinfo | awk -F: '{print $2}' | sed 's/^[ \\t]*//'", false);
-    doReturn(CompletableFuture.completedFuture(null))
-        .when(shellRunner)
-        .executeCommand(
-            "grep -m 1 \"model name\" /proc/cpuinfo | awk -F: '{print $2}' | sed 's/^[ \\t]*//'", true);
-
-    doReturn(CompletableFuture.completedFuture(null)).when(shellRunner).executeCommand("cat /proc/loadavg", false);
-    doReturn(CompletableFuture.completedFuture(null)).when(shellRunner).executeCommand("cat /proc/loadavg", true);
-    ProcSupplier sut = new ProcSupplier(shellRunner);
+    ProcSupplier sut = new ProcSupplier(procRoot);
     sut.setProcAvailable(true);
 
     ProcDto expected = ProcDto.builder().build();
 
     assertEquals(expected, sut.getSnapshot().join().get());
+    sut.close();
+  }
+
+  private static Stream<Path> memInfoCorpus() throws IOException, URISyntaxException {
+    return Files.list(Path.of(
+            ProcSupplierTest.class.getResource("/proc/meminfo").toURI()))
+        .sorted();
+  }
+
+  private static Map<String, Long> parseMemInfo(String contents) {
+    Map<String, Long> result = new HashMap<>();
+    for (String line : contents.split("\n")) {
+      int colon = line.indexOf(':');
+      if (colon < 0) {
+        continue;
+      }
+      long value = -1L;
+      for (int i = colon + 1; i < line.length(); i++) {
+        if (Character.isDigit(line.charAt(i))) {
+          value = value < 0 ? 0 : value;
+          value = value * 10 + (line.charAt(i) - '0');
+        } else if (value >= 0) {
+          break;
+        }
+      }
+      result.putIfAbsent(line.substring(0, colon), value);
+    }
+    return result;
+  }
+
+  private void assertMemInfoMatches(String contents) throws IOException {
+    Files.writeString(procRoot.resolve("meminfo"), contents);
+    Map<String, Long> expected = parseMemInfo(contents);
+    try (ProcSupplier sut = new ProcSupplier(procRoot)) {
+      sut.setProcAvailable(true);
+      ProcDto actual = sut.getSnapshot().join().get();
+      MEM_INFO_FIELDS.forEach(
+          (key, getter) -> assertEquals(expected.getOrDefault(key, -1L), getter.applyAsLong(actual), key));
+    }
+  }
+
+  @TestFactory
+  Stream<DynamicTest> memInfoCorpusIsMappedByKey() throws IOException, URISyntaxException {
+    return memInfoCorpus()
+        .map(file -> DynamicTest.dynamicTest(
+            file.getFileName().toString(), () -> assertMemInfoMatches(Files.readString(file))));
+  }
+
+  @TestFactory
+  Stream<DynamicTest> shuffledAndDamagedMemInfoIsMappedByKey() throws IOException, URISyntaxException {
+    return memInfoCorpus()
+        .map(file -> DynamicTest.dynamicTest(file.getFileName().toString(), () -> {
+          Random random = new Random(file.getFileName().toString().hashCode());
+          List<String> lines = Files.readAllLines(file);
+          for (int round = 0; round < 50; round++) {
+            List<String> fuzzed = new ArrayList<>(lines);
+            Collections.shuffle(fuzzed, random);
+            fuzzed.removeIf(line -> random.nextInt(8) == 0);
+            fuzzed.add(
+                random.nextInt(fuzzed.size() + 1),
+                "Unknown_Key(new):   " + random.nextInt(1000) + " kB");
+            fuzzed.add(random.nextInt(fuzzed.size() + 1), "no colon " + random.nextInt(1000));
+            String contents = String.join("\n", fuzzed);
+            assertMemInfoMatches(contents.substring(0, random.nextInt(contents.length() + 1)));
+          }
+        }));
   }
 }
@@ -0,0 +1,106 @@
+package com.asml.apa.wta.core.supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.dto.ProcessDto;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProcessSupplierTest {
+
+  @TempDir
+  public Path processDirectory;
+
+  private final AtomicLong clock = new AtomicLong(0L);
+
+  private static String stat(String command, long userTicks, long systemTicks) {
+    return "4242 (" + command + ") S 1 4242 4242 0 -1 4194560 51234 0 12 0 " + userTicks + " " + systemTicks
+        + " 0 0 20 0 42 0 123456 4096000000 250000 18446744073709551615 1 1 0 0 0 0 0 4096 0 0 0 0 17 3 0 0 0 0 0\n";
+  }
+
+  private void writeProcess(long userTicks, long systemTicks, long readBytes, long switches) throws IOException {
+    Files.writeString(processDirectory.resolve("stat"), stat("java (exec) x", userTicks, systemTicks));
+    Files.writeString(
+        processDirectory.resolve("status"),
+        "Name:\tjava\nState:\tS (sleeping)\nVmPeak:\t 4000100 kB\nVmSize:\t 4000000 kB\nVmRSS:\t  1000000 kB\n"
+            + "Threads:\t2\nvoluntary_ctxt_switches:\t" + switches + "\nnonvoluntary_ctxt_switches:\t10\n");
+    Files.writeString(
+        processDirectory.resolve("io"),
+        "rchar: 99999\nwchar: 88888\nsyscr: 1\nsyscw: 1\nread_bytes: " + readBytes
+            + "\nwrite_bytes: 4096\ncancelled_write_bytes: 0\n");
+  }
+
+  private void writeThread(String tid, long userTicks, long systemTicks) throws IOException {
+    Path thread = Files.createDirectories(processDirectory.resolve("task").resolve(tid));
+    Files.writeString(thread.resolve("stat"), stat("worker", userTicks, systemTicks));
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void computesUsageOfTheProcessBetweenSnapshots() throws IOException {
+    writeProcess(1000L, 500L, 8192L, 100L);
+    writeThread("4242", 100L, 0L);
+    writeThread("4243", 900L, 500L);
+    ProcessSupplier sut = new ProcessSupplier(processDirectory, clock::get);
+    assertThat(sut.isAvailable()).isTrue();
+
+    ProcessDto first = sut.getSnapshot().join().get();
+    assertThat(first.getCpuUserSeconds()).isEqualTo(10.0);
+    assertThat(first.getCpuSystemSeconds()).isEqualTo(5.0);
+    assertThat(first.getResidentMemory()).isEqualTo(1024000000L);
+    assertThat(first.getVirtualMemory()).isEqualTo(4096000000L);
+    assertThat(first.getThreads()).isEqualTo(2);
+    assertThat(first.getReadBytes()).isEqualTo(8192L);
+    assertThat(first.getWrittenBytes()).isEqualTo(4096L);
+    assertThat(first.getCpuUtilization()).isEqualTo(-1.0);
+    assertThat(first.getBusiestThreadCpuUtilization()).isEqualTo(-1.0);
+
+    writeProcess(1300L, 600L, 1008192L, 140L);
+    writeThread("4242", 100L, 0L);
+    writeThread("4243", 1100L, 600L);
+    clock.set(2_000_000_000L);
+
+    ProcessDto second = sut.getSnapshot().join().get();
+    assertThat(second.getCpuUtilization()).isEqualTo(2.0);
+    assertThat(second.getBusiestThreadCpuUtilization()).isEqualTo(1.5);
+    assertThat(second.getReadBytesPerSecond()).isEqualTo(500000.0);
+    assertThat(second.getWrittenBytesPerSecond()).isEqualTo(0.0);
+    assertThat(second.getContextSwitchesPerSecond()).isEqualTo(20.0);
+    sut.close();
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void forgetsThreadsThatExited() throws IOException {
+    writeProcess(1000L, 500L, 0L, 0L);
+    writeThread("4243", 900L, 500L);
+    ProcessSupplier sut = new ProcessSupplier(processDirectory, clock::get);
+    sut.getSnapshot().join();
+
+    Files.delete(processDirectory.resolve("task").resolve("4243").resolve("stat"));
+    Files.delete(processDirectory.resolve("task").resolve("4243"));
+    writeThread("4244", 5000L, 0L);
+    clock.set(1_000_000_000L);
+
+    assertThat(sut.getSnapshot().join().get().getBusiestThreadCpuUtilization())
+        .isEqualTo(-1.0);
+    writeThread("4244", 5050L, 0L);
+    clock.set(2_000_000_000L);
+    assertThat(sut.getSnapshot().join().get().getBusiestThreadCpuUtilization())
+        .isEqualTo(0.5);
+    sut.close();
+  }
+
+  @Test
+  void missingProcessDirectoryIsNotAvailable() {
+    ProcessSupplier sut = new ProcessSupplier(processDirectory.resolve("missing"), clock::get);
+    assertThat(sut.isAvailable()).isFalse();
+    assertThat(sut.getSnapshot().join()).isEmpty();
+  }
+}
@@ -0,0 +1,82 @@
+package com.asml.apa.wta.core.supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.asml.apa.wta.core.dto.BaseSupplierDto;
+import com.asml.apa.wta.core.dto.JvmRuntimeDto;
+import com.asml.apa.wta.core.dto.ProcDto;
+import com.asml.apa.wta.core.dto.ProcessDto;
+import org.junit.jupiter.api.Test;
+
+class SupplierExtractionEngineTest {
+
+  private static final double THRESHOLD = 0.1;
+
+  private static BaseSupplierDto record(double cpuUtilization, double loadAverage, long heapUsed) {
+    return BaseSupplierDto.builder()
+        .processDto(ProcessDto.builder().cpuUtilization(cpuUtilization).build())
+        .procDto(ProcDto.builder().loadAvgOneMinute(loadAverage).build())
+        .jvmRuntimeDto(JvmRuntimeDto.builder().heapUsed(heapUsed).build())
+        .build();
+  }
+
+  @Test
+  void smallFluctuationsAreNotChanges() {
+    assertThat(SupplierExtractionEngine.hasChanged(
+            record(0.02, 1.0, 1000000L), record(0.05, 1.05, 1050000L), THRESHOLD))
+        .isFalse();
+  }
+
+  @Test
+  void changesOfAnyMetricAreDetected() {
+    assertThat(SupplierExtractionEngine.hasChanged(
+            record(0.0, 1.0, 1000000L), record(2.0, 1.0, 1000000L), THRESHOLD))
+        .isTrue();
+    assertThat(SupplierExtractionEngine.hasChanged(
+            record(0.0, 1.0, 1000000L), record(0.0, 3.0, 1000000L), THRESHOLD))
+        .isTrue();
+    assertThat(SupplierExtractionEngine.hasChanged(
+            record(0.0, 1.0, 1000000L), record(0.0, 1.0, 2000000L), THRESHOLD))
+        .isTrue();
+  }
+
+  @Test
+  void changesWithinALargerThresholdAreIgnored() {
+    assertThat(SupplierExtractionEngine.hasChanged(
+            record(1.0, 1.0, 1000000L), record(1.5, 1.0, 1000000L), THRESHOLD))
+        .isTrue();
+    assertThat(SupplierExtractionEngine.hasChanged(record(1.0, 1.0, 1000000L), record(1.5, 1.0, 1000000L), 1.0))
+        .isFalse();
+  }
+
+  @Test
+  void missingMetricsAreNotChanges() {
+    assertThat(SupplierExtractionEngine.hasChanged(
+            BaseSupplierDto.builder().build(), record(2.0, 3.0, 1000000L), THRESHOLD))
+        .isFalse();
+    assertThat(SupplierExtractionEngine.hasChanged(record(-1.0, -1.0, -1L), record(2.0, 3.0, 1000000L), THRESHOLD))
+        .isFalse();
+  }
+
+  @Test
+  void busyEngineKeepsTheMinimumInterval() throws InterruptedException {
+    SupplierExtractionEngine<BaseSupplierDto> sut = new SupplierExtractionEngine<>(20, 1000, false) {
+      @Override
+      protected boolean isBusy() {
+        return true;
+      }
+
+      @Override
+      public BaseSupplierDto transform(BaseSupplierDto record) {
+        return record;
+      }
+    };
+    sut.startPinging();
+    for (int attempt = 0; attempt < 100 && sut.getBuffer().size() < 3; attempt++) {
+      Thread.sleep(50);
+    }
+    sut.stopPinging();
+    assertThat(sut.getBuffer().size()).isGreaterThanOrEqualTo(3);
+    assertThat(sut.getCurrentPingInterval()).isEqualTo(20L);
+  }
+}
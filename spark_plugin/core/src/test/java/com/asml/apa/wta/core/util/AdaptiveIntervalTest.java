@@ -0,0 +1,28 @@
+package com.asml.apa.wta.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveIntervalTest {
+
+  @Test
+  void backsOffWhileIdleAndResetsOnActivity() {
+    AdaptiveInterval sut = new AdaptiveInterval(500L, 3000L);
+    assertThat(sut.isAdaptive()).isTrue();
+    assertThat(sut.getCurrent()).isEqualTo(500L);
+    assertThat(sut.next(false)).isEqualTo(1000L);
+    assertThat(sut.next(false)).isEqualTo(2000L);
+    assertThat(sut.next(false)).isEqualTo(3000L);
+    assertThat(sut.next(false)).isEqualTo(3000L);
+    assertThat(sut.next(true)).isEqualTo(500L);
+  }
+
+  @Test
+  void maximumBelowTheMinimumFixesTheInterval() {
+    AdaptiveInterval sut = new AdaptiveInterval(500L, -1L);
+    assertThat(sut.isAdaptive()).isFalse();
+    assertThat(sut.next(false)).isEqualTo(500L);
+    assertThat(sut.next(true)).isEqualTo(500L);
+  }
+}
@@ -0,0 +1,53 @@
+package com.asml.apa.wta.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.asml.apa.wta.core.stream.Stream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ExternalMergeSortTest {
+
+  @Test
+  void sortEmptyStream() {
+    ExternalMergeSort<Integer> sut = new ExternalMergeSort<Integer>(Comparator.naturalOrder(), 4);
+    assertThat(sut.sort(new Stream<>()).isEmpty()).isTrue();
+  }
+
+  @Test
+  void sortSingleRun() {
+    ExternalMergeSort<Integer> sut = new ExternalMergeSort<Integer>(Comparator.naturalOrder());
+    Stream<Integer> sorted = sut.sort(new Stream<>(List.of(3, 1, 2)));
+    assertThat(sorted.toList()).containsExactly(1, 2, 3);
+  }
+
+  @Test
+  void sortOverManyRuns() {
+    Random random = new Random(7);
+    List<Integer> data = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      data.add(random.nextInt(1000));
+    }
+    ExternalMergeSort<Integer> sut = new ExternalMergeSort<Integer>(Comparator.naturalOrder(), 64);
+    List<Integer> sorted = sut.sort(new Stream<>(data)).toList();
+    data.sort(Comparator.naturalOrder());
+    assertThat(sorted).isEqualTo(data);
+  }
+
+  @Test
+  void sortIsStable() {
+    List<String> data = List.of("b1", "a1", "b2", "a2", "c1", "a3", "b3");
+    ExternalMergeSort<String> sut = new ExternalMergeSort<>(Comparator.comparing(s -> s.charAt(0)), 2);
+    assertThat(sut.sort(new Stream<>(data)).toList()).containsExactly("a1", "a2", "a3", "b1", "b2", "b3", "c1");
+  }
+
+  @Test
+  void nonPositiveRunSize() {
+    assertThatThrownBy(() -> new ExternalMergeSort<Integer>(Comparator.naturalOrder(), 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
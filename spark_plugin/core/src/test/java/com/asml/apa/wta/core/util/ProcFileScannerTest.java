@@ -0,0 +1,145 @@
+package com.asml.apa.wta.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProcFileScannerTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  @Test
+  void missingFileCannotBeRefreshed() {
+    try (ProcFileScanner sut = new ProcFileScanner(tempDirectory.resolve("missing"))) {
+      assertThat(sut.refresh()).isFalse();
+      assertThat(sut.hasRemaining()).isFalse();
+      assertThat(sut.nextLong()).isEqualTo(-1L);
+    }
+  }
+
+  @Test
+  void parsesNumbersPerLine() throws IOException {
+    Path file = tempDirectory.resolve("loadavg");
+    Files.writeString(file, "0.62 1,5 12 1/479\nnext 7\n");
+    try (ProcFileScanner sut = new ProcFileScanner(file)) {
+      assertThat(sut.refresh()).isTrue();
+      assertThat(sut.nextDouble()).isEqualTo(0.62);
+      assertThat(sut.nextDouble()).isEqualTo(1.5);
+      assertThat(sut.nextLong()).isEqualTo(12L);
+      assertThat(sut.nextLong()).isEqualTo(1L);
+      assertThat(sut.nextLong()).isEqualTo(479L);
+      assertThat(sut.hasNextNumber()).isFalse();
+      assertThat(sut.nextLong()).isEqualTo(-1L);
+      sut.nextLine();
+      assertThat(sut.skipToken()).isTrue();
+      assertThat(sut.nextLong()).isEqualTo(7L);
+    }
+  }
+
+  @Test
+  void findsLinesAndValues() throws IOException {
+    Path file = tempDirectory.resolve("cpuinfo");
+    Files.writeString(file, "processor\t: 0\nmodel name\t:  Some CPU @ 2.60GHz \nflags\t:\n");
+    try (ProcFileScanner sut = new ProcFileScanner(file)) {
+      sut.refresh();
+      assertThat(sut.findLine("model name".getBytes(StandardCharsets.US_ASCII)))
+          .isTrue();
+      assertThat(sut.valueAfterColon()).isEqualTo("Some CPU @ 2.60GHz");
+      assertThat(sut.valueAfterColon()).isEmpty();
+      assertThat(sut.findLine("model name".getBytes(StandardCharsets.US_ASCII)))
+          .isFalse();
+    }
+  }
+
+  @Test
+  void rereadsFilesLargerThanTheInitialBuffer() throws IOException {
+    Path file = tempDirectory.resolve("diskstats");
+    StringBuilder contents = new StringBuilder();
+    for (int line = 0; line < 1000; line++) {
+      contents.append("   8       0 sda ").append(line).append('\n');
+    }
+    Files.writeString(file, contents.toString());
+    try (ProcFileScanner sut = new ProcFileScanner(file)) {
+      sut.refresh();
+      long sum = 0;
+      while (sut.hasRemaining()) {
+        sut.skipToken();
+        sut.skipToken();
+        sut.skipToken();
+        sum += sut.nextLong();
+        sut.nextLine();
+      }
+      assertThat(sum).isEqualTo(499500L);
+      Files.writeString(file, "   8       0 sda 3\n");
+      sut.refresh();
+      sut.skipToken();
+      sut.skipToken();
+      sut.skipToken();
+      assertThat(sut.nextLong()).isEqualTo(3L);
+      assertThat(sut.hasRemaining()).isTrue();
+      sut.nextLine();
+      assertThat(sut.hasRemaining()).isFalse();
+    }
+  }
+
+  @Test
+  void matchesKeysWithAndWithoutHint() throws IOException {
+    Path file = tempDirectory.resolve("meminfo");
+    Files.writeString(file, "MemFree:  5 kB\nMemTotal:  9 kB\nMem: 1\nnothing here\nMemTotal");
+    byte[][] keys = {"MemTotal".getBytes(StandardCharsets.US_ASCII), "MemFree".getBytes(StandardCharsets.US_ASCII)};
+    try (ProcFileScanner sut = new ProcFileScanner(file)) {
+      sut.refresh();
+      assertThat(sut.matchKey(keys, 0)).isEqualTo(1);
+      assertThat(sut.nextLong()).isEqualTo(5L);
+      sut.nextLine();
+      assertThat(sut.matchKey(keys, 0)).isEqualTo(0);
+      assertThat(sut.nextLong()).isEqualTo(9L);
+      sut.nextLine();
+      assertThat(sut.matchKey(keys, 1)).isEqualTo(-1);
+      sut.nextLine();
+      assertThat(sut.matchKey(keys, 1)).isEqualTo(-1);
+      sut.nextLine();
+      assertThat(sut.matchKey(keys, 5)).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void skipsPastDelimitersOnTheCurrentLine() throws IOException {
+    Path file = tempDirectory.resolve("io.stat");
+    Files.writeString(file, "8:0 rbytes=10 wbytes=20\n8:16 rbytes=5\n");
+    try (ProcFileScanner sut = new ProcFileScanner(file)) {
+      sut.refresh();
+      sut.skipToken();
+      assertThat(sut.skipPast('=')).isTrue();
+      assertThat(sut.nextLong()).isEqualTo(10L);
+      assertThat(sut.skipPast('=')).isTrue();
+      assertThat(sut.nextLong()).isEqualTo(20L);
+      assertThat(sut.skipPast('=')).isFalse();
+      sut.nextLine();
+      sut.skipToken();
+      assertThat(sut.skipPast('=')).isTrue();
+      assertThat(sut.nextLong()).isEqualTo(5L);
+    }
+  }
+
+  @Test
+  void skipsPastTheLastDelimiterOnTheCurrentLine() throws IOException {
+    Path file = tempDirectory.resolve("stat");
+    Files.writeString(file, "42 (java (x) y) S 1\n7 (none\n");
+    try (ProcFileScanner sut = new ProcFileScanner(file)) {
+      sut.refresh();
+      assertThat(sut.skipPastLast(')')).isTrue();
+      assertThat(sut.skipToken()).isTrue();
+      assertThat(sut.nextLong()).isEqualTo(1L);
+      sut.nextLine();
+      assertThat(sut.skipPastLast(')')).isFalse();
+      assertThat(sut.nextLong()).isEqualTo(7L);
+    }
+  }
+}
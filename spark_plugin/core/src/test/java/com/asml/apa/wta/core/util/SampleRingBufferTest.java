@@ -0,0 +1,121 @@
+package com.asml.apa.wta.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class SampleRingBufferTest {
+
+  @Test
+  void capacityIsRoundedUpToAPowerOfTwo() {
+    assertThat(new SampleRingBuffer<Integer>(5, SampleRingBuffer.OverflowPolicy.DROP_OLDEST).capacity())
+        .isEqualTo(8);
+    assertThat(new SampleRingBuffer<Integer>(8, SampleRingBuffer.OverflowPolicy.DROP_OLDEST).capacity())
+        .isEqualTo(8);
+    assertThatThrownBy(() -> new SampleRingBuffer<Integer>(0, SampleRingBuffer.OverflowPolicy.DROP_OLDEST))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void drainReturnsTheSamplesInOrderAndEmptiesTheBuffer() {
+    SampleRingBuffer<Integer> sut = new SampleRingBuffer<>(4, SampleRingBuffer.OverflowPolicy.DROP_OLDEST);
+    sut.add(1);
+    sut.add(2);
+    sut.add(3);
+    assertThat(sut).containsExactly(1, 2, 3);
+    assertThat(sut.drain()).containsExactly(1, 2, 3);
+    assertThat(sut).isEmpty();
+    sut.add(4);
+    assertThat(sut.drain()).containsExactly(4);
+  }
+
+  @Test
+  void dropOldestKeepsTheNewestSamples() {
+    SampleRingBuffer<Integer> sut = new SampleRingBuffer<>(4, SampleRingBuffer.OverflowPolicy.DROP_OLDEST);
+    for (int sample = 0; sample < 10; sample++) {
+      assertThat(sut.add(sample)).isTrue();
+    }
+    assertThat(sut).hasSize(4);
+    assertThat(sut.getDroppedCount()).isEqualTo(6L);
+    assertThat(sut.drain()).containsExactly(6, 7, 8, 9);
+  }
+
+  @Test
+  void downsampleLowersTheRateWhileTheBufferIsNotDrained() {
+    SampleRingBuffer<Integer> sut = new SampleRingBuffer<>(4, SampleRingBuffer.OverflowPolicy.DOWNSAMPLE);
+    for (int sample = 0; sample < 8; sample++) {
+      sut.add(sample);
+    }
+    assertThat(sut).containsExactly(3, 4, 5, 6);
+    for (int sample = 8; sample < 16; sample++) {
+      sut.add(sample);
+    }
+    assertThat(sut.drain()).containsExactly(5, 6, 8, 12);
+    assertThat(sut.getDroppedCount()).isEqualTo(12L);
+
+    for (int sample = 16; sample < 20; sample++) {
+      sut.add(sample);
+    }
+    assertThat(sut.drain()).containsExactly(16, 17, 18, 19);
+  }
+
+  @Test
+  void concurrentProducersAndConsumerNeitherLoseNorDuplicateSamples() throws Exception {
+    int producers = 4;
+    int samplesPerProducer = 100_000;
+    SampleRingBuffer<Long> sut = new SampleRingBuffer<>(256, SampleRingBuffer.OverflowPolicy.DROP_OLDEST);
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean producing = new AtomicBoolean(true);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int producer = 0; producer < producers; producer++) {
+      long offset = (long) producer * samplesPerProducer;
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (long sample = offset; sample < offset + samplesPerProducer; sample++) {
+          sut.add(sample);
+        }
+        return null;
+      }));
+    }
+
+    List<Long> consumed = new ArrayList<>();
+    Thread consumer = new Thread(() -> {
+      while (producing.get()) {
+        consumed.addAll(sut.drain());
+      }
+    });
+    consumer.start();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    producing.set(false);
+    consumer.join();
+    executor.shutdown();
+    consumed.addAll(sut.drain());
+
+    Set<Long> unique = new HashSet<>(consumed);
+    assertThat(unique).hasSameSizeAs(consumed);
+    assertThat(consumed.size() + sut.getDroppedCount()).isEqualTo((long) producers * samplesPerProducer);
+    long[] last = new long[producers];
+    Arrays.fill(last, -1L);
+    for (long sample : consumed) {
+      int producer = (int) (sample / samplesPerProducer);
+      assertThat(sample).isGreaterThan(last[producer]);
+      last[producer] = sample;
+    }
+  }
+}
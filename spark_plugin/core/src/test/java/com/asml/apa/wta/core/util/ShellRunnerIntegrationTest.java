@@ -1,5 +1,6 @@
 package com.asml.apa.wta.core.util;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
@@ -25,4 +26,27 @@ class ShellRunnerIntegrationTest {
     CompletableFuture<String> actual = shellRunner.executeCommand("echooo helloooo", false);
     assertNull(actual.join());
   }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void commandThatExceedsItsTimeoutIsKilled() {
+    ShellRunner shellRunner = new ShellRunner();
+    long start = System.nanoTime();
+    CompletableFuture<String> actual = shellRunner.executeCommand("sleep 30", true, 200L);
+    assertNull(actual.join());
+    assertThat(System.nanoTime() - start).isLessThan(10_000_000_000L);
+    assertThat(shellRunner.getTimeoutCount()).isEqualTo(1L);
+    assertThat(shellRunner.getForkCount()).isEqualTo(1L);
+    assertThat(shellRunner.getAverageForkLatency()).isPositive();
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void largeOutputOnBothStreamsDoesNotBlock() {
+    ShellRunner shellRunner = new ShellRunner();
+    CompletableFuture<String> actual = shellRunner.executeCommand("seq 1 100000 >&2; seq 1 100000", false, 5000L);
+    String output = actual.join();
+    assertThat(output).startsWith("1\n2\n").endsWith("100000\n");
+    assertThat(shellRunner.getTimeoutCount()).isZero();
+  }
 }
@@ -0,0 +1,44 @@
+package com.asml.apa.wta.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+class StreamingShellCommandIntegrationTest {
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void streamsLinesWhileTheCommandRuns() throws InterruptedException {
+    List<String> lines = new CopyOnWriteArrayList<>();
+    try (StreamingShellCommand sut = new ShellRunner().streamCommand("printf 'a\\nb\\n'; sleep 30", lines::add)) {
+      assertThat(sut.ensureRunning()).isTrue();
+      for (int attempt = 0; attempt < 100 && lines.size() < 2; attempt++) {
+        Thread.sleep(50);
+      }
+      assertThat(lines).containsExactly("a", "b");
+      assertThat(sut.ensureRunning()).isTrue();
+      sut.close();
+      assertThat(sut.ensureRunning()).isFalse();
+    }
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void givesUpOnCommandsThatKeepExiting() throws InterruptedException {
+    List<String> lines = new CopyOnWriteArrayList<>();
+    try (StreamingShellCommand sut = new StreamingShellCommand("echo once", lines::add)) {
+      int starts = 0;
+      for (int attempt = 0; attempt < 200 && sut.ensureRunning(); attempt++) {
+        starts++;
+        Thread.sleep(50);
+      }
+      assertThat(sut.ensureRunning()).isFalse();
+      assertThat(starts).isGreaterThanOrEqualTo(4);
+      assertThat(lines).contains("once");
+    }
+  }
+}